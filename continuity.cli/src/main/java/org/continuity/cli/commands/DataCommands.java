@@ -205,7 +205,8 @@ public class DataCommands extends AbstractCommands {
 	}
 
 	@ShellMethod(key = { "data unify" }, value = "Creates a unified CSV from access logs holding the required information for session logs creation based on an application model.")
-	public AttributedString createUnifiedCsv(String pathToAccessLogs, @ShellOption(value = "app-id", defaultValue = Shorthand.DEFAULT_VALUE) String appId) throws Exception {
+	public AttributedString createUnifiedCsv(String pathToAccessLogs, @ShellOption(value = "app-id", defaultValue = Shorthand.DEFAULT_VALUE) String appId,
+			@ShellOption(value = { "--threads" }, defaultValue = "1", help = "The number of threads used for parsing the access logs.") int numThreads) throws Exception {
 		return executeWithAppId(appId, aid -> {
 			Application application = idpaStorage.readApplication(aid);
 
@@ -214,7 +215,7 @@ public class DataCommands extends AbstractCommands {
 			Path outputPath = accessLogsPath.getParent().resolve(accessLogsPath.getFileName() + "-unified.csv");
 
 			UnifiedCsvFromAccessLogsExtractor extractor = new UnifiedCsvFromAccessLogsExtractor(application, accessLogsPath, outputPath);
-			extractor.consume();
+			extractor.consume(numThreads);
 
 			String ignored = extractor.getIgnoredRequests().stream().collect(Collectors.joining("\n"));
 
@@ -2,6 +2,7 @@ package org.continuity.cli.commands;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URL;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -29,7 +30,7 @@ import org.continuity.commons.idpa.AnnotationExtractor;
 import org.continuity.commons.idpa.AnnotationFromAccessLogsExtractor;
 import org.continuity.commons.idpa.AnnotationValidityChecker;
 import org.continuity.commons.idpa.ApplicationUpdater;
-import org.continuity.commons.idpa.OpenApiToIdpaTransformer;
+import org.continuity.commons.idpa.StreamingOpenApiToIdpaTransformer;
 import org.continuity.commons.utils.FileUtils;
 import org.continuity.commons.utils.WebUtils;
 import org.continuity.idpa.AppId;
@@ -49,8 +50,6 @@ import com.fasterxml.jackson.core.JsonGenerationException;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import io.swagger.models.Swagger;
-import io.swagger.parser.SwaggerParser;
 
 /**
  * CLI for annotation handling.
@@ -110,10 +109,6 @@ public class IdpaCommands extends AbstractCommands {
 
 	private IdpaStorage storage;
 
-	private final OpenApiToIdpaTransformer openApiTransfomer = new OpenApiToIdpaTransformer();
-
-	private final SwaggerParser swaggerParser = new SwaggerParser();
-
 	private final ApplicationUpdater applicationUpdater = new ApplicationUpdater();
 
 	@Autowired
@@ -222,11 +217,11 @@ public class IdpaCommands extends AbstractCommands {
 	public AttributedString createIdpaApplication(String openApiLocation, @ShellOption(value = "app-id", defaultValue = Shorthand.DEFAULT_VALUE) String appId)
 			throws Exception {
 		return executeWithAppId(appId, (aid) -> {
-			Swagger swagger = readSwagger(openApiLocation);
-			Application application = openApiTransfomer.transform(swagger);
+			StreamingOpenApiToIdpaTransformer transformer = openApiTransformer(openApiLocation);
+			Application application = transformer.createApplication();
 			application.setId(aid.toString());
 
-			storage.store(application, aid);
+			storage.store(application, transformer, aid);
 			storage.openApplication(aid);
 
 			return new ResponseBuilder().normal("Created and opened the application model with app-id ").bold(aid).normal(" from the OpenAPI at ").normal(openApiLocation).build();
@@ -279,9 +274,7 @@ public class IdpaCommands extends AbstractCommands {
 
 	private ApplicationChangeReport updateApplicationModel(Application origApplication, String openApiLocation, AppId aid, EnumSet<ApplicationChangeType> changeTypes)
 			throws JsonGenerationException, JsonMappingException, IOException {
-		Swagger swagger = readSwagger(openApiLocation);
-
-		Application newApplication = openApiTransfomer.transform(swagger);
+		Application newApplication = openApiTransformer(openApiLocation).transform();
 
 		ApplicationChangeReport report = applicationUpdater.updateApplication(origApplication, newApplication, changeTypes);
 
@@ -462,7 +455,9 @@ public class IdpaCommands extends AbstractCommands {
 
 	@ShellMethod(key = { "idpa ann extract" }, value = "Extracts an annotation for the stored application model with the specified app-id from Apache request logs.")
 	public AttributedString extractAnnotation(String logsFile, @ShellOption(value = "app-id", defaultValue = Shorthand.DEFAULT_VALUE) String appId,
-			@ShellOption(defaultValue = AccessLogEntry.DEFAULT_REGEX, help = "The regular expression used to extract the request method and path including the query. There should be one capture group per property in the mentioned order.") String regex)
+			@ShellOption(defaultValue = AccessLogEntry.DEFAULT_REGEX, help = "The regular expression used to extract the request method and path including the query. There should be one capture group per property in the mentioned order.") String regex,
+			@ShellOption(value = { "--max-values" }, defaultValue = "0", help = "The maximum number of values to be kept per parameter. If there are more requests, a uniform sample is kept. 0 means all values are kept.") int maxValues,
+			@ShellOption(value = { "--threads" }, defaultValue = "1", help = "The number of threads used for parsing the access logs.") int numThreads)
 			throws Exception {
 		return executeWithAppId(appId, (aid) -> {
 			Application application = storage.readApplication(aid);
@@ -475,9 +470,9 @@ public class IdpaCommands extends AbstractCommands {
 				pathToLogs = workingDir.resolve(pathToLogs);
 			}
 
-			AnnotationFromAccessLogsExtractor extractor = new AnnotationFromAccessLogsExtractor(application, pathToLogs, workingDir);
+			AnnotationFromAccessLogsExtractor extractor = new AnnotationFromAccessLogsExtractor(application, pathToLogs, workingDir, maxValues);
 			extractor.setRegex(regex);
-			extractor.extract();
+			extractor.extract(numThreads);
 
 			annotation = extractor.getExtractedAnnotation();
 			Application filteredApplication = extractor.getFilteredApplication();
@@ -508,14 +503,18 @@ public class IdpaCommands extends AbstractCommands {
 		});
 	}
 
-	private Swagger readSwagger(String openApiLocation) {
-		Swagger swagger = swaggerParser.read(openApiLocation);
+	private StreamingOpenApiToIdpaTransformer openApiTransformer(String openApiLocation) throws IOException {
+		if (openApiLocation.startsWith("http")) {
+			return new StreamingOpenApiToIdpaTransformer(new URL(openApiLocation));
+		}
+
+		Path path = Paths.get(openApiLocation);
 
-		if (swagger == null) {
+		if (!path.toFile().exists()) {
 			throw new IllegalArgumentException("The OpenAPI at location " + openApiLocation + " could not be found!");
 		}
 
-		return swagger;
+		return new StreamingOpenApiToIdpaTransformer(path);
 	}
 
 	private EnumSet<ApplicationChangeType> changeTypesFromBooleans(boolean add, boolean remove, boolean change, boolean endpoints, boolean parameters) {
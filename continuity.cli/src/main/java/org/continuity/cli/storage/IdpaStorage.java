@@ -9,10 +9,12 @@ import java.util.stream.Stream;
 import org.apache.commons.lang3.tuple.Triple;
 import org.continuity.cli.config.PropertiesProvider;
 import org.continuity.cli.exception.CliException;
+import org.continuity.commons.idpa.StreamingOpenApiToIdpaTransformer;
 import org.continuity.commons.utils.FileUtils;
 import org.continuity.idpa.AppId;
 import org.continuity.idpa.annotation.ApplicationAnnotation;
 import org.continuity.idpa.application.Application;
+import org.continuity.idpa.serialization.yaml.ApplicationYamlStreamWriter;
 import org.continuity.idpa.serialization.yaml.IdpaYamlSerializer;
 
 public class IdpaStorage {
@@ -33,6 +35,29 @@ public class IdpaStorage {
 		return path;
 	}
 
+	/**
+	 * Stores the application model created from an Open API specification. The endpoints are
+	 * written one by one while reading the specification.
+	 *
+	 * @param application
+	 *            The application model holding the id and the version or timestamp.
+	 * @param transformer
+	 *            The transformer creating the endpoints.
+	 * @param aid
+	 *            The app-id.
+	 * @return The path to the stored application model.
+	 * @throws IOException
+	 */
+	public Path store(Application application, StreamingOpenApiToIdpaTransformer transformer, AppId aid) throws IOException {
+		Path path = getApplicationPath(aid, true);
+
+		try (ApplicationYamlStreamWriter writer = new ApplicationYamlStreamWriter(application, path)) {
+			transformer.transformEndpoints(writer::write);
+		}
+
+		return path;
+	}
+
 	public Path store(ApplicationAnnotation annotation, AppId aid) throws IOException {
 		Path path = getAnnotationPath(aid, true);
 		annSerializer.writeToYaml(annotation, path);
@@ -10,6 +10,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,8 +25,13 @@ import org.spec.research.open.xtrace.dflt.impl.core.callables.HTTPRequestProcess
 import org.spec.research.open.xtrace.dflt.impl.core.callables.RemoteInvocationImpl;
 import org.spec.research.open.xtrace.dflt.impl.serialization.realizations.JsonOPENxtraceDeserializer;
 import org.spec.research.open.xtrace.dflt.impl.serialization.realizations.JsonOPENxtraceSerializer;
+import org.springframework.http.HttpMethod;
 import org.springframework.web.client.RestTemplate;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 public class OPENxtraceUtils {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(OPENxtraceUtils.class);
@@ -40,6 +46,8 @@ public class OPENxtraceUtils {
 
 	private static JsonOPENxtraceDeserializer deserializer;
 
+	private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
 	private static JsonOPENxtraceSerializer initAndGetSerializer() {
 		if (serializer == null) {
 			synchronized (OPENxtraceUtils.class) {
@@ -172,6 +180,45 @@ public class OPENxtraceUtils {
 		return (traces);
 	}
 
+	/**
+	 * Fetches traces from server and passes them to the consumer one by one while the response is
+	 * still being read. In contrast to {@link #getOPENxtraces(String, RestTemplate)}, neither the
+	 * whole response nor all traces are held in memory.
+	 *
+	 * @param url
+	 *            The URL to retrieve the list of traces from.
+	 * @param restTemplate
+	 *            The rest template to be used.
+	 * @param consumer
+	 *            The consumer of the traces. Traces that cannot be deserialized are skipped.
+	 * @return The number of retrieved traces.
+	 */
+	public static long forEachOPENxtrace(String url, RestTemplate restTemplate, Consumer<Trace> consumer) {
+		Long numTraces = restTemplate.execute(url, HttpMethod.GET, null, response -> {
+			long count = 0;
+
+			try (JsonParser parser = JSON_MAPPER.getFactory().createParser(response.getBody())) {
+				if (parser.nextToken() != JsonToken.START_ARRAY) {
+					LOGGER.error("The response of {} is not a list of traces!", url);
+					return count;
+				}
+
+				while (parser.nextToken() == JsonToken.START_OBJECT) {
+					Trace trace = deserializeToTrace(JSON_MAPPER.readTree(parser).toString());
+
+					if (trace != null) {
+						consumer.accept(trace);
+						count++;
+					}
+				}
+			}
+
+			return count;
+		});
+
+		return numTraces == null ? 0 : numTraces;
+	}
+
 	/**
 	 * Extracts the session id from cookies
 	 *
@@ -3,10 +3,10 @@ package org.continuity.api.amqp;
 import java.nio.charset.Charset;
 
 import org.continuity.api.amqp.RoutingKeyFormatter.AppId;
-import org.continuity.api.amqp.RoutingKeyFormatter.AppIdAndVersion;
 import org.continuity.api.amqp.RoutingKeyFormatter.RecipeId;
 import org.continuity.api.amqp.RoutingKeyFormatter.ServiceName;
 import org.continuity.api.amqp.RoutingKeyFormatter.ServiceNameAndTarget;
+import org.continuity.api.amqp.RoutingKeyFormatter.ShardAndAppIdAndVersion;
 import org.springframework.amqp.core.MessagePostProcessor;
 
 /**
@@ -47,6 +47,27 @@ public class AmqpApi {
 
 	}
 
+	/**
+	 * AMQP API of the IDPA service.
+	 *
+	 * @author Henning Schulz
+	 *
+	 */
+	public static class Idpa {
+
+		private static final String SCOPE = "idpa";
+
+		/**
+		 * Sent whenever an application model or annotation of an app-id has been stored. The
+		 * message holds the timestamp of the change in milliseconds.
+		 */
+		public static final ExchangeDefinition<AppId> EVENT_CHANGED = ExchangeDefinition.event(SCOPE, "changed").nonDurable().autoDelete().withRoutingKey(AppId.INSTANCE);
+
+		private Idpa() {
+		}
+
+	}
+
 	/**
 	 * AMQP API of the orchestrator service.
 	 *
@@ -76,8 +97,20 @@ public class AmqpApi {
 
 		private static final String SCOPE = "cobra";
 
-		public static final ExchangeDefinition<AppIdAndVersion> TASK_PROCESS_TRACES = ExchangeDefinition.task(SCOPE, "process_traces").nonDurable().autoDelete()
-				.withRoutingKey(AppIdAndVersion.INSTANCE);
+		/**
+		 * Holds uploaded measurement data. The routing key starts with the shard of the app-id, so
+		 * that the uploads of one app-id are processed in order while different app-ids are
+		 * processed in parallel.
+		 */
+		public static final ExchangeDefinition<ShardAndAppIdAndVersion> TASK_PROCESS_TRACES = ExchangeDefinition.task(SCOPE, "process_traces_sharded").nonDurable().autoDelete()
+				.withRoutingKey(ShardAndAppIdAndVersion.INSTANCE);
+
+		/**
+		 * Sent whenever new data of an app-id has been stored, e.g., new traces, sessions, or a new
+		 * behavior model. The message holds the timestamp of the update in milliseconds (the
+		 * data watermark).
+		 */
+		public static final ExchangeDefinition<AppId> EVENT_DATA_UPDATED = ExchangeDefinition.event(SCOPE, "dataupdated").nonDurable().autoDelete().withRoutingKey(AppId.INSTANCE);
 
 		public static final String HEADER_DATATYPE = "continuity.datatype";
 
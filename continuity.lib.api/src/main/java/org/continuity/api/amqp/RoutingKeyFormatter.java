@@ -115,6 +115,59 @@ public interface RoutingKeyFormatter {
 
 	}
 
+	/**
+	 * Use a shard, an app-id, and a version as routing key. Allows binding one queue per shard,
+	 * e.g., with {@code 3.#}.
+	 *
+	 * @author Henning Schulz
+	 *
+	 */
+	public static class ShardAndAppIdAndVersion implements RoutingKeyFormatter {
+
+		public static ShardAndAppIdAndVersion INSTANCE = new ShardAndAppIdAndVersion();
+
+		private ShardAndAppIdAndVersion() {
+		}
+
+		/**
+		 * Use a shard, an app-id, and a version as routing key.
+		 *
+		 * @param shard
+		 *            The shard.
+		 * @param appId
+		 *            The app-id.
+		 * @param version
+		 *            The version.
+		 * @return The formatted routing key.
+		 */
+		public String of(int shard, org.continuity.idpa.AppId appId, VersionOrTimestamp version) {
+			return shard + "." + AppIdAndVersion.INSTANCE.of(appId, version);
+		}
+
+		/**
+		 * Creates the binding key matching all routing keys of a shard.
+		 *
+		 * @param shard
+		 *            The shard.
+		 * @return The binding key.
+		 */
+		public String bindingOf(int shard) {
+			return shard + ".#";
+		}
+
+		/**
+		 * Transforms a routingKey formatted with this formatter back to an app-id and a version.
+		 *
+		 * @param routingKey
+		 *            The routing key.
+		 * @return A pair of the app-id and the version.
+		 */
+		public Pair<org.continuity.idpa.AppId, VersionOrTimestamp> from(String routingKey) {
+			return AppIdAndVersion.INSTANCE.from(routingKey.substring(routingKey.indexOf(".") + 1));
+		}
+
+	}
+
 	/**
 	 * Use the service name as routing key, e.g., {@code frontend}.
 	 *
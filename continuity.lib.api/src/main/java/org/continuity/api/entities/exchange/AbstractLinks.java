@@ -1,5 +1,10 @@
 package org.continuity.api.entities.exchange;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
@@ -25,6 +30,34 @@ public abstract class AbstractLinks<T extends AbstractLinks<T>> {
 	@JsonIgnore
 	public abstract String getLink(String name);
 
+	/**
+	 * Gets all links that are set, i.e., the values of all string fields.
+	 *
+	 * @return The links. Empty if no link is set.
+	 */
+	@JsonIgnore
+	public List<String> getAllLinks() {
+		List<String> links = new ArrayList<>();
+
+		for (Field field : getClass().getDeclaredFields()) {
+			if ((field.getType() == String.class) && !Modifier.isStatic(field.getModifiers())) {
+				field.setAccessible(true);
+
+				try {
+					Object link = field.get(this);
+
+					if (link != null) {
+						links.add((String) link);
+					}
+				} catch (IllegalArgumentException | IllegalAccessException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		return links;
+	}
+
 	public abstract void merge(T other) throws IllegalArgumentException, IllegalAccessException;
 
 	public static class ValueFilter {
@@ -22,7 +22,9 @@ public enum AnnotationViolationType {
 
 	ILLEGAL_ENDPOINT_REFERENCE("The reference to the endpoint is not valid.", true), ILLEGAL_PARAMETER_REFERENCE("The reference to the parameter is not valid.", true),
 
-	ILLEGAL_INTERNAL_REFERENCE("The internal reference is not valid.", true);
+	ILLEGAL_INTERNAL_REFERENCE("The internal reference is not valid.", true),
+
+	ILLEGAL_OVERRIDE("The override has no key or an invalid value.", true), IGNORED_OVERRIDE("The override does not apply to the annotated element and will be ignored.", false);
 
 	private final String prettyName;
 
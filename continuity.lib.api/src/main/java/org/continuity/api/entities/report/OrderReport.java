@@ -1,5 +1,7 @@
 package org.continuity.api.entities.report;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.continuity.api.entities.exchange.ArtifactExchangeModel;
@@ -9,7 +11,7 @@ import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
-@JsonPropertyOrder({ "order-id", "number", "max", "testing-context", "successful", "error", "created-artifacts", "internal-artifacts" })
+@JsonPropertyOrder({ "order-id", "number", "max", "testing-context", "successful", "error", "created-artifacts", "internal-artifacts", "cached-artifacts", "step-durations" })
 public class OrderReport {
 
 	@JsonProperty("order-id")
@@ -31,6 +33,14 @@ public class OrderReport {
 	@JsonInclude(Include.NON_NULL)
 	private String error;
 
+	@JsonProperty("cached-artifacts")
+	@JsonInclude(Include.NON_EMPTY)
+	private List<String> cachedArtifacts;
+
+	@JsonProperty("step-durations")
+	@JsonInclude(Include.NON_EMPTY)
+	private Map<String, Long> stepDurations;
+
 	public OrderReport() {
 	}
 
@@ -90,6 +100,32 @@ public class OrderReport {
 		this.error = error;
 	}
 
+	/**
+	 * Returns the artifacts that have been served from the cache instead of being created anew.
+	 *
+	 * @return The names of the cached artifacts, e.g., {@code sessions}.
+	 */
+	public List<String> getCachedArtifacts() {
+		return cachedArtifacts;
+	}
+
+	public void setCachedArtifacts(List<String> cachedArtifacts) {
+		this.cachedArtifacts = cachedArtifacts;
+	}
+
+	/**
+	 * Returns the time it took to execute each step of the recipe.
+	 *
+	 * @return The durations in milliseconds per created artifact, e.g., {@code sessions}.
+	 */
+	public Map<String, Long> getStepDurations() {
+		return stepDurations;
+	}
+
+	public void setStepDurations(Map<String, Long> stepDurations) {
+		this.stepDurations = stepDurations;
+	}
+
 	/**
 	 * Returns the report number within the order (e.g., 1 of 5)
 	 *
@@ -8,7 +8,7 @@ import com.fasterxml.jackson.annotation.JsonPropertyOrder;
  * @author Henning Schulz
  *
  */
-@JsonPropertyOrder({ "wait-link", "result-link", "num-reports" })
+@JsonPropertyOrder({ "wait-link", "result-link", "events-link", "num-reports" })
 public class OrderResponse {
 
 	@JsonProperty("wait-link")
@@ -17,6 +17,9 @@ public class OrderResponse {
 	@JsonProperty("result-link")
 	private String resultLink;
 
+	@JsonProperty("events-link")
+	private String eventsLink;
+
 	@JsonProperty("num-reports")
 	private int numReports;
 
@@ -36,6 +39,19 @@ public class OrderResponse {
 		this.resultLink = resultLink;
 	}
 
+	/**
+	 * Returns the link to a stream of server-sent events reporting the progress of the order.
+	 *
+	 * @return The link.
+	 */
+	public String getEventsLink() {
+		return eventsLink;
+	}
+
+	public void setEventsLink(String eventsLink) {
+		this.eventsLink = eventsLink;
+	}
+
 	public int getNumReports() {
 		return numReports;
 	}
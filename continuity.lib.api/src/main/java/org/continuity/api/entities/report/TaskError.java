@@ -2,7 +2,7 @@ package org.continuity.api.entities.report;
 
 public enum TaskError {
 
-	MISSING_SOURCE("Required source information is missing."), ILLEGAL_TYPE("The source type is not supported."), INTERNAL_ERROR("An internal error occured.");
+	MISSING_SOURCE("Required source information is missing."), ILLEGAL_TYPE("The source type is not supported."), INTERNAL_ERROR("An internal error occured."), SERVICE_UNAVAILABLE("The required service is not available.");
 
 	private final String message;
 
@@ -51,6 +51,9 @@ public class RestApi {
 			/** {@value #ROOT}/{id}/wait */
 			public static final RestEndpoint WAIT = RestEndpoint.of(SERVICE_NAME, ROOT, Paths.WAIT, RequestMethod.GET);
 
+			/** {@value #ROOT}/{id}/events */
+			public static final RestEndpoint EVENTS = RestEndpoint.of(SERVICE_NAME, ROOT, Paths.EVENTS, RequestMethod.GET);
+
 			/** {@value #ROOT}/submit */
 			public static final RestEndpoint SUBMIT = RestEndpoint.of(SERVICE_NAME, ROOT, Paths.SUBMIT, RequestMethod.GET);
 
@@ -63,6 +66,8 @@ public class RestApi {
 
 				public static final String WAIT = "/{id}/wait";
 
+				public static final String EVENTS = "/{id}/events";
+
 				public static final String SUBMIT = "/submit";
 
 				private Paths() {
@@ -725,6 +730,15 @@ public class RestApi {
 			/** {@value #ROOT}/{app-id:.+}/{tailoring:.+}/update_legacy */
 			public static final RestEndpoint UPDATE_LEGACY = RestEndpoint.of(SERVICE_NAME, ROOT, Paths.UPDATE_LEGACY, RequestMethod.POST);
 
+			/** {@value #ROOT}/{app-id:.+}/{tailoring:.+} */
+			public static final RestEndpoint GET_RANGE = RestEndpoint.of(SERVICE_NAME, ROOT, Paths.GET_RANGE, RequestMethod.GET);
+
+			/** {@value #ROOT}/{app-id:.+}/{tailoring:.+}/rebuild_rollups */
+			public static final RestEndpoint REBUILD_ROLLUPS = RestEndpoint.of(SERVICE_NAME, ROOT, Paths.REBUILD_ROLLUPS, RequestMethod.POST);
+
+			/** {@value #ROOT}/{app-id:.+}/{tailoring:.+}/remove_empty */
+			public static final RestEndpoint REMOVE_EMPTY = RestEndpoint.of(SERVICE_NAME, ROOT, Paths.REMOVE_EMPTY, RequestMethod.POST);
+
 			private Intensity() {
 			}
 
@@ -736,6 +750,12 @@ public class RestApi {
 
 				public static final String UPDATE_LEGACY = "/{app-id:.+}/{tailoring:.+}/update_legacy";
 
+				public static final String GET_RANGE = "/{app-id:.+}/{tailoring:.+}";
+
+				public static final String REBUILD_ROLLUPS = "/{app-id:.+}/{tailoring:.+}/rebuild_rollups";
+
+				public static final String REMOVE_EMPTY = "/{app-id:.+}/{tailoring:.+}/remove_empty";
+
 				private Paths() {
 				}
 
@@ -790,6 +810,27 @@ public class RestApi {
 
 		}
 
+		public static class Watermarks {
+
+			public static final String ROOT = "/watermarks";
+
+			/** {@value #ROOT}/{app-id:.+}/{tailoring:.+}/check */
+			public static final RestEndpoint CHECK = RestEndpoint.of(SERVICE_NAME, ROOT, Paths.CHECK, RequestMethod.POST);
+
+			private Watermarks() {
+			}
+
+			public static class Paths {
+
+				public static final String CHECK = "/{app-id:.+}/{tailoring:.+}/check";
+
+				private Paths() {
+				}
+
+			}
+
+		}
+
 	}
 
 	public static class Forecastic {
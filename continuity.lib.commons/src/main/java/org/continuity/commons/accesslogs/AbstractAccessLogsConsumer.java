@@ -2,10 +2,23 @@ package org.continuity.commons.accesslogs;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
@@ -14,11 +27,27 @@ import org.continuity.idpa.application.Application;
 import org.continuity.idpa.application.HttpEndpoint;
 
 /**
+ * Consumes access logs line by line. Each line that can be mapped to an endpoint is first
+ * prepared by {@link #prepare(AccessLogEntry, HttpEndpoint)} and then processed by
+ * {@link #process(Object)}. <br>
+ * The logs can also be consumed in parallel (see {@link #consume(int)}). Then, the file is
+ * memory-mapped and split into segments at line boundaries. Parsing, mapping, and preparing the
+ * lines is done by a pool of worker threads, while the prepared lines are processed sequentially
+ * and in the order of the file. Hence, the result is the same as when consuming sequentially.
+ *
+ * @param <T>
+ *            The type of the prepared log entries.
  *
  * @author Henning Schulz
  *
  */
-public abstract class AbstractAccessLogsConsumer {
+public abstract class AbstractAccessLogsConsumer<T> {
+
+	private static final int MIN_SEGMENT_SIZE = 1024 * 1024;
+
+	private static final int MAX_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+	private static final int BOUNDARY_SCAN_SIZE = 8192;
 
 	private final RequestUriMapper mapper;
 
@@ -30,6 +59,8 @@ public abstract class AbstractAccessLogsConsumer {
 
 	private Predicate<AccessLogEntry> filter;
 
+	private long minSegmentSize = MIN_SEGMENT_SIZE;
+
 	public AbstractAccessLogsConsumer(Application application, Path pathToAccessLogs) {
 		this.mapper = new RequestUriMapper(application);
 		this.pathToAccessLogs = pathToAccessLogs;
@@ -48,7 +79,8 @@ public abstract class AbstractAccessLogsConsumer {
 	}
 
 	/**
-	 * Sets a filter that will be applied on the logs.
+	 * Sets a filter that will be applied on the logs. When consuming in parallel, the filter is
+	 * called concurrently.
 	 *
 	 * @param filter
 	 */
@@ -56,6 +88,21 @@ public abstract class AbstractAccessLogsConsumer {
 		this.filter = filter;
 	}
 
+	/**
+	 * Sets the minimum size of the segments when consuming in parallel. Defaults to 1 MB. Smaller
+	 * segments are only reasonable for testing.
+	 *
+	 * @param minSegmentSize
+	 *            The minimum number of bytes per segment.
+	 */
+	public void setMinSegmentSize(long minSegmentSize) {
+		if (minSegmentSize < 1) {
+			throw new IllegalArgumentException("The segment size must be positive, but was " + minSegmentSize + "!");
+		}
+
+		this.minSegmentSize = minSegmentSize;
+	}
+
 	public void consume() throws IOException {
 		init();
 
@@ -71,6 +118,59 @@ public abstract class AbstractAccessLogsConsumer {
 		finalize();
 	}
 
+	/**
+	 * Consumes the logs using several threads. The result is the same as when using
+	 * {@link #consume()}.
+	 *
+	 * @param numThreads
+	 *            The number of threads to be used. If 1 or less, the logs are consumed
+	 *            sequentially.
+	 * @throws IOException
+	 */
+	public void consume(int numThreads) throws IOException {
+		if (numThreads <= 1) {
+			consume();
+			return;
+		}
+
+		if (pattern == null) {
+			setRegex(AccessLogEntry.DEFAULT_REGEX);
+		}
+
+		init();
+
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+
+		try (FileChannel channel = FileChannel.open(pathToAccessLogs, StandardOpenOption.READ)) {
+			long size = channel.size();
+			long segmentSize = Math.max(minSegmentSize, Math.min(MAX_SEGMENT_SIZE, size / (4L * numThreads)));
+			Deque<Future<Segment<T>>> pending = new ArrayDeque<>();
+
+			long start = 0;
+
+			while (start < size) {
+				long end = nextSegmentEnd(channel, start + segmentSize, size);
+				ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+
+				if (pending.size() >= numThreads) {
+					processSegment(await(pending.poll()));
+				}
+
+				pending.add(executor.submit(() -> prepareSegment(buffer)));
+
+				start = end;
+			}
+
+			while (!pending.isEmpty()) {
+				processSegment(await(pending.poll()));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		finalize();
+	}
+
 	private void processLine(String line) throws IOException {
 		if (pattern == null) {
 			setRegex(AccessLogEntry.DEFAULT_REGEX);
@@ -84,14 +184,140 @@ public abstract class AbstractAccessLogsConsumer {
 			if (endpoint == null) {
 				ignoredRequests.add(logEntry.getRequestMethod() + " " + logEntry.getPathAndQuery());
 			} else {
-				process(logEntry, endpoint);
+				process(prepare(logEntry, endpoint));
+			}
+		}
+	}
+
+	/**
+	 * Returns the end of the segment, which is the position after the first line break at or
+	 * after {@code minEnd}.
+	 */
+	private long nextSegmentEnd(FileChannel channel, long minEnd, long size) throws IOException {
+		if (minEnd >= size) {
+			return size;
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+		long position = minEnd - 1;
+
+		while (position < size) {
+			buffer.clear();
+			int read = channel.read(buffer, position);
+
+			if (read <= 0) {
+				break;
+			}
+
+			for (int i = 0; i < read; i++) {
+				if (buffer.get(i) == '\n') {
+					return position + i + 1;
+				}
+			}
+
+			position += read;
+		}
+
+		return size;
+	}
+
+	/**
+	 * Parses, maps, and prepares all lines of a segment. Is executed by the worker threads and
+	 * must not change the state of this consumer.
+	 */
+	private Segment<T> prepareSegment(ByteBuffer buffer) throws IOException {
+		CharBuffer chars = StandardCharsets.UTF_8.newDecoder().decode(buffer);
+		Segment<T> segment = new Segment<>();
+
+		int lineStart = 0;
+		int i = 0;
+
+		// line breaks as recognized by BufferedReader#readLine
+		while (i < chars.length()) {
+			char c = chars.get(i);
+
+			if ((c == '\n') || (c == '\r')) {
+				prepareLine(chars.subSequence(lineStart, i).toString(), segment);
+
+				if ((c == '\r') && ((i + 1) < chars.length()) && (chars.get(i + 1) == '\n')) {
+					i++;
+				}
+
+				lineStart = i + 1;
+			}
+
+			i++;
+		}
+
+		if (lineStart < chars.length()) {
+			prepareLine(chars.subSequence(lineStart, chars.length()).toString(), segment);
+		}
+
+		return segment;
+	}
+
+	private void prepareLine(String line, Segment<T> segment) throws IOException {
+		AccessLogEntry logEntry = AccessLogEntry.fromLogLine(line, pattern);
+
+		if ((logEntry != null) && ((filter == null) || filter.test(logEntry))) {
+			HttpEndpoint endpoint = mapper.map(logEntry.getPath(), logEntry.getRequestMethod());
+
+			if (endpoint == null) {
+				segment.ignoredRequests.add(logEntry.getRequestMethod() + " " + logEntry.getPathAndQuery());
+			} else {
+				segment.entries.add(prepare(logEntry, endpoint));
+			}
+		}
+	}
+
+	private void processSegment(Segment<T> segment) throws IOException {
+		ignoredRequests.addAll(segment.ignoredRequests);
+
+		for (T entry : segment.entries) {
+			process(entry);
+		}
+	}
+
+	private Segment<T> await(Future<Segment<T>> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while consuming the access logs", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			} else if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			} else {
+				throw new IOException("Could not consume the access logs", e.getCause());
 			}
 		}
 	}
 
 	protected abstract void init() throws IOException;
 
-	protected abstract void process(AccessLogEntry logEntry, HttpEndpoint endpoint) throws IOException;
+	/**
+	 * Prepares a log entry for being processed. When consuming in parallel, this method is called
+	 * concurrently and must not change the state of this consumer.
+	 *
+	 * @param logEntry
+	 *            The log entry.
+	 * @param endpoint
+	 *            The endpoint the log entry belongs to.
+	 * @return The prepared log entry.
+	 * @throws IOException
+	 */
+	protected abstract T prepare(AccessLogEntry logEntry, HttpEndpoint endpoint) throws IOException;
+
+	/**
+	 * Processes a prepared log entry. Is always called sequentially and in the order of the logs.
+	 *
+	 * @param preparedEntry
+	 *            The log entry as returned by {@link #prepare(AccessLogEntry, HttpEndpoint)}.
+	 * @throws IOException
+	 */
+	protected abstract void process(T preparedEntry) throws IOException;
 
 	@Override
 	protected abstract void finalize() throws IOException;
@@ -100,4 +326,15 @@ public abstract class AbstractAccessLogsConsumer {
 		return ignoredRequests;
 	}
 
+	/**
+	 * The prepared entries and ignored requests of a segment of the logs.
+	 */
+	private static class Segment<T> {
+
+		private final List<T> entries = new ArrayList<>();
+
+		private final Set<String> ignoredRequests = new LinkedHashSet<>();
+
+	}
+
 }
@@ -5,8 +5,6 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
-import java.util.ArrayList;
-import java.util.List;
 
 import org.continuity.commons.idpa.UrlPartParameterExtractor;
 import org.continuity.idpa.application.Application;
@@ -17,7 +15,7 @@ import org.continuity.idpa.application.HttpEndpoint;
  * @author Henning Schulz
  *
  */
-public class UnifiedCsvFromAccessLogsExtractor extends AbstractAccessLogsConsumer {
+public class UnifiedCsvFromAccessLogsExtractor extends AbstractAccessLogsConsumer<String> {
 
 	private final Path outputPath;
 
@@ -43,22 +41,17 @@ public class UnifiedCsvFromAccessLogsExtractor extends AbstractAccessLogsConsume
 	}
 
 	@Override
-	protected void process(AccessLogEntry logEntry, HttpEndpoint endpoint) throws IOException {
-		UrlPartParameterExtractor extractor = new UrlPartParameterExtractor(endpoint, logEntry.getPath());
-
-		List<ParameterRecord> params = new ArrayList<>();
-
-		while (extractor.hasNext()) {
-			String name = extractor.nextParameter();
-			String value = extractor.currentValue();
-			params.add(new ParameterRecord(name, value));
-		}
-
-		logEntry.setUrlParameters(params);
+	protected String prepare(AccessLogEntry logEntry, HttpEndpoint endpoint) {
+		logEntry.setUrlParameters(UrlPartParameterExtractor.extractAll(endpoint, logEntry.getPath()));
 		logEntry.setPath(endpoint.getPath());
 		logEntry.setEndpoint(endpoint.getId());
 
-		writer.write(logEntry.toCsvRow());
+		return logEntry.toCsvRow();
+	}
+
+	@Override
+	protected void process(String csvRow) throws IOException {
+		writer.write(csvRow);
 		writer.newLine();
 	}
 
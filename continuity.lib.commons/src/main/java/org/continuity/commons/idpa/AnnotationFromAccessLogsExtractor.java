@@ -13,6 +13,7 @@ import java.util.stream.Collectors;
 
 import org.continuity.commons.accesslogs.AbstractAccessLogsConsumer;
 import org.continuity.commons.accesslogs.AccessLogEntry;
+import org.continuity.commons.accesslogs.ParameterRecord;
 import org.continuity.idpa.WeakReference;
 import org.continuity.idpa.annotation.ApplicationAnnotation;
 import org.continuity.idpa.annotation.CsvColumnInput;
@@ -31,7 +32,7 @@ import org.continuity.idpa.application.HttpParameter;
  * @author Henning Schulz
  *
  */
-public class AnnotationFromAccessLogsExtractor extends AbstractAccessLogsConsumer {
+public class AnnotationFromAccessLogsExtractor extends AbstractAccessLogsConsumer<AnnotationFromAccessLogsExtractor.RequestParameters> {
 
 	private static final String PREFIX_INPUT = "Input_";
 
@@ -43,6 +44,8 @@ public class AnnotationFromAccessLogsExtractor extends AbstractAccessLogsConsume
 
 	private final Path outputDir;
 
+	private final int maxValuesPerParameter;
+
 	private ApplicationAnnotation extractedAnnotation;
 
 	private Application filteredApplication;
@@ -59,24 +62,57 @@ public class AnnotationFromAccessLogsExtractor extends AbstractAccessLogsConsume
 	 *            The directory where potentially created CSV files should be stored.
 	 */
 	public AnnotationFromAccessLogsExtractor(Application application, Path pathToAccessLogs, Path outputDir) {
+		this(application, pathToAccessLogs, outputDir, 0);
+	}
+
+	/**
+	 *
+	 * @param application
+	 *            The application model describing the endpoints and parameters.
+	 * @param pathToAccessLogs
+	 *            The path to the access logs file.
+	 * @param outputDir
+	 *            The directory where potentially created CSV files should be stored.
+	 * @param maxValuesPerParameter
+	 *            The maximum number of values to be kept per parameter. If there are more requests,
+	 *            a uniform sample is kept. If 0 or less, all values are kept.
+	 */
+	public AnnotationFromAccessLogsExtractor(Application application, Path pathToAccessLogs, Path outputDir, int maxValuesPerParameter) {
 		super(application, pathToAccessLogs);
 
 		this.application = application;
 		this.outputDir = outputDir;
+		this.maxValuesPerParameter = maxValuesPerParameter;
 	}
 
 	public void extract() throws IOException {
 		consume();
 	}
 
+	/**
+	 * Extracts the annotation using several threads for parsing the access logs. The result is
+	 * the same as when using {@link #extract()}.
+	 *
+	 * @param numThreads
+	 *            The number of threads.
+	 * @throws IOException
+	 */
+	public void extract(int numThreads) throws IOException {
+		consume(numThreads);
+	}
+
 	@Override
 	protected void init() {
 	}
 
 	@Override
-	protected void process(AccessLogEntry logEntry, HttpEndpoint endpoint) {
-		getCollectorForEndpoint(endpoint).collectFromPath(logEntry.getPath());
-		getCollectorForEndpoint(endpoint).collectFromQueryString(logEntry.getRequestParameters());
+	protected RequestParameters prepare(AccessLogEntry logEntry, HttpEndpoint endpoint) {
+		return new RequestParameters(endpoint, UrlPartParameterExtractor.extractAll(endpoint, logEntry.getPath()), logEntry.getRequestParameters());
+	}
+
+	@Override
+	protected void process(RequestParameters params) {
+		getCollectorForEndpoint(params.endpoint).collect(params.urlParameters, params.queryParameters);
 	}
 
 	@Override
@@ -89,7 +125,7 @@ public class AnnotationFromAccessLogsExtractor extends AbstractAccessLogsConsume
 		ParameterValueCollector values = collectorPerEndpoint.get(endpoint);
 
 		if (values == null) {
-			values = new ParameterValueCollector(endpoint);
+			values = new ParameterValueCollector(endpoint, maxValuesPerParameter);
 			collectorPerEndpoint.put(endpoint, values);
 		}
 
@@ -112,21 +148,19 @@ public class AnnotationFromAccessLogsExtractor extends AbstractAccessLogsConsume
 
 			if (valuesPerParam.size() == 1) {
 				HttpParameter param = valuesPerParam.keySet().iterator().next();
-				collectValuesOfParameter(endpointAnn, param, valuesPerParam.get(param));
+				collectValuesOfParameter(endpointAnn, param, valuesPerParam.get(param), collector.hasSingleValue(param));
 			} else if (valuesPerParam.size() > 1) {
 				collectValuesOfMultipleParameters(endpointAnn, valuesPerParam);
 			}
 		}
 	}
 
-	private void collectValuesOfParameter(EndpointAnnotation endpointAnn, HttpParameter param, List<String> values) {
+	private void collectValuesOfParameter(EndpointAnnotation endpointAnn, HttpParameter param, List<String> values, boolean singleValue) {
 		DirectListInput input = new DirectListInput();
 		input.setId(PREFIX_INPUT + param.getId());
 
-		List<String> distinctValues = values.stream().distinct().collect(Collectors.toList());
-
-		if (distinctValues.size() == 1) {
-			input.setData(distinctValues);
+		if (singleValue) {
+			input.setData(values.stream().distinct().collect(Collectors.toList()));
 		} else {
 			input.setData(values);
 		}
@@ -207,4 +241,23 @@ public class AnnotationFromAccessLogsExtractor extends AbstractAccessLogsConsume
 		return filteredApplication;
 	}
 
+	/**
+	 * The parameters of a request as extracted by the worker threads.
+	 */
+	protected static class RequestParameters {
+
+		private final HttpEndpoint endpoint;
+
+		private final List<ParameterRecord> urlParameters;
+
+		private final List<ParameterRecord> queryParameters;
+
+		private RequestParameters(HttpEndpoint endpoint, List<ParameterRecord> urlParameters, List<ParameterRecord> queryParameters) {
+			this.endpoint = endpoint;
+			this.urlParameters = urlParameters;
+			this.queryParameters = queryParameters;
+		}
+
+	}
+
 }
@@ -1,36 +1,50 @@
 package org.continuity.commons.idpa;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
 
 import org.continuity.api.entities.report.AnnotationValidityReport;
 import org.continuity.api.entities.report.AnnotationViolation;
 import org.continuity.api.entities.report.AnnotationViolationType;
+import org.continuity.api.entities.report.ApplicationChange;
+import org.continuity.api.entities.report.ApplicationChangeReport;
 import org.continuity.api.entities.report.ModelElementReference;
+import org.continuity.idpa.IdpaElement;
+import org.continuity.idpa.WeakReference;
 import org.continuity.idpa.annotation.ApplicationAnnotation;
 import org.continuity.idpa.annotation.EndpointAnnotation;
 import org.continuity.idpa.annotation.Input;
+import org.continuity.idpa.annotation.OverrideableAnnotation;
 import org.continuity.idpa.annotation.ParameterAnnotation;
+import org.continuity.idpa.annotation.PropertyOverride;
+import org.continuity.idpa.annotation.PropertyOverrideKey;
 import org.continuity.idpa.annotation.extracted.EndpointOrInput;
 import org.continuity.idpa.annotation.extracted.RegExExtraction;
 import org.continuity.idpa.application.Application;
 import org.continuity.idpa.application.Endpoint;
+import org.continuity.idpa.application.HttpEndpoint;
+import org.continuity.idpa.application.HttpParameter;
 import org.continuity.idpa.application.Parameter;
-import org.continuity.idpa.visitor.IdpaByClassSearcher;
+import org.continuity.idpa.visitor.IdpaVisitor;
 
 /**
  * Compares application models and annotations against a base application model. E.g., can be used
  * to determine the differences of an old application model an the new one or to compare an
- * annotation against the new application model.
+ * annotation against the new application model. <br>
+ * The elements of the application model are indexed by id once, and each annotation is traversed
+ * only once. Hence, checking an annotation takes linear time in the size of the annotation.
  *
  * @author Henning Schulz
  *
  */
 public class AnnotationValidityChecker {
 
-	private final Application newApplication;
+	private final Map<String, IdpaElement> applicationElementsById = new HashMap<>();
 
 	private final AnnotationValidityReportBuilder reportBuilder = new AnnotationValidityReportBuilder();
 
@@ -41,7 +55,14 @@ public class AnnotationValidityChecker {
 	 *            The current application model.
 	 */
 	public AnnotationValidityChecker(Application newApplication) {
-		this.newApplication = newApplication;
+		// as with WeakReference#resolve, the last element in depth-first order wins
+		new IdpaVisitor(element -> {
+			if (element.getId() != null) {
+				applicationElementsById.put(element.getId(), element);
+			}
+
+			return true;
+		}).visit(newApplication);
 	}
 
 	public void registerApplicationChanges(AnnotationValidityReport applicationChangeReport) {
@@ -49,43 +70,81 @@ public class AnnotationValidityChecker {
 	}
 
 	/**
-	 * Compares an annotation to the stored application model and reports broken references.
+	 * Compares an annotation to the stored application model and reports broken references and
+	 * invalid overrides.
 	 *
 	 * @param annotation
 	 *            An annotation.
 	 */
 	public void checkAnnotation(ApplicationAnnotation annotation) {
-		checkAnnotationInternally(annotation);
-		checkAnnotationForExternalReferences(annotation);
+		AnnotationElements elements = AnnotationElements.of(annotation);
+
+		checkAnnotationInternally(annotation, elements);
+		checkAnnotationForExternalReferences(elements, id -> true);
+	}
+
+	/**
+	 * Compares an annotation to the stored application model, but only checks the parts that are
+	 * affected by the specified application changes. That is, the endpoint and parameter
+	 * annotations and the extractions referring to a changed, removed, or added endpoint or
+	 * parameter, including their overrides. The annotation is assumed to have been valid before
+	 * the changes. Hence, the internal references and the overrides of the application annotation
+	 * are not checked.
+	 *
+	 * @param annotation
+	 *            An annotation.
+	 * @param changeReport
+	 *            The changes of the application model since the annotation has been checked the
+	 *            last time.
+	 */
+	public void checkAnnotation(ApplicationAnnotation annotation, ApplicationChangeReport changeReport) {
+		Set<String> changedIds = new HashSet<>();
+
+		for (ApplicationChange change : changeReport.getApplicationChanges()) {
+			if (change.getChangedElement() != null) {
+				changedIds.add(change.getChangedElement().getId());
+			}
+		}
+
+		if (changedIds.isEmpty()) {
+			return;
+		}
+
+		checkAnnotationForExternalReferences(AnnotationElements.of(annotation), changedIds::contains);
 	}
 
-	private void checkAnnotationInternally(ApplicationAnnotation annotation) {
-		List<Input> inputs = new ArrayList<>();
-		new IdpaByClassSearcher<>(Input.class, inputs::add).visit(annotation);
+	private void checkAnnotationInternally(ApplicationAnnotation annotation, AnnotationElements elements) {
+		checkOverrides(annotation, PropertyOverrideKey.Any.class, null);
 
-		IdpaByClassSearcher<ParameterAnnotation> paramSearcher = new IdpaByClassSearcher<>(ParameterAnnotation.class, ann -> {
-			boolean inputNotPresent = inputs.stream().map(Input::getId).filter(id -> Objects.equals(id, ann.getInput().getId())).collect(Collectors.toList()).isEmpty();
+		for (ParameterAnnotation ann : elements.parameterAnnotations) {
+			Input input = ann.getInput();
 
-			if (inputNotPresent) {
+			if ((input == null) || !elements.inputIds.contains(input.getId())) {
 				ModelElementReference inputRef;
 
-				if (ann.getInput() == null) {
+				if (input == null) {
 					inputRef = new ModelElementReference("Input", null);
 				} else {
-					inputRef = new ModelElementReference(ann.getInput());
+					inputRef = new ModelElementReference(input);
 				}
 
 				ModelElementReference annRef = new ModelElementReference(ann);
 				reportBuilder.addViolation(annRef, new AnnotationViolation(AnnotationViolationType.ILLEGAL_INTERNAL_REFERENCE, inputRef));
 			}
-		});
-
-		paramSearcher.visit(annotation);
+		}
 	}
 
-	private void checkAnnotationForExternalReferences(ApplicationAnnotation annotation) {
-		IdpaByClassSearcher<EndpointAnnotation> interfaceSearcher = new IdpaByClassSearcher<>(EndpointAnnotation.class, ann -> {
-			Endpoint<?> interf = ann.getAnnotatedEndpoint().resolve(newApplication);
+	private void checkAnnotationForExternalReferences(AnnotationElements elements, Predicate<String> affected) {
+		Set<EndpointAnnotation> checkedEndpointAnnotations = new HashSet<>();
+
+		for (EndpointAnnotation ann : elements.endpointAnnotations) {
+			if (!affected.test(ann.getAnnotatedEndpoint().getId())) {
+				continue;
+			}
+
+			checkedEndpointAnnotations.add(ann);
+
+			Endpoint<?> interf = resolve(ann.getAnnotatedEndpoint());
 
 			if (interf == null) {
 				ModelElementReference interfRef = new ModelElementReference(ann.getAnnotatedEndpoint());
@@ -93,13 +152,17 @@ public class AnnotationValidityChecker {
 				reportBuilder.addViolation(annRef, new AnnotationViolation(AnnotationViolationType.ILLEGAL_ENDPOINT_REFERENCE, interfRef));
 			}
 
+			checkOverrides(ann, PropertyOverrideKey.EndpointLevel.class, interf);
 			reportBuilder.resolveInterfaceAnnotation(ann);
-		});
+		}
 
-		interfaceSearcher.visit(annotation);
+		for (ParameterAnnotation ann : elements.parameterAnnotations) {
+			// removing or changing an endpoint can also affect its parameters
+			if (!affected.test(ann.getAnnotatedParameter().getId()) && !checkedEndpointAnnotations.contains(elements.endpointAnnotationOf.get(ann))) {
+				continue;
+			}
 
-		IdpaByClassSearcher<ParameterAnnotation> paramSearcher = new IdpaByClassSearcher<>(ParameterAnnotation.class, ann -> {
-			Parameter param = ann.getAnnotatedParameter().resolve(newApplication);
+			Parameter param = resolve(ann.getAnnotatedParameter());
 
 			if (param == null) {
 				ModelElementReference paramRef = new ModelElementReference(ann.getAnnotatedParameter());
@@ -107,16 +170,15 @@ public class AnnotationValidityChecker {
 				reportBuilder.addViolation(annRef, new AnnotationViolation(AnnotationViolationType.ILLEGAL_PARAMETER_REFERENCE, paramRef));
 			}
 
+			checkOverrides(ann, PropertyOverrideKey.ParameterLevel.class, param);
 			reportBuilder.resolveParameterAnnotation(ann);
-		});
+		}
 
-		paramSearcher.visit(annotation);
-
-		IdpaByClassSearcher<RegExExtraction> extractionSearcher = new IdpaByClassSearcher<>(RegExExtraction.class, extraction -> {
+		for (RegExExtraction extraction : elements.extractions) {
 			EndpointOrInput eoi = extraction.getFrom();
 
-			if (eoi.isEndpoint()) {
-				Endpoint<?> interf = eoi.getEndpoint().resolve(newApplication);
+			if (eoi.isEndpoint() && affected.test(eoi.getEndpoint().getId())) {
+				Endpoint<?> interf = resolve(eoi.getEndpoint());
 
 				if (interf == null) {
 					ModelElementReference interfRef = new ModelElementReference(eoi.getEndpoint());
@@ -124,9 +186,64 @@ public class AnnotationValidityChecker {
 					reportBuilder.addViolation(annRef, new AnnotationViolation(AnnotationViolationType.ILLEGAL_ENDPOINT_REFERENCE, interfRef));
 				}
 			}
-		});
+		}
+	}
 
-		extractionSearcher.visit(annotation);
+	/**
+	 * Checks the overrides of an annotation. An override without key or with a value that cannot
+	 * be applied breaks the annotation. An override whose key is out of the scope of the annotation
+	 * or does not fit the type of the annotated element is ignored by the load test generation and,
+	 * hence, only reported.
+	 *
+	 * @param annotation
+	 *            The annotation holding the overrides.
+	 * @param scope
+	 *            The key scope of the annotation.
+	 * @param annotated
+	 *            The annotated endpoint or parameter. Can be {@code null} if there is none or it
+	 *            cannot be resolved.
+	 */
+	private void checkOverrides(OverrideableAnnotation<?> annotation, Class<? extends PropertyOverrideKey.Any> scope, IdpaElement annotated) {
+		for (PropertyOverride<?> override : annotation.getOverrides()) {
+			PropertyOverrideKey.Any key = override.getKey();
+			AnnotationViolationType type = null;
+
+			if ((key == null) || !isValidValue(key, override.getValue())) {
+				type = AnnotationViolationType.ILLEGAL_OVERRIDE;
+			} else if (!key.isInScope(scope) || ((annotated != null) && !fitsType(key, annotated))) {
+				type = AnnotationViolationType.IGNORED_OVERRIDE;
+			}
+
+			if (type != null) {
+				ModelElementReference overrideRef = new ModelElementReference(PropertyOverride.class.getSimpleName(), key == null ? null : key.toString());
+				ModelElementReference annRef = new ModelElementReference(annotation);
+				reportBuilder.addViolation(annRef, new AnnotationViolation(type, overrideRef));
+			}
+		}
+	}
+
+	private boolean isValidValue(PropertyOverrideKey.Any key, String value) {
+		if (key == PropertyOverrideKey.HttpEndpoint.PORT) {
+			return (value != null) && value.matches("\\d+");
+		}
+
+		return true;
+	}
+
+	private boolean fitsType(PropertyOverrideKey.Any key, IdpaElement annotated) {
+		if ((key instanceof PropertyOverrideKey.HttpEndpoint) || (key instanceof PropertyOverrideKey.HttpParameter)) {
+			return (annotated instanceof HttpEndpoint) || (annotated instanceof HttpParameter);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Resolves the reference using the index. The same as {@link WeakReference#resolve(IdpaElement)}
+	 * on the whole application model, but does not need to traverse it.
+	 */
+	private <T extends IdpaElement> T resolve(WeakReference<T> ref) {
+		return ref.resolve(applicationElementsById.get(ref.getId()));
 	}
 
 	/**
@@ -137,4 +254,53 @@ public class AnnotationValidityChecker {
 	public AnnotationValidityReport getReport() {
 		return reportBuilder.buildReport();
 	}
+
+	/**
+	 * The elements of an annotation that are relevant for the checks, collected in one traversal.
+	 */
+	private static class AnnotationElements {
+
+		private final Set<String> inputIds = new HashSet<>();
+
+		private final List<EndpointAnnotation> endpointAnnotations = new ArrayList<>();
+
+		private final List<ParameterAnnotation> parameterAnnotations = new ArrayList<>();
+
+		private final Map<ParameterAnnotation, EndpointAnnotation> endpointAnnotationOf = new HashMap<>();
+
+		private final List<RegExExtraction> extractions = new ArrayList<>();
+
+		private static AnnotationElements of(ApplicationAnnotation annotation) {
+			AnnotationElements elements = new AnnotationElements();
+			IdpaVisitor[] visitor = new IdpaVisitor[1];
+
+			visitor[0] = new IdpaVisitor(element -> {
+				if (element instanceof Input) {
+					elements.inputIds.add(element.getId());
+				}
+
+				if (element instanceof EndpointAnnotation) {
+					elements.endpointAnnotations.add((EndpointAnnotation) element);
+				} else if (element instanceof ParameterAnnotation) {
+					elements.parameterAnnotations.add((ParameterAnnotation) element);
+
+					IdpaElement parent = visitor[0].getCurrentParent();
+
+					if (parent instanceof EndpointAnnotation) {
+						elements.endpointAnnotationOf.put((ParameterAnnotation) element, (EndpointAnnotation) parent);
+					}
+				} else if (element instanceof RegExExtraction) {
+					elements.extractions.add((RegExExtraction) element);
+				}
+
+				return true;
+			});
+
+			visitor[0].visit(annotation);
+
+			return elements;
+		}
+
+	}
+
 }
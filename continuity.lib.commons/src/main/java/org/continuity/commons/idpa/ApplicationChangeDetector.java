@@ -1,10 +1,10 @@
 package org.continuity.commons.idpa;
 
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.continuity.api.entities.report.ApplicationChange;
@@ -16,8 +16,6 @@ import org.continuity.idpa.application.Endpoint;
 import org.continuity.idpa.application.Parameter;
 import org.continuity.idpa.visitor.IdpaByClassSearcher;
 
-import com.google.common.base.Objects;
-
 /**
  * Compares system models against a base system model. E.g., can be used to determine the
  * differences of an old system model and the new one.
@@ -55,30 +53,26 @@ public class ApplicationChangeDetector {
 	public void compareTo(Application oldSystemModel) {
 		reportBuilder.setBeforeChange(oldSystemModel.getVersionOrTimestamp());
 
+		// if there are several endpoints with the same id, the last one is compared
+		final Map<String, Endpoint<?>> oldInterfaces = new HashMap<>();
+		IdpaByClassSearcher<Endpoint<?>> searcher = new IdpaByClassSearcher<>(Endpoint.GENERIC_TYPE, oldInterf -> oldInterfaces.put(oldInterf.getId(), oldInterf));
+		searcher.visit(oldSystemModel);
+
 		final Set<ModelElementReference> visited = new HashSet<>();
-		IdpaByClassSearcher<Endpoint<?>> searcher = new IdpaByClassSearcher<>(Endpoint.GENERIC_TYPE, inter -> checkInterface(inter, oldSystemModel, visited));
+		searcher = new IdpaByClassSearcher<>(Endpoint.GENERIC_TYPE, inter -> checkInterface(inter, oldInterfaces, visited));
 		searcher.visit(newSystemModel);
 
 		searcher = new IdpaByClassSearcher<>(Endpoint.GENERIC_TYPE, inter -> reportRemovedInterface(inter, visited));
 		searcher.visit(oldSystemModel);
 	}
 
-	private boolean checkInterface(Endpoint<?> newInterf, Application oldSystemModel, Set<ModelElementReference> visited) {
-		final Holder<Endpoint<?>> interfHolder = new Holder<>();
-		IdpaByClassSearcher<Endpoint<?>> searcher = new IdpaByClassSearcher<>(Endpoint.GENERIC_TYPE, oldInterf -> {
-			if (oldInterf.getId().equals(newInterf.getId())) {
-				interfHolder.element = oldInterf;
-			}
-		});
-		searcher.visit(oldSystemModel);
-
+	private boolean checkInterface(Endpoint<?> newInterf, Map<String, Endpoint<?>> oldInterfaces, Set<ModelElementReference> visited) {
+		Endpoint<?> oldInterf = oldInterfaces.get(newInterf.getId());
 		ModelElementReference ref = new ModelElementReference(newInterf);
 
-		if (interfHolder.element == null) {
+		if (oldInterf == null) {
 			reportBuilder.addChange(new ApplicationChange(ApplicationChangeType.ENDPOINT_ADDED, ref));
 		} else {
-			Endpoint<?> oldInterf = interfHolder.element;
-
 			for (String changedProperty : oldInterf.getDifferingProperties(newInterf)) {
 				if (!"parameters".equals(changedProperty)) {
 					reportBuilder.addChange(new ApplicationChange(ApplicationChangeType.ENDPOINT_CHANGED, ref, changedProperty));
@@ -107,23 +101,28 @@ public class ApplicationChangeDetector {
 			return;
 		}
 
+		// if there are several parameters with the same id, the first one is compared
+		Map<String, Parameter> oldParams = new HashMap<>();
+		oldInterf.getParameters().forEach(p -> oldParams.putIfAbsent(p.getId(), p));
+
+		Set<String> newParamIds = new HashSet<>();
+
 		for (Parameter param : newInterf.getParameters()) {
 			ModelElementReference ref = new ModelElementReference(param);
-			List<Parameter> oldParams = oldInterf.getParameters().stream().filter(p -> Objects.equal(param.getId(), p.getId())).collect(Collectors.toList());
+			Parameter oldParam = oldParams.get(param.getId());
+			newParamIds.add(param.getId());
 
-			if (oldParams.isEmpty()) {
+			if (oldParam == null) {
 				reportBuilder.addChange(new ApplicationChange(ApplicationChangeType.PARAMETER_ADDED, ref));
 			} else {
-				for (String changedProperty : param.getDifferingProperties(oldParams.get(0))) {
+				for (String changedProperty : param.getDifferingProperties(oldParam)) {
 					reportBuilder.addChange(new ApplicationChange(ApplicationChangeType.PARAMETER_CHANGED, ref, changedProperty));
 				}
 			}
 		}
 
 		for (Parameter param : oldInterf.getParameters()) {
-			List<Parameter> newParams = newInterf.getParameters().stream().filter(p -> Objects.equal(param.getId(), p.getId())).collect(Collectors.toList());
-
-			if (newParams.isEmpty()) {
+			if (!newParamIds.contains(param.getId())) {
 				reportBuilder.addChange(new ApplicationChange(ApplicationChangeType.PARAMETER_REMOVED, new ModelElementReference(param)));
 			}
 		}
@@ -137,8 +136,4 @@ public class ApplicationChangeDetector {
 	public ApplicationChangeReport getReport() {
 		return reportBuilder.buildReport();
 	}
-
-	private static class Holder<T> {
-		T element;
-	}
 }
@@ -0,0 +1,124 @@
+package org.continuity.commons.idpa;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Estimates the frequencies of the most frequent values of a stream in bounded memory, using the
+ * Misra-Gries algorithm. At most {@code capacity} values are counted at a time. The estimated
+ * count of a value is at most {@code n / (capacity + 1)} lower than its actual count, where
+ * {@code n} is the total number of added values. Hence, every value occurring more often than that
+ * is guaranteed to be counted.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class FrequentValuesSketch {
+
+	private final int capacity;
+
+	private final Map<String, Long> counters;
+
+	private long total = 0;
+
+	private long decremented = 0;
+
+	/**
+	 *
+	 * @param capacity
+	 *            The maximum number of values to be counted. Needs to be positive.
+	 */
+	public FrequentValuesSketch(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("The capacity must be positive, but was " + capacity + "!");
+		}
+
+		this.capacity = capacity;
+		this.counters = new HashMap<>(2 * capacity);
+	}
+
+	/**
+	 * Adds an occurrence of a value.
+	 *
+	 * @param value
+	 *            The value.
+	 */
+	public void add(String value) {
+		total++;
+
+		Long count = counters.get(value);
+
+		if (count != null) {
+			counters.put(value, count + 1);
+		} else if (counters.size() < capacity) {
+			counters.put(value, 1L);
+		} else {
+			// the new value and all counted ones are decremented by one
+			decremented++;
+
+			Iterator<Entry<String, Long>> it = counters.entrySet().iterator();
+
+			while (it.hasNext()) {
+				Entry<String, Long> entry = it.next();
+
+				if (entry.getValue() == 1) {
+					it.remove();
+				} else {
+					entry.setValue(entry.getValue() - 1);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the total number of added values.
+	 *
+	 * @return The total number.
+	 */
+	public long getTotal() {
+		return total;
+	}
+
+	/**
+	 * Returns the maximum error of the estimated counts.
+	 *
+	 * @return The maximum number of occurrences by which a count is underestimated.
+	 */
+	public long getMaxError() {
+		return decremented;
+	}
+
+	/**
+	 * Returns the counted values with their estimated counts, ordered from the most to the least
+	 * frequent one.
+	 *
+	 * @return The values and estimated counts.
+	 */
+	public Map<String, Long> getFrequentValues() {
+		Map<String, Long> ordered = new LinkedHashMap<>();
+		counters.entrySet().stream().sorted(Entry.<String, Long> comparingByValue().reversed()).forEachOrdered(e -> ordered.put(e.getKey(), e.getValue()));
+		return ordered;
+	}
+
+	/**
+	 * Returns whether all added values have been the same.
+	 *
+	 * @return {@code true} if exactly one distinct value has been added.
+	 */
+	public boolean hasSingleValue() {
+		return (counters.size() == 1) && (counters.values().iterator().next() == total);
+	}
+
+	/**
+	 * Returns the number of currently counted values.
+	 *
+	 * @return The number of values.
+	 */
+	public int size() {
+		return counters.size();
+	}
+
+}
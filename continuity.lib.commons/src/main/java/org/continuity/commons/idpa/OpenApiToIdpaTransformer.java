@@ -142,7 +142,7 @@ public class OpenApiToIdpaTransformer {
 		return param;
 	}
 
-	private void setParameterIds(HttpEndpoint interf) {
+	static void setParameterIds(HttpEndpoint interf) {
 		final Set<String> ids = new HashSet<>();
 
 		for (HttpParameter param : interf.getParameters()) {
@@ -169,7 +169,7 @@ public class OpenApiToIdpaTransformer {
 		}
 	}
 
-	private HttpParameterType transformToParameterType(String in) {
+	static HttpParameterType transformToParameterType(String in) {
 		switch (in) {
 		case "query":
 			return HttpParameterType.REQ_PARAM;
@@ -1,10 +1,17 @@
 package org.continuity.commons.idpa;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.continuity.commons.accesslogs.ParameterRecord;
 import org.continuity.idpa.application.HttpEndpoint;
@@ -12,7 +19,11 @@ import org.continuity.idpa.application.HttpParameter;
 import org.continuity.idpa.visitor.FindBy;
 
 /**
- * Collects parameter values for one endpoint and takes care of the correlation of the values.
+ * Collects parameter values for one endpoint and takes care of the correlation of the values. <br>
+ * By default, all values are collected. Alternatively, the number of values per parameter can be
+ * bounded. Then, a uniform sample of the requests (reservoir sampling) is kept, which preserves
+ * the distribution and the correlation of the values. In addition, the most frequent values of
+ * each parameter are counted using a {@link FrequentValuesSketch}.
  *
  * @author Henning Schulz
  *
@@ -23,17 +34,96 @@ public class ParameterValueCollector {
 
 	private final HttpEndpoint endpoint;
 
+	private final int maxValues;
+
+	private final Random random;
+
 	private final Map<HttpParameter, List<String>> valuesPerParam = new LinkedHashMap<>();
 
+	private final Map<String, HttpParameter> paramsByName = new HashMap<>();
+
+	private final Map<HttpParameter, FrequentValuesSketch> sketchPerParam = new LinkedHashMap<>();
+
+	private final List<SampledRequest> sample = new ArrayList<>();
+
+	private long numRequests = 0;
+
+	/**
+	 * Creates a collector collecting all values.
+	 *
+	 * @param endpoint
+	 *            The endpoint whose parameter values are to be collected.
+	 */
 	public ParameterValueCollector(HttpEndpoint endpoint) {
+		this(endpoint, 0);
+	}
+
+	/**
+	 * Creates a collector that keeps a bounded number of values.
+	 *
+	 * @param endpoint
+	 *            The endpoint whose parameter values are to be collected.
+	 * @param maxValues
+	 *            The maximum number of sampled values and counted frequent values per parameter.
+	 *            If 0 or less, all values are collected.
+	 */
+	public ParameterValueCollector(HttpEndpoint endpoint, int maxValues) {
+		this(endpoint, maxValues, new Random());
+	}
+
+	ParameterValueCollector(HttpEndpoint endpoint, int maxValues, Random random) {
 		this.endpoint = endpoint;
+		this.maxValues = maxValues;
+		this.random = random;
+	}
+
+	/**
+	 * Collects the parameter values of one request.
+	 *
+	 * @param path
+	 *            The request path.
+	 * @param parameters
+	 *            The query parameters of the request.
+	 */
+	public void collect(String path, List<ParameterRecord> parameters) {
+		collect(path == null ? null : UrlPartParameterExtractor.extractAll(endpoint, path), parameters);
+	}
+
+	/**
+	 * Collects the parameter values of one request.
+	 *
+	 * @param urlParameters
+	 *            The URL part parameters as extracted by
+	 *            {@link UrlPartParameterExtractor#extractAll(HttpEndpoint, String)}.
+	 * @param parameters
+	 *            The query parameters of the request.
+	 */
+	public void collect(List<ParameterRecord> urlParameters, List<ParameterRecord> parameters) {
+		if (isBounded()) {
+			Map<HttpParameter, String> request = new LinkedHashMap<>();
+			extractFromUrlParameters(urlParameters, request);
+			extractFromQueryString(parameters, request);
+			sampleRequest(request);
+		} else {
+			if (urlParameters != null) {
+				for (ParameterRecord param : urlParameters) {
+					storeParamAndValue(param.getName(), param.getValue());
+				}
+			}
+
+			collectFromQueryString(parameters);
+		}
 	}
 
 	public void collectFromPath(String path) {
-		UrlPartParameterExtractor extractor = new UrlPartParameterExtractor(endpoint, path);
+		if (isBounded()) {
+			collect(path, null);
+		} else {
+			UrlPartParameterExtractor extractor = new UrlPartParameterExtractor(endpoint, path);
 
-		while (extractor.hasNext()) {
-			storeParamAndValue(extractor.nextParameter(), extractor.currentValue());
+			while (extractor.hasNext()) {
+				storeParamAndValue(extractor.nextParameter(), extractor.currentValue());
+			}
 		}
 	}
 
@@ -42,6 +132,11 @@ public class ParameterValueCollector {
 			return;
 		}
 
+		if (isBounded()) {
+			collect(Collections.emptyList(), parameters);
+			return;
+		}
+
 		for (ParameterRecord param : parameters) {
 			if (param.getValue() != null) {
 				storeParamAndValue(param.getName(), param.getValue());
@@ -51,14 +146,98 @@ public class ParameterValueCollector {
 		balance();
 	}
 
+	/**
+	 * Returns the collected values per parameter. If the number of values is bounded, the values of
+	 * a uniform sample of the requests are returned in the order of the requests. Then, the lists
+	 * of all parameters are of the same length and the values at the same index belong to the same
+	 * request.
+	 *
+	 * @return The values per parameter.
+	 */
 	public Map<HttpParameter, List<String>> getValuesPerParam() {
-		return valuesPerParam;
+		if (!isBounded()) {
+			return valuesPerParam;
+		}
+
+		List<SampledRequest> orderedSample = sample.stream().sorted(Comparator.comparingLong(r -> r.index)).collect(Collectors.toList());
+		Map<HttpParameter, List<String>> sampledValues = new LinkedHashMap<>();
+
+		for (HttpParameter param : sketchPerParam.keySet()) {
+			sampledValues.put(param, orderedSample.stream().map(r -> r.values.containsKey(param) ? r.values.get(param) : EMPTY_VALUE).collect(Collectors.toList()));
+		}
+
+		return sampledValues;
+	}
+
+	/**
+	 * Returns the most frequent values of a parameter with their (estimated) number of
+	 * occurrences, ordered from the most to the least frequent one.
+	 *
+	 * @param param
+	 *            The parameter.
+	 * @return The values and numbers of occurrences. If the number of values is bounded, at most
+	 *         that number of values is returned and the numbers of occurrences can be
+	 *         underestimated.
+	 */
+	public Map<String, Long> getFrequentValues(HttpParameter param) {
+		if (isBounded()) {
+			FrequentValuesSketch sketch = sketchPerParam.get(param);
+			return sketch == null ? new LinkedHashMap<>() : sketch.getFrequentValues();
+		}
+
+		List<String> values = valuesPerParam.get(param);
+
+		if (values == null) {
+			return new LinkedHashMap<>();
+		}
+
+		Map<String, Long> counts = values.stream().collect(Collectors.groupingBy(Function.identity(), LinkedHashMap::new, Collectors.counting()));
+		Map<String, Long> ordered = new LinkedHashMap<>();
+		counts.entrySet().stream().sorted(Map.Entry.<String, Long> comparingByValue().reversed()).forEachOrdered(e -> ordered.put(e.getKey(), e.getValue()));
+		return ordered;
+	}
+
+	/**
+	 * Returns whether a parameter always had the same value. Considers all values, even if the
+	 * number of values is bounded.
+	 *
+	 * @param param
+	 *            The parameter.
+	 * @return {@code true} if there is exactly one distinct value.
+	 */
+	public boolean hasSingleValue(HttpParameter param) {
+		if (isBounded()) {
+			FrequentValuesSketch sketch = sketchPerParam.get(param);
+			return (sketch != null) && sketch.hasSingleValue();
+		}
+
+		List<String> values = valuesPerParam.get(param);
+		return (values != null) && (values.stream().distinct().count() == 1);
 	}
 
 	public HttpEndpoint getEndpoint() {
 		return endpoint;
 	}
 
+	/**
+	 * Returns the number of requests in the sample. For testing purposes.
+	 */
+	int getSampleSize() {
+		return sample.size();
+	}
+
+	/**
+	 * Returns the number of counted values of the parameter with the most counted values. For
+	 * testing purposes.
+	 */
+	int getMaxSketchSize() {
+		return sketchPerParam.values().stream().mapToInt(FrequentValuesSketch::size).max().orElse(0);
+	}
+
+	private boolean isBounded() {
+		return maxValues > 0;
+	}
+
 	private void balance() {
 		int maxSize = valuesPerParam.values().stream().mapToInt(List::size).max().orElse(0);
 
@@ -72,7 +251,7 @@ public class ParameterValueCollector {
 	}
 
 	private void storeParamAndValue(String param, String value) {
-		HttpParameter foundParam = FindBy.find(p -> Objects.equals(param, p.getName()), HttpParameter.class).in(endpoint).getFound();
+		HttpParameter foundParam = findParameter(param);
 
 		if (foundParam != null) {
 			List<String> valueList = valuesPerParam.get(foundParam);
@@ -86,4 +265,84 @@ public class ParameterValueCollector {
 		}
 	}
 
+	private void extractFromUrlParameters(List<ParameterRecord> urlParameters, Map<HttpParameter, String> request) {
+		if (urlParameters == null) {
+			return;
+		}
+
+		for (ParameterRecord param : urlParameters) {
+			putParamAndValue(param.getName(), param.getValue(), request);
+		}
+	}
+
+	private void extractFromQueryString(List<ParameterRecord> parameters, Map<HttpParameter, String> request) {
+		if (parameters == null) {
+			return;
+		}
+
+		for (ParameterRecord param : parameters) {
+			if (param.getValue() != null) {
+				putParamAndValue(param.getName(), param.getValue(), request);
+			}
+		}
+	}
+
+	private void putParamAndValue(String param, String value, Map<HttpParameter, String> request) {
+		HttpParameter foundParam = findParameter(param);
+
+		if (foundParam != null) {
+			request.put(foundParam, value);
+		}
+	}
+
+	private HttpParameter findParameter(String param) {
+		if (paramsByName.containsKey(param)) {
+			return paramsByName.get(param);
+		}
+
+		HttpParameter foundParam = FindBy.find(p -> Objects.equals(param, p.getName()), HttpParameter.class).in(endpoint).getFound();
+		paramsByName.put(param, foundParam);
+		return foundParam;
+	}
+
+	/**
+	 * Adds the values of a request to the frequency sketches and to the sample. The sample is
+	 * maintained using reservoir sampling: the {@code n}-th request replaces a random one with a
+	 * probability of {@code maxValues / n}.
+	 */
+	private void sampleRequest(Map<HttpParameter, String> request) {
+		if (request.isEmpty()) {
+			return;
+		}
+
+		for (Map.Entry<HttpParameter, String> entry : request.entrySet()) {
+			sketchPerParam.computeIfAbsent(entry.getKey(), p -> new FrequentValuesSketch(maxValues)).add(entry.getValue());
+		}
+
+		numRequests++;
+
+		if (sample.size() < maxValues) {
+			sample.add(new SampledRequest(numRequests, request));
+		} else {
+			long replaced = (long) (random.nextDouble() * numRequests);
+
+			if (replaced < maxValues) {
+				sample.set((int) replaced, new SampledRequest(numRequests, request));
+			}
+		}
+	}
+
+	private static class SampledRequest {
+
+		private final long index;
+
+		private final Map<HttpParameter, String> values;
+
+		private SampledRequest(long index, Map<HttpParameter, String> values) {
+			this.index = index;
+			this.values = values;
+		}
+
+	}
+
 }
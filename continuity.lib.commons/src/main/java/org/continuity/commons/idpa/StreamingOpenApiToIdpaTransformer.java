@@ -0,0 +1,495 @@
+package org.continuity.commons.idpa;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import org.continuity.commons.utils.StringUtils;
+import org.continuity.idpa.application.Application;
+import org.continuity.idpa.application.Endpoint;
+import org.continuity.idpa.application.HttpEndpoint;
+import org.continuity.idpa.application.HttpParameter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+
+import io.swagger.models.Swagger;
+import io.swagger.parser.SwaggerParser;
+
+/**
+ * Transforms Open API specifications (version 2.0, JSON or YAML) into {@link Application}
+ * instances without parsing them into {@link Swagger} objects. <br>
+ * The specification is read twice using a streaming parser. First, the global properties such as
+ * the host and the parameter definitions are read, while the paths are skipped. Then, the paths
+ * are read one by one and the created endpoints are handed over immediately. Hence, only one path
+ * of the specification is held in memory at a time. The endpoints are the same as created by the
+ * {@link OpenApiToIdpaTransformer} from the parsed specification. <br>
+ * Only local references ({@code #/parameters/...}) are resolved while streaming. If the paths
+ * contain references to other documents, the specification is parsed using the
+ * {@link SwaggerParser} instead, which resolves them.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class StreamingOpenApiToIdpaTransformer {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(StreamingOpenApiToIdpaTransformer.class);
+
+	/**
+	 * The HTTP methods in the order used by {@link io.swagger.models.Path#getOperationMap()}.
+	 */
+	private static final List<String> METHODS = Arrays.asList("get", "put", "post", "delete", "patch", "head", "options");
+
+	private static final String PARAMETER_REF_PREFIX = "#/parameters/";
+
+	private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+	private static final ObjectMapper YAML_MAPPER = new ObjectMapper(new YAMLFactory());
+
+	private final Source source;
+
+	private final SwaggerReader swaggerReader;
+
+	private boolean globalsRead = false;
+
+	private String title;
+
+	private String domain;
+
+	private String port;
+
+	private String basePath;
+
+	private String protocol;
+
+	private JsonNode parameterDefinitions;
+
+	private boolean nonLocalReferences;
+
+	/**
+	 * Creates a transformer reading the specification from a file.
+	 *
+	 * @param path
+	 *            The path to the specification.
+	 */
+	public StreamingOpenApiToIdpaTransformer(Path path) {
+		this(() -> Files.newInputStream(path), () -> new SwaggerParser().read(path.toString()));
+	}
+
+	/**
+	 * Creates a transformer reading the specification from a URL. Note that the URL is requested
+	 * twice.
+	 *
+	 * @param url
+	 *            The URL of the specification.
+	 */
+	public StreamingOpenApiToIdpaTransformer(URL url) {
+		this(url::openStream, () -> new SwaggerParser().read(url.toString()));
+	}
+
+	/**
+	 * Creates a transformer reading the specification from a byte array. Relative references to
+	 * other documents cannot be resolved, as there is no base location.
+	 *
+	 * @param specification
+	 *            The specification.
+	 */
+	public StreamingOpenApiToIdpaTransformer(byte[] specification) {
+		this(() -> new ByteArrayInputStream(specification), () -> new SwaggerParser().parse(new String(specification, StandardCharsets.UTF_8)));
+	}
+
+	private StreamingOpenApiToIdpaTransformer(Source source, SwaggerReader swaggerReader) {
+		this.source = source;
+		this.swaggerReader = swaggerReader;
+	}
+
+	/**
+	 * Transforms the specification into an {@link Application} holding all endpoints.
+	 *
+	 * @return The generated application model.
+	 * @throws IOException
+	 *             If the specification cannot be read.
+	 */
+	public Application transform() throws IOException {
+		Application application = createApplication();
+		transformEndpoints(application::addEndpoint);
+		return application;
+	}
+
+	/**
+	 * Creates an {@link Application} without any endpoints. The endpoints can be created using
+	 * {@link #transformEndpoints(EndpointHandler)}.
+	 *
+	 * @return The application model without endpoints.
+	 * @throws IOException
+	 *             If the specification cannot be read.
+	 */
+	public Application createApplication() throws IOException {
+		readGlobals();
+
+		LOGGER.info("Transforming the Open API specification {} to an application model.", title);
+
+		Application application = new Application();
+
+		if (title != null) {
+			application.setId(title.replace(" ", "_"));
+		}
+
+		return application;
+	}
+
+	/**
+	 * Transforms the paths of the specification into endpoints one by one and passes each endpoint
+	 * to the handler as soon as it has been created. If the paths contain non-local references, all
+	 * endpoints are created using the {@link SwaggerParser} first.
+	 *
+	 * @param handler
+	 *            The handler of the created endpoints.
+	 * @throws IOException
+	 *             If the specification cannot be read or the handler throws an exception.
+	 */
+	public void transformEndpoints(EndpointHandler handler) throws IOException {
+		readGlobals();
+
+		if (nonLocalReferences) {
+			transformEndpointsWithSwaggerParser(handler);
+			return;
+		}
+
+		try (JsonParser parser = openParser()) {
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.getCurrentName();
+				parser.nextToken();
+
+				if ("paths".equals(field)) {
+					transformPaths(parser, handler);
+					return;
+				} else {
+					parser.skipChildren();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns whether the paths of the specification contain references to other documents, which
+	 * cannot be resolved while streaming.
+	 *
+	 * @return {@code true} if the specification is parsed using the {@link SwaggerParser}.
+	 * @throws IOException
+	 *             If the specification cannot be read.
+	 */
+	public boolean hasNonLocalReferences() throws IOException {
+		readGlobals();
+		return nonLocalReferences;
+	}
+
+	private void transformEndpointsWithSwaggerParser(EndpointHandler handler) throws IOException {
+		LOGGER.info("The Open API specification {} contains non-local references. Parsing it using the Swagger parser.", title);
+
+		Swagger swagger = swaggerReader.read();
+
+		if (swagger == null) {
+			throw new IOException("The Swagger parser could not read the Open API specification " + title + "!");
+		}
+
+		for (Endpoint<?> endpoint : new OpenApiToIdpaTransformer().transform(swagger).getEndpoints()) {
+			handler.handle((HttpEndpoint) endpoint);
+		}
+	}
+
+	private void readGlobals() throws IOException {
+		if (globalsRead) {
+			return;
+		}
+
+		List<String> schemes = Collections.emptyList();
+		String host = null;
+
+		try (JsonParser parser = openParser()) {
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.getCurrentName();
+				parser.nextToken();
+
+				switch (field) {
+				case "info":
+					title = parser.<JsonNode> readValueAsTree().path("title").textValue();
+					break;
+				case "host":
+					host = parser.getValueAsString();
+					break;
+				case "basePath":
+					basePath = parser.getValueAsString();
+					break;
+				case "schemes":
+					schemes = toStrings(parser.readValueAsTree());
+					break;
+				case "parameters":
+					parameterDefinitions = parser.readValueAsTree();
+					break;
+				case "paths":
+					nonLocalReferences = skipAndFindNonLocalReference(parser);
+					break;
+				default:
+					parser.skipChildren();
+					break;
+				}
+			}
+		}
+
+		protocol = extractProtocol(schemes);
+
+		if (protocol == null) {
+			LOGGER.info("No global protocol specified. Using http.");
+			protocol = "http";
+		}
+
+		if ((host != null) && host.contains(":")) {
+			String[] split = host.split("\\:");
+			domain = split[0];
+			port = split[1];
+		} else {
+			domain = host;
+			port = "80";
+		}
+
+		globalsRead = true;
+	}
+
+	/**
+	 * Skips the current value like {@link JsonParser#skipChildren()}, but checks whether it contains
+	 * a {@code $ref} not pointing into the same document.
+	 */
+	private boolean skipAndFindNonLocalReference(JsonParser parser) throws IOException {
+		if (!parser.currentToken().isStructStart()) {
+			return false;
+		}
+
+		boolean found = false;
+		boolean refValue = false;
+		int depth = 1;
+
+		while (depth > 0) {
+			JsonToken token = parser.nextToken();
+
+			if (token == null) {
+				throw new IOException("Unexpected end of the Open API specification!");
+			} else if (token == JsonToken.FIELD_NAME) {
+				refValue = "$ref".equals(parser.getCurrentName());
+				continue;
+			} else if (token.isStructStart()) {
+				depth++;
+			} else if (token.isStructEnd()) {
+				depth--;
+			} else if (refValue && (token == JsonToken.VALUE_STRING) && !parser.getText().startsWith("#")) {
+				found = true;
+			}
+
+			refValue = false;
+		}
+
+		return found;
+	}
+
+	private JsonParser openParser() throws IOException {
+		InputStream in = new BufferedInputStream(source.open());
+		in.mark(1024);
+
+		int c = in.read();
+
+		while (Character.isWhitespace(c)) {
+			c = in.read();
+		}
+
+		in.reset();
+
+		JsonParser parser = ((c == '{') ? JSON_MAPPER : YAML_MAPPER).getFactory().createParser(in);
+
+		if (parser.nextToken() != JsonToken.START_OBJECT) {
+			parser.close();
+			throw new IOException("The Open API specification needs to be an object!");
+		}
+
+		return parser;
+	}
+
+	private void transformPaths(JsonParser parser, EndpointHandler handler) throws IOException {
+		if (parser.currentToken() != JsonToken.START_OBJECT) {
+			parser.skipChildren();
+			return;
+		}
+
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String pathKey = parser.getCurrentName();
+			parser.nextToken();
+
+			JsonNode pathItem = parser.readValueAsTree();
+
+			for (HttpEndpoint endpoint : createEndpoints(pathKey, pathItem)) {
+				handler.handle(endpoint);
+			}
+		}
+	}
+
+	private List<HttpEndpoint> createEndpoints(String pathKey, JsonNode pathItem) {
+		final String path = (((basePath == null) || "/".equals(basePath)) ? "" : basePath) + pathKey;
+		List<JsonNode> pathParameters = resolveParameters(pathItem.path("parameters"));
+		List<HttpEndpoint> endpoints = new ArrayList<>();
+
+		for (String method : METHODS) {
+			JsonNode operation = pathItem.get(method);
+
+			if ((operation != null) && operation.isObject()) {
+				endpoints.add(createEndpoint(path, method.toUpperCase(), operation, pathParameters));
+			}
+		}
+
+		return endpoints;
+	}
+
+	private HttpEndpoint createEndpoint(String path, String method, JsonNode operation, List<JsonNode> pathParameters) {
+		HttpEndpoint endpoint = new HttpEndpoint();
+
+		if (operation.has("consumes")) {
+			List<String> headers = new ArrayList<>();
+
+			for (String type : toStrings(operation.get("consumes"))) {
+				headers.add("Accept: " + type);
+				headers.add("Content-Type: " + type);
+			}
+
+			endpoint.setHeaders(headers);
+		}
+
+		endpoint.setDomain(domain);
+		endpoint.setPort(port);
+		endpoint.setPath(path);
+		endpoint.setMethod(method);
+
+		String operationProtocol = extractProtocol(toStrings(operation.get("schemes")));
+		endpoint.setProtocol(operationProtocol == null ? protocol : operationProtocol);
+
+		String id = operation.path("operationId").textValue();
+		endpoint.setId(id == null ? StringUtils.formatAsId(false, path, method) : id);
+
+		List<JsonNode> operationParameters = resolveParameters(operation.path("parameters"));
+		List<HttpParameter> parameters = new ArrayList<>();
+
+		// like the Swagger parser, add the path parameters that are not overridden by the operation
+		for (JsonNode pathParam : pathParameters) {
+			boolean overridden = operationParameters.stream().anyMatch(
+					opParam -> Objects.equals(opParam.path("name").textValue(), pathParam.path("name").textValue()) && Objects.equals(opParam.path("in").textValue(), pathParam.path("in").textValue()));
+
+			if (!overridden) {
+				parameters.add(convertToParameter(pathParam));
+			}
+		}
+
+		for (JsonNode opParam : operationParameters) {
+			parameters.add(convertToParameter(opParam));
+		}
+
+		endpoint.setParameters(parameters);
+		OpenApiToIdpaTransformer.setParameterIds(endpoint);
+
+		return endpoint;
+	}
+
+	private HttpParameter convertToParameter(JsonNode swaggerParam) {
+		HttpParameter param = new HttpParameter();
+
+		param.setName(swaggerParam.path("name").textValue());
+		param.setParameterType(OpenApiToIdpaTransformer.transformToParameterType(swaggerParam.path("in").asText()));
+
+		return param;
+	}
+
+	private List<JsonNode> resolveParameters(JsonNode parameters) {
+		List<JsonNode> resolved = new ArrayList<>();
+
+		for (JsonNode param : parameters) {
+			String ref = param.path("$ref").textValue();
+
+			if (ref == null) {
+				resolved.add(param);
+				continue;
+			}
+
+			JsonNode definition = null;
+
+			if (ref.startsWith(PARAMETER_REF_PREFIX) && (parameterDefinitions != null)) {
+				definition = parameterDefinitions.get(ref.substring(PARAMETER_REF_PREFIX.length()).replace("~1", "/").replace("~0", "~"));
+			}
+
+			if (definition == null) {
+				LOGGER.warn("Cannot resolve the parameter reference {}. Ignoring it.", ref);
+			} else {
+				resolved.add(definition);
+			}
+		}
+
+		return resolved;
+	}
+
+	private List<String> toStrings(JsonNode array) {
+		List<String> strings = new ArrayList<>();
+
+		if (array != null) {
+			for (JsonNode node : array) {
+				strings.add(node.asText());
+			}
+		}
+
+		return strings;
+	}
+
+	private String extractProtocol(List<String> schemes) {
+		if (schemes.isEmpty()) {
+			return null;
+		} else if (schemes.size() > 1) {
+			return "http";
+		} else {
+			return schemes.get(0).toLowerCase();
+		}
+	}
+
+	/**
+	 * Handles the endpoints created by {@link StreamingOpenApiToIdpaTransformer#transformEndpoints(EndpointHandler)}.
+	 */
+	@FunctionalInterface
+	public static interface EndpointHandler {
+
+		void handle(HttpEndpoint endpoint) throws IOException;
+
+	}
+
+	@FunctionalInterface
+	private static interface Source {
+
+		InputStream open() throws IOException;
+
+	}
+
+	@FunctionalInterface
+	private static interface SwaggerReader {
+
+		Swagger read();
+
+	}
+
+}
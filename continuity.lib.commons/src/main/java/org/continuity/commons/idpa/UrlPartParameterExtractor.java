@@ -1,9 +1,12 @@
 package org.continuity.commons.idpa;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.continuity.commons.accesslogs.ParameterRecord;
 import org.continuity.idpa.application.HttpEndpoint;
 import org.continuity.idpa.application.HttpParameter;
 import org.continuity.idpa.application.HttpParameterType;
@@ -32,6 +35,28 @@ public class UrlPartParameterExtractor {
 		this.parameters = endpoint.getParameters().stream().filter(p -> p.getParameterType() == HttpParameterType.URL_PART).map(HttpParameter::getName).iterator();
 	}
 
+	/**
+	 * Extracts all URL part parameters and their values at once.
+	 *
+	 * @param endpoint
+	 *            The endpoint defining the parameters.
+	 * @param path
+	 *            The request path.
+	 * @return The parameters with their values. A value is {@code null} if the path does not
+	 *         match.
+	 */
+	public static List<ParameterRecord> extractAll(HttpEndpoint endpoint, String path) {
+		UrlPartParameterExtractor extractor = new UrlPartParameterExtractor(endpoint, path);
+		List<ParameterRecord> params = new ArrayList<>();
+
+		while (extractor.hasNext()) {
+			String name = extractor.nextParameter();
+			params.add(new ParameterRecord(name, extractor.currentValue()));
+		}
+
+		return params;
+	}
+
 	/**
 	 * Returns whether there is a next parameter value pair to be extracted.
 	 *
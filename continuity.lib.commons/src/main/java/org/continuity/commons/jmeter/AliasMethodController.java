@@ -0,0 +1,127 @@
+package org.continuity.commons.jmeter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.jmeter.control.RandomController;
+import org.apache.jmeter.control.gui.RandomControlGui;
+import org.apache.jmeter.testelement.property.CollectionProperty;
+import org.apache.jmeter.testelement.property.JMeterProperty;
+import org.apache.jmeter.testelement.property.PropertyIterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * JMeter controller executing one of its children per iteration. The children are selected
+ * randomly according to their weights, which are stored in the test plan. The selection takes
+ * constant time regardless of the number of children, as it uses an {@link AliasTable}. <br>
+ * In contrast to a chain of throughput controllers, the children are not evaluated one after
+ * another and no counters are shared between the threads. <br>
+ * In the JMeter GUI, the controller can be shown using the {@link RandomControlGui}.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class AliasMethodController extends RandomController {
+
+	private static final long serialVersionUID = -5389718372407529151L;
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AliasMethodController.class);
+
+	private static final String WEIGHTS = "AliasMethodController.weights";
+
+	private transient AliasTable aliasTable;
+
+	private transient boolean aliasTableCreated = false;
+
+	/**
+	 * Sets the weights of the children. The i-th weight belongs to the i-th child.
+	 *
+	 * @param weights
+	 *            The weights. Do not need to sum up to 1.
+	 */
+	public void setWeights(List<Double> weights) {
+		setProperty(new CollectionProperty(WEIGHTS, weights));
+		aliasTableCreated = false;
+	}
+
+	/**
+	 * Gets the weights of the children.
+	 *
+	 * @return The weights. The i-th weight belongs to the i-th child.
+	 */
+	public List<Double> getWeights() {
+		List<Double> weights = new ArrayList<>();
+		JMeterProperty property = getProperty(WEIGHTS);
+
+		if (property instanceof CollectionProperty) {
+			PropertyIterator it = ((CollectionProperty) property).iterator();
+
+			while (it.hasNext()) {
+				weights.add(it.next().getDoubleValue());
+			}
+		}
+
+		return weights;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void resetCurrent() {
+		current = selectNext();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void incrementCurrent() {
+		super.incrementCurrent();
+		current = selectNext();
+	}
+
+	/**
+	 * Selects the next child using the alias table. Falls back to a uniform selection if the
+	 * weights do not match the children.
+	 */
+	private int selectNext() {
+		int numChildren = getSubControllers().size();
+		AliasTable table = getAliasTable();
+
+		if ((table != null) && (table.size() != numChildren)) {
+			LOGGER.warn("There are {} weights for the {} children of {}! Selecting the children uniformly.", table.size(), numChildren, getName());
+			aliasTable = null;
+			table = null;
+		}
+
+		if (table != null) {
+			return table.sample(ThreadLocalRandom.current());
+		} else if (numChildren > 0) {
+			return ThreadLocalRandom.current().nextInt(numChildren);
+		} else {
+			return 0;
+		}
+	}
+
+	private AliasTable getAliasTable() {
+		if (!aliasTableCreated) {
+			aliasTableCreated = true;
+			aliasTable = null;
+
+			List<Double> weights = getWeights();
+
+			try {
+				aliasTable = new AliasTable(weights.stream().mapToDouble(Double::doubleValue).toArray());
+			} catch (IllegalArgumentException e) {
+				LOGGER.error("Cannot create the alias table of {}!", getName());
+				LOGGER.error("Exception:", e);
+			}
+		}
+
+		return aliasTable;
+	}
+
+}
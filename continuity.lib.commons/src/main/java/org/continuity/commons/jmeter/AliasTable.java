@@ -0,0 +1,120 @@
+package org.continuity.commons.jmeter;
+
+import java.util.Random;
+
+/**
+ * Samples indices from a discrete probability distribution in constant time using Walker's alias
+ * method (in the numerically stable variant by Vose). Creating the table takes linear time in the
+ * number of weights.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class AliasTable {
+
+	private final double[] probability;
+
+	private final int[] alias;
+
+	/**
+	 * Creates a new table for the specified weights. The weights do not need to sum up to 1.
+	 *
+	 * @param weights
+	 *            The non-negative weights. At least one needs to be positive.
+	 * @throws IllegalArgumentException
+	 *             If there are no weights, a weight is negative or not finite, or all weights are
+	 *             zero.
+	 */
+	public AliasTable(double[] weights) throws IllegalArgumentException {
+		int n = weights.length;
+
+		if (n == 0) {
+			throw new IllegalArgumentException("Cannot create an alias table without weights!");
+		}
+
+		double sum = 0;
+
+		for (double weight : weights) {
+			if ((weight < 0) || Double.isNaN(weight) || Double.isInfinite(weight)) {
+				throw new IllegalArgumentException("Illegal weight " + weight + "! The weights need to be non-negative and finite.");
+			}
+
+			sum += weight;
+		}
+
+		if (sum <= 0) {
+			throw new IllegalArgumentException("At least one weight needs to be positive!");
+		}
+
+		this.probability = new double[n];
+		this.alias = new int[n];
+
+		double[] scaled = new double[n];
+		int[] small = new int[n];
+		int[] large = new int[n];
+		int numSmall = 0;
+		int numLarge = 0;
+
+		for (int i = 0; i < n; i++) {
+			scaled[i] = (weights[i] * n) / sum;
+
+			if (scaled[i] < 1) {
+				small[numSmall++] = i;
+			} else {
+				large[numLarge++] = i;
+			}
+		}
+
+		while ((numSmall > 0) && (numLarge > 0)) {
+			int s = small[--numSmall];
+			int l = large[--numLarge];
+
+			probability[s] = scaled[s];
+			alias[s] = l;
+
+			scaled[l] = (scaled[l] + scaled[s]) - 1;
+
+			if (scaled[l] < 1) {
+				small[numSmall++] = l;
+			} else {
+				large[numLarge++] = l;
+			}
+		}
+
+		// the remaining entries are 1 except for rounding errors
+		while (numLarge > 0) {
+			int l = large[--numLarge];
+			probability[l] = 1;
+			alias[l] = l;
+		}
+
+		while (numSmall > 0) {
+			int s = small[--numSmall];
+			probability[s] = 1;
+			alias[s] = s;
+		}
+	}
+
+	/**
+	 * Samples an index. The probability of each index is its weight divided by the sum of all
+	 * weights.
+	 *
+	 * @param random
+	 *            The random number generator to be used.
+	 * @return An index between 0 (inclusive) and {@link #size()} (exclusive).
+	 */
+	public int sample(Random random) {
+		int column = random.nextInt(probability.length);
+		return random.nextDouble() < probability[column] ? column : alias[column];
+	}
+
+	/**
+	 * Gets the number of weights.
+	 *
+	 * @return The number of weights.
+	 */
+	public int size() {
+		return probability.length;
+	}
+
+}
@@ -1,7 +1,12 @@
 package org.continuity.commons.storage;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -10,7 +15,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Stores artifacts in the file system.
+ * Stores artifacts in the file system. The artifacts are distributed over shard directories of
+ * at most {@link #FILES_PER_SHARD} artifacts each, and the numeric part of the IDs is allocated
+ * from a {@link PersistentIdCounter}. Storage directories using the former flat layout are
+ * migrated on creation.
  *
  * @author Henning Schulz
  *
@@ -25,15 +33,31 @@ public abstract class FileStorage<T> implements ArtifactStorage<T> {
 
 	private static final String FILE_PATTERN = "^([0-9]+).*";
 
+	private static final String COUNTER_FILE = ".id-counter";
+
+	private static final String SHARD_PREFIX = "shard-";
+
+	/**
+	 * The maximum number of artifacts stored in one shard directory.
+	 */
+	public static final int FILES_PER_SHARD = 1000;
+
+	private final Pattern filePattern = Pattern.compile(FILE_PATTERN);
+
 	private final Path storagePath;
 
 	private final T emptyEntity;
 
+	private final PersistentIdCounter idCounter;
+
 	public FileStorage(Path storagePath, T emptyEntity) {
 		this.storagePath = storagePath;
 		storagePath.toFile().mkdirs();
 
 		this.emptyEntity = emptyEntity;
+		this.idCounter = new PersistentIdCounter(storagePath.resolve(COUNTER_FILE));
+
+		migrateFlatLayout();
 
 		LOGGER.info("Using storage path {}.", storagePath.toAbsolutePath());
 	}
@@ -85,7 +109,14 @@ public abstract class FileStorage<T> implements ArtifactStorage<T> {
 
 	@Override
 	public String put(T entity, AppId aid) {
-		String id = getNextNumber() + DELIM + aid;
+		String id;
+
+		try {
+			id = idCounter.next() + DELIM + aid;
+		} catch (IOException e) {
+			LOGGER.error("Error during allocating an ID!", e);
+			return null;
+		}
 
 		store(id, entity);
 
@@ -94,7 +125,10 @@ public abstract class FileStorage<T> implements ArtifactStorage<T> {
 
 	private void store(String id, T entity) {
 		try {
-			write(storagePath, id, entity);
+			Path shardPath = toShardPath(id);
+			shardPath.toFile().mkdirs();
+
+			write(shardPath, id, entity);
 		} catch (IOException e) {
 			LOGGER.error("Error during writing!", e);
 		}
@@ -103,7 +137,7 @@ public abstract class FileStorage<T> implements ArtifactStorage<T> {
 	@Override
 	public T get(String id) {
 		try {
-			return read(storagePath, id);
+			return read(toShardPath(id), id);
 		} catch (IOException e) {
 			LOGGER.error("Error during reading!", e);
 			return null;
@@ -113,7 +147,7 @@ public abstract class FileStorage<T> implements ArtifactStorage<T> {
 	@Override
 	public boolean remove(String id) {
 		try {
-			return remove(storagePath, id);
+			return remove(toShardPath(id), id);
 		} catch (IOException e) {
 			LOGGER.error("Error during deleting!", e);
 			return false;
@@ -125,24 +159,123 @@ public abstract class FileStorage<T> implements ArtifactStorage<T> {
 		return AppId.fromString(id.substring(id.indexOf(DELIM) + 1));
 	}
 
-	private int getNextNumber() {
+	/**
+	 * Returns the shard directory of the passed ID. IDs not starting with a number are stored
+	 * directly in the storage path.
+	 *
+	 * @param id
+	 *            The ID of the artifact.
+	 * @return The directory in which the artifact is stored.
+	 */
+	private Path toShardPath(String id) {
+		int number = getNumber(id);
+
+		if (number < 0) {
+			return storagePath;
+		} else {
+			return storagePath.resolve(SHARD_PREFIX + (number / FILES_PER_SHARD));
+		}
+	}
+
+	/**
+	 * Moves all artifacts stored directly in the storage path (as done by former versions) into
+	 * their shard directories. If the ID counter does not exist, yet, e.g., because it has been
+	 * lost, it is initialized with the highest number found in the storage path and the shard
+	 * directories. The counter is written before moving the artifacts so that an interrupted
+	 * migration can safely be resumed on the next start.
+	 */
+	private void migrateFlatLayout() {
+		String[] files = storagePath.toFile().list();
+
+		if (files == null) {
+			return;
+		}
+
+		if (!idCounter.exists()) {
+			int max = Math.max(getMaxNumber(files), getMaxNumberInShards(files));
+
+			try {
+				if (idCounter.initialize(max) && (max > 0)) {
+					LOGGER.info("Initialized the ID counter of {} with {}.", storagePath.toAbsolutePath(), max);
+				}
+			} catch (IOException e) {
+				LOGGER.error("Could not initialize the ID counter!", e);
+			}
+		}
+
+		int numMigrated = 0;
+
+		for (String file : files) {
+			int number = getNumber(file);
+
+			if (number >= 0) {
+				File shardDir = storagePath.resolve(SHARD_PREFIX + (number / FILES_PER_SHARD)).toFile();
+				shardDir.mkdirs();
+
+				try {
+					Files.move(storagePath.resolve(file), shardDir.toPath().resolve(file));
+					numMigrated++;
+				} catch (IOException e) {
+					LOGGER.error("Could not migrate " + file + " to the sharded layout!", e);
+				}
+			}
+		}
+
+		if (numMigrated > 0) {
+			LOGGER.info("Migrated {} artifacts in {} to the sharded layout.", numMigrated, storagePath.toAbsolutePath());
+		}
+	}
+
+	private int getMaxNumber(String[] files) {
 		int max = 0;
 
-		for (String file : storagePath.toFile().list()) {
-			if (file.matches(FILE_PATTERN)) {
-				max = Math.max(max, getNumber(file));
+		for (String file : files) {
+			max = Math.max(max, getNumber(file));
+		}
+
+		return max;
+	}
+
+	/**
+	 * Gets the highest number of the artifacts in the shard directories. As the shards are filled
+	 * in ascending order, only the highest non-empty shard needs to be listed.
+	 */
+	private int getMaxNumberInShards(String[] files) {
+		List<Integer> shards = new ArrayList<>();
+
+		for (String file : files) {
+			if (file.startsWith(SHARD_PREFIX)) {
+				try {
+					shards.add(Integer.parseInt(file.substring(SHARD_PREFIX.length())));
+				} catch (NumberFormatException e) {
+					LOGGER.warn("Ignoring unexpected directory {} in {}.", file, storagePath.toAbsolutePath());
+				}
 			}
 		}
 
-		return max + 1;
+		shards.sort(Collections.reverseOrder());
+
+		for (int shard : shards) {
+			String[] shardFiles = storagePath.resolve(SHARD_PREFIX + shard).toFile().list();
+			int max = shardFiles == null ? 0 : getMaxNumber(shardFiles);
+
+			if (max > 0) {
+				return max;
+			}
+		}
+
+		return 0;
 	}
 
 	private int getNumber(String filename) {
-		Pattern pattern = Pattern.compile(FILE_PATTERN);
-		Matcher matcher = pattern.matcher(filename);
+		Matcher matcher = filePattern.matcher(filename);
 
 		if (matcher.find()) {
-			return Integer.valueOf(matcher.group(1));
+			try {
+				return Integer.valueOf(matcher.group(1));
+			} catch (NumberFormatException e) {
+				return -1;
+			}
 		} else {
 			return -1;
 		}
@@ -0,0 +1,137 @@
+package org.continuity.commons.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Allocates consecutive numeric IDs from a counter that is persisted in a file. Allocating an ID
+ * only reads and rewrites the counter file, independently of the number of already allocated IDs.
+ * The allocation is atomic across threads and, by locking a separate lock file, across processes
+ * sharing the same file. The counter file is never modified in place. Instead, the new value is
+ * written to a temporary file, which atomically replaces the counter file. Hence, a crash cannot
+ * leave an empty or partially written counter behind.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class PersistentIdCounter {
+
+	private static final String LOCK_FILE_SUFFIX = ".lock";
+
+	/**
+	 * {@link FileLock}s are held on behalf of the whole JVM. Hence, threads of the same JVM have to
+	 * be synchronized separately.
+	 */
+	private static final ConcurrentMap<Path, Object> JVM_LOCKS = new ConcurrentHashMap<>();
+
+	private final Path counterFile;
+
+	private final Path lockFile;
+
+	private final Object jvmLock;
+
+	public PersistentIdCounter(Path counterFile) {
+		this.counterFile = counterFile.toAbsolutePath().normalize();
+		this.lockFile = this.counterFile.resolveSibling(this.counterFile.getFileName() + LOCK_FILE_SUFFIX);
+		this.jvmLock = JVM_LOCKS.computeIfAbsent(this.counterFile, p -> new Object());
+	}
+
+	/**
+	 * Returns whether the counter file already exists.
+	 *
+	 * @return {@code true} if the counter has been initialized before.
+	 */
+	public boolean exists() {
+		return Files.exists(counterFile);
+	}
+
+	/**
+	 * Initializes the counter with the last used ID if it does not exist, yet.
+	 *
+	 * @param lastUsed
+	 *            The last ID that is already in use. The next allocated ID will be
+	 *            {@code lastUsed + 1}.
+	 * @return {@code true} if the counter has been initialized or {@code false} if it already
+	 *         existed.
+	 * @throws IOException
+	 *             If writing the counter file fails.
+	 */
+	public boolean initialize(int lastUsed) throws IOException {
+		synchronized (jvmLock) {
+			try (FileChannel channel = openLockFile(); FileLock lock = channel.lock()) {
+				if (exists()) {
+					return false;
+				}
+
+				write(lastUsed);
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Allocates the next ID. A missing counter file is treated as if no ID has been used, yet.
+	 *
+	 * @return The allocated ID. It is guaranteed that no other caller got the same ID.
+	 * @throws IOException
+	 *             If reading or writing the counter file fails.
+	 */
+	public int next() throws IOException {
+		synchronized (jvmLock) {
+			try (FileChannel channel = openLockFile(); FileLock lock = channel.lock()) {
+				int next = read() + 1;
+				write(next);
+
+				return next;
+			}
+		}
+	}
+
+	private FileChannel openLockFile() throws IOException {
+		return FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+	}
+
+	private int read() throws IOException {
+		if (!exists()) {
+			return 0;
+		}
+
+		String content = new String(Files.readAllBytes(counterFile), StandardCharsets.UTF_8).trim();
+
+		try {
+			return Integer.parseInt(content);
+		} catch (NumberFormatException e) {
+			throw new IOException("Corrupted ID counter file " + counterFile + ": '" + content + "'", e);
+		}
+	}
+
+	private void write(int value) throws IOException {
+		Path tmpFile = Files.createTempFile(counterFile.getParent(), counterFile.getFileName().toString(), ".tmp");
+
+		try {
+			try (FileChannel channel = FileChannel.open(tmpFile, StandardOpenOption.WRITE)) {
+				ByteBuffer buffer = ByteBuffer.wrap(Integer.toString(value).getBytes(StandardCharsets.UTF_8));
+
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+
+				channel.force(true);
+			}
+
+			Files.move(tmpFile, counterFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(tmpFile);
+		}
+	}
+
+}
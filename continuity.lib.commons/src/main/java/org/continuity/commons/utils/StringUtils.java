@@ -1,5 +1,7 @@
 package org.continuity.commons.utils;
 
+import java.util.regex.Pattern;
+
 /**
  * Utility class for String manipulation.
  *
@@ -8,6 +10,8 @@ package org.continuity.commons.utils;
  */
 public class StringUtils {
 
+	private static final Pattern NON_ID_CHARS = Pattern.compile("[^a-zA-Z0-9_]");
+
 	private StringUtils() {
 	}
 
@@ -40,8 +44,8 @@ public class StringUtils {
 		return builder.toString();
 	}
 
-	private static String appendAsIdPart(String string, StringBuilder builder, boolean shorten) {
-		String[] tokens = string.split("[^a-zA-Z0-9_]");
+	private static void appendAsIdPart(String string, StringBuilder builder, boolean shorten) {
+		String[] tokens = NON_ID_CHARS.split(string);
 
 		boolean first = true;
 
@@ -66,10 +70,8 @@ public class StringUtils {
 				builder.append("_");
 			}
 
-			builder.append(tokens[tokens.length - 1].replaceAll("[^a-zA-Z0-9_]", "_"));
+			builder.append(NON_ID_CHARS.matcher(tokens[tokens.length - 1]).replaceAll("_"));
 		}
-
-		return builder.toString();
 	}
 
 }
@@ -0,0 +1,166 @@
+package org.continuity.commons.accesslogs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.continuity.commons.idpa.AnnotationFromAccessLogsExtractor;
+import org.continuity.idpa.annotation.ApplicationAnnotation;
+import org.continuity.idpa.annotation.DirectListInput;
+import org.continuity.idpa.annotation.Input;
+import org.continuity.idpa.application.Application;
+import org.continuity.idpa.application.HttpEndpoint;
+import org.continuity.idpa.application.HttpParameter;
+import org.continuity.idpa.application.HttpParameterType;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ParallelAccessLogsConsumerTest {
+
+	private static final int NUM_LINES = 3000;
+
+	private static final long SEGMENT_SIZE = 1024;
+
+	private static final String[] LINE_BREAKS = { "\n", "\r\n", "\r" };
+
+	private static Path tempDir;
+
+	private static Path logs;
+
+	private static Application application;
+
+	@BeforeClass
+	public static void createLogs() throws IOException {
+		tempDir = Files.createTempDirectory("access-logs");
+		logs = tempDir.resolve("access.log");
+
+		application = new Application();
+		application.setId("shop");
+		application.addEndpoint(endpoint("getCart", "GET", "/carts/{id}", parameter("cart-id", "id", HttpParameterType.URL_PART)));
+		application.addEndpoint(endpoint("search", "GET", "/search", parameter("search-q", "q", HttpParameterType.REQ_PARAM), parameter("search-page", "page", HttpParameterType.REQ_PARAM)));
+		application.addEndpoint(endpoint("login", "POST", "/login", parameter("login-user", "user", HttpParameterType.REQ_PARAM)));
+
+		Random random = new Random(42);
+
+		try (BufferedWriter writer = Files.newBufferedWriter(logs, StandardCharsets.UTF_8)) {
+			for (int i = 0; i < NUM_LINES; i++) {
+				writer.write(createLine(random, i));
+				writer.write(LINE_BREAKS[random.nextInt(20) == 0 ? 1 + random.nextInt(2) : 0]);
+			}
+
+			// last line without line break
+			writer.write(createLine(random, NUM_LINES));
+		}
+	}
+
+	@AfterClass
+	public static void deleteTempDir() throws IOException {
+		try (Stream<Path> files = Files.walk(tempDir)) {
+			files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+		}
+	}
+
+	@Test
+	public void testUnifiedCsvIsIdentical() throws IOException {
+		Path sequentialCsv = tempDir.resolve("sequential.csv");
+		UnifiedCsvFromAccessLogsExtractor sequential = new UnifiedCsvFromAccessLogsExtractor(application, logs, sequentialCsv);
+		sequential.consume();
+
+		Path parallelCsv = tempDir.resolve("parallel.csv");
+		UnifiedCsvFromAccessLogsExtractor parallel = new UnifiedCsvFromAccessLogsExtractor(application, logs, parallelCsv);
+		parallel.setMinSegmentSize(SEGMENT_SIZE);
+		parallel.consume(4);
+
+		assertThat(Files.readAllLines(sequentialCsv).size()).isGreaterThan(NUM_LINES / 2);
+		assertThat(Files.readAllBytes(parallelCsv)).isEqualTo(Files.readAllBytes(sequentialCsv));
+		assertThat(parallel.getIgnoredRequests()).isNotEmpty().containsExactlyElementsOf(sequential.getIgnoredRequests());
+	}
+
+	@Test
+	public void testExtractedAnnotationIsIdentical() throws IOException {
+		Path sequentialDir = Files.createDirectory(tempDir.resolve("sequential"));
+		AnnotationFromAccessLogsExtractor sequential = new AnnotationFromAccessLogsExtractor(application, logs, sequentialDir);
+		sequential.extract();
+
+		Path parallelDir = Files.createDirectory(tempDir.resolve("parallel"));
+		AnnotationFromAccessLogsExtractor parallel = new AnnotationFromAccessLogsExtractor(application, logs, parallelDir);
+		parallel.setMinSegmentSize(SEGMENT_SIZE);
+		parallel.extract(3);
+
+		assertThat(parallel.getIgnoredRequests()).containsExactlyElementsOf(sequential.getIgnoredRequests());
+		assertThat(parallel.getFilteredApplication().getEndpoints()).containsExactlyInAnyOrderElementsOf(sequential.getFilteredApplication().getEndpoints());
+
+		Map<String, List<String>> sequentialData = directListData(sequential.getExtractedAnnotation());
+
+		assertThat(sequentialData).containsKeys("Input_cart-id", "Input_login-user");
+		assertThat(sequentialData.get("Input_cart-id").size()).isGreaterThan(NUM_LINES / 10);
+		assertThat(directListData(parallel.getExtractedAnnotation())).isEqualTo(sequentialData);
+
+		assertThat(Files.readAllBytes(parallelDir.resolve("search.csv"))).isEqualTo(Files.readAllBytes(sequentialDir.resolve("search.csv")));
+	}
+
+	private Map<String, List<String>> directListData(ApplicationAnnotation annotation) {
+		return annotation.getInputs().stream().filter(input -> input instanceof DirectListInput).map(DirectListInput.class::cast)
+				.collect(Collectors.toMap(Input::getId, DirectListInput::getData));
+	}
+
+	private static String createLine(Random random, int i) {
+		String request;
+
+		switch (random.nextInt(6)) {
+		case 0:
+			request = "GET /carts/" + random.nextInt(1000);
+			break;
+		case 1:
+			request = "GET /search?q=" + Arrays.asList("shoes", "hats", "äpfel", "日本").get(random.nextInt(4)) + "&page=" + random.nextInt(5);
+			break;
+		case 2:
+			request = "GET /search?q=socks";
+			break;
+		case 3:
+			request = "POST /login?user=u" + random.nextInt(100) + "&pw";
+			break;
+		case 4:
+			request = "GET /unknown/" + (i % 50);
+			break;
+		default:
+			return "this line cannot be parsed " + i;
+		}
+
+		return "10.0.0." + (i % 256) + " - - [10/Oct/2019:13:55:36 +0200] \"" + request + " HTTP/1.1\" 200 " + random.nextInt(10000);
+	}
+
+	private static HttpEndpoint endpoint(String id, String method, String path, HttpParameter... params) {
+		HttpEndpoint endpoint = new HttpEndpoint();
+		endpoint.setId(id);
+		endpoint.setDomain("localhost");
+		endpoint.setPort("8080");
+		endpoint.setProtocol("http");
+		endpoint.setMethod(method);
+		endpoint.setPath(path);
+		endpoint.setParameters(new ArrayList<>(Arrays.asList(params)));
+		return endpoint;
+	}
+
+	private static HttpParameter parameter(String id, String name, HttpParameterType type) {
+		HttpParameter param = new HttpParameter();
+		param.setId(id);
+		param.setName(name);
+		param.setParameterType(type);
+		return param;
+	}
+
+}
@@ -0,0 +1,265 @@
+package org.continuity.commons.idpa;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.continuity.api.entities.report.AnnotationValidityReport;
+import org.continuity.api.entities.report.ApplicationChange;
+import org.continuity.api.entities.report.ApplicationChangeReport;
+import org.continuity.api.entities.report.ApplicationChangeType;
+import org.continuity.api.entities.report.ModelElementReference;
+import org.continuity.idpa.VersionOrTimestamp;
+import org.continuity.idpa.WeakReference;
+import org.continuity.idpa.annotation.ApplicationAnnotation;
+import org.continuity.idpa.annotation.DirectListInput;
+import org.continuity.idpa.annotation.EndpointAnnotation;
+import org.continuity.idpa.annotation.Input;
+import org.continuity.idpa.annotation.OverrideableAnnotation;
+import org.continuity.idpa.annotation.ParameterAnnotation;
+import org.continuity.idpa.annotation.PropertyOverride;
+import org.continuity.idpa.annotation.PropertyOverrideKey;
+import org.continuity.idpa.annotation.extracted.EndpointOrInput;
+import org.continuity.idpa.annotation.extracted.ExtractedInput;
+import org.continuity.idpa.annotation.extracted.RegExExtraction;
+import org.continuity.idpa.application.Application;
+import org.continuity.idpa.application.Endpoint;
+import org.continuity.idpa.application.HttpEndpoint;
+import org.continuity.idpa.application.HttpParameter;
+import org.continuity.idpa.application.HttpParameterType;
+import org.continuity.idpa.application.Parameter;
+import org.junit.Test;
+
+public class AnnotationValidityCheckerTest {
+
+	private static final int NUM_ENDPOINTS = 2000;
+
+	@Test
+	public void testValidAnnotation() {
+		Application application = createApplication(10, Collections.emptySet());
+		ApplicationAnnotation annotation = createAnnotation(10);
+
+		AnnotationValidityChecker checker = new AnnotationValidityChecker(application);
+		checker.checkAnnotation(annotation);
+		AnnotationValidityReport report = checker.getReport();
+
+		assertThat(report.isOk()).isTrue();
+		assertThat(report.isBreaking()).isFalse();
+	}
+
+	@Test
+	public void testBrokenReferences() {
+		Application application = createApplication(10, new HashSet<>(Arrays.asList("e3", "e5_a")));
+		ApplicationAnnotation annotation = createAnnotation(10);
+
+		// parameter annotation referring to an input that is not part of the annotation
+		DirectListInput foreignInput = new DirectListInput();
+		foreignInput.setId("foreign");
+		annotation.getEndpointAnnotations().get(7).getParameterAnnotations().get(0).setInput(foreignInput);
+
+		AnnotationValidityChecker checker = new AnnotationValidityChecker(application);
+		checker.checkAnnotation(annotation);
+		AnnotationValidityReport report = checker.getReport();
+
+		assertThat(report.isBreaking()).isTrue();
+		assertThat(toStrings(report)).containsExactlyInAnyOrder("e3_ann: ILLEGAL_ENDPOINT_REFERENCE e3", "e3_a_ann: ILLEGAL_PARAMETER_REFERENCE e3_a",
+				"extract_e3: ILLEGAL_ENDPOINT_REFERENCE e3", "e5_a_ann: ILLEGAL_PARAMETER_REFERENCE e5_a", "e7_a_ann: ILLEGAL_INTERNAL_REFERENCE foreign");
+	}
+
+	@Test
+	public void testIncrementalCheck() throws Exception {
+		Application application = createApplication(10, new HashSet<>(Arrays.asList("e3", "e5_a")));
+		ApplicationAnnotation annotation = createAnnotation(10);
+
+		Set<ApplicationChange> changes = new HashSet<>();
+		changes.add(new ApplicationChange(ApplicationChangeType.ENDPOINT_REMOVED, new ModelElementReference("HttpEndpoint", "e3")));
+		changes.add(new ApplicationChange(ApplicationChangeType.ENDPOINT_CHANGED, new ModelElementReference("HttpEndpoint", "e4"), "path"));
+
+		AnnotationValidityChecker checker = new AnnotationValidityChecker(application);
+		checker.checkAnnotation(annotation, new ApplicationChangeReport(changes, VersionOrTimestamp.fromString("v2")));
+
+		// e5_a is broken as well, but not affected by the changes
+		assertThat(toStrings(checker.getReport())).containsExactlyInAnyOrder("e3_ann: ILLEGAL_ENDPOINT_REFERENCE e3", "e3_a_ann: ILLEGAL_PARAMETER_REFERENCE e3_a",
+				"extract_e3: ILLEGAL_ENDPOINT_REFERENCE e3");
+
+		checker = new AnnotationValidityChecker(application);
+		checker.checkAnnotation(annotation, ApplicationChangeReport.empty(VersionOrTimestamp.fromString("v2")));
+
+		assertThat(checker.getReport().isOk()).isTrue();
+	}
+
+	@Test
+	public void testOverrides() {
+		Application application = createApplication(10, Collections.emptySet());
+		ApplicationAnnotation annotation = createOverridingAnnotation();
+
+		AnnotationValidityChecker checker = new AnnotationValidityChecker(application);
+		checker.checkAnnotation(annotation);
+		AnnotationValidityReport report = checker.getReport();
+
+		assertThat(report.isBreaking()).isTrue();
+		assertThat(toStrings(report)).containsExactlyInAnyOrder("e1_ann: ILLEGAL_OVERRIDE HttpEndpoint.port", "e1_a_ann: IGNORED_OVERRIDE HttpEndpoint.domain",
+				"e2_a_ann: ILLEGAL_OVERRIDE null");
+
+		annotation.getEndpointAnnotations().get(1).getOverrides().get(0).setValue("8080");
+		annotation.getEndpointAnnotations().get(2).getParameterAnnotations().get(0).getOverrides().clear();
+
+		checker = new AnnotationValidityChecker(application);
+		checker.checkAnnotation(annotation);
+		report = checker.getReport();
+
+		assertThat(report.isBreaking()).isFalse();
+		assertThat(toStrings(report)).containsExactly("e1_a_ann: IGNORED_OVERRIDE HttpEndpoint.domain");
+	}
+
+	@Test
+	public void testIncrementalCheckOfOverrides() throws Exception {
+		Application application = createApplication(10, Collections.emptySet());
+		ApplicationAnnotation annotation = createOverridingAnnotation();
+
+		Set<ApplicationChange> changes = new HashSet<>();
+		changes.add(new ApplicationChange(ApplicationChangeType.ENDPOINT_CHANGED, new ModelElementReference("HttpEndpoint", "e1"), "port"));
+
+		AnnotationValidityChecker checker = new AnnotationValidityChecker(application);
+		checker.checkAnnotation(annotation, new ApplicationChangeReport(changes, VersionOrTimestamp.fromString("v2")));
+
+		// the overrides of e2_a are invalid as well, but not affected by the changes
+		assertThat(toStrings(checker.getReport())).containsExactlyInAnyOrder("e1_ann: ILLEGAL_OVERRIDE HttpEndpoint.port", "e1_a_ann: IGNORED_OVERRIDE HttpEndpoint.domain");
+	}
+
+	@Test
+	public void testBrokenReferencesOnLargerAnnotations() {
+		Set<String> omitted = new HashSet<>();
+		Set<String> expected = new HashSet<>();
+
+		for (int i = 0; i < NUM_ENDPOINTS; i += 100) {
+			String id = "e" + i;
+			omitted.add(id);
+			expected.addAll(Arrays.asList(id + "_ann: ILLEGAL_ENDPOINT_REFERENCE " + id, id + "_a_ann: ILLEGAL_PARAMETER_REFERENCE " + id + "_a",
+					"extract_" + id + ": ILLEGAL_ENDPOINT_REFERENCE " + id));
+		}
+
+		AnnotationValidityChecker checker = new AnnotationValidityChecker(createApplication(NUM_ENDPOINTS, omitted));
+		checker.checkAnnotation(createAnnotation(NUM_ENDPOINTS));
+
+		assertThat(toStrings(checker.getReport())).isEqualTo(expected);
+	}
+
+	private Set<String> toStrings(AnnotationValidityReport report) {
+		return report.getViolations().entrySet().stream()
+				.flatMap(e -> e.getValue().stream().map(v -> e.getKey().getId() + ": " + v.getType().name() + " " + v.getAffectedElement().getId())).collect(Collectors.toSet());
+	}
+
+	/**
+	 * Creates an application with endpoints e0, e1, ... with parameters ei_a and ei_b each. Elements
+	 * whose ids are in {@code omitted} are left out.
+	 */
+	private Application createApplication(int numEndpoints, Set<String> omitted) {
+		Application application = new Application();
+		application.setId("app");
+
+		for (int i = 0; i < numEndpoints; i++) {
+			String id = "e" + i;
+
+			if (omitted.contains(id)) {
+				continue;
+			}
+
+			HttpEndpoint endpoint = new HttpEndpoint();
+			endpoint.setId(id);
+			endpoint.setDomain("localhost");
+			endpoint.setPort("8080");
+			endpoint.setMethod("GET");
+			endpoint.setProtocol("http");
+			endpoint.setPath("/path/" + i);
+			endpoint.setParameters(new ArrayList<>());
+
+			for (String name : Arrays.asList("a", "b")) {
+				if (!omitted.contains(id + "_" + name)) {
+					HttpParameter param = new HttpParameter();
+					param.setId(id + "_" + name);
+					param.setName(name);
+					param.setParameterType(HttpParameterType.REQ_PARAM);
+					endpoint.addParameter(param);
+				}
+			}
+
+			application.addEndpoint(endpoint);
+		}
+
+		return application;
+	}
+
+	/**
+	 * Creates an annotation for the application created by {@link #createApplication(int, Set)}.
+	 * Parameter ei_a is annotated with an extracted input extracting from endpoint ei.
+	 */
+	private ApplicationAnnotation createAnnotation(int numEndpoints) {
+		ApplicationAnnotation annotation = new ApplicationAnnotation();
+		annotation.setInputs(new ArrayList<>());
+		annotation.setEndpointAnnotations(new ArrayList<>());
+
+		for (int i = 0; i < numEndpoints; i++) {
+			String id = "e" + i;
+
+			RegExExtraction extraction = new RegExExtraction();
+			extraction.setId("extract_" + id);
+			extraction.setPattern("(.*)");
+			extraction.setFrom(EndpointOrInput.endpoint(WeakReference.create(Endpoint.GENERIC_TYPE, id)));
+
+			ExtractedInput input = new ExtractedInput();
+			input.setId("input_" + id);
+			input.setExtractions(new ArrayList<>(Collections.singletonList(extraction)));
+			annotation.addInput(input);
+
+			EndpointAnnotation endpointAnnotation = new EndpointAnnotation();
+			endpointAnnotation.setId(id + "_ann");
+			endpointAnnotation.setAnnotatedEndpoint(WeakReference.create(Endpoint.GENERIC_TYPE, id));
+			endpointAnnotation.addParameterAnnotation(parameterAnnotation(id + "_a", input));
+
+			annotation.getEndpointAnnotations().add(endpointAnnotation);
+		}
+
+		return annotation;
+	}
+
+	/**
+	 * Creates an annotation as {@link #createAnnotation(int)} with 10 endpoints and adds valid
+	 * overrides to the application annotation and e0, an illegal port to e1, an endpoint override
+	 * to e1_a, and an override without key to e2_a.
+	 */
+	private ApplicationAnnotation createOverridingAnnotation() {
+		ApplicationAnnotation annotation = createAnnotation(10);
+		annotation.setId("app_ann");
+
+		addOverride(annotation, PropertyOverrideKey.HttpEndpoint.DOMAIN, "example.com");
+		addOverride(annotation.getEndpointAnnotations().get(0), PropertyOverrideKey.HttpParameter.ENCODED, "true");
+		addOverride(annotation.getEndpointAnnotations().get(1), PropertyOverrideKey.HttpEndpoint.PORT, "http");
+		addOverride(annotation.getEndpointAnnotations().get(1).getParameterAnnotations().get(0), PropertyOverrideKey.HttpEndpoint.DOMAIN, "example.com");
+		addOverride(annotation.getEndpointAnnotations().get(2).getParameterAnnotations().get(0), null, "true");
+
+		return annotation;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private void addOverride(OverrideableAnnotation<?> annotation, PropertyOverrideKey.Any key, String value) {
+		PropertyOverride override = new PropertyOverride<>();
+		override.setKey(key);
+		override.setValue(value);
+		((OverrideableAnnotation) annotation).addOverride(override);
+	}
+
+	private ParameterAnnotation parameterAnnotation(String paramId, Input input) {
+		ParameterAnnotation annotation = new ParameterAnnotation();
+		annotation.setId(paramId + "_ann");
+		annotation.setAnnotatedParameter(WeakReference.create(Parameter.class, paramId));
+		annotation.setInput(input);
+		return annotation;
+	}
+
+}
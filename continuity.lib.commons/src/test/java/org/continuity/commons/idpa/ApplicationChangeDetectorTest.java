@@ -0,0 +1,128 @@
+package org.continuity.commons.idpa;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.continuity.api.entities.report.ApplicationChangeReport;
+import org.continuity.idpa.application.Application;
+import org.continuity.idpa.application.HttpEndpoint;
+import org.continuity.idpa.application.HttpParameter;
+import org.continuity.idpa.application.HttpParameterType;
+import org.junit.Test;
+
+public class ApplicationChangeDetectorTest {
+
+	private static final int NUM_ENDPOINTS = 2000;
+
+	@Test
+	public void testReportedChanges() {
+		Application oldApp = createApplication(20, false);
+		Application newApp = createApplication(20, true);
+
+		ApplicationChangeDetector detector = new ApplicationChangeDetector(newApp);
+		detector.compareTo(oldApp);
+
+		assertThat(toStrings(detector.getReport())).isEqualTo(expectedChanges(20));
+	}
+
+	@Test
+	public void testReportedChangesOnLargerApplications() {
+		Application oldApp = createApplication(NUM_ENDPOINTS, false);
+		Application newApp = createApplication(NUM_ENDPOINTS, true);
+
+		ApplicationChangeDetector detector = new ApplicationChangeDetector(newApp);
+		detector.compareTo(oldApp);
+
+		assertThat(toStrings(detector.getReport())).isEqualTo(expectedChanges(NUM_ENDPOINTS));
+	}
+
+	private Set<String> toStrings(ApplicationChangeReport report) {
+		return report.getApplicationChanges().stream().map(Object::toString).collect(Collectors.toSet());
+	}
+
+	/**
+	 * Per ten endpoints, the new application differs from the old one as follows: endpoint 1 is
+	 * removed, endpoint 2 is added, the path of endpoint 3 is changed, parameter b of endpoint 4 is
+	 * removed, parameter c of endpoint 5 is added, and the type of parameter a of endpoint 6 is
+	 * changed.
+	 */
+	private Set<String> expectedChanges(int numEndpoints) {
+		Set<String> changes = new HashSet<>();
+
+		for (int i = 0; i < numEndpoints; i++) {
+			switch (i % 10) {
+			case 1:
+				changes.add("ENDPOINT_REMOVED:e" + i + " [HttpEndpoint]");
+				break;
+			case 2:
+				changes.add("ENDPOINT_ADDED:e" + i + " [HttpEndpoint]");
+				break;
+			case 3:
+				changes.add("ENDPOINT_CHANGED:e" + i + " [HttpEndpoint](path)");
+				break;
+			case 4:
+				changes.add("PARAMETER_REMOVED:e" + i + "_b [HttpParameter]");
+				break;
+			case 5:
+				changes.add("PARAMETER_ADDED:e" + i + "_c [HttpParameter]");
+				break;
+			case 6:
+				changes.add("PARAMETER_CHANGED:e" + i + "_a [HttpParameter](parameter-type)");
+				break;
+			default:
+				break;
+			}
+		}
+
+		return changes;
+	}
+
+	private Application createApplication(int numEndpoints, boolean changed) {
+		Application application = new Application();
+		application.setId("app");
+
+		for (int i = 0; i < numEndpoints; i++) {
+			int kind = i % 10;
+
+			if ((changed && (kind == 1)) || (!changed && (kind == 2))) {
+				continue;
+			}
+
+			HttpEndpoint endpoint = new HttpEndpoint();
+			endpoint.setId("e" + i);
+			endpoint.setDomain("localhost");
+			endpoint.setPort("8080");
+			endpoint.setMethod("GET");
+			endpoint.setProtocol("http");
+			endpoint.setPath((changed && (kind == 3)) ? "/changed/" + i : "/path/" + i + "/{a}");
+			endpoint.setParameters(new ArrayList<>());
+
+			endpoint.addParameter(parameter(endpoint.getId() + "_a", "a", (changed && (kind == 6)) ? HttpParameterType.REQ_PARAM : HttpParameterType.URL_PART));
+
+			if (!(changed && (kind == 4))) {
+				endpoint.addParameter(parameter(endpoint.getId() + "_b", "b", HttpParameterType.REQ_PARAM));
+			}
+
+			if (changed && (kind == 5)) {
+				endpoint.addParameter(parameter(endpoint.getId() + "_c", "c", HttpParameterType.REQ_PARAM));
+			}
+
+			application.addEndpoint(endpoint);
+		}
+
+		return application;
+	}
+
+	private HttpParameter parameter(String id, String name, HttpParameterType type) {
+		HttpParameter param = new HttpParameter();
+		param.setId(id);
+		param.setName(name);
+		param.setParameterType(type);
+		return param;
+	}
+
+}
@@ -0,0 +1,177 @@
+package org.continuity.commons.idpa;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.continuity.commons.accesslogs.ParameterRecord;
+import org.continuity.idpa.application.HttpEndpoint;
+import org.continuity.idpa.application.HttpParameter;
+import org.continuity.idpa.application.HttpParameterType;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParameterValueCollectorTest {
+
+	private static final int NUM_REQUESTS = 20000;
+
+	private static final int MAX_VALUES = 1000;
+
+	private static final List<String> FREQUENT_TERMS = Arrays.asList("shoes", "shirts", "hats");
+
+	private static final double[] FREQUENT_SHARES = { 0.5, 0.2, 0.1 };
+
+	private HttpEndpoint endpoint;
+
+	private HttpParameter category;
+
+	private HttpParameter query;
+
+	private HttpParameter page;
+
+	@Before
+	public void setup() {
+		endpoint = new HttpEndpoint();
+		endpoint.setPath("/search/{category}");
+		endpoint.setParameters(new ArrayList<>());
+
+		category = parameter("category", HttpParameterType.URL_PART);
+		query = parameter("q", HttpParameterType.REQ_PARAM);
+		page = parameter("page", HttpParameterType.REQ_PARAM);
+	}
+
+	@Test
+	public void testBoundedMemoryAndPreservedDistribution() {
+		ParameterValueCollector collector = new ParameterValueCollector(endpoint, MAX_VALUES, new Random(42));
+		Random random = new Random(4711);
+		long[] frequentCounts = new long[FREQUENT_TERMS.size()];
+
+		for (int i = 1; i <= NUM_REQUESTS; i++) {
+			String term = nextTerm(random, i);
+			int termIndex = FREQUENT_TERMS.indexOf(term);
+
+			if (termIndex >= 0) {
+				frequentCounts[termIndex]++;
+			}
+
+			List<ParameterRecord> params = new ArrayList<>();
+			params.add(new ParameterRecord("q", term));
+
+			if ((i % 4) == 0) {
+				params.add(new ParameterRecord("page", Integer.toString(i % 10)));
+			}
+
+			collector.collect("/search/" + categoryOf(term), params);
+
+			if ((i % (NUM_REQUESTS / 4)) == 0) {
+				// the retained values do not grow with the number of requests
+				assertThat(collector.getSampleSize()).isEqualTo(MAX_VALUES);
+				assertThat(collector.getMaxSketchSize()).isLessThanOrEqualTo(MAX_VALUES);
+			}
+		}
+
+		Map<HttpParameter, List<String>> values = collector.getValuesPerParam();
+
+		assertThat(values.keySet()).containsExactly(category, query, page);
+		assertThat(values.values()).allSatisfy(list -> assertThat(list).hasSize(MAX_VALUES));
+
+		List<String> categories = values.get(category);
+		List<String> terms = values.get(query);
+		List<String> pages = values.get(page);
+
+		for (int i = 0; i < MAX_VALUES; i++) {
+			assertThat(categories.get(i)).isEqualTo(categoryOf(terms.get(i)));
+		}
+
+		for (int i = 0; i < FREQUENT_TERMS.size(); i++) {
+			String term = FREQUENT_TERMS.get(i);
+			double sampledShare = (double) terms.stream().filter(term::equals).count() / MAX_VALUES;
+
+			assertThat(sampledShare).as("share of %s", term).isCloseTo(FREQUENT_SHARES[i], within(0.05));
+		}
+
+		assertThat((double) pages.stream().filter(p -> !p.isEmpty()).count() / MAX_VALUES).isCloseTo(0.25, within(0.05));
+
+		Map<String, Long> frequentValues = collector.getFrequentValues(query);
+		long maxError = NUM_REQUESTS / (MAX_VALUES + 1);
+
+		assertThat(new ArrayList<>(frequentValues.keySet()).subList(0, 3)).isEqualTo(FREQUENT_TERMS);
+
+		for (int i = 0; i < FREQUENT_TERMS.size(); i++) {
+			assertThat(frequentValues.get(FREQUENT_TERMS.get(i))).isBetween(frequentCounts[i] - maxError, frequentCounts[i]);
+		}
+
+		assertThat(collector.hasSingleValue(query)).isFalse();
+	}
+
+	@Test
+	public void testSingleValueIsDetectedInBoundedMode() {
+		ParameterValueCollector collector = new ParameterValueCollector(endpoint, 10, new Random(42));
+
+		for (int i = 0; i < 1000; i++) {
+			collector.collect("/search/all", Arrays.asList(new ParameterRecord("q", "shoes"), new ParameterRecord("page", i == 500 ? "2" : "1")));
+		}
+
+		assertThat(collector.hasSingleValue(category)).isTrue();
+		assertThat(collector.hasSingleValue(query)).isTrue();
+		assertThat(collector.hasSingleValue(page)).isFalse();
+		assertThat(collector.getValuesPerParam().get(query)).hasSize(10).containsOnly("shoes");
+	}
+
+	@Test
+	public void testUnboundedModeKeepsAllValues() {
+		ParameterValueCollector collector = new ParameterValueCollector(endpoint);
+
+		collector.collect("/search/shoes", Collections.singletonList(new ParameterRecord("q", "red")));
+		collector.collect("/search/hats", Arrays.asList(new ParameterRecord("q", "blue"), new ParameterRecord("page", "2")));
+		collector.collect("/search/hats", Arrays.asList(new ParameterRecord("q", "blue"), new ParameterRecord("unknown", "x")));
+
+		Map<HttpParameter, List<String>> values = collector.getValuesPerParam();
+
+		assertThat(values.keySet()).containsExactly(category, query, page);
+		assertThat(values.get(category)).containsExactly("shoes", "hats", "hats");
+		assertThat(values.get(query)).containsExactly("red", "blue", "blue");
+		assertThat(values.get(page)).hasSize(3).contains("2");
+		assertThat(collector.getFrequentValues(query)).containsExactly(entry("blue", 2L), entry("red", 1L));
+		assertThat(collector.hasSingleValue(query)).isFalse();
+	}
+
+	/**
+	 * 80% of the requests use one of the frequent terms, the others use a term that occurs only
+	 * once.
+	 */
+	private String nextTerm(Random random, int i) {
+		double r = random.nextDouble();
+
+		for (int j = 0; j < FREQUENT_SHARES.length; j++) {
+			if (r < FREQUENT_SHARES[j]) {
+				return FREQUENT_TERMS.get(j);
+			}
+
+			r -= FREQUENT_SHARES[j];
+		}
+
+		return "term" + i;
+	}
+
+	private String categoryOf(String term) {
+		return "cat" + Math.floorMod(term.hashCode(), 7);
+	}
+
+	private HttpParameter parameter(String name, HttpParameterType type) {
+		HttpParameter param = new HttpParameter();
+		param.setId(name);
+		param.setName(name);
+		param.setParameterType(type);
+		endpoint.addParameter(param);
+		return param;
+	}
+
+}
@@ -0,0 +1,159 @@
+package org.continuity.commons.jmeter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.jmeter.control.InterleaveControl;
+import org.apache.jmeter.samplers.Sampler;
+import org.apache.jmeter.sampler.DebugSampler;
+import org.junit.Test;
+
+public class AliasMethodControllerTest {
+
+	private static final int NUM_SELECTIONS = 5000000;
+
+	@Test
+	public void testEmpiricalDistribution() {
+		Random random = new Random(42);
+
+		// Zipf-like mix with a few dominating and many rare requests, including a zero weight
+		double[] weights = new double[500];
+
+		for (int i = 0; i < weights.length; i++) {
+			weights[i] = 1.0 / (i + 1);
+		}
+
+		weights[123] = 0;
+
+		AliasTable table = new AliasTable(weights);
+		long[] counts = new long[weights.length];
+
+		for (int i = 0; i < NUM_SELECTIONS; i++) {
+			counts[table.sample(random)]++;
+		}
+
+		double sum = Arrays.stream(weights).sum();
+		double chiSquare = 0;
+		int degreesOfFreedom = -1;
+
+		for (int i = 0; i < weights.length; i++) {
+			double expected = (NUM_SELECTIONS * weights[i]) / sum;
+
+			if (expected == 0) {
+				assertThat(counts[i]).as("count of zero weight").isZero();
+				continue;
+			}
+
+			// at most 5 standard deviations of the binomial distribution
+			double stdDev = Math.sqrt(expected * (1 - (weights[i] / sum)));
+			assertThat(Math.abs(counts[i] - expected)).as("deviation of index " + i).isLessThan(5 * stdDev);
+
+			chiSquare += ((counts[i] - expected) * (counts[i] - expected)) / expected;
+			degreesOfFreedom++;
+		}
+
+		// the chi-square statistic has mean k and variance 2k
+		assertThat(chiSquare).isLessThan(degreesOfFreedom + (6 * Math.sqrt(2 * degreesOfFreedom)));
+	}
+
+	@Test
+	public void testUniformAndSingleWeights() {
+		Random random = new Random(42);
+
+		AliasTable single = new AliasTable(new double[] { 3 });
+
+		for (int i = 0; i < 1000; i++) {
+			assertThat(single.sample(random)).isZero();
+		}
+
+		AliasTable uniform = new AliasTable(new double[] { 1, 1, 1, 1 });
+		long[] counts = new long[4];
+
+		for (int i = 0; i < 400000; i++) {
+			counts[uniform.sample(random)]++;
+		}
+
+		for (long count : counts) {
+			assertThat(count).isBetween(99000L, 101000L);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeWeight() {
+		new AliasTable(new double[] { 1, -1 });
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testZeroWeights() {
+		new AliasTable(new double[] { 0, 0 });
+	}
+
+	@Test
+	public void testControllerSelectsOneSamplerPerIteration() {
+		List<Double> weights = Arrays.asList(0.7, 0.2, 0.1);
+		AliasMethodController controller = createController(weights);
+
+		assertThat(controller.getWeights()).containsExactlyElementsOf(weights);
+
+		Map<String, Integer> counts = new HashMap<>();
+		int numIterations = 1000000;
+
+		for (int i = 0; i < numIterations; i++) {
+			Sampler sampler = controller.next();
+			assertThat(sampler).isNotNull();
+			counts.merge(sampler.getName(), 1, Integer::sum);
+
+			// the iteration ends after one sampler
+			assertThat(controller.next()).isNull();
+		}
+
+		for (int i = 0; i < weights.size(); i++) {
+			double expected = numIterations * weights.get(i);
+			assertThat((double) counts.get("sampler" + i)).isBetween(expected - (5 * Math.sqrt(expected)), expected + (5 * Math.sqrt(expected)));
+		}
+	}
+
+	@Test
+	public void testControllerWithMismatchingWeights() {
+		AliasMethodController controller = createController(Arrays.asList(1.0, 0.0));
+		controller.addTestElement(sampler("sampler2"));
+		controller.initialize();
+
+		Map<String, Integer> counts = new HashMap<>();
+
+		for (int i = 0; i < 30000; i++) {
+			counts.merge(controller.next().getName(), 1, Integer::sum);
+			controller.next();
+		}
+
+		assertThat(counts).containsOnlyKeys("sampler0", "sampler1", "sampler2");
+	}
+
+	private AliasMethodController createController(List<Double> weights) {
+		AliasMethodController controller = new AliasMethodController();
+		controller.setName("controller");
+		controller.setStyle(InterleaveControl.IGNORE_SUB_CONTROLLERS);
+		controller.setWeights(new ArrayList<>(weights));
+
+		for (int i = 0; i < weights.size(); i++) {
+			controller.addTestElement(sampler("sampler" + i));
+		}
+
+		controller.initialize();
+
+		return controller;
+	}
+
+	private Sampler sampler(String name) {
+		DebugSampler sampler = new DebugSampler();
+		sampler.setName(name);
+		return sampler;
+	}
+
+}
@@ -0,0 +1,163 @@
+package org.continuity.commons.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.continuity.idpa.AppId;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileStorageTest {
+
+	private static final AppId AID = AppId.fromString("my-app");
+
+	private static final int NUM_THREADS = 8;
+
+	private static final int PUTS_PER_THREAD = 300;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Path storagePath;
+
+	@Before
+	public void setup() throws IOException {
+		storagePath = folder.newFolder("storage").toPath();
+	}
+
+	@Test
+	public void testConcurrentWritersGetUniqueIds() throws Exception {
+		// two instances on the same directory simulate two writers sharing the storage
+		JsonFileStorage<String> first = new JsonFileStorage<>(storagePath, "");
+		JsonFileStorage<String> second = new JsonFileStorage<>(storagePath, "");
+
+		ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+		List<Future<List<String>>> futures = new ArrayList<>();
+
+		for (int i = 0; i < NUM_THREADS; i++) {
+			JsonFileStorage<String> storage = (i % 2) == 0 ? first : second;
+			String prefix = "thread" + i + "-";
+
+			futures.add(executor.submit((Callable<List<String>>) () -> {
+				List<String> ids = new ArrayList<>();
+
+				for (int j = 0; j < PUTS_PER_THREAD; j++) {
+					ids.add(storage.put(prefix + j, AID));
+				}
+
+				return ids;
+			}));
+		}
+
+		Set<String> allIds = new HashSet<>();
+
+		for (Future<List<String>> future : futures) {
+			allIds.addAll(future.get());
+		}
+
+		executor.shutdown();
+
+		assertThat(allIds).hasSize(NUM_THREADS * PUTS_PER_THREAD).doesNotContainNull();
+
+		for (String id : allIds) {
+			assertThat(first.get(id)).isNotNull().isEqualTo(second.get(id));
+		}
+
+		String nextId = first.put("next", AID);
+		assertThat(nextId).isEqualTo(((NUM_THREADS * PUTS_PER_THREAD) + 1) + "-" + AID);
+	}
+
+	@Test
+	public void testShardedLayout() {
+		JsonFileStorage<String> storage = new JsonFileStorage<>(storagePath, "");
+
+		int numArtifacts = (2 * FileStorage.FILES_PER_SHARD) + 42;
+
+		for (int i = 0; i < numArtifacts; i++) {
+			storage.put("artifact" + i, AID);
+		}
+
+		File[] shards = storagePath.toFile().listFiles(File::isDirectory);
+		assertThat(shards).hasSize(3);
+
+		for (File shard : shards) {
+			assertThat(shard.list().length).isLessThanOrEqualTo(FileStorage.FILES_PER_SHARD);
+		}
+
+		assertThat(storage.get("1-" + AID)).isEqualTo("artifact0");
+		assertThat(storage.get(numArtifacts + "-" + AID)).isEqualTo("artifact" + (numArtifacts - 1));
+
+		assertThat(storage.remove("1-" + AID)).isTrue();
+		assertThat(storage.get("1-" + AID)).isNull();
+	}
+
+	@Test
+	public void testMigrationOfFlatLayout() throws IOException {
+		Files.write(storagePath.resolve("1-" + AID + ".json"), "\"first\"".getBytes());
+		Files.write(storagePath.resolve("1234-" + AID + ".json"), "\"second\"".getBytes());
+
+		JsonFileStorage<String> storage = new JsonFileStorage<>(storagePath, "");
+
+		assertThat(storagePath.resolve("1-" + AID + ".json")).doesNotExist();
+		assertThat(storagePath.resolve("1234-" + AID + ".json")).doesNotExist();
+
+		assertThat(storage.get("1-" + AID)).isEqualTo("first");
+		assertThat(storage.get("1234-" + AID)).isEqualTo("second");
+
+		assertThat(storage.put("third", AID)).isEqualTo("1235-" + AID);
+
+		// reopening must neither reset the counter nor move anything
+		JsonFileStorage<String> reopened = new JsonFileStorage<>(storagePath, "");
+		assertThat(reopened.put("fourth", AID)).isEqualTo("1236-" + AID);
+		assertThat(reopened.get("1-" + AID)).isEqualTo("first");
+	}
+
+	@Test
+	public void testLostCounterOfShardedStore() throws IOException {
+		JsonFileStorage<String> storage = new JsonFileStorage<>(storagePath, "");
+		int numArtifacts = FileStorage.FILES_PER_SHARD + 5;
+
+		for (int i = 0; i < numArtifacts; i++) {
+			storage.put("artifact" + i, AID);
+		}
+
+		Files.delete(storagePath.resolve(".id-counter"));
+
+		JsonFileStorage<String> reopened = new JsonFileStorage<>(storagePath, "");
+		assertThat(reopened.put("next", AID)).isEqualTo((numArtifacts + 1) + "-" + AID);
+		assertThat(reopened.get("1-" + AID)).isEqualTo("artifact0");
+	}
+
+	@Test
+	public void testCounterIsReplacedAtomically() throws IOException {
+		Path counterFile = storagePath.resolve("counter");
+		PersistentIdCounter counter = new PersistentIdCounter(counterFile);
+
+		assertThat(counter.initialize(41)).isTrue();
+		assertThat(counter.initialize(0)).isFalse();
+		assertThat(counter.next()).isEqualTo(42);
+
+		assertThat(new String(Files.readAllBytes(counterFile))).isEqualTo("42");
+		assertThat(storagePath.toFile().list()).containsExactlyInAnyOrder("counter", "counter.lock");
+
+		// an empty counter must not silently restart at 1
+		Files.write(counterFile, new byte[0]);
+		assertThatThrownBy(counter::next).isInstanceOf(IOException.class);
+	}
+
+}
@@ -11,6 +11,8 @@ import org.continuity.idpa.annotation.ApplicationAnnotation;
 import org.continuity.idpa.annotation.CsvColumnInput;
 import org.continuity.idpa.annotation.PropertyOverride;
 import org.continuity.idpa.annotation.extracted.EndpointOrInput;
+import org.continuity.idpa.serialization.smile.EndpointOrInputSmileSerializer;
+import org.continuity.idpa.serialization.smile.IdpaSmileSerializer;
 import org.continuity.idpa.serialization.yaml.CsvColumnInputSerializer;
 import org.continuity.idpa.serialization.yaml.EndpointOrInputSerializer;
 import org.continuity.idpa.serialization.yaml.IdpaDeserializer;
@@ -29,6 +31,7 @@ import com.fasterxml.jackson.databind.SerializationConfig;
 import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.fasterxml.jackson.dataformat.yaml.YAMLGenerator.Feature;
 
@@ -45,6 +48,8 @@ public class IdpaSerializationUtils {
 
 	private static ObjectMapper yamlMapper;
 
+	private static ObjectMapper smileMapper;
+
 	private IdpaSerializationUtils() {
 	}
 
@@ -96,6 +101,31 @@ public class IdpaSerializationUtils {
 		return yamlMapper;
 	}
 
+	/**
+	 * Gets a default {@link ObjectMapper}, which is able to (de)serialize IDPA elements in the
+	 * binary Smile format. This mapper is also used by the {@link IdpaSmileSerializer}.
+	 *
+	 * @return
+	 */
+	public static ObjectMapper getDefaultSmileObjectMapper() {
+		if (smileMapper == null) {
+			synchronized (IdpaSerializationUtils.class) {
+				if (smileMapper == null) {
+					ObjectMapper mapper = new ObjectMapper(new SmileFactory());
+
+					configureObjectMapper(mapper);
+
+					mapper.registerModule(new SimpleModule().addSerializer(EndpointOrInput.class, new EndpointOrInputSmileSerializer()));
+					mapper.registerModule(new SimpleModule().setDeserializerModifier(new ExtractedInputIdSaniDeserializerModifier()));
+
+					smileMapper = mapper;
+				}
+			}
+		}
+
+		return smileMapper;
+	}
+
 	/**
 	 * Gets a list of {@link PreDeserializationSanitizer}, which are to be called before putting a
 	 * yaml String into the deserializer.
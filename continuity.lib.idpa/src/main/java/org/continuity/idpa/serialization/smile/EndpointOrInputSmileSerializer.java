@@ -0,0 +1,46 @@
+package org.continuity.idpa.serialization.smile;
+
+import java.io.IOException;
+
+import org.continuity.idpa.annotation.extracted.EndpointOrInput;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Writes the input of an {@link EndpointOrInput} as {@code rawInputId}, which is resolved by the
+ * {@link org.continuity.idpa.serialization.ExtractedInputIdSaniDeserializer} when reading. The
+ * default JSON serialization cannot be read back, as the input reference gets lost.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class EndpointOrInputSmileSerializer extends StdSerializer<EndpointOrInput> {
+
+	private static final long serialVersionUID = -2253540361780512364L;
+
+	public EndpointOrInputSmileSerializer() {
+		super(EndpointOrInput.class);
+	}
+
+	@Override
+	public void serialize(EndpointOrInput value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+		gen.writeStartObject();
+
+		if (value.isEndpoint()) {
+			gen.writeStringField("endpoint", value.getEndpoint().getId());
+
+			if (value.getResponseKey() != null) {
+				gen.writeStringField("response-key", value.getResponseKey());
+			}
+		} else if (value.getInput() != null) {
+			gen.writeStringField("rawInputId", value.getInput().getId());
+		} else if (value.getRawInputId() != null) {
+			gen.writeStringField("rawInputId", value.getRawInputId());
+		}
+
+		gen.writeEndObject();
+	}
+
+}
@@ -0,0 +1,46 @@
+package org.continuity.idpa.serialization.smile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.continuity.idpa.IdpaElement;
+import org.continuity.idpa.serialization.IdpaSerializationUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * (De)serializes IDPA elements in the binary Smile format. Reading Smile is considerably faster
+ * than reading YAML. Hence, it can be used for caching models whose source of truth is YAML.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class IdpaSmileSerializer<T extends IdpaElement> {
+
+	private final Class<T> type;
+
+	private final ObjectMapper mapper;
+
+	public IdpaSmileSerializer(Class<T> type) {
+		this.type = type;
+		this.mapper = IdpaSerializationUtils.getDefaultSmileObjectMapper();
+	}
+
+	public T readFromSmile(Path smilePath) throws IOException {
+		return readFromSmile(Files.readAllBytes(smilePath));
+	}
+
+	public T readFromSmile(byte[] smile) throws IOException {
+		return mapper.readValue(smile, type);
+	}
+
+	public void writeToSmile(T model, Path smilePath) throws IOException {
+		Files.write(smilePath, writeToSmileBytes(model));
+	}
+
+	public byte[] writeToSmileBytes(T model) throws IOException {
+		return mapper.writeValueAsBytes(model);
+	}
+
+}
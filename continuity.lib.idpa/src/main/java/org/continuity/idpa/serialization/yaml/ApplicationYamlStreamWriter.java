@@ -0,0 +1,112 @@
+package org.continuity.idpa.serialization.yaml;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+
+import org.continuity.idpa.application.Application;
+import org.continuity.idpa.application.Endpoint;
+import org.continuity.idpa.serialization.IdpaSerializationUtils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+/**
+ * Writes an {@link Application} to YAML endpoint by endpoint, without holding the whole
+ * application in memory. The result is the same as with
+ * {@link IdpaYamlSerializer#writeToYaml(org.continuity.idpa.IdpaElement, Path)}. <br>
+ * First, the properties of the application (id, version or timestamp) are written. Then, the
+ * endpoints can be written using {@link #write(Endpoint)}. Closing the writer completes the
+ * document.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class ApplicationYamlStreamWriter implements Closeable {
+
+	private final JsonGenerator generator;
+
+	private final ObjectWriter endpointWriter;
+
+	/**
+	 * Creates a new writer and writes the properties of the application.
+	 *
+	 * @param header
+	 *            The application holding the id and version or timestamp. Its endpoints are
+	 *            ignored.
+	 * @param out
+	 *            The stream to write to. Will be closed when closing this writer.
+	 * @throws IOException
+	 */
+	public ApplicationYamlStreamWriter(Application header, OutputStream out) throws IOException {
+		ObjectMapper mapper = IdpaSerializationUtils.getDefaultYamlObjectMapper();
+		SimpleFilterProvider filters = new SimpleFilterProvider().addFilter("idFilter", new IdpaYamlSerializer.IdFilter());
+
+		this.endpointWriter = mapper.writer(filters).forType(Endpoint.GENERIC_TYPE);
+		this.generator = mapper.getFactory().createGenerator(out);
+
+		generator.writeStartObject();
+
+		if ((header.getId() != null) && !"null".equals(header.getId())) {
+			generator.writeObjectId(header.getId());
+		}
+
+		if (header.getVersion() != null) {
+			generator.writeStringField("version", header.getVersion().toString());
+		}
+
+		if (header.getTimestamp() != null) {
+			DateFormat format = new SimpleDateFormat(Application.DATE_FORMAT);
+			format.setTimeZone(mapper.getSerializationConfig().getTimeZone());
+			generator.writeStringField("timestamp", format.format(header.getTimestamp()));
+		}
+
+		generator.writeFieldName("endpoints");
+		generator.writeStartArray();
+	}
+
+	/**
+	 * Creates a new writer writing to a file and writes the properties of the application.
+	 *
+	 * @param header
+	 *            The application holding the id and version or timestamp. Its endpoints are
+	 *            ignored.
+	 * @param yamlPath
+	 *            The file to write to.
+	 * @throws IOException
+	 */
+	public ApplicationYamlStreamWriter(Application header, Path yamlPath) throws IOException {
+		this(header, Files.newOutputStream(yamlPath));
+	}
+
+	/**
+	 * Writes an endpoint.
+	 *
+	 * @param endpoint
+	 *            The endpoint to be written.
+	 * @throws IOException
+	 */
+	public void write(Endpoint<?> endpoint) throws IOException {
+		endpointWriter.writeValue(generator, endpoint);
+	}
+
+	/**
+	 * Completes the document and closes the underlying stream.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			generator.writeEndArray();
+			generator.writeEndObject();
+		} finally {
+			generator.close();
+		}
+	}
+
+}
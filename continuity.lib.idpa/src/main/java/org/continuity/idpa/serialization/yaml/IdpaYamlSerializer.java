@@ -96,7 +96,7 @@ public class IdpaYamlSerializer<T extends IdpaElement> {
 		return writer.writeValueAsString(model);
 	}
 
-	private static class IdFilter extends SimpleBeanPropertyFilter {
+	static class IdFilter extends SimpleBeanPropertyFilter {
 
 		@Override
 		public void serializeAsField(Object pojo, JsonGenerator jgen, SerializerProvider provider, PropertyWriter writer) throws Exception {
@@ -8,7 +8,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
+import org.apache.commons.lang3.tuple.Pair;
 import org.continuity.lctl.elements.ContextSpecification;
 import org.continuity.lctl.elements.TimeSpecification;
 import org.continuity.lctl.elements.TypedProperties;
@@ -138,6 +140,39 @@ public class WorkloadDescription {
 		return query;
 	}
 
+	/**
+	 * Returns the time ranges selected by {@link #toPostprocessingElasticQuery(List, Duration)}.
+	 *
+	 * @param applied
+	 *            The initially retrieved dates.
+	 * @param step
+	 *            The duration between two dates.
+	 * @return The ranges as pairs of an exclusive and an inclusive bound.
+	 * @see TimeSpecification#getPostprocessRanges(List, Duration)
+	 */
+	public List<Pair<LocalDateTime, LocalDateTime>> getPostprocessRanges(List<LocalDateTime> applied, Duration step) {
+		setDefaultDates();
+
+		return timeframe.stream().map(ts -> ts.getPostprocessRanges(applied, step)).flatMap(List::stream).collect(Collectors.toList());
+	}
+
+	/**
+	 * Returns whether the {@code timeframe} specification applies to a given intensity record. For
+	 * records without context, this is equivalent to {@link #toElasticQuery(ZoneId)} matching the
+	 * record.
+	 *
+	 * @param record
+	 *            The intensity record.
+	 * @param timeZone
+	 *            The time zone.
+	 * @return {@code true} if all time specifications apply to the record.
+	 */
+	public boolean appliesTo(IntensityRecord record, ZoneId timeZone) {
+		setDefaultDates();
+
+		return timeframe.stream().allMatch(ts -> ts.appliesTo(record, timeZone));
+	}
+
 	/**
 	 * Gets the minimum date specified.
 	 *
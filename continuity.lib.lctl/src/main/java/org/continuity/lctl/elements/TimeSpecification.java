@@ -159,6 +159,20 @@ public interface TimeSpecification {
 		return Optional.empty();
 	}
 
+	/**
+	 * Returns the time ranges selected by {@link #toPostprocessElasticQuery(List, Duration)}.
+	 *
+	 * @param applied
+	 *            The dates fetched from the database.
+	 * @param step
+	 *            The step width.
+	 * @return The ranges as pairs of an exclusive and an inclusive bound. The exclusive bound is
+	 *         after the inclusive one if the range goes backwards.
+	 */
+	default List<Pair<LocalDateTime, LocalDateTime>> getPostprocessRanges(List<LocalDateTime> applied, Duration step) {
+		return Collections.emptyList();
+	}
+
 	@JsonIgnore
 	default Optional<LocalDateTime> getMaxDate() {
 		return Optional.empty();
@@ -3,6 +3,7 @@ package org.continuity.lctl.elements.timeframe;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.ListIterator;
@@ -91,11 +92,22 @@ public class ExtendingTimespec implements TimeSpecification {
 	public Optional<QueryBuilder> toPostprocessElasticQuery(List<LocalDateTime> applied, Duration step) {
 		BoolQueryBuilder query = QueryBuilders.boolQuery();
 
-		postprocessAfter(applied, (Consumer<LocalDateTime> a, LocalDateTime f, LocalDateTime u, Duration s) -> addQuery(query, f, u), step);
+		for (Pair<LocalDateTime, LocalDateTime> range : getPostprocessRanges(applied, step)) {
+			addQuery(query, range.getLeft(), range.getRight());
+		}
 
 		return Optional.of(query);
 	}
 
+	@Override
+	public List<Pair<LocalDateTime, LocalDateTime>> getPostprocessRanges(List<LocalDateTime> applied, Duration step) {
+		List<Pair<LocalDateTime, LocalDateTime>> ranges = new ArrayList<>();
+
+		postprocessAfter(applied, (Consumer<LocalDateTime> a, LocalDateTime f, LocalDateTime u, Duration s) -> ranges.add(Pair.of(f, u)), step);
+
+		return ranges;
+	}
+
 	@Override
 	public List<Pair<QueryBuilder, Boolean>> toElasticQuery(ZoneId timeZone) {
 		return Collections.emptyList();
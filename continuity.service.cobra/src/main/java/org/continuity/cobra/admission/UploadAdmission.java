@@ -0,0 +1,252 @@
+package org.continuity.cobra.admission;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+import org.continuity.idpa.AppId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decides whether uploaded measurement data are accepted for processing. Tracks the number of
+ * queued uploads overall and per app-id (ignoring the service) and the time needed for
+ * processing one upload. The queue depth is counted locally and only synchronized with the
+ * broker once per sync interval, not on every request. <br>
+ *
+ * Uploads are rejected if the overall queue or the queue share of the app-id is full. Hence, one
+ * application uploading lots of data cannot block the uploads of the others.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class UploadAdmission {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(UploadAdmission.class);
+
+	private static final double SMOOTHING = 0.2;
+
+	private static final double INITIAL_SECONDS_PER_UPLOAD = 1;
+
+	private static final long MAX_RETRY_AFTER_SECONDS = 3600;
+
+	private final long maxQueued;
+
+	private final long maxQueuedPerApp;
+
+	private final long syncIntervalMillis;
+
+	private final IntSupplier brokerQueueDepth;
+
+	private final LongSupplier clock;
+
+	private final AtomicLong queued = new AtomicLong();
+
+	private final ConcurrentMap<AppId, AtomicLong> queuedPerApp = new ConcurrentHashMap<>();
+
+	private final Object syncLock = new Object();
+
+	private volatile long lastSync = Long.MIN_VALUE;
+
+	private volatile double secondsPerUpload = INITIAL_SECONDS_PER_UPLOAD;
+
+	/**
+	 *
+	 * @param maxQueued
+	 *            The maximum number of queued uploads of all app-ids.
+	 * @param maxQueuedPerApp
+	 *            The maximum number of queued uploads per app-id.
+	 * @param syncIntervalMillis
+	 *            The interval in which the queue depth is read from the broker.
+	 * @param brokerQueueDepth
+	 *            Reads the current queue depth from the broker.
+	 */
+	public UploadAdmission(long maxQueued, long maxQueuedPerApp, long syncIntervalMillis, IntSupplier brokerQueueDepth) {
+		this(maxQueued, maxQueuedPerApp, syncIntervalMillis, brokerQueueDepth, System::currentTimeMillis);
+	}
+
+	UploadAdmission(long maxQueued, long maxQueuedPerApp, long syncIntervalMillis, IntSupplier brokerQueueDepth, LongSupplier clock) {
+		this.maxQueued = maxQueued;
+		this.maxQueuedPerApp = maxQueuedPerApp;
+		this.syncIntervalMillis = syncIntervalMillis;
+		this.brokerQueueDepth = brokerQueueDepth;
+		this.clock = clock;
+	}
+
+	/**
+	 * Decides whether an upload is accepted. Does not count the upload as queued; call
+	 * {@link #enqueued(AppId)} as soon as it has been sent to the broker.
+	 *
+	 * @param aid
+	 *            The app-id of the upload.
+	 * @return The decision.
+	 */
+	public Decision admit(AppId aid) {
+		syncIfDue();
+
+		long total = queued.get();
+		long perApp = getQueued(aid);
+
+		if (total >= maxQueued) {
+			LOGGER.warn("{}: Rejecting upload. There are already {} uploads queued.", aid, total);
+			return Decision.rejected("Too many uploads are queued for processing", retryAfter((total - maxQueued) + 1));
+		} else if (perApp >= maxQueuedPerApp) {
+			LOGGER.warn("{}: Rejecting upload. There are already {} uploads of this app-id queued.", aid, perApp);
+			return Decision.rejected("Too many uploads of app-id " + aid.dropService() + " are queued for processing", retryAfter((perApp - maxQueuedPerApp) + 1));
+		} else {
+			return Decision.ADMITTED;
+		}
+	}
+
+	/**
+	 * Counts an upload as queued.
+	 *
+	 * @param aid
+	 *            The app-id of the upload.
+	 */
+	public void enqueued(AppId aid) {
+		queued.incrementAndGet();
+		counterOf(aid).incrementAndGet();
+	}
+
+	/**
+	 * Counts an upload as processed, i.e., removed from the queue.
+	 *
+	 * @param aid
+	 *            The app-id of the upload. Can be {@code null} if unknown.
+	 * @param durationMillis
+	 *            The time it took to process the upload.
+	 */
+	public void processed(AppId aid, long durationMillis) {
+		decrement(queued);
+
+		if (aid != null) {
+			decrement(counterOf(aid));
+		}
+
+		synchronized (syncLock) {
+			secondsPerUpload = ((1 - SMOOTHING) * secondsPerUpload) + ((SMOOTHING * durationMillis) / 1000);
+		}
+	}
+
+	/**
+	 * Gets the number of queued uploads of all app-ids.
+	 *
+	 * @return The number of uploads.
+	 */
+	public long getQueued() {
+		return queued.get();
+	}
+
+	/**
+	 * Gets the number of queued uploads of an app-id.
+	 *
+	 * @param aid
+	 *            The app-id. The service is ignored.
+	 * @return The number of uploads.
+	 */
+	public long getQueued(AppId aid) {
+		AtomicLong counter = queuedPerApp.get(aid.dropService());
+		return counter == null ? 0 : counter.get();
+	}
+
+	/**
+	 * Gets the measured processing rate.
+	 *
+	 * @return The number of uploads processed per second.
+	 */
+	public double getProcessingRate() {
+		return 1 / secondsPerUpload;
+	}
+
+	private AtomicLong counterOf(AppId aid) {
+		return queuedPerApp.computeIfAbsent(aid.dropService(), a -> new AtomicLong());
+	}
+
+	private long retryAfter(long excess) {
+		long seconds = (long) Math.ceil(excess * secondsPerUpload);
+		return Math.max(1, Math.min(seconds, MAX_RETRY_AFTER_SECONDS));
+	}
+
+	private void decrement(AtomicLong counter) {
+		counter.updateAndGet(v -> Math.max(0, v - 1));
+	}
+
+	/**
+	 * Reads the queue depth from the broker if the sync interval has passed. This corrects the
+	 * local counts, e.g., after a restart or if other instances consume from the same queue. The
+	 * broker only knows the overall depth, so the counts per app-id are capped by it.
+	 */
+	private void syncIfDue() {
+		long now = clock.getAsLong();
+
+		if ((lastSync != Long.MIN_VALUE) && ((now - lastSync) < syncIntervalMillis)) {
+			return;
+		}
+
+		synchronized (syncLock) {
+			if ((lastSync != Long.MIN_VALUE) && ((now - lastSync) < syncIntervalMillis)) {
+				return;
+			}
+
+			try {
+				long depth = brokerQueueDepth.getAsInt();
+
+				queued.set(depth);
+				queuedPerApp.values().forEach(counter -> counter.updateAndGet(v -> Math.min(v, depth)));
+			} catch (RuntimeException e) {
+				LOGGER.warn("Could not read the queue depth from the broker. Using the local count {}.", queued.get(), e);
+			}
+
+			lastSync = now;
+		}
+	}
+
+	/**
+	 * The decision of {@link UploadAdmission#admit(AppId)}.
+	 *
+	 * @author Henning Schulz
+	 *
+	 */
+	public static class Decision {
+
+		private static final Decision ADMITTED = new Decision(true, null, 0);
+
+		private final boolean admitted;
+
+		private final String message;
+
+		private final long retryAfterSeconds;
+
+		private Decision(boolean admitted, String message, long retryAfterSeconds) {
+			this.admitted = admitted;
+			this.message = message;
+			this.retryAfterSeconds = retryAfterSeconds;
+		}
+
+		private static Decision rejected(String message, long retryAfterSeconds) {
+			return new Decision(false, message, retryAfterSeconds);
+		}
+
+		public boolean isAdmitted() {
+			return admitted;
+		}
+
+		public String getMessage() {
+			return message;
+		}
+
+		/**
+		 * Gets the time after which the upload should be retried.
+		 *
+		 * @return The time in seconds or 0 if the upload has been admitted.
+		 */
+		public long getRetryAfterSeconds() {
+			return retryAfterSeconds;
+		}
+
+	}
+
+}
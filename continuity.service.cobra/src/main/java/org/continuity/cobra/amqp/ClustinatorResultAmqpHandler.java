@@ -6,6 +6,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.concurrent.TimeoutException;
 
+import org.continuity.api.amqp.AmqpApi;
 import org.continuity.api.entities.artifact.markovbehavior.MarkovBehaviorModel;
 import org.continuity.api.entities.artifact.markovbehavior.RelativeMarkovChain;
 import org.continuity.api.entities.config.ConfigurationProvider;
@@ -24,6 +25,7 @@ import org.continuity.lctl.timeseries.IntensityRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.AmqpTemplate;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.amqp.support.AmqpHeaders;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -61,6 +63,9 @@ public class ClustinatorResultAmqpHandler {
 	@Autowired
 	private TraceProcessingStatus status;
 
+	@Autowired
+	private AmqpTemplate amqpTemplate;
+
 	@RabbitListener(queues = RabbitMqConfig.EVENT_CLUSTINATOR_FINISHED_QUEUE_NAME, containerFactory = "requeueingContainerFactory")
 	public void processClustering(ClustinatorResult result, Channel channel, @Header(AmqpHeaders.CONSUMER_TAG) String consumerTag) throws IOException, TimeoutException {
 		try {
@@ -118,6 +123,8 @@ public class ClustinatorResultAmqpHandler {
 
 		behaviorManager.store(result.getAppId(), result.getTailoring(), behaviorModel, true);
 		LOGGER.info("{}@{} {}: Stored behavior model.", result.getAppId(), result.getVersion(), result.getTailoring());
+
+		amqpTemplate.convertAndSend(AmqpApi.Cobra.EVENT_DATA_UPDATED.name(), AmqpApi.Cobra.EVENT_DATA_UPDATED.formatRoutingKey().of(result.getAppId()), System.currentTimeMillis());
 	}
 
 	private RelativeMarkovChain createMarkovChain(String group, ClustinatorResult result, ClustinatorMarkovChainConverter converter) {
@@ -157,9 +164,9 @@ public class ClustinatorResultAmqpHandler {
 
 		if (intensities.size() > 0) {
 			try {
-				intensityManager.storeOrUpdateIntensities(result.getAppId(), result.getTailoring(), intensities);
+				intensityManager.storeOrUpdateIntensities(result.getAppId(), result.getTailoring(), intensities, resolution);
 				LOGGER.info("{}@{} {}: Updated the intensities of group {}.", result.getAppId(), result.getVersion(), result.getTailoring(), group);
-			} catch (IOException e) {
+			} catch (IOException | TimeoutException e) {
 				LOGGER.error("Could not update the intensities!", e);
 			}
 		} else {
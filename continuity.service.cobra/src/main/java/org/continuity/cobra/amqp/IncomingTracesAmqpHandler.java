@@ -1,6 +1,7 @@
 package org.continuity.cobra.amqp;
 
 import java.io.IOException;
+import java.lang.reflect.Method;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Paths;
@@ -12,6 +13,7 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
@@ -20,24 +22,34 @@ import java.util.OptionalLong;
 import java.util.Set;
 import java.util.concurrent.TimeoutException;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.time.DurationFormatUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.continuity.api.amqp.AmqpApi;
+import org.continuity.api.amqp.RoutingKeyFormatter.AppIdAndVersion;
 import org.continuity.api.entities.artifact.session.Session;
 import org.continuity.api.entities.artifact.session.SessionRequest;
 import org.continuity.api.entities.config.ConfigurationProvider;
 import org.continuity.api.entities.config.cobra.CobraConfiguration;
 import org.continuity.api.rest.RestApi;
+import org.continuity.cobra.admission.UploadAdmission;
 import org.continuity.cobra.config.RabbitMqConfig;
 import org.continuity.cobra.controllers.ClusteringController;
 import org.continuity.cobra.converter.AccessLogsToOpenXtraceConverter;
+import org.continuity.cobra.converter.AccessLogsToRequestRecordConverter;
+import org.continuity.cobra.converter.CsvRowParser;
 import org.continuity.cobra.converter.CsvRowToOpenXtraceConverter;
+import org.continuity.cobra.converter.CsvRowToRequestRecordConverter;
 import org.continuity.cobra.converter.SessionLogsToOpenXtraceConverter;
-import org.continuity.cobra.entities.CsvRow;
+import org.continuity.cobra.converter.SessionLogsToRequestRecordConverter;
+import org.continuity.cobra.entities.RequestRecord;
 import org.continuity.cobra.entities.TraceProcessingStatus;
 import org.continuity.cobra.entities.TraceRecord;
+import org.continuity.cobra.extractor.RequestRecordTailorer;
 import org.continuity.cobra.extractor.RequestTailorer;
 import org.continuity.cobra.extractor.SessionUpdater;
 import org.continuity.cobra.managers.ElasticsearchSessionManager;
@@ -55,12 +67,21 @@ import org.spec.research.open.xtrace.api.core.Trace;
 import org.spec.research.open.xtrace.api.core.callables.HTTPMethod;
 import org.spec.research.open.xtrace.dflt.impl.core.callables.HTTPRequestProcessingImpl;
 import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.AmqpTemplate;
 import org.springframework.amqp.core.Message;
-import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.annotation.RabbitListenerConfigurer;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.listener.ListenerContainerIdleEvent;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistrar;
 import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
 import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.support.DefaultMessageHandlerMethodFactory;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
@@ -75,7 +96,7 @@ import open.xtrace.OPENxtraceUtils;
  *
  */
 @Component
-public class IncomingTracesAmqpHandler {
+public class IncomingTracesAmqpHandler implements RabbitListenerConfigurer {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(IncomingTracesAmqpHandler.class);
 
@@ -99,12 +120,65 @@ public class IncomingTracesAmqpHandler {
 	@Autowired
 	private TraceProcessingStatus status;
 
+	@Autowired
+	private UploadAdmission admission;
+
+	@Autowired
+	private AmqpTemplate amqpTemplate;
+
+	@Autowired
+	@Qualifier("requeueingContainerFactory")
+	private SimpleRabbitListenerContainerFactory requeueingContainerFactory;
+
+	@Autowired
+	@Qualifier("idleEventContainerFactory")
+	private SimpleRabbitListenerContainerFactory idleEventContainerFactory;
+
+	@Autowired
+	private TraceShards traceShards;
+
+	@Autowired
+	private TraceShardListeners traceShardListeners;
+
+	@Autowired
+	private CsvRowParser csvRowParser;
+
+	@Autowired
+	private BeanFactory beanFactory;
+
+	/**
+	 * Registers one listener per shard queue and one for the queue used before sharding. Each
+	 * listener has exactly one consumer with a prefetch of 1, so that the uploads of an app-id are
+	 * processed in order. The shard listeners are started after the old queue has been drained.
+	 *
+	 * @see TraceShardListeners
+	 */
+	@Override
+	public void configureRabbitListeners(RabbitListenerEndpointRegistrar registrar) {
+		DefaultMessageHandlerMethodFactory handlerMethodFactory = new DefaultMessageHandlerMethodFactory();
+		handlerMethodFactory.setBeanFactory(beanFactory);
+		handlerMethodFactory.afterPropertiesSet();
+
+		Method method = ReflectionUtils.findMethod(IncomingTracesAmqpHandler.class, "processTraces", Message.class, Channel.class, String.class, String.class, String.class, long.class, String.class,
+				boolean.class);
+
+		traceShardListeners.registerListeners(registrar, this, method, handlerMethodFactory, requeueingContainerFactory, idleEventContainerFactory);
+	}
+
+	@EventListener
+	public void onListenerIdle(ListenerContainerIdleEvent event) {
+		traceShardListeners.onListenerIdle(event);
+	}
+
 	/**
-	 * Receives and processes new traces.
+	 * Receives and processes new traces. If the processing fails and the app-id is configured to
+	 * stop on failure, only the consumer of the affected shard is cancelled.
 	 *
 	 * @param message
 	 *            The message (instead of typical payload object for custom OPEN.xtrace
 	 *            deserialization).
+	 * @param queue
+	 *            The queue the message has been received from.
 	 * @param routingKey
 	 *            The routing key used by the sender.
 	 * @param finish
@@ -112,30 +186,46 @@ public class IncomingTracesAmqpHandler {
 	 * @throws IOException
 	 * @throws TimeoutException
 	 */
-	@RabbitListener(queues = RabbitMqConfig.TASK_PROCESS_TRACES_QUEUE_NAME, containerFactory = "requeueingContainerFactory")
-	public void processTraces(Message message, Channel channel, @Header(AmqpHeaders.RECEIVED_ROUTING_KEY) String routingKey, @Header(AmqpHeaders.CONSUMER_TAG) String consumerTag,
-			@Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag, @Header(AmqpApi.Cobra.HEADER_DATATYPE) String datatype, @Header(AmqpApi.Cobra.HEADER_FINISH) boolean finish)
+	public void processTraces(Message message, Channel channel, @Header(AmqpHeaders.CONSUMER_QUEUE) String queue, @Header(AmqpHeaders.RECEIVED_ROUTING_KEY) String routingKey,
+			@Header(AmqpHeaders.CONSUMER_TAG) String consumerTag, @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag, @Header(AmqpApi.Cobra.HEADER_DATATYPE) String datatype,
+			@Header(AmqpApi.Cobra.HEADER_FINISH) boolean finish)
 			throws IOException, TimeoutException {
 
 		Pair<AppId, VersionOrTimestamp> aav = Pair.of(null, null);
+		long startMillis = System.currentTimeMillis();
 
 		try {
 
-			aav = AmqpApi.Cobra.TASK_PROCESS_TRACES.formatRoutingKey().from(routingKey);
+			if (RabbitMqConfig.TASK_PROCESS_TRACES_QUEUE_NAME.equals(queue)) {
+				aav = AppIdAndVersion.INSTANCE.from(routingKey);
+			} else {
+				aav = AmqpApi.Cobra.TASK_PROCESS_TRACES.formatRoutingKey().from(routingKey);
+			}
+
 			configProvider.waitForInitialization();
 
 			doProcessing(message, aav, datatype, finish);
+			admission.processed(aav.getLeft(), System.currentTimeMillis() - startMillis);
 
 		} catch (Exception e) {
 			LOGGER.error("{}@{} {} during processing of the traces!", aav.getLeft(), aav.getRight(), e.getClass().getSimpleName());
 
 			if ((aav.getLeft() != null) && configProvider.getConfiguration(aav.getLeft()).getTraces().isStopOnFailue()) {
-				LOGGER.error("{}@{} Will stop receiving traces until a restart!", aav.getLeft(), aav.getRight());
-				status.setActive(false);
+				if (RabbitMqConfig.TASK_PROCESS_TRACES_QUEUE_NAME.equals(queue)) {
+					// the old queue holds the uploads of all shards
+					LOGGER.error("{}@{} Will stop receiving traces until a restart!", aav.getLeft(), aav.getRight());
+					status.setActive(false);
+				} else {
+					int shard = traceShards.shardOf(aav.getLeft());
+					LOGGER.error("{}@{} Will stop receiving traces of shard {} until a restart!", aav.getLeft(), aav.getRight(), shard);
+					status.setActive(shard, false);
+				}
+
 				channel.basicCancel(consumerTag);
 				throw e;
 			} else {
 				LOGGER.error("Will ignore the failed traces and continue!");
+				admission.processed(aav.getLeft(), System.currentTimeMillis() - startMillis);
 				throw new AmqpRejectAndDontRequeueException(e);
 			}
 
@@ -157,6 +247,19 @@ public class IncomingTracesAmqpHandler {
 		AppId aid = aav.getLeft().dropService();
 		VersionOrTimestamp version = aav.getRight();
 
+		if (isConvertibleWithoutTraces(aid, datatype)) {
+			processWithoutTraces(message, aid, version, datatype, finish);
+		} else {
+			processWithTraces(message, aid, version, datatype, finish);
+		}
+
+		amqpTemplate.convertAndSend(AmqpApi.Cobra.EVENT_DATA_UPDATED.name(), AmqpApi.Cobra.EVENT_DATA_UPDATED.formatRoutingKey().of(aid), System.currentTimeMillis());
+
+		long endMillis = System.currentTimeMillis();
+		LOGGER.info("{}@{}: Processing of the traces done. It took {}", aid, version, DurationFormatUtils.formatDurationHMS(endMillis - startMillis));
+	}
+
+	private void processWithTraces(Message message, AppId aid, VersionOrTimestamp version, String datatype, boolean finish) throws IOException, TimeoutException {
 		List<TraceRecord> traces = convertMessage(message, datatype, aid, version).stream().map(t -> new TraceRecord(version, t)).collect(Collectors.toList());
 
 		LOGGER.info("{}@{}: Deserialized {} traces. Indexing with endpoints...", aid, version, traces.size());
@@ -169,7 +272,12 @@ public class IncomingTracesAmqpHandler {
 			LOGGER.info("{}@{}: Session grouping and clustering is omitted by configuration.", aid, version);
 		} else {
 			LOGGER.info("{}@{}: Grouping and updating the corresponding sessions...", aid, version);
-			groupSessions(aid, version, traces, finish);
+
+			CobraConfiguration config = configProvider.getConfiguration(aid);
+			RequestTailorer tailorer = new RequestTailorer(aid, version, restTemplate);
+
+			groupSessions(aid, version, services -> config.getTraces().isMapToIdpa() ? tailorer.tailorTraces(services, traces) : tailorer.tailorTracesWithoutMapping(traces),
+					sessions -> indexTracesWithSessions(traces, sessions), finish);
 		}
 
 		LOGGER.info("{}@{}: Storing the traces to the database...", aid, version);
@@ -177,19 +285,106 @@ public class IncomingTracesAmqpHandler {
 		storeTraces(aid, version, traces);
 
 		LOGGER.info("{}@{}: Storing done.", aid, version);
+	}
 
-		long endMillis = System.currentTimeMillis();
-		LOGGER.info("{}@{}: Processing of the traces done. It took {}", aid, version, DurationFormatUtils.formatDurationHMS(endMillis - startMillis));
+	/**
+	 * Processes flat input data without creating OPEN.xtrace. Only possible if the traces are not
+	 * stored. CSV data is converted and indexed with endpoints chunk by chunk, so that neither the
+	 * parsed rows nor discarded requests are held in memory. The indexed requests of all chunks are
+	 * still collected, though, because the sessions are updated and the clustering is triggered
+	 * once per upload and tailoring, which requires all requests of the upload.
+	 */
+	private void processWithoutTraces(Message message, AppId aid, VersionOrTimestamp version, String datatype, boolean finish) throws IOException, TimeoutException {
+		RecordEndpointIndexer indexer = new RecordEndpointIndexer(aid, version);
+		List<RequestRecord> records = convertMessageToRecords(message, datatype, aid, version, indexer::index);
+		indexer.reportUnmapped();
+
+		LOGGER.info("{}@{}: Converted and indexed {} requests with endpoints without creating traces, because the traces are not stored. Grouping to sessions...", aid, version,
+				records.size());
+
+		if (configProvider.getConfiguration(aid).getSessions().isOmit()) {
+			LOGGER.info("{}@{}: Session grouping and clustering is omitted by configuration.", aid, version);
+		} else {
+			LOGGER.info("{}@{}: Grouping and updating the corresponding sessions...", aid, version);
+
+			CobraConfiguration config = configProvider.getConfiguration(aid);
+			RequestRecordTailorer tailorer = new RequestRecordTailorer(aid, version, restTemplate);
+
+			groupSessions(aid, version, services -> config.getTraces().isMapToIdpa() ? tailorer.tailorRecords(services, records) : tailorer.tailorRecordsWithoutMapping(records), sessions -> {
+				// the traces are not stored, so there is nothing to index
+			}, finish);
+		}
+
+		OptionalLong fromOpt = records.stream().mapToLong(RequestRecord::getStartMillis).min();
+		OptionalLong toOpt = records.stream().mapToLong(RequestRecord::getStartMillis).max();
+
+		LOGGER.info("{}@{}: Not storing the traces by configuration.", aid, version);
+		LOGGER.info("{}@{}: Traces range from {} to {}.", aid, version, fromOpt.isPresent() ? new Date(fromOpt.getAsLong() - 1) : null, toOpt.isPresent() ? new Date(toOpt.getAsLong()) : null);
 	}
 
-	private List<Trace> convertMessage(Message message, String datatype, AppId aid, VersionOrTimestamp version) {
+	/**
+	 * Checks whether the data can be processed without creating OPEN.xtrace, which is the case for
+	 * flat input formats if the traces are not stored.
+	 */
+	private boolean isConvertibleWithoutTraces(AppId aid, String datatype) {
+		boolean flat = "access-logs".equals(datatype) || "csv".equals(datatype) || "session-logs".equals(datatype);
+		return flat && (configProvider.getConfiguration(aid).getTraces().getRetention().toMillis() <= 0);
+	}
+
+	/**
+	 * Converts the message to request records and passes them to the indexer before collecting
+	 * them. The indexer may remove records.
+	 */
+	private List<RequestRecord> convertMessageToRecords(Message message, String datatype, AppId aid, VersionOrTimestamp version, Consumer<List<RequestRecord>> indexer) {
+		String body = new String(message.getBody(), getCharset(message));
+		boolean hashId = configProvider.getConfiguration(aid).getSessions().isHashId();
+		List<RequestRecord> records;
+
+		switch (datatype) {
+		case "access-logs":
+			LOGGER.info("{}@{} Transforming access logs to request records...", aid, version);
+			records = new AccessLogsToRequestRecordConverter(hashId).convert(Arrays.stream(body.split("\\n")).map(AccessLogEntry::fromLogLine).collect(Collectors.toList()));
+			break;
+		case "csv":
+			LOGGER.info("{}@{} Transforming CSV data to request records chunk by chunk...", aid, version);
+			return convertCsvToRecords(body, hashId, indexer);
+		case "session-logs":
+			LOGGER.info("{}@{} Transforming session logs to request records...", aid, version);
+			records = new SessionLogsToRequestRecordConverter().convert(Arrays.asList(body.split("\\n")));
+			break;
+		default:
+			throw new IllegalArgumentException("Cannot convert " + datatype + " to request records!");
+		}
+
+		indexer.accept(records);
+		return records;
+	}
+
+	private List<RequestRecord> convertCsvToRecords(String body, boolean hashId, Consumer<List<RequestRecord>> indexer) {
+		CsvRowToRequestRecordConverter converter = new CsvRowToRequestRecordConverter(hashId);
+		List<RequestRecord> records = new ArrayList<>();
+
+		csvRowParser.parse(body, rows -> {
+			List<RequestRecord> chunk = converter.convert(rows);
+			indexer.accept(chunk);
+			records.addAll(chunk);
+		});
+
+		return records;
+	}
+
+	private Charset getCharset(Message message) {
 		Charset charset = Charset.forName(message.getMessageProperties().getContentEncoding());
 
 		if (charset == null) {
 			charset = AmqpApi.Cobra.CONTENT_CHARSET;
 		}
 
-		String body = new String(message.getBody(), charset);
+		return charset;
+	}
+
+	private List<Trace> convertMessage(Message message, String datatype, AppId aid, VersionOrTimestamp version) {
+		String body = new String(message.getBody(), getCharset(message));
 
 		switch (datatype) {
 		case "access-logs":
@@ -216,11 +411,20 @@ public class IncomingTracesAmqpHandler {
 		return new AccessLogsToOpenXtraceConverter(configProvider.getConfiguration(aid).getSessions().isHashId()).convert(parsedLogs);
 	}
 
+	/**
+	 * Converts the CSV data chunk by chunk, so that the parsed rows are not held in memory. The
+	 * traces of all chunks are collected, as they are indexed with the sessions of the whole upload
+	 * before they are stored.
+	 */
 	private List<Trace> convertCsv(String body, AppId aid, VersionOrTimestamp version) {
 		LOGGER.info("{}@{} Transforming CSV data to open-xtrace...", aid, version);
 
-		List<CsvRow> csvRows = CsvRow.listFromString(body);
-		return new CsvRowToOpenXtraceConverter(configProvider.getConfiguration(aid).getSessions().isHashId()).convert(csvRows);
+		CsvRowToOpenXtraceConverter converter = new CsvRowToOpenXtraceConverter(configProvider.getConfiguration(aid).getSessions().isHashId());
+		List<Trace> traces = new ArrayList<>();
+
+		csvRowParser.parse(body, rows -> traces.addAll(converter.convert(rows)));
+
+		return traces;
 	}
 
 	private List<Trace> convertSessionlogs(String body, AppId aid, VersionOrTimestamp version) {
@@ -273,27 +477,29 @@ public class IncomingTracesAmqpHandler {
 		LOGGER.info("{}@{}: Traces range from {} to {}.", aid, version, from, to);
 	}
 
-	private void groupSessions(AppId aid, VersionOrTimestamp version, List<TraceRecord> traces, boolean forceFinish) throws IOException, TimeoutException {
-		RequestTailorer tailorer = new RequestTailorer(aid, version, restTemplate);
+	/**
+	 * Groups the requests of the uploaded data to sessions and stores them.
+	 *
+	 * @param tailoring
+	 *            Tailors the uploaded data to the given services.
+	 * @param sessionIndexer
+	 *            Indexes the uploaded data with the updated sessions.
+	 */
+	private void groupSessions(AppId aid, VersionOrTimestamp version, Function<List<String>, List<SessionRequest>> tailoring, Consumer<Set<Session>> sessionIndexer, boolean forceFinish)
+			throws IOException, TimeoutException {
 		CobraConfiguration config = configProvider.getConfiguration(aid);
 
-		List<List<String>> tailoring = config.getTailoring();
+		List<List<String>> tailorings = config.getTailoring();
 
 		if (!config.getTraces().isMapToIdpa()) {
 			LOGGER.info("{}@{}: Not mapping to an IDPA. Therefore, ignoring all configured service combinations for tailoring and using [ \"all\" ].", aid, version);
-			tailoring = Collections.singletonList(Collections.singletonList(AppId.SERVICE_ALL));
+			tailorings = Collections.singletonList(Collections.singletonList(AppId.SERVICE_ALL));
 		}
 
-		for (List<String> services : tailoring) {
+		for (List<String> services : tailorings) {
 			LOGGER.info("{}@{}: Tailoring to {}...", aid, version, services);
 
-			List<SessionRequest> requests;
-
-			if (config.getTraces().isMapToIdpa()) {
-				requests = tailorer.tailorTraces(services, traces);
-			} else {
-				requests = tailorer.tailorTracesWithoutMapping(traces);
-			}
+			List<SessionRequest> requests = tailoring.apply(services);
 
 			List<Session> openSessions = sessionManager.readOpenSessions(aid, null, services);
 
@@ -302,7 +508,7 @@ public class IncomingTracesAmqpHandler {
 
 			if (!updatedSessions.isEmpty()) {
 				LOGGER.info("{}@{} {}: Indexing traces with sessions...", aid, version, services);
-				indexTracesWithSessions(traces, updatedSessions);
+				sessionIndexer.accept(updatedSessions);
 
 				Date latestDateBeforeUpdate = sessionManager.getLatestDate(aid, null, services);
 
@@ -385,12 +591,9 @@ public class IncomingTracesAmqpHandler {
 		BiFunction<TraceRecord, HTTPRequestProcessingImpl, Boolean> endpointSetter;
 
 		if (config.getTraces().isMapToIdpa()) {
-			Application rootApp;
-			try {
-				rootApp = restTemplate.getForObject(RestApi.Idpa.Application.GET.requestUrl(aid).withQuery("version", version.toString()).get(), Application.class);
-			} catch (HttpStatusCodeException e) {
-				LOGGER.error("Could not get root application for app-id {} and version {}! {} ({}): {}", aid, version, e.getStatusCode(), e.getStatusCode().getReasonPhrase(),
-						e.getResponseBodyAsString());
+			Application rootApp = getRootApplication(aid, version);
+
+			if (rootApp == null) {
 				return;
 			}
 
@@ -446,6 +649,23 @@ public class IncomingTracesAmqpHandler {
 			}
 		}
 
+		reportUnmapped(aid, version, unmapped, numUnmapped);
+	}
+
+	private Application getRootApplication(AppId aid, VersionOrTimestamp version) {
+		try {
+			return restTemplate.getForObject(RestApi.Idpa.Application.GET.requestUrl(aid).withQuery("version", version.toString()).get(), Application.class);
+		} catch (HttpStatusCodeException e) {
+			LOGGER.error("Could not get root application for app-id {} and version {}! {} ({}): {}", aid, version, e.getStatusCode(), e.getStatusCode().getReasonPhrase(),
+					e.getResponseBodyAsString());
+			return null;
+		}
+	}
+
+	private void reportUnmapped(AppId aid, VersionOrTimestamp version, Set<String> unmapped, int numUnmapped) {
+		CobraConfiguration config = configProvider.getConfiguration(aid);
+		boolean discard = config.getTraces().isDiscardUmapped();
+
 		if (config.getTraces().isLogUnmapped() && !unmapped.isEmpty()) {
 			try {
 				Files.write(Paths.get(toUnmappedFilename(aid)), unmapped);
@@ -471,4 +691,77 @@ public class IncomingTracesAmqpHandler {
 		return new StringBuilder().append(LocalDateTime.now()).append(".").append(aid).append(".unmapped.txt").toString();
 	}
 
+	/**
+	 * Sets the endpoints of request records in the same way as for traces. The records can be
+	 * passed chunk by chunk. Unmapped records are discarded if configured.
+	 */
+	private class RecordEndpointIndexer {
+
+		private final AppId aid;
+
+		private final VersionOrTimestamp version;
+
+		private final boolean discard;
+
+		private final Predicate<RequestRecord> endpointSetter;
+
+		private final Set<String> unmapped = new HashSet<>();
+
+		private int numUnmapped = 0;
+
+		private RecordEndpointIndexer(AppId aid, VersionOrTimestamp version) {
+			CobraConfiguration config = configProvider.getConfiguration(aid);
+
+			this.aid = aid;
+			this.version = version;
+			this.discard = config.getTraces().isDiscardUmapped();
+
+			if (config.getTraces().isMapToIdpa()) {
+				Application rootApp = getRootApplication(aid, version);
+
+				if (rootApp == null) {
+					this.endpointSetter = null;
+				} else {
+					RequestUriMapper rootMapper = new RequestUriMapper(rootApp);
+
+					this.endpointSetter = record -> {
+						record.setRawEndpoint(rootMapper.map(record.getUri(), record.getMethod()));
+						return record.getRawEndpoint() != null;
+					};
+				}
+			} else {
+				this.endpointSetter = record -> (record.getBusinessTransaction() != null) && !record.getBusinessTransaction().isEmpty();
+			}
+		}
+
+		private void index(List<RequestRecord> records) {
+			if (endpointSetter == null) {
+				return;
+			}
+
+			Iterator<RequestRecord> iterator = records.iterator();
+
+			while (iterator.hasNext()) {
+				RequestRecord record = iterator.next();
+
+				if (!endpointSetter.test(record)) {
+					unmapped.add(new StringBuilder().append(record.getMethod()).append(" ").append(record.getUri()).toString());
+
+					numUnmapped++;
+
+					if (discard) {
+						iterator.remove();
+					}
+				}
+			}
+		}
+
+		private void reportUnmapped() {
+			if (endpointSetter != null) {
+				IncomingTracesAmqpHandler.this.reportUnmapped(aid, version, unmapped, numUnmapped);
+			}
+		}
+
+	}
+
 }
@@ -19,6 +19,7 @@ import java.util.Set;
 import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
+import org.apache.commons.lang3.tuple.Pair;
 import org.continuity.api.amqp.AmqpApi;
 import org.continuity.api.entities.ApiFormats;
 import org.continuity.api.entities.artifact.ForecastIntensityRecord;
@@ -42,6 +43,8 @@ import org.continuity.cobra.entities.ForecasticInput;
 import org.continuity.cobra.entities.ForecasticResult;
 import org.continuity.cobra.entities.TimedContextRecord;
 import org.continuity.cobra.entities.TypeAndProperties;
+import org.continuity.cobra.forecast.ForecastCache;
+import org.continuity.cobra.forecast.ForecastEngine;
 import org.continuity.cobra.managers.ElasticsearchBehaviorManager;
 import org.continuity.cobra.managers.ElasticsearchIntensityManager;
 import org.continuity.cobra.managers.ElasticsearchSessionManager;
@@ -60,6 +63,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.amqp.core.AmqpTemplate;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
@@ -93,6 +97,15 @@ public class PreparationAmqpHandler {
 	@Autowired
 	private MixedStorage<List<ForecastIntensityRecord>> intensityStorage;
 
+	@Autowired
+	private ForecastEngine forecastEngine;
+
+	@Autowired
+	private ForecastCache forecastCache;
+
+	@Value("${forecast.history-days:28}")
+	private int forecastHistoryDays;
+
 	@RabbitListener(queues = RabbitMqConfig.TASK_CREATE_QUEUE_NAME)
 	public void prepareInitialData(TaskDescription task) throws IOException, TimeoutException {
 		WorkloadDescription description = task.getWorkloadDescription();
@@ -151,9 +164,7 @@ public class PreparationAmqpHandler {
 		Duration resolution = config.getIntensity().getResolution();
 		ZoneId timeZone = config.getTimeZone();
 
-		elasticIntensityManager.fillIntensities(aid, tailoring, description.getMinDate(), description.getMaxDate(), resolution, timeZone);
-
-		List<IntensityRecord> intensities = elasticIntensityManager.readDescribedIntensities(aid, tailoring, description, timeZone);
+		List<IntensityRecord> intensities = elasticIntensityManager.readDescribedIntensities(aid, tailoring, description, resolution, timeZone);
 
 		if (description.requiresPostprocessing()) {
 			List<LocalDateTime> appliedDates = intensities.stream().map(IntensityRecord::getTimestamp).map(t -> Instant.ofEpochMilli(t).atZone(ZoneId.systemDefault()).toLocalDateTime())
@@ -197,15 +208,7 @@ public class PreparationAmqpHandler {
 	}
 
 	private TaskReport createTraceLink(TaskDescription task, List<ForecastTimerange> ranges) throws IOException {
-		long count = 0;
-
-		if (ranges.isEmpty()) {
-			count = elasticTraceManager.countTraces(task.getAppId(), null, null, null);
-		} else {
-			for (ForecastTimerange range : ranges) {
-				count += elasticTraceManager.countTraces(task.getAppId(), null, new Date(range.getFrom()), new Date(range.getTo()));
-			}
-		}
+		long count = elasticTraceManager.countTraces(task.getAppId(), null, toDatePairs(ranges));
 
 		if (count == 0) {
 			LOGGER.error("Task {}: There are no such traces available!", task.getTaskId());
@@ -220,23 +223,7 @@ public class PreparationAmqpHandler {
 	private TaskReport createSessionLink(TaskDescription task, List<ForecastTimerange> ranges) throws IOException {
 		List<String> services = extractServices(task);
 
-		long count = 0;
-
-		if (ranges.isEmpty()) {
-			count = elasticSessionManager.countSessionsOverlapping(task.getAppId(), null, services, null, null);
-		} else {
-			for (ForecastTimerange range : ranges) {
-				// This might count sessions twice.
-				// However, it is sufficient for testing whether sessions are present.
-				count += elasticSessionManager.countSessionsOverlapping(task.getAppId(), null, services, new Date(range.getFrom()), new Date(range.getTo()));
-
-				if (count > 0) {
-					break;
-				}
-			}
-		}
-
-		if (count == 0) {
+		if (!elasticSessionManager.existSessionsOverlapping(task.getAppId(), null, services, toDatePairs(ranges))) {
 			LOGGER.error("Task {}: There are no such sessions available!", task.getTaskId());
 			return TaskReport.error(task.getTaskId(), TaskError.MISSING_SOURCE);
 		} else {
@@ -247,6 +234,10 @@ public class PreparationAmqpHandler {
 		}
 	}
 
+	private List<Pair<Date, Date>> toDatePairs(List<ForecastTimerange> ranges) {
+		return ranges.stream().map(r -> Pair.of(new Date(r.getFrom()), new Date(r.getTo()))).collect(Collectors.toList());
+	}
+
 	private TaskReport createBehaviorLink(TaskDescription task, List<ForecastTimerange> ranges, Optional<Long> perspective) throws IOException, TimeoutException {
 		AppId aid = task.getAppId();
 		List<String> tailoring = extractServices(task);
@@ -304,7 +295,7 @@ public class PreparationAmqpHandler {
 		return reqBuilder.withoutProtocol().get();
 	}
 
-	private String doForecast(TaskDescription task, List<ForecastTimerange> ranges, List<IntensityRecord> intensities, Optional<Long> perspective) {
+	private String doForecast(TaskDescription task, List<ForecastTimerange> ranges, List<IntensityRecord> intensities, Optional<Long> perspective) throws IOException, TimeoutException {
 		LOGGER.info("Task {}: Doing forecast...", task.getTaskId());
 
 		CobraConfiguration config = configProvider.getConfiguration(task.getAppId());
@@ -340,15 +331,46 @@ public class PreparationAmqpHandler {
 		input.setAdjustments(
 				Optional.ofNullable(description.getAdjustments()).map(l -> l.stream().map(TypeAndProperties::fromTypedProperties).collect(Collectors.toList())).orElse(Collections.emptyList()));
 
-		ForecasticResult result = restTemplate.postForObject(RestApi.Forecastic.FORECAST.requestUrl().get(), input, ForecasticResult.class);
-		LOGGER.info("Task {}: Received {} intensity records from forecastic.", task.getTaskId(), result.getIntensities().size());
+		long watermark = elasticIntensityManager.getLatestIntensityDate(task.getAppId(), input.getTailoring()).getTime();
+		ForecastCache.Key cacheKey = forecastCache.createKey(input, description, watermark);
+		Optional<List<ForecastIntensityRecord>> cached = forecastCache.get(cacheKey);
+		List<ForecastIntensityRecord> forecast;
+
+		if (cached.isPresent()) {
+			forecast = cached.get();
+			LOGGER.info("Task {}: Reusing {} cached intensity records {}.", task.getTaskId(), forecast.size(), cacheKey);
+		} else {
+			forecast = computeForecast(task, input);
+			forecastCache.put(cacheKey, forecast);
+		}
 
-		String id = intensityStorage.put(result.getIntensities(), task.getAppId(), task.isLongTermUse());
+		String id = intensityStorage.put(forecast, task.getAppId(), task.isLongTermUse());
 		LOGGER.info("Task {}: Stored intensity records to storage with ID {}.", task.getTaskId(), id);
 
 		return RestApi.Cobra.Intensity.GET_FOR_ID.requestUrl(id).withoutProtocol().get();
 	}
 
+	private List<ForecastIntensityRecord> computeForecast(TaskDescription task, ForecasticInput input) throws IOException, TimeoutException {
+		long startTime = System.currentTimeMillis();
+		ForecasticResult result;
+
+		if (forecastEngine.supports(input.getApproach())) {
+			long historyEnd = Optional.ofNullable(input.getPerspective()).orElse(System.currentTimeMillis());
+			List<IntensityRecord> history = elasticIntensityManager.readIntensitiesInRange(task.getAppId(), input.getTailoring(), historyEnd - Duration.ofDays(forecastHistoryDays).toMillis(),
+					historyEnd, Duration.ofMillis(input.getResolution()));
+
+			result = new ForecasticResult();
+			result.setIntensities(forecastEngine.forecast(input, history));
+			LOGGER.info("Task {}: Forecasted {} intensity records in-process using {} in {} ms.", task.getTaskId(), result.getIntensities().size(), input.getApproach(),
+					System.currentTimeMillis() - startTime);
+		} else {
+			result = restTemplate.postForObject(RestApi.Forecastic.FORECAST.requestUrl().get(), input, ForecasticResult.class);
+			LOGGER.info("Task {}: Received {} intensity records from forecastic in {} ms.", task.getTaskId(), result.getIntensities().size(), System.currentTimeMillis() - startTime);
+		}
+
+		return result.getIntensities();
+	}
+
 	private List<TimedContextRecord> prepareFutureContext(List<IntensityRecord> intensities, Optional<Long> perspective, WorkloadDescription description, Set<String> contextVariables,
 			ZoneId timeZone) {
 		long maxIntensityTimestamp = intensities.stream().filter(i -> (i.getIntensity() != null) && !i.getIntensity().isEmpty()).mapToLong(IntensityRecord::getTimestamp).max().orElse(0);
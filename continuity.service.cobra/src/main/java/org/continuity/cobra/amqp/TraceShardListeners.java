@@ -0,0 +1,111 @@
+package org.continuity.cobra.amqp;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import org.continuity.cobra.config.RabbitMqConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.listener.ListenerContainerIdleEvent;
+import org.springframework.amqp.rabbit.listener.MethodRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.listener.RabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistrar;
+import org.springframework.messaging.handler.annotation.support.MessageHandlerMethodFactory;
+
+/**
+ * Sets up the listeners of the {@link TraceShards} and of the queue used before sharding. The
+ * uploads remaining in the old queue are older than the ones in the shard queues. Therefore, the
+ * shard listeners are not started before the old queue has been drained, so that the uploads of
+ * each app-id are still processed in order. The old queue is drained as soon as its listener
+ * becomes idle, as it is not bound to the exchange anymore.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class TraceShardListeners {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(TraceShardListeners.class);
+
+	private final TraceShards shards;
+
+	private final Consumer<String> listenerStarter;
+
+	private final AtomicBoolean shardsStarted = new AtomicBoolean(false);
+
+	/**
+	 *
+	 * @param shards
+	 *            The shards.
+	 * @param listenerStarter
+	 *            Starts the listener with the passed id, which has been registered without
+	 *            automatic startup.
+	 */
+	public TraceShardListeners(TraceShards shards, Consumer<String> listenerStarter) {
+		this.shards = shards;
+		this.listenerStarter = listenerStarter;
+	}
+
+	/**
+	 * Registers one listener per shard queue and one for the queue used before sharding. The
+	 * listener ids are the queue names. Only the latter listener is started automatically.
+	 *
+	 * @param registrar
+	 *            The registrar.
+	 * @param bean
+	 *            The bean processing the messages.
+	 * @param method
+	 *            The method processing the messages.
+	 * @param handlerMethodFactory
+	 *            The factory for the handler methods.
+	 * @param shardContainerFactory
+	 *            The factory for the shard listener containers.
+	 * @param legacyContainerFactory
+	 *            The factory for the listener container of the old queue. Needs to publish
+	 *            {@link ListenerContainerIdleEvent}s.
+	 */
+	public void registerListeners(RabbitListenerEndpointRegistrar registrar, Object bean, Method method, MessageHandlerMethodFactory handlerMethodFactory,
+			RabbitListenerContainerFactory<?> shardContainerFactory, RabbitListenerContainerFactory<?> legacyContainerFactory) {
+		for (String queueName : shards.getQueueNames()) {
+			MethodRabbitListenerEndpoint endpoint = createEndpoint(queueName, bean, method, handlerMethodFactory);
+			endpoint.setAutoStartup(false);
+			registrar.registerEndpoint(endpoint, shardContainerFactory);
+		}
+
+		registrar.registerEndpoint(createEndpoint(RabbitMqConfig.TASK_PROCESS_TRACES_QUEUE_NAME, bean, method, handlerMethodFactory), legacyContainerFactory);
+	}
+
+	private MethodRabbitListenerEndpoint createEndpoint(String queueName, Object bean, Method method, MessageHandlerMethodFactory handlerMethodFactory) {
+		MethodRabbitListenerEndpoint endpoint = new MethodRabbitListenerEndpoint();
+		endpoint.setId(queueName);
+		endpoint.setQueueNames(queueName);
+		endpoint.setBean(bean);
+		endpoint.setMethod(method);
+		endpoint.setMessageHandlerMethodFactory(handlerMethodFactory);
+		return endpoint;
+	}
+
+	/**
+	 * Starts the shard listeners if the passed event indicates that the queue used before sharding
+	 * has been drained. The listeners are started only once.
+	 *
+	 * @param event
+	 *            The idle event of any listener.
+	 */
+	public void onListenerIdle(ListenerContainerIdleEvent event) {
+		if (RabbitMqConfig.TASK_PROCESS_TRACES_QUEUE_NAME.equals(event.getListenerId()) && shardsStarted.compareAndSet(false, true)) {
+			LOGGER.info("The queue {} has been drained. Starting the listeners of the {} shards.", RabbitMqConfig.TASK_PROCESS_TRACES_QUEUE_NAME, shards.getNumShards());
+			shards.getQueueNames().forEach(listenerStarter);
+		}
+	}
+
+	/**
+	 * Returns whether the listeners of the shards have been started.
+	 *
+	 * @return {@code true} if the queue used before sharding has been drained.
+	 */
+	public boolean areShardsStarted() {
+		return shardsStarted.get();
+	}
+
+}
@@ -0,0 +1,72 @@
+package org.continuity.cobra.amqp;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.continuity.cobra.config.RabbitMqConfig;
+import org.continuity.idpa.AppId;
+
+/**
+ * Partitions the uploaded measurement data by app-id. Each shard has its own queue, which is
+ * consumed by exactly one consumer. Hence, the uploads of one app-id (ignoring the service) are
+ * processed strictly in order, while the uploads of app-ids in different shards are processed in
+ * parallel.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class TraceShards {
+
+	private final int numShards;
+
+	/**
+	 *
+	 * @param numShards
+	 *            The number of shards, i.e., the maximum number of uploads processed in parallel.
+	 */
+	public TraceShards(int numShards) {
+		if (numShards < 1) {
+			throw new IllegalArgumentException("The number of shards needs to be at least 1, but was " + numShards + "!");
+		}
+
+		this.numShards = numShards;
+	}
+
+	public int getNumShards() {
+		return numShards;
+	}
+
+	/**
+	 * Determines the shard of an app-id. The service is ignored, as the sessions are grouped per
+	 * app-id.
+	 *
+	 * @param aid
+	 *            The app-id.
+	 * @return The shard.
+	 */
+	public int shardOf(AppId aid) {
+		return Math.floorMod(aid.dropService().toString().hashCode(), numShards);
+	}
+
+	/**
+	 * Gets the name of the queue of a shard.
+	 *
+	 * @param shard
+	 *            The shard.
+	 * @return The queue name.
+	 */
+	public String queueNameOf(int shard) {
+		return RabbitMqConfig.TASK_PROCESS_TRACES_QUEUE_NAME + "." + shard;
+	}
+
+	/**
+	 * Gets the names of the queues of all shards.
+	 *
+	 * @return The queue names ordered by shard.
+	 */
+	public List<String> getQueueNames() {
+		return IntStream.range(0, numShards).mapToObj(this::queueNameOf).collect(Collectors.toList());
+	}
+
+}
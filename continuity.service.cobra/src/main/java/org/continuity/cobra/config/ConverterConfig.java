@@ -0,0 +1,16 @@
+package org.continuity.cobra.config;
+
+import org.continuity.cobra.converter.CsvRowParser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ConverterConfig {
+
+	@Bean(destroyMethod = "close")
+	public CsvRowParser csvRowParser(@Value("${csv.threads:0}") int numThreads, @Value("${csv.segment-size:1048576}") int segmentSize) {
+		return new CsvRowParser(numThreads, segmentSize);
+	}
+
+}
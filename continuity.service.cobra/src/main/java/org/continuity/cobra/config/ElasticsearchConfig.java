@@ -3,6 +3,7 @@ package org.continuity.cobra.config;
 import java.io.IOException;
 
 import org.continuity.cobra.managers.ElasticsearchBehaviorManager;
+import org.continuity.cobra.managers.ElasticsearchClient;
 import org.continuity.cobra.managers.ElasticsearchIntensityManager;
 import org.continuity.cobra.managers.ElasticsearchSessionManager;
 import org.continuity.cobra.managers.ElasticsearchTraceManager;
@@ -15,28 +16,36 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 @Configuration
 public class ElasticsearchConfig {
 
-	@Bean(destroyMethod = "destroy")
-	public ElasticsearchTraceManager elasticsearchTraceManager(@Value("${elasticsearch.host:localhost}") String host, ObjectMapper mapper,
-			@Value("${elasticsearch.bulk-timeout:30}") int bulkTimeoutSeconds) throws IOException {
-		return new ElasticsearchTraceManager(host, mapper, bulkTimeoutSeconds);
+	@Value("${elasticsearch.bulk-timeout:30}")
+	private int bulkTimeoutSeconds;
+
+	@Bean(destroyMethod = "close")
+	public ElasticsearchClient elasticsearchClient(@Value("${elasticsearch.host:localhost}") String host, @Value("${elasticsearch.max-connections:30}") int maxConnections,
+			@Value("${elasticsearch.max-connections-per-node:10}") int maxConnectionsPerNode, @Value("${elasticsearch.io-threads:0}") int ioThreads,
+			@Value("${elasticsearch.compression:true}") boolean compression, @Value("${elasticsearch.statistics-log-interval:300}") long statisticsLogIntervalSeconds) {
+		ElasticsearchClient client = new ElasticsearchClient(host, bulkTimeoutSeconds, maxConnections, maxConnectionsPerNode, ioThreads, compression);
+		client.logStatisticsEvery(statisticsLogIntervalSeconds);
+		return client;
+	}
+
+	@Bean
+	public ElasticsearchTraceManager elasticsearchTraceManager(ElasticsearchClient client, ObjectMapper mapper) throws IOException {
+		return new ElasticsearchTraceManager(client, mapper, bulkTimeoutSeconds);
 	}
 
-	@Bean(destroyMethod = "destroy")
-	public ElasticsearchSessionManager elasticsearchSessionManager(@Value("${elasticsearch.host:localhost}") String host, ObjectMapper mapper,
-			@Value("${elasticsearch.bulk-timeout:30}") int bulkTimeoutSeconds) throws IOException {
-		return new ElasticsearchSessionManager(host, mapper, bulkTimeoutSeconds);
+	@Bean
+	public ElasticsearchSessionManager elasticsearchSessionManager(ElasticsearchClient client, ObjectMapper mapper) throws IOException {
+		return new ElasticsearchSessionManager(client, mapper, bulkTimeoutSeconds);
 	}
 
-	@Bean(destroyMethod = "destroy")
-	public ElasticsearchIntensityManager elasticsearchIntensityManager(@Value("${elasticsearch.host:localhost}") String host, ObjectMapper mapper,
-			@Value("${elasticsearch.bulk-timeout:30}") int bulkTimeoutSeconds) throws IOException {
-		return new ElasticsearchIntensityManager(host, mapper, bulkTimeoutSeconds);
+	@Bean
+	public ElasticsearchIntensityManager elasticsearchIntensityManager(ElasticsearchClient client, ObjectMapper mapper) throws IOException {
+		return new ElasticsearchIntensityManager(client, mapper, bulkTimeoutSeconds);
 	}
 
-	@Bean(destroyMethod = "destroy")
-	public ElasticsearchBehaviorManager elasticsearchBehaviorManager(@Value("${elasticsearch.host:localhost}") String host, ObjectMapper mapper,
-			@Value("${elasticsearch.bulk-timeout:30}") int bulkTimeoutSeconds) throws IOException {
-		return new ElasticsearchBehaviorManager(host, mapper, bulkTimeoutSeconds);
+	@Bean
+	public ElasticsearchBehaviorManager elasticsearchBehaviorManager(ElasticsearchClient client, ObjectMapper mapper) throws IOException {
+		return new ElasticsearchBehaviorManager(client, mapper, bulkTimeoutSeconds);
 	}
 
 }
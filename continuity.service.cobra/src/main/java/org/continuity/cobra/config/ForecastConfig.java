@@ -0,0 +1,30 @@
+package org.continuity.cobra.config;
+
+import java.nio.file.Paths;
+
+import org.continuity.cobra.forecast.ForecastCache;
+import org.continuity.cobra.forecast.ForecastEngine;
+import org.continuity.cobra.managers.ElasticsearchIntensityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@Configuration
+public class ForecastConfig {
+
+	@Bean(destroyMethod = "close")
+	public ForecastEngine forecastEngine(@Value("${forecast.threads:0}") int numThreads) {
+		return new ForecastEngine(numThreads);
+	}
+
+	@Bean
+	public ForecastCache forecastCache(@Value("${storage.path:storage}") String storagePath, @Value("${forecast.cache.size:100}") int maxSize, ObjectMapper mapper,
+			ElasticsearchIntensityManager intensityManager) {
+		ForecastCache cache = new ForecastCache(Paths.get(storagePath, "forecasts"), mapper, maxSize);
+		intensityManager.addUpdateListener(cache::invalidate);
+		return cache;
+	}
+
+}
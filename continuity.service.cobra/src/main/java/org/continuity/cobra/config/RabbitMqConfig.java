@@ -1,10 +1,16 @@
 package org.continuity.cobra.config;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.continuity.api.amqp.AmqpApi;
 import org.continuity.api.entities.config.cobra.CobraConfiguration;
+import org.continuity.cobra.amqp.TraceShardListeners;
+import org.continuity.cobra.amqp.TraceShards;
 import org.springframework.amqp.core.AmqpTemplate;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
 import org.springframework.amqp.core.MessagePostProcessor;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.QueueBuilder;
@@ -13,10 +19,12 @@ import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFacto
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitAdmin;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
 import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.amqp.support.converter.SimpleMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -91,6 +99,23 @@ public class RabbitMqConfig {
 		return factory;
 	}
 
+	/**
+	 * Like the {@link #requeueingContainerFactory}, but publishes an idle event if there has not
+	 * been a message for the specified time. Used for the queue used before sharding.
+	 */
+	@Bean
+	SimpleRabbitListenerContainerFactory idleEventContainerFactory(ConnectionFactory connectionFactory, MessageConverter converter, SimpleRabbitListenerContainerFactoryConfigurer configurer,
+			@Value("${traces.legacy-queue.idle-millis:10000}") long idleMillis) {
+		SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+		configurer.configure(factory, connectionFactory);
+		factory.setMessageConverter(converter);
+		factory.setAfterReceivePostProcessors(typeRemovingProcessor());
+		factory.setPrefetchCount(1);
+		factory.setDefaultRequeueRejected(true);
+		factory.setIdleEventInterval(idleMillis);
+		return factory;
+	}
+
 	@Bean
 	public RabbitAdmin rabbitAdmin(ConnectionFactory connectionFactory) {
 		return new RabbitAdmin(connectionFactory);
@@ -143,6 +168,36 @@ public class RabbitMqConfig {
 		return AmqpApi.Cobra.TASK_PROCESS_TRACES.create();
 	}
 
+	@Bean
+	TraceShards traceShards(@Value("${traces.shards:4}") int numShards) {
+		return new TraceShards(numShards);
+	}
+
+	@Bean
+	TraceShardListeners traceShardListeners(TraceShards traceShards, RabbitListenerEndpointRegistry listenerRegistry) {
+		return new TraceShardListeners(traceShards, id -> listenerRegistry.getListenerContainer(id).start());
+	}
+
+	@Bean
+	List<Declarable> taskProcessTracesShardQueues(TraceShards traceShards) {
+		List<Declarable> declarables = new ArrayList<>();
+
+		for (int shard = 0; shard < traceShards.getNumShards(); shard++) {
+			// no dead letter & durable --> see taskProcessTracesQueue
+			Queue queue = QueueBuilder.durable(traceShards.queueNameOf(shard)).build();
+			declarables.add(queue);
+			declarables.add(BindingBuilder.bind(queue).to(taskProcessTracesExchange()).with(AmqpApi.Cobra.TASK_PROCESS_TRACES.formatRoutingKey().bindingOf(shard)));
+		}
+
+		return declarables;
+	}
+
+	/**
+	 * The queue used before sharding. It is not bound anymore and only consumed to process the
+	 * remaining uploads.
+	 *
+	 * @return The queue.
+	 */
 	@Bean
 	Queue taskProcessTracesQueue() {
 		// Not using a dead letter queue: we want to stop consuming on failure and allow
@@ -152,8 +207,8 @@ public class RabbitMqConfig {
 	}
 
 	@Bean
-	Binding taskProcessTracesBinding() {
-		return BindingBuilder.bind(taskProcessTracesQueue()).to(taskProcessTracesExchange()).with(ROUTING_KEY_ALL);
+	TopicExchange eventDataUpdatedExchange() {
+		return AmqpApi.Cobra.EVENT_DATA_UPDATED.create();
 	}
 
 	@Bean
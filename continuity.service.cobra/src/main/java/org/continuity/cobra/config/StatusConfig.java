@@ -1,6 +1,13 @@
 package org.continuity.cobra.config;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.continuity.cobra.admission.UploadAdmission;
+import org.continuity.cobra.amqp.TraceShards;
 import org.continuity.cobra.entities.TraceProcessingStatus;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -12,4 +19,21 @@ public class StatusConfig {
 		return new TraceProcessingStatus();
 	}
 
+	@Bean
+	public UploadAdmission uploadAdmission(RabbitAdmin rabbitAdmin, TraceShards traceShards, @Value("${admission.max-queued:1000}") long maxQueued,
+			@Value("${admission.max-queued-per-app:100}") long maxQueuedPerApp, @Value("${admission.sync-interval:30}") long syncIntervalSeconds) {
+		List<String> queueNames = new ArrayList<>(traceShards.getQueueNames());
+		queueNames.add(RabbitMqConfig.TASK_PROCESS_TRACES_QUEUE_NAME);
+
+		return new UploadAdmission(maxQueued, maxQueuedPerApp, syncIntervalSeconds * 1000, () -> rabbitAdmin.getRabbitTemplate().execute(channel -> {
+			int depth = 0;
+
+			for (String queueName : queueNames) {
+				depth += channel.queueDeclarePassive(queueName).getMessageCount();
+			}
+
+			return depth;
+		}));
+	}
+
 }
@@ -146,7 +146,7 @@ public class ContextController {
 		long resolutionMillis = (resolution.getSeconds() * 1000) + (resolution.getNano() / 1000000);
 
 		for (List<String> tailoring : config.getTailoring()) {
-			elasticManager.storeOrUpdateIntensities(aid, tailoring, toIntensityRecords(contextMap, resolutionMillis, config.getTimeZone()));
+			elasticManager.storeOrUpdateIntensities(aid, tailoring, toIntensityRecords(contextMap, resolutionMillis, config.getTimeZone()), resolution);
 		}
 	}
 
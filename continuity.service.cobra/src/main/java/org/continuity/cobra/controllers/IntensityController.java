@@ -2,17 +2,22 @@ package org.continuity.cobra.controllers;
 
 import static org.continuity.api.rest.RestApi.Cobra.Intensity.ROOT;
 import static org.continuity.api.rest.RestApi.Cobra.Intensity.Paths.GET_FOR_ID;
+import static org.continuity.api.rest.RestApi.Cobra.Intensity.Paths.GET_RANGE;
+import static org.continuity.api.rest.RestApi.Cobra.Intensity.Paths.REBUILD_ROLLUPS;
+import static org.continuity.api.rest.RestApi.Cobra.Intensity.Paths.REMOVE_EMPTY;
 import static org.continuity.api.rest.RestApi.Cobra.Intensity.Paths.UPDATE_LEGACY;
 import static org.continuity.api.rest.RestApi.Cobra.Intensity.Paths.UPLOAD;
 
 import java.io.IOException;
 import java.text.ParseException;
 import java.time.Duration;
+import java.time.format.DateTimeParseException;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.tuple.Pair;
@@ -21,6 +26,7 @@ import org.continuity.api.entities.artifact.ForecastIntensityRecord;
 import org.continuity.api.entities.artifact.session.Session;
 import org.continuity.api.entities.config.ConfigurationProvider;
 import org.continuity.api.entities.config.cobra.CobraConfiguration;
+import org.continuity.cobra.entities.IntensityRollup.Aggregation;
 import org.continuity.cobra.managers.ElasticsearchIntensityManager;
 import org.continuity.commons.storage.MixedStorage;
 import org.continuity.idpa.AppId;
@@ -33,6 +39,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import io.swagger.annotations.ApiImplicitParam;
@@ -74,7 +81,7 @@ public class IntensityController {
 	@ApiImplicitParams({ @ApiImplicitParam(name = "app-id", required = true, dataType = "string", paramType = "path"),
 			@ApiImplicitParam(name = "tailoring", required = true, dataType = "string", paramType = "path") })
 	public ResponseEntity<String> upload(@ApiIgnore @PathVariable("app-id") AppId aid, @ApiIgnore @PathVariable("tailoring") String tailoringStr, @PathVariable String group,
-			@RequestBody Map<String, Long> intensities) throws IOException {
+			@RequestBody Map<String, Long> intensities) throws IOException, TimeoutException {
 
 		Map<Date, Long> intensitiesPerDate;
 		try {
@@ -86,11 +93,66 @@ public class IntensityController {
 
 		List<String> tailoring = Session.convertStringToTailoring(tailoringStr);
 		List<IntensityRecord> records = toIntensityRecords(aid, group, intensitiesPerDate);
-		elasticManager.storeOrUpdateIntensities(aid, tailoring, records);
+		elasticManager.storeOrUpdateIntensities(aid, tailoring, records, configProvider.getConfiguration(aid).getIntensity().getResolution());
 
 		return ResponseEntity.ok("Updated the intensities!");
 	}
 
+	@RequestMapping(value = GET_RANGE, method = RequestMethod.GET)
+	@ApiImplicitParams({ @ApiImplicitParam(name = "app-id", required = true, dataType = "string", paramType = "path"),
+			@ApiImplicitParam(name = "tailoring", required = true, dataType = "string", paramType = "path") })
+	public ResponseEntity<?> getInRange(@ApiIgnore @PathVariable("app-id") AppId aid, @ApiIgnore @PathVariable("tailoring") String tailoringStr, @RequestParam String from,
+			@RequestParam String to, @RequestParam(required = false) String resolution, @RequestParam(defaultValue = "mean") String aggregation) throws IOException, TimeoutException {
+		Duration baseResolution = configProvider.getConfiguration(aid).getIntensity().getResolution();
+		Date fromDate;
+		Date toDate;
+		Duration requested;
+		Aggregation agg;
+
+		try {
+			fromDate = ApiFormats.parseOrNull(from);
+			toDate = ApiFormats.parseOrNull(to);
+			requested = resolution == null ? baseResolution : Duration.parse(resolution);
+			agg = Aggregation.fromPrettyString(aggregation);
+		} catch (ParseException | DateTimeParseException | IllegalArgumentException e) {
+			LOGGER.error("Cannot parse the request parameters!", e);
+			return ResponseEntity.badRequest().body("Illegal parameters: " + e.getMessage());
+		}
+
+		if ((requested.toMillis() < baseResolution.toMillis()) || ((requested.toMillis() % baseResolution.toMillis()) != 0)) {
+			return ResponseEntity.badRequest().body("The resolution needs to be a multiple of " + baseResolution + "!");
+		}
+
+		List<String> tailoring = Session.convertStringToTailoring(tailoringStr);
+		List<IntensityRecord> records = elasticManager.readIntensitiesInRange(aid, tailoring, fromDate.getTime(), toDate.getTime(), baseResolution, requested, agg);
+
+		if (records == null) {
+			return ResponseEntity.notFound().build();
+		} else {
+			return ResponseEntity.ok(records);
+		}
+	}
+
+	@RequestMapping(value = REBUILD_ROLLUPS, method = RequestMethod.POST)
+	@ApiImplicitParams({ @ApiImplicitParam(name = "app-id", required = true, dataType = "string", paramType = "path"),
+			@ApiImplicitParam(name = "tailoring", required = true, dataType = "string", paramType = "path") })
+	public ResponseEntity<String> rebuildRollups(@ApiIgnore @PathVariable("app-id") AppId aid, @ApiIgnore @PathVariable("tailoring") String tailoringStr) throws IOException, TimeoutException {
+		List<String> tailoring = Session.convertStringToTailoring(tailoringStr);
+		elasticManager.rebuildRollups(aid, tailoring, configProvider.getConfiguration(aid).getIntensity().getResolution());
+
+		return ResponseEntity.ok("Rebuilt the rollups.");
+	}
+
+	@RequestMapping(value = REMOVE_EMPTY, method = RequestMethod.POST)
+	@ApiImplicitParams({ @ApiImplicitParam(name = "app-id", required = true, dataType = "string", paramType = "path"),
+			@ApiImplicitParam(name = "tailoring", required = true, dataType = "string", paramType = "path") })
+	public ResponseEntity<String> removeEmptyRecords(@ApiIgnore @PathVariable("app-id") AppId aid, @ApiIgnore @PathVariable("tailoring") String tailoringStr) throws IOException {
+		List<String> tailoring = Session.convertStringToTailoring(tailoringStr);
+		long removed = elasticManager.removeEmptyRecords(aid, tailoring);
+
+		return ResponseEntity.ok("Removed " + removed + " empty records.");
+	}
+
 	@RequestMapping(value = UPDATE_LEGACY, method = RequestMethod.POST)
 	@ApiImplicitParams({ @ApiImplicitParam(name = "app-id", required = true, dataType = "string", paramType = "path"),
 			@ApiImplicitParam(name = "tailoring", required = true, dataType = "string", paramType = "path") })
@@ -22,11 +22,13 @@ import java.util.concurrent.TimeoutException;
 
 import org.continuity.api.amqp.AmqpApi;
 import org.continuity.api.amqp.ExchangeDefinition;
-import org.continuity.api.amqp.RoutingKeyFormatter.AppIdAndVersion;
+import org.continuity.api.amqp.RoutingKeyFormatter.ShardAndAppIdAndVersion;
 import org.continuity.api.entities.ApiFormats;
 import org.continuity.api.entities.config.MeasurementDataSpec;
 import org.continuity.api.rest.RestApi;
-import org.continuity.cobra.config.RabbitMqConfig;
+import org.continuity.cobra.admission.UploadAdmission;
+import org.continuity.cobra.admission.UploadAdmission.Decision;
+import org.continuity.cobra.amqp.TraceShards;
 import org.continuity.cobra.entities.TraceProcessingStatus;
 import org.continuity.cobra.managers.ElasticsearchTraceManager;
 import org.continuity.idpa.AppId;
@@ -37,9 +39,9 @@ import org.spec.research.open.xtrace.api.core.Trace;
 import org.springframework.amqp.core.AmqpTemplate;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.core.MessageProperties;
-import org.springframework.amqp.rabbit.core.RabbitAdmin;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.ResourceUtils;
@@ -51,8 +53,6 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.client.RestTemplate;
 
-import com.rabbitmq.client.AMQP.Queue.DeclareOk;
-
 import io.swagger.annotations.ApiImplicitParam;
 import io.swagger.annotations.ApiImplicitParams;
 import open.xtrace.OPENxtraceUtils;
@@ -70,9 +70,6 @@ public class MeasurementDataController {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(MeasurementDataController.class);
 
-	@Autowired
-	private RabbitAdmin rabbitAdmin;
-
 	@Autowired
 	@Qualifier("plainRestTemplate")
 	private RestTemplate plainRestTemplate;
@@ -86,6 +83,12 @@ public class MeasurementDataController {
 	@Autowired
 	private TraceProcessingStatus status;
 
+	@Autowired
+	private UploadAdmission admission;
+
+	@Autowired
+	private TraceShards traceShards;
+
 	@RequestMapping(value = GET, method = RequestMethod.GET)
 	@ApiImplicitParams({ @ApiImplicitParam(name = "app-id", required = true, dataType = "string", paramType = "path") })
 	public ResponseEntity<String> getTraces(@ApiIgnore @PathVariable("app-id") AppId aid, @RequestParam(required = false) List<String> from, @RequestParam(required = false) List<String> to)
@@ -158,6 +161,12 @@ public class MeasurementDataController {
 
 		LOGGER.info("Received link to {} for {}@{}.", spec.getType().toPrettyString(), aid, version);
 
+		Decision decision = admission.admit(aid);
+
+		if (!decision.isAdmitted()) {
+			return responseTooManyRequests(aid, version, spec.getType().toPrettyString(), decision);
+		}
+
 		switch (spec.getType()) {
 		case ACCESS_LOGS:
 			String accessLogs = plainRestTemplate.getForObject(spec.getLink(), String.class);
@@ -185,7 +194,7 @@ public class MeasurementDataController {
 			@RequestParam(defaultValue = "false") boolean finish)
 			throws IOException {
 
-		if (!status.isActive()) {
+		if (!status.isActive(traceShards.shardOf(aid))) {
 			LOGGER.warn("Rejecting OPEN.xtraces for {}@{} due to previous failures.", aid, version);
 			return responseRejected(aid, version, "open-xtrace");
 		}
@@ -203,7 +212,7 @@ public class MeasurementDataController {
 			@RequestParam(defaultValue = "false") boolean finish)
 			throws IOException {
 
-		if (!status.isActive()) {
+		if (!status.isActive(traceShards.shardOf(aid))) {
 			LOGGER.warn("Rejecting access logs for {}@{} due to previous failures.", aid, version);
 			return responseRejected(aid, version, "access-logs");
 		}
@@ -220,7 +229,7 @@ public class MeasurementDataController {
 			@RequestParam(defaultValue = "false") boolean finish)
 			throws IOException {
 
-		if (!status.isActive()) {
+		if (!status.isActive(traceShards.shardOf(aid))) {
 			LOGGER.warn("Rejecting CSV for {}@{} due to previous failures.", aid, version);
 			return responseRejected(aid, version, "csv");
 		}
@@ -237,7 +246,7 @@ public class MeasurementDataController {
 			@RequestBody String sessionContent,
 			@RequestParam(defaultValue = "false") boolean finish) throws IOException {
 
-		if (!status.isActive()) {
+		if (!status.isActive(traceShards.shardOf(aid))) {
 			LOGGER.warn("Rejecting session logs for {}@{} due to previous failures.", aid, version);
 			return responseRejected(aid, version, "session-logs");
 		}
@@ -248,6 +257,12 @@ public class MeasurementDataController {
 	}
 
 	private ResponseEntity<Map<String, Object>> forwardData(String datatype, AppId aid, VersionOrTimestamp version, String data, boolean finish) {
+		Decision decision = admission.admit(aid);
+
+		if (!decision.isAdmitted()) {
+			return responseTooManyRequests(aid, version, datatype, decision);
+		}
+
 		MessageProperties props = new MessageProperties();
 		props.setHeader(AmqpApi.Cobra.HEADER_DATATYPE, datatype);
 		props.setHeader(AmqpApi.Cobra.HEADER_FINISH, finish);
@@ -259,9 +274,10 @@ public class MeasurementDataController {
 			props.setContentType("text/plain");
 		}
 
-		ExchangeDefinition<AppIdAndVersion> exchange = AmqpApi.Cobra.TASK_PROCESS_TRACES;
+		ExchangeDefinition<ShardAndAppIdAndVersion> exchange = AmqpApi.Cobra.TASK_PROCESS_TRACES;
 		Message message = new Message(data.getBytes(AmqpApi.Cobra.CONTENT_CHARSET), props);
-		amqpTemplate.send(exchange.name(), exchange.formatRoutingKey().of(aid, version), message);
+		amqpTemplate.send(exchange.name(), exchange.formatRoutingKey().of(traceShards.shardOf(aid), aid, version), message);
+		admission.enqueued(aid);
 
 		LOGGER.info("{}@{} Forwarded data to {}.", aid, version, exchange.name());
 
@@ -282,6 +298,17 @@ public class MeasurementDataController {
 		return responseError(aid, version, datatype, HttpStatus.CONFLICT, "Trace processing is stopped due to previous failures");
 	}
 
+	private ResponseEntity<Map<String, Object>> responseTooManyRequests(AppId aid, VersionOrTimestamp version, String datatype, Decision decision) {
+		Map<String, Object> response = responseBase(aid, version, datatype);
+
+		response.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+		response.put("error", HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase());
+		response.put("message", decision.getMessage());
+		response.put("retry-after", decision.getRetryAfterSeconds());
+
+		return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, Long.toString(decision.getRetryAfterSeconds())).body(response);
+	}
+
 	private ResponseEntity<Map<String, Object>> responseError(AppId aid, VersionOrTimestamp version, String datatype, HttpStatus status, String message) {
 		Map<String, Object> response = responseBase(aid, version, datatype);
 
@@ -299,15 +326,10 @@ public class MeasurementDataController {
 		response.put("app-id", aid);
 		response.put("version", version);
 		response.put("type", datatype);
-		response.put("num-queued", getQueuedMessages(aid));
+		response.put("num-queued", admission.getQueued());
+		response.put("num-queued-app-id", admission.getQueued(aid));
 
 		return response;
 	}
 
-	private int getQueuedMessages(AppId aid) {
-		DeclareOk declareOk = rabbitAdmin.getRabbitTemplate().execute(channel -> channel.queueDeclarePassive(RabbitMqConfig.TASK_PROCESS_TRACES_QUEUE_NAME));
-
-		return declareOk.getMessageCount();
-	}
-
 }
@@ -0,0 +1,56 @@
+package org.continuity.cobra.controllers;
+
+import static org.continuity.api.rest.RestApi.Cobra.Watermarks.ROOT;
+import static org.continuity.api.rest.RestApi.Cobra.Watermarks.Paths.CHECK;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.continuity.api.entities.artifact.session.Session;
+import org.continuity.cobra.entities.WatermarkCheck;
+import org.continuity.cobra.managers.ElasticsearchIntensityManager;
+import org.continuity.cobra.managers.ElasticsearchSessionManager;
+import org.continuity.idpa.AppId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.swagger.annotations.ApiImplicitParam;
+import io.swagger.annotations.ApiImplicitParams;
+import springfox.documentation.annotations.ApiIgnore;
+
+/**
+ * Allows checking the tracked earliest and latest dates of the stored data against
+ * Elasticsearch.
+ *
+ * @author Henning Schulz
+ *
+ */
+@RestController
+@RequestMapping(ROOT)
+public class WatermarkController {
+
+	@Autowired
+	private ElasticsearchSessionManager sessionManager;
+
+	@Autowired
+	private ElasticsearchIntensityManager intensityManager;
+
+	@RequestMapping(value = CHECK, method = RequestMethod.POST)
+	@ApiImplicitParams({ @ApiImplicitParam(name = "app-id", required = true, dataType = "string", paramType = "path"),
+			@ApiImplicitParam(name = "tailoring", required = true, dataType = "string", paramType = "path") })
+	public ResponseEntity<List<WatermarkCheck>> checkWatermarks(@ApiIgnore @PathVariable("app-id") AppId aid, @ApiIgnore @PathVariable("tailoring") String tailoringStr) throws IOException {
+		List<String> tailoring = Session.convertStringToTailoring(tailoringStr);
+
+		List<WatermarkCheck> checks = new ArrayList<>();
+		checks.add(sessionManager.checkWatermark(aid, tailoring));
+		checks.addAll(intensityManager.checkWatermarks(aid, tailoring));
+
+		return ResponseEntity.ok(checks);
+	}
+
+}
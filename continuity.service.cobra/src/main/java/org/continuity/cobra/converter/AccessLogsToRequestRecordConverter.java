@@ -0,0 +1,75 @@
+package org.continuity.cobra.converter;
+
+import java.text.ParseException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.continuity.cobra.entities.RequestRecord;
+import org.continuity.commons.accesslogs.AccessLogEntry;
+import org.continuity.commons.accesslogs.ParameterRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Converts {@link AccessLogEntry} to {@link RequestRecord}.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class AccessLogsToRequestRecordConverter implements RequestRecordConverter<AccessLogEntry> {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AccessLogsToRequestRecordConverter.class);
+
+	private final boolean hashSessionId;
+
+	private final AtomicLong idCounter = new AtomicLong(0);
+
+	public AccessLogsToRequestRecordConverter(boolean hashSessionId) {
+		this.hashSessionId = hashSessionId;
+	}
+
+	@Override
+	public List<RequestRecord> convert(List<AccessLogEntry> accessLogs) {
+		return accessLogs.stream().filter(Objects::nonNull).map(this::convert).collect(Collectors.toList());
+	}
+
+	private RequestRecord convert(AccessLogEntry entry) {
+		RequestRecord record = new RequestRecord();
+		record.setTraceId((entry.hashCode() * 31) + idCounter.getAndIncrement());
+
+		record.setBusinessTransaction(entry.getEndpoint());
+
+		try {
+			long startMillis = entry.getAccessTimeAsDate().getTime();
+
+			record.setStartMillis(startMillis);
+			record.setEndMillis(startMillis + (entry.getResponseTime() / MILLIS_TO_MICROS));
+		} catch (ParseException e) {
+			LOGGER.error("Could not parse timestamp!", e);
+		}
+
+		record.setUri(entry.getPath());
+		record.setMethod(entry.getRequestMethod().toUpperCase());
+		record.setResponseCode(entry.getStatusCode());
+		record.setParameters(formatParameters(entry.getRequestParameters()));
+		record.setSessionId(hashSessionId ? DigestUtils.sha256Hex(entry.getClientHost()) : entry.getClientHost());
+
+		return record;
+	}
+
+	private Map<String, String[]> formatParameters(List<ParameterRecord> params) {
+		if ((params == null) || params.isEmpty()) {
+			return Collections.emptyMap();
+		} else {
+			return params.stream().collect(Collectors.groupingBy(ParameterRecord::getName, Collectors.mapping(ParameterRecord::getValue, Collectors.toList()))).entrySet().stream()
+					.collect(Collectors.toMap(Entry::getKey, e -> e.getValue().toArray(new String[e.getValue().size()])));
+		}
+	}
+
+}
@@ -0,0 +1,255 @@
+package org.continuity.cobra.converter;
+
+import java.io.Closeable;
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import org.continuity.cobra.entities.CsvRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.univocity.parsers.common.processor.BeanListProcessor;
+import com.univocity.parsers.csv.CsvFormat;
+import com.univocity.parsers.csv.CsvParser;
+import com.univocity.parsers.csv.CsvParserSettings;
+
+/**
+ * Streaming alternative to {@link CsvRow#listFromString(String)}. Splits the CSV data into
+ * segments at record boundaries, parses the segments in parallel and passes the parsed rows to a
+ * consumer chunk by chunk and in input order. At most one segment per thread is held in memory at
+ * a time. The header and delimiter are detected once at the beginning of the data, in the same
+ * way as {@link CsvRow#listFromString(String)} does.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class CsvRowParser implements Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CsvRowParser.class);
+
+	private static final char[] DELIMITERS = { ',', ';' };
+
+	private static final char NEWLINE = '\n';
+
+	private final ExecutorService executor;
+
+	private final int numThreads;
+
+	private final int segmentSize;
+
+	/**
+	 * Creates a new parser.
+	 *
+	 * @param numThreads
+	 *            The number of threads to be used for parsing the segments. If 0 or less, the
+	 *            number of available processors is used.
+	 * @param segmentSize
+	 *            The minimum number of characters per segment. A segment is ended at the first
+	 *            record boundary after this number of characters.
+	 */
+	public CsvRowParser(int numThreads, int segmentSize) {
+		if (segmentSize < 1) {
+			throw new IllegalArgumentException("The segment size must be positive, but was " + segmentSize + "!");
+		}
+
+		this.numThreads = numThreads > 0 ? numThreads : Runtime.getRuntime().availableProcessors();
+		this.segmentSize = segmentSize;
+		this.executor = Executors.newFixedThreadPool(this.numThreads);
+	}
+
+	/**
+	 * Parses CSV data and passes the parsed rows to a consumer. The consumer is called
+	 * sequentially from the calling thread, once per segment and in the order of the input.
+	 *
+	 * @param csv
+	 *            The CSV data including the header.
+	 * @param chunkConsumer
+	 *            The consumer of the parsed rows.
+	 */
+	public void parse(String csv, Consumer<List<CsvRow>> chunkConsumer) {
+		CsvParserSettings detected = detectSettings(csv);
+
+		if (detected == null) {
+			return;
+		}
+
+		CsvFormat format = detected.getFormat();
+		String[] headers = detected.getHeaders();
+		Deque<Future<List<CsvRow>>> pending = new ArrayDeque<>();
+
+		int start = 0;
+		int numSegments = 0;
+
+		while (start < csv.length()) {
+			int end = nextSegmentEnd(csv, start, format);
+			String segment = csv.substring(start, end);
+			boolean first = start == 0;
+
+			if (pending.size() >= numThreads) {
+				chunkConsumer.accept(await(pending.poll()));
+			}
+
+			pending.add(executor.submit(() -> parseSegment(segment, first, format, headers)));
+
+			start = end;
+			numSegments++;
+		}
+
+		while (!pending.isEmpty()) {
+			chunkConsumer.accept(await(pending.poll()));
+		}
+
+		LOGGER.debug("Parsed {} characters of CSV data in {} segments.", csv.length(), numSegments);
+	}
+
+	/**
+	 * Parses CSV data into a list of rows. Equivalent to {@link CsvRow#listFromString(String)}.
+	 *
+	 * @param csv
+	 *            The CSV data including the header.
+	 * @return The parsed rows.
+	 */
+	public List<CsvRow> parse(String csv) {
+		List<CsvRow> rows = new ArrayList<>();
+		parse(csv, rows::addAll);
+		return rows;
+	}
+
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Detects the format and headers from the beginning of the data.
+	 *
+	 * @return Settings holding the detected format and headers or {@code null} if there are no
+	 *         headers.
+	 */
+	private CsvParserSettings detectSettings(String csv) {
+		CsvParserSettings settings = new CsvParserSettings();
+		settings.setHeaderExtractionEnabled(true);
+		settings.setDelimiterDetectionEnabled(true, DELIMITERS);
+
+		CsvParser parser = new CsvParser(settings);
+		parser.beginParsing(new StringReader(csv));
+		parser.parseNext();
+
+		String[] headers = parser.getContext().headers();
+		CsvFormat format = parser.getDetectedFormat();
+
+		parser.stopParsing();
+
+		if ((headers == null) || (headers.length == 0)) {
+			return null;
+		}
+
+		CsvParserSettings detected = new CsvParserSettings();
+		detected.setFormat(format == null ? settings.getFormat() : format);
+		detected.setHeaders(headers);
+		return detected;
+	}
+
+	private List<CsvRow> parseSegment(String segment, boolean first, CsvFormat format, String[] headers) {
+		BeanListProcessor<CsvRow> rowProcessor = new BeanListProcessor<>(CsvRow.class);
+
+		CsvParserSettings settings = new CsvParserSettings();
+		settings.setProcessor(rowProcessor);
+		settings.setFormat(format.clone());
+
+		if (first) {
+			settings.setHeaderExtractionEnabled(true);
+		} else {
+			settings.setHeaders(headers);
+		}
+
+		new CsvParser(settings).parse(new StringReader(segment));
+
+		return rowProcessor.getBeans();
+	}
+
+	/**
+	 * Finds the end of the segment starting at {@code start}, which is the first record boundary
+	 * after at least {@link #segmentSize} characters. A record boundary is a newline that is not
+	 * part of a quoted value. Quotes are only considered if they start a value, as the parser
+	 * treats quotes within unquoted values as regular characters.
+	 */
+	private int nextSegmentEnd(String csv, int start, CsvFormat format) {
+		int minEnd = start + segmentSize;
+
+		if (minEnd >= csv.length()) {
+			return csv.length();
+		}
+
+		char delimiter = format.getDelimiter();
+		char quote = format.getQuote();
+		char quoteEscape = format.getQuoteEscape();
+
+		ScanState state = ScanState.VALUE_START;
+
+		for (int i = start; i < csv.length(); i++) {
+			char c = csv.charAt(i);
+
+			switch (state) {
+			case VALUE_START:
+				if (c == quote) {
+					state = ScanState.QUOTED;
+				} else if (c == NEWLINE) {
+					if (i >= minEnd) {
+						return i + 1;
+					}
+				} else if ((c != delimiter) && (c != ' ') && (c != '\t')) {
+					state = ScanState.UNQUOTED;
+				}
+				break;
+			case UNQUOTED:
+				if (c == NEWLINE) {
+					state = ScanState.VALUE_START;
+
+					if (i >= minEnd) {
+						return i + 1;
+					}
+				} else if (c == delimiter) {
+					state = ScanState.VALUE_START;
+				}
+				break;
+			case QUOTED:
+				if ((c == quoteEscape) && ((i + 1) < csv.length()) && (csv.charAt(i + 1) == quote)) {
+					i++;
+				} else if (c == quote) {
+					// anything after the closing quote is treated like an unquoted value
+					state = ScanState.UNQUOTED;
+				}
+				break;
+			default:
+				break;
+			}
+		}
+
+		return csv.length();
+	}
+
+	private List<CsvRow> await(Future<List<CsvRow>> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while parsing CSV data", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Could not parse CSV data", e.getCause());
+		}
+	}
+
+	private static enum ScanState {
+		VALUE_START, UNQUOTED, QUOTED
+	}
+
+}
@@ -0,0 +1,66 @@
+package org.continuity.cobra.converter;
+
+import java.text.ParseException;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.continuity.api.entities.ApiFormats;
+import org.continuity.cobra.entities.CsvRow;
+import org.continuity.cobra.entities.RequestRecord;
+import org.continuity.commons.utils.WebUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Converts {@link CsvRow} to {@link RequestRecord}.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class CsvRowToRequestRecordConverter implements RequestRecordConverter<CsvRow> {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CsvRowToRequestRecordConverter.class);
+
+	private final boolean hashSessionId;
+
+	private final AtomicLong idCounter = new AtomicLong(0);
+
+	public CsvRowToRequestRecordConverter(boolean hashSessionId) {
+		this.hashSessionId = hashSessionId;
+	}
+
+	@Override
+	public List<RequestRecord> convert(List<CsvRow> data) {
+		return data.stream().map(this::convert).collect(Collectors.toList());
+	}
+
+	private RequestRecord convert(CsvRow row) {
+		RequestRecord record = new RequestRecord();
+		record.setTraceId((row.hashCode() * 31) + idCounter.getAndIncrement());
+
+		record.setHost(row.getDomain());
+		record.setPort(Integer.parseInt(row.getPort()));
+		record.setBusinessTransaction(row.getName());
+
+		try {
+			Date start = ApiFormats.DATE_FORMAT.parse(row.getStartDate());
+			Date end = ApiFormats.DATE_FORMAT.parse(row.getEndDate());
+
+			record.setStartMillis(start.getTime());
+			record.setEndMillis(end.getTime());
+		} catch (ParseException e) {
+			LOGGER.error("Could not parse timestamp!", e);
+		}
+
+		record.setUri(row.getPath());
+		record.setMethod(row.getMethod().toUpperCase());
+		record.setParameters(WebUtils.formatQueryParameters(row.getParameters()));
+		record.setSessionId(hashSessionId ? DigestUtils.sha256Hex(row.getSessionId()) : row.getSessionId());
+
+		return record;
+	}
+
+}
@@ -0,0 +1,31 @@
+package org.continuity.cobra.converter;
+
+import java.util.List;
+
+import org.continuity.cobra.entities.RequestRecord;
+
+/**
+ * Common interface for converters from a flat data type directly to {@link RequestRecord}s, i.e.,
+ * without creating OPEN.xtrace. The records hold the same information as the traces created by
+ * the corresponding {@link OpenXtraceConverter}.
+ *
+ * @author Henning Schulz
+ *
+ * @param <T>
+ */
+public interface RequestRecordConverter<T> {
+
+	public static final long MILLIS_TO_NANOS = 1000000;
+
+	public static final long MILLIS_TO_MICROS = 1000;
+
+	/**
+	 * Converts a list of data to request records.
+	 *
+	 * @param data
+	 *            The data to be converted.
+	 * @return The list of {@link RequestRecord}.
+	 */
+	List<RequestRecord> convert(List<T> data);
+
+}
@@ -0,0 +1,75 @@
+package org.continuity.cobra.converter;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.continuity.cobra.entities.RequestRecord;
+import org.continuity.commons.utils.WebUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Converts session logs in the extended format to {@link RequestRecord}.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class SessionLogsToRequestRecordConverter implements RequestRecordConverter<String> {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(SessionLogsToRequestRecordConverter.class);
+
+	private final AtomicLong idCounter = new AtomicLong(0);
+
+	@Override
+	public List<RequestRecord> convert(List<String> sessionLogs) {
+		return sessionLogs.stream().flatMap(this::convert).collect(Collectors.toList());
+	}
+
+	private Stream<RequestRecord> convert(String session) {
+		String[] elements = session.split(";");
+
+		if (elements.length < 2) {
+			LOGGER.warn("Found empty session. Ignoring.");
+			return Stream.empty();
+		}
+
+		String sessionId = elements[0];
+
+		return Arrays.stream(elements).skip(1).map(s -> convert(sessionId, s));
+	}
+
+	/**
+	 *
+	 * @param sessionId
+	 * @param request
+	 *            Request of the following format:
+	 *            {@code "name":startNanos:endNanos:path:port:host:protocol:method:parameters:encoding}
+	 * @return
+	 */
+	private RequestRecord convert(String sessionId, String request) {
+		String[] elements = request.split(":");
+
+		long startNanos = Long.parseLong(elements[1]);
+		long endNanos = Long.parseLong(elements[2]);
+		long startMillis = startNanos / MILLIS_TO_NANOS;
+
+		RequestRecord record = new RequestRecord();
+		record.setTraceId((request.hashCode() * 31) + idCounter.getAndIncrement());
+
+		record.setBusinessTransaction(elements[0].substring(1, elements[0].length() - 1));
+		record.setStartMillis(startMillis);
+		record.setEndMillis(startMillis + ((endNanos - startNanos) / MILLIS_TO_NANOS));
+		record.setUri(elements[3]);
+		record.setPort(Integer.parseInt(elements[4]));
+		record.setHost(elements[5]);
+		record.setMethod(elements[7].toUpperCase());
+		record.setParameters(WebUtils.formatQueryParameters(elements[8]));
+		record.setSessionId(sessionId);
+
+		return record;
+	}
+
+}
@@ -0,0 +1,214 @@
+package org.continuity.cobra.entities;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.continuity.lctl.timeseries.IntensityRecord;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Aggregated intensities of all base records within one bucket of a {@link Level}. Missing base
+ * records are considered to have an intensity of 0.
+ *
+ * @author Henning Schulz
+ *
+ */
+@JsonPropertyOrder({ "timestamp", "sum", "max", "mean" })
+public class IntensityRollup {
+
+	private long timestamp;
+
+	@JsonInclude(Include.NON_EMPTY)
+	private Map<String, Double> sum = new TreeMap<>();
+
+	@JsonInclude(Include.NON_EMPTY)
+	private Map<String, Double> max = new TreeMap<>();
+
+	@JsonInclude(Include.NON_EMPTY)
+	private Map<String, Double> mean = new TreeMap<>();
+
+	public IntensityRollup() {
+	}
+
+	public IntensityRollup(long timestamp) {
+		this.timestamp = timestamp;
+	}
+
+	/**
+	 * Gets the start of the bucket.
+	 *
+	 * @return The start as milliseconds since epoch.
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	public void setTimestamp(long timestamp) {
+		this.timestamp = timestamp;
+	}
+
+	public Map<String, Double> getSum() {
+		return sum;
+	}
+
+	public void setSum(Map<String, Double> sum) {
+		this.sum = sum;
+	}
+
+	public Map<String, Double> getMax() {
+		return max;
+	}
+
+	public void setMax(Map<String, Double> max) {
+		this.max = max;
+	}
+
+	public Map<String, Double> getMean() {
+		return mean;
+	}
+
+	public void setMean(Map<String, Double> mean) {
+		this.mean = mean;
+	}
+
+	/**
+	 * Transforms the rollup into an {@link IntensityRecord} holding the aggregated intensities.
+	 *
+	 * @param aggregation
+	 *            The aggregation to be used.
+	 * @return The intensity record. The intensities are rounded.
+	 */
+	public IntensityRecord toIntensityRecord(Aggregation aggregation) {
+		Map<String, Double> values;
+
+		switch (aggregation) {
+		case SUM:
+			values = sum;
+			break;
+		case MAX:
+			values = max;
+			break;
+		case MEAN:
+		default:
+			values = mean;
+			break;
+		}
+
+		IntensityRecord record = new IntensityRecord(timestamp);
+
+		if ((values != null) && !values.isEmpty()) {
+			Map<String, Long> intensity = new TreeMap<>();
+			values.forEach((group, value) -> intensity.put(group, Math.round(value)));
+			record.setIntensity(intensity);
+		}
+
+		return record;
+	}
+
+	/**
+	 * The resolutions at which rollups are maintained. Only the levels that are coarser than the
+	 * configured intensity resolution and a multiple of it are used. The buckets are aligned to
+	 * UTC.
+	 *
+	 * @author Henning Schulz
+	 *
+	 */
+	public enum Level {
+
+		MINUTE(Duration.ofMinutes(1), "1m"), HOUR(Duration.ofHours(1), "1h"), DAY(Duration.ofDays(1), "1d");
+
+		private final Duration duration;
+
+		private final String suffix;
+
+		private Level(Duration duration, String suffix) {
+			this.duration = duration;
+			this.suffix = suffix;
+		}
+
+		public Duration getDuration() {
+			return duration;
+		}
+
+		public long toMillis() {
+			return duration.toMillis();
+		}
+
+		public String getSuffix() {
+			return suffix;
+		}
+
+		/**
+		 * Checks whether the level is maintained for a given intensity resolution.
+		 *
+		 * @param resolution
+		 *            The intensity resolution.
+		 * @return {@code true} if the level is coarser than the resolution and a multiple of it.
+		 */
+		public boolean isMaintainedFor(Duration resolution) {
+			long res = resolution.toMillis();
+			return (res > 0) && (toMillis() > res) && ((toMillis() % res) == 0);
+		}
+
+		/**
+		 * Returns the start of the bucket containing a timestamp.
+		 *
+		 * @param timestamp
+		 *            The timestamp in milliseconds.
+		 * @return The start of the bucket in milliseconds.
+		 */
+		public long floor(long timestamp) {
+			return Math.floorDiv(timestamp, toMillis()) * toMillis();
+		}
+
+		/**
+		 * Selects the coarsest level that can be used to serve a request for a given resolution.
+		 *
+		 * @param resolution
+		 *            The intensity resolution.
+		 * @param requested
+		 *            The requested resolution.
+		 * @return The coarsest level that is maintained for the intensity resolution and divides
+		 *         the requested one or {@code null} if there is none.
+		 */
+		public static Level coarsestFor(Duration resolution, Duration requested) {
+			Level selected = null;
+
+			for (Level level : values()) {
+				if (level.isMaintainedFor(resolution) && ((requested.toMillis() % level.toMillis()) == 0)) {
+					selected = level;
+				}
+			}
+
+			return selected;
+		}
+
+	}
+
+	/**
+	 * The aggregations stored per group.
+	 *
+	 * @author Henning Schulz
+	 *
+	 */
+	public enum Aggregation {
+		SUM, MAX, MEAN;
+
+		@JsonCreator
+		public static Aggregation fromPrettyString(String key) {
+			return key == null ? null : valueOf(key.toUpperCase());
+		}
+
+		@JsonValue
+		public String toPrettyString() {
+			return name().toLowerCase();
+		}
+	}
+
+}
@@ -0,0 +1,153 @@
+package org.continuity.cobra.entities;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.continuity.idpa.application.HttpEndpoint;
+
+/**
+ * A single request read from a flat input format such as CSV, access logs, or session logs.
+ * Holds the same information as a {@link TraceRecord} of such input, but without the
+ * OPEN.xtrace graph. Hence, it can be used to create sessions if the traces are not stored.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class RequestRecord {
+
+	private long traceId;
+
+	private String sessionId;
+
+	private String businessTransaction;
+
+	private String host;
+
+	private int port;
+
+	private String uri;
+
+	private String method;
+
+	private Map<String, String[]> parameters = Collections.emptyMap();
+
+	private Integer responseCode;
+
+	private long startMillis;
+
+	private long endMillis;
+
+	private HttpEndpoint rawEndpoint;
+
+	public long getTraceId() {
+		return traceId;
+	}
+
+	public void setTraceId(long traceId) {
+		this.traceId = traceId;
+	}
+
+	public String getSessionId() {
+		return sessionId;
+	}
+
+	public void setSessionId(String sessionId) {
+		this.sessionId = sessionId;
+	}
+
+	/**
+	 * Gets the business transaction, which is used as endpoint name if the requests are not
+	 * mapped to an IDPA.
+	 *
+	 * @return The business transaction or {@code null}.
+	 */
+	public String getBusinessTransaction() {
+		return businessTransaction;
+	}
+
+	public void setBusinessTransaction(String businessTransaction) {
+		this.businessTransaction = businessTransaction;
+	}
+
+	public String getHost() {
+		return host;
+	}
+
+	public void setHost(String host) {
+		this.host = host;
+	}
+
+	public int getPort() {
+		return port;
+	}
+
+	public void setPort(int port) {
+		this.port = port;
+	}
+
+	public String getUri() {
+		return uri;
+	}
+
+	public void setUri(String uri) {
+		this.uri = uri;
+	}
+
+	public String getMethod() {
+		return method;
+	}
+
+	public void setMethod(String method) {
+		this.method = method;
+	}
+
+	public Map<String, String[]> getParameters() {
+		return parameters;
+	}
+
+	public void setParameters(Map<String, String[]> parameters) {
+		this.parameters = parameters;
+	}
+
+	/**
+	 *
+	 * @return The response code or {@code null} if not known.
+	 */
+	public Integer getResponseCode() {
+		return responseCode;
+	}
+
+	public void setResponseCode(Integer responseCode) {
+		this.responseCode = responseCode;
+	}
+
+	public long getStartMillis() {
+		return startMillis;
+	}
+
+	public void setStartMillis(long startMillis) {
+		this.startMillis = startMillis;
+	}
+
+	public long getEndMillis() {
+		return endMillis;
+	}
+
+	public void setEndMillis(long endMillis) {
+		this.endMillis = endMillis;
+	}
+
+	/**
+	 * Gets the endpoint of the root application the request has been mapped to.
+	 *
+	 * @return The endpoint or {@code null} if not mapped.
+	 */
+	public HttpEndpoint getRawEndpoint() {
+		return rawEndpoint;
+	}
+
+	public void setRawEndpoint(HttpEndpoint rawEndpoint) {
+		this.rawEndpoint = rawEndpoint;
+	}
+
+}
@@ -1,15 +1,21 @@
 package org.continuity.cobra.entities;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Defines the current status of trace processing - e.g., whether traces are processed or whether
- * all uploads are rejected.
+ * all uploads are rejected. Processing can be stopped globally or for single shards of the
+ * uploaded data.
  *
  * @author Henning Schulz
  *
  */
 public class TraceProcessingStatus {
 
-	private boolean active = true;
+	private volatile boolean active = true;
+
+	private final Set<Integer> inactiveShards = ConcurrentHashMap.newKeySet();
 
 	/**
 	 * If {@code true}, traces are processed. If {@code false}, all newly uploaded traces are
@@ -25,4 +31,25 @@ public class TraceProcessingStatus {
 		this.active = active;
 	}
 
+	/**
+	 * If {@code true}, the traces of the shard are processed. If {@code false}, all newly uploaded
+	 * traces of the shard are rejected, either because processing is stopped globally or for the
+	 * shard.
+	 *
+	 * @param shard
+	 *            The shard.
+	 * @return
+	 */
+	public boolean isActive(int shard) {
+		return active && !inactiveShards.contains(shard);
+	}
+
+	public void setActive(int shard, boolean active) {
+		if (active) {
+			inactiveShards.remove(shard);
+		} else {
+			inactiveShards.add(shard);
+		}
+	}
+
 }
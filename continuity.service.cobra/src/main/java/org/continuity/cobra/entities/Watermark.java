@@ -0,0 +1,83 @@
+package org.continuity.cobra.entities;
+
+import java.util.Date;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * The earliest and latest timestamp of the data stored in one index.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class Watermark {
+
+	/**
+	 * The watermark of an index without any data.
+	 */
+	public static final Watermark EMPTY = new Watermark(Long.MAX_VALUE, Long.MIN_VALUE);
+
+	private final long earliest;
+
+	private final long latest;
+
+	public Watermark(long earliest, long latest) {
+		this.earliest = earliest;
+		this.latest = latest;
+	}
+
+	/**
+	 * Gets the earliest timestamp.
+	 *
+	 * @return The timestamp in milliseconds or {@link Long#MAX_VALUE} if the watermark is empty.
+	 */
+	public long getEarliest() {
+		return earliest;
+	}
+
+	/**
+	 * Gets the latest timestamp.
+	 *
+	 * @return The timestamp in milliseconds or {@link Long#MIN_VALUE} if the watermark is empty.
+	 */
+	public long getLatest() {
+		return latest;
+	}
+
+	@JsonIgnore
+	public boolean isEmpty() {
+		return earliest > latest;
+	}
+
+	/**
+	 * Creates a watermark covering this and the passed one.
+	 *
+	 * @param other
+	 *            The other watermark.
+	 * @return The union of both watermarks.
+	 */
+	public Watermark union(Watermark other) {
+		return new Watermark(Math.min(earliest, other.earliest), Math.max(latest, other.latest));
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof Watermark)) {
+			return false;
+		}
+
+		Watermark other = (Watermark) obj;
+		return (earliest == other.earliest) && (latest == other.latest);
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(earliest) * 31 + Long.hashCode(latest);
+	}
+
+	@Override
+	public String toString() {
+		return isEmpty() ? "empty" : new StringBuilder().append(new Date(earliest)).append(" - ").append(new Date(latest)).toString();
+	}
+
+}
@@ -0,0 +1,52 @@
+package org.continuity.cobra.entities;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * The result of comparing a cached {@link Watermark} with the one calculated by Elasticsearch.
+ *
+ * @author Henning Schulz
+ *
+ */
+@JsonPropertyOrder({ "index", "consistent", "cached", "actual" })
+public class WatermarkCheck {
+
+	private final String index;
+
+	private final Watermark cached;
+
+	private final Watermark actual;
+
+	public WatermarkCheck(String index, Watermark cached, Watermark actual) {
+		this.index = index;
+		this.cached = cached;
+		this.actual = actual;
+	}
+
+	public String getIndex() {
+		return index;
+	}
+
+	/**
+	 * Gets the watermark that was cached before the check. Can be {@code null} if there was none.
+	 *
+	 * @return The cached watermark.
+	 */
+	public Watermark getCached() {
+		return cached;
+	}
+
+	public Watermark getActual() {
+		return actual;
+	}
+
+	public boolean isConsistent() {
+		return actual.equals(cached) || ((cached == null) && actual.isEmpty());
+	}
+
+	@Override
+	public String toString() {
+		return new StringBuilder().append(index).append(": cached ").append(cached).append(", actual ").append(actual).toString();
+	}
+
+}
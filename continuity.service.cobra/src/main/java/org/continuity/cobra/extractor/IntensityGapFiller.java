@@ -0,0 +1,98 @@
+package org.continuity.cobra.extractor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongPredicate;
+
+import org.continuity.lctl.timeseries.IntensityRecord;
+
+/**
+ * Reconstructs the intensity records that are not stored explicitly. Only buckets holding
+ * intensities or context are stored. All other buckets on the resolution grid between the
+ * earliest stored record and the requested end are added as empty records, i.e., with an
+ * intensity of 0.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class IntensityGapFiller {
+
+	private final long resolution;
+
+	private final long earliest;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param resolution
+	 *            The resolution of the intensities in milliseconds.
+	 * @param earliest
+	 *            The timestamp of the earliest stored record. Defines the grid and the lower bound
+	 *            of the reconstructed records.
+	 */
+	public IntensityGapFiller(long resolution, long earliest) {
+		this.resolution = resolution;
+		this.earliest = earliest;
+	}
+
+	/**
+	 * Adds empty records for all missing buckets between two timestamps.
+	 *
+	 * @param matched
+	 *            The stored records that have been selected.
+	 * @param stored
+	 *            The timestamps of all stored records between {@code from} and {@code to}, also
+	 *            the ones that have not been selected.
+	 * @param from
+	 *            The lower bound (inclusive).
+	 * @param to
+	 *            The upper bound (inclusive).
+	 * @param selector
+	 *            Decides which of the missing buckets are selected.
+	 * @return The matched records including the selected empty ones, ordered by timestamp.
+	 */
+	public List<IntensityRecord> fill(Collection<IntensityRecord> matched, Collection<Long> stored, long from, long to, LongPredicate selector) {
+		Set<Long> present = (stored instanceof Set) ? (Set<Long>) stored : new HashSet<>(stored);
+		List<IntensityRecord> filled = new ArrayList<>(matched);
+
+		for (long timestamp = ceil(Math.max(from, earliest)); timestamp <= to; timestamp += resolution) {
+			if (!present.contains(timestamp) && selector.test(timestamp)) {
+				filled.add(new IntensityRecord(timestamp));
+			}
+		}
+
+		filled.sort(Comparator.comparingLong(IntensityRecord::getTimestamp));
+		return filled;
+	}
+
+	/**
+	 * Adds empty records for all missing buckets between two timestamps. All stored records are
+	 * expected to be selected.
+	 *
+	 * @param stored
+	 *            All stored records between {@code from} and {@code to}.
+	 * @param from
+	 *            The lower bound (inclusive).
+	 * @param to
+	 *            The upper bound (inclusive).
+	 * @return The stored records including the empty ones, ordered by timestamp.
+	 */
+	public List<IntensityRecord> fill(Collection<IntensityRecord> stored, long from, long to) {
+		Set<Long> timestamps = new HashSet<>();
+		stored.stream().map(IntensityRecord::getTimestamp).forEach(timestamps::add);
+
+		return fill(stored, timestamps, from, to, t -> true);
+	}
+
+	/**
+	 * Returns the smallest timestamp on the grid that is not before the passed one.
+	 */
+	private long ceil(long timestamp) {
+		return earliest + (Math.floorDiv((timestamp - earliest) + resolution - 1, resolution) * resolution);
+	}
+
+}
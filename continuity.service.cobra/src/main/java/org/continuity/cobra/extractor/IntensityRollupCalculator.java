@@ -0,0 +1,183 @@
+package org.continuity.cobra.extractor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.continuity.cobra.entities.IntensityRollup;
+import org.continuity.cobra.entities.IntensityRollup.Level;
+import org.continuity.lctl.timeseries.IntensityRecord;
+
+/**
+ * Aggregates intensity records at the base resolution to {@link IntensityRollup}s of a given
+ * bucket size, e.g., of one {@link Level}. The buckets are aligned to UTC.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class IntensityRollupCalculator {
+
+	private final long bucketMillis;
+
+	private final long stepsPerBucket;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param level
+	 *            The level of the rollups to be calculated.
+	 * @param resolution
+	 *            The resolution of the intensity records. The level needs to be maintained for
+	 *            it, i.e., {@link Level#isMaintainedFor(Duration)} has to hold.
+	 */
+	public IntensityRollupCalculator(Level level, Duration resolution) {
+		this(level.getDuration(), resolution);
+
+		if (!level.isMaintainedFor(resolution)) {
+			throw new IllegalArgumentException("Level " + level + " is not maintained for resolution " + resolution + "!");
+		}
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param bucket
+	 *            The size of the buckets of the rollups to be calculated. Needs to be a multiple of
+	 *            the resolution.
+	 * @param resolution
+	 *            The resolution of the intensity records.
+	 */
+	public IntensityRollupCalculator(Duration bucket, Duration resolution) {
+		if ((resolution.toMillis() <= 0) || (bucket.toMillis() < resolution.toMillis()) || ((bucket.toMillis() % resolution.toMillis()) != 0)) {
+			throw new IllegalArgumentException("The bucket size " + bucket + " is not a multiple of the resolution " + resolution + "!");
+		}
+
+		this.bucketMillis = bucket.toMillis();
+		this.stepsPerBucket = bucketMillis / resolution.toMillis();
+	}
+
+	/**
+	 * Calculates the rollups of all buckets holding at least one record with intensities. The
+	 * records of each such bucket need to be complete. Missing records are considered to have an
+	 * intensity of 0.
+	 *
+	 * @param records
+	 *            The intensity records.
+	 * @return The rollups ordered by timestamp.
+	 */
+	public List<IntensityRollup> calculate(Collection<IntensityRecord> records) {
+		Map<Long, IntensityRollup> rollups = new TreeMap<>();
+
+		for (IntensityRecord record : records) {
+			if ((record.getIntensity() == null) || record.getIntensity().isEmpty()) {
+				continue;
+			}
+
+			IntensityRollup rollup = rollups.computeIfAbsent(floor(record.getTimestamp()), IntensityRollup::new);
+
+			for (Entry<String, Long> entry : record.getIntensity().entrySet()) {
+				double value = entry.getValue() == null ? 0 : entry.getValue();
+
+				rollup.getSum().merge(entry.getKey(), value, Double::sum);
+				rollup.getMax().merge(entry.getKey(), value, Math::max);
+			}
+		}
+
+		return finish(rollups);
+	}
+
+	/**
+	 * Calculates how the rollups change if the passed records replace the previously stored
+	 * intensities. The sums and means of the returned rollups are differences to be added to the
+	 * stored rollups and the maxima are to be merged with the stored ones. Hence, the maxima are only
+	 * exact if no intensity has decreased.
+	 *
+	 * @param written
+	 *            The records as they are stored after writing. Each timestamp may occur only once.
+	 * @param previous
+	 *            The previously stored intensities per timestamp. Timestamps without an entry have
+	 *            not been stored before.
+	 * @return The rollup increments ordered by timestamp.
+	 */
+	public List<IntensityRollup> calculateIncrements(Collection<IntensityRecord> written, Map<Long, Map<String, Long>> previous) {
+		Map<Long, IntensityRollup> rollups = new TreeMap<>();
+
+		for (IntensityRecord record : written) {
+			Map<String, Long> before = previous.getOrDefault(record.getTimestamp(), Collections.emptyMap());
+			Map<String, Long> after = record.getIntensity() == null ? Collections.emptyMap() : record.getIntensity();
+
+			if (before.isEmpty() && after.isEmpty()) {
+				continue;
+			}
+
+			IntensityRollup rollup = rollups.computeIfAbsent(floor(record.getTimestamp()), IntensityRollup::new);
+
+			Set<String> groups = new HashSet<>(before.keySet());
+			groups.addAll(after.keySet());
+
+			for (String group : groups) {
+				rollup.getSum().merge(group, valueOf(after, group) - valueOf(before, group), Double::sum);
+			}
+
+			for (String group : after.keySet()) {
+				rollup.getMax().merge(group, valueOf(after, group), Math::max);
+			}
+		}
+
+		return finish(rollups);
+	}
+
+	/**
+	 * Merges finer rollups into the (coarser) buckets of this calculator. The rollups of each
+	 * bucket need to be complete. Missing rollups are considered to have an intensity of 0.
+	 *
+	 * @param finer
+	 *            The finer rollups. Their bucket size needs to divide the bucket size of this
+	 *            calculator.
+	 * @return The coarser rollups ordered by timestamp.
+	 */
+	public List<IntensityRollup> coarsen(Collection<IntensityRollup> finer) {
+		Map<Long, IntensityRollup> rollups = new TreeMap<>();
+
+		for (IntensityRollup fine : finer) {
+			if ((fine.getSum() == null) || fine.getSum().isEmpty()) {
+				continue;
+			}
+
+			IntensityRollup rollup = rollups.computeIfAbsent(floor(fine.getTimestamp()), IntensityRollup::new);
+
+			fine.getSum().forEach((group, sum) -> rollup.getSum().merge(group, sum, Double::sum));
+
+			if (fine.getMax() != null) {
+				fine.getMax().forEach((group, max) -> rollup.getMax().merge(group, max, Math::max));
+			}
+		}
+
+		return finish(rollups);
+	}
+
+	private List<IntensityRollup> finish(Map<Long, IntensityRollup> rollups) {
+		for (IntensityRollup rollup : rollups.values()) {
+			rollup.getSum().forEach((group, sum) -> rollup.getMean().put(group, sum / stepsPerBucket));
+		}
+
+		return new ArrayList<>(rollups.values());
+	}
+
+	private double valueOf(Map<String, Long> intensity, String group) {
+		Long value = intensity.get(group);
+		return value == null ? 0 : value;
+	}
+
+	private long floor(long timestamp) {
+		return Math.floorDiv(timestamp, bucketMillis) * bucketMillis;
+	}
+
+}
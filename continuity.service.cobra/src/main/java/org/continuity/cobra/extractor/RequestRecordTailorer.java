@@ -0,0 +1,200 @@
+package org.continuity.cobra.extractor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.continuity.api.entities.artifact.session.ExtendedRequestInformation;
+import org.continuity.api.entities.artifact.session.SessionRequest;
+import org.continuity.cobra.entities.RequestRecord;
+import org.continuity.commons.idpa.RequestUriMapper;
+import org.continuity.idpa.AppId;
+import org.continuity.idpa.VersionOrTimestamp;
+import org.continuity.idpa.application.Application;
+import org.continuity.idpa.application.HttpEndpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Tailors {@link RequestRecord}s to a given set of services. Creates the same
+ * {@link SessionRequest}s as the {@link RequestTailorer} does for traces of flat input data, but
+ * without the need for OPEN.xtrace.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class RequestRecordTailorer {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(RequestRecordTailorer.class);
+
+	private static final long MILLIS_TO_MICROS = 1000;
+
+	private static final int DEFAULT_PORT = 80;
+
+	private final AppId aid;
+
+	private final VersionOrTimestamp version;
+
+	private final RestTemplate restTemplate;
+
+	private final boolean addPrePostProcessing;
+
+	/**
+	 *
+	 * @param aid
+	 *            The app-id (the service part will be ignored).
+	 * @param version
+	 *            The version of the services.
+	 * @param restTemplate
+	 *            {@link RestTemplate} to be used for retrieving the application models.
+	 * @param addPrePostProcessing
+	 *            Whether explicit entries for the pre and post processing should be added to the
+	 *            sessions.
+	 */
+	public RequestRecordTailorer(AppId aid, VersionOrTimestamp version, RestTemplate restTemplate, boolean addPrePostProcessing) {
+		this.aid = aid;
+		this.version = version;
+		this.restTemplate = restTemplate;
+		this.addPrePostProcessing = addPrePostProcessing;
+	}
+
+	/**
+	 *
+	 * @param aid
+	 *            The app-id (the service part will be ignored).
+	 * @param version
+	 *            The version of the services.
+	 * @param restTemplate
+	 *            {@link RestTemplate} to be used for retrieving the application models.
+	 */
+	public RequestRecordTailorer(AppId aid, VersionOrTimestamp version, RestTemplate restTemplate) {
+		this(aid, version, restTemplate, false);
+	}
+
+	/**
+	 * Tailors a list of request records to a given list of services.
+	 *
+	 * @param services
+	 *            The list of target services (will be appended to the app-id).
+	 * @param records
+	 *            The request records to be tailored.
+	 * @return A list of {@link SessionRequest}s per tailored requests.
+	 */
+	public List<SessionRequest> tailorRecords(List<String> services, List<RequestRecord> records) {
+		List<Application> applications = RequestTailoringUtils.getApplications(aid, version, services, restTemplate);
+
+		if (applications == null) {
+			return Collections.emptyList();
+		}
+
+		List<String> hostNames = RequestTailoringUtils.extractHostNames(applications);
+
+		LOGGER.info("{}@{} Extracted the following host names: {}", aid.getApplication(), version, hostNames);
+
+		List<RequestUriMapper> mappers = applications.stream().map(RequestUriMapper::new).collect(Collectors.toList());
+		List<SessionRequest> requests = new ArrayList<>();
+
+		for (RequestRecord record : records) {
+			HttpEndpoint rootEndpoint = record.getRawEndpoint() == null ? RequestTailoringUtils.defaultEndpoint(record.getBusinessTransaction()) : record.getRawEndpoint();
+			int port = (!hostNames.isEmpty() && (record.getPort() == -1)) ? DEFAULT_PORT : record.getPort();
+
+			if (addPrePostProcessing) {
+				requests.add(toSessionRequest(record, port, rootEndpoint, SessionRequest.PREFIX_PRE_PROCESSING, record.getStartMillis(), record.getStartMillis()));
+			}
+
+			if (hostNames.isEmpty() || hostNames.contains(record.getHost())) {
+				HttpEndpoint endpoint = mapToEndpoint(mappers, record, port);
+
+				if (endpoint != null) {
+					requests.add(toSessionRequest(record, port, endpoint, "", record.getStartMillis(), record.getEndMillis()));
+				}
+			}
+
+			if (addPrePostProcessing) {
+				requests.add(toSessionRequest(record, port, rootEndpoint, SessionRequest.PREFIX_POST_PROCESSING, record.getEndMillis(), record.getEndMillis()));
+			}
+		}
+
+		LOGGER.info("{}@{} Tailoring done.", aid.getApplication(), version);
+
+		return requests;
+	}
+
+	/**
+	 * Tailors a list of request records by using the business transactions as endpoint names
+	 * instead of mapping them to IDPA endpoints.
+	 *
+	 * @param records
+	 *            The request records to be tailored.
+	 * @return A list of {@link SessionRequest}s per tailored requests.
+	 */
+	public List<SessionRequest> tailorRecordsWithoutMapping(List<RequestRecord> records) {
+		LOGGER.info("{}@{} Tailoring using the provided endpoint names...", aid.getApplication(), version);
+
+		List<SessionRequest> requests = new ArrayList<>();
+
+		for (RequestRecord record : records) {
+			HttpEndpoint endpoint = RequestTailoringUtils.defaultEndpoint(record.getBusinessTransaction());
+			HttpEndpoint rootEndpoint = record.getRawEndpoint() == null ? endpoint : record.getRawEndpoint();
+
+			if (addPrePostProcessing) {
+				requests.add(toSessionRequest(record, record.getPort(), rootEndpoint, SessionRequest.PREFIX_PRE_PROCESSING, record.getStartMillis(), record.getStartMillis()));
+			}
+
+			requests.add(toSessionRequest(record, record.getPort(), endpoint, "", record.getStartMillis(), record.getEndMillis()));
+
+			if (addPrePostProcessing) {
+				requests.add(toSessionRequest(record, record.getPort(), rootEndpoint, SessionRequest.PREFIX_POST_PROCESSING, record.getEndMillis(), record.getEndMillis()));
+			}
+		}
+
+		LOGGER.info("{}@{} Tailoring done.", aid.getApplication(), version);
+
+		return requests;
+	}
+
+	private HttpEndpoint mapToEndpoint(List<RequestUriMapper> mappers, RequestRecord record, int port) {
+		for (RequestUriMapper uriMapper : mappers) {
+			HttpEndpoint endpoint = uriMapper.map(record.getUri(), record.getMethod());
+
+			if ((endpoint != null) && areEqualOrNull(endpoint.getDomain(), record.getHost()) && areEqualOrNull(endpoint.getPort(), Integer.toString(port))) {
+				return endpoint;
+			}
+		}
+
+		return null;
+	}
+
+	private boolean areEqualOrNull(Object expected, Object tested) {
+		return (expected == null) || expected.equals(tested);
+	}
+
+	private SessionRequest toSessionRequest(RequestRecord record, int port, HttpEndpoint endpoint, String prefix, long startMillis, long endMillis) {
+		SessionRequest request = new SessionRequest();
+
+		request.setSessionId(record.getSessionId());
+		request.setEndpoint(prefix + endpoint.getId());
+		request.setTraceId(record.getTraceId());
+		request.setStartMicros(startMillis * MILLIS_TO_MICROS);
+		request.setEndMicros(endMillis * MILLIS_TO_MICROS);
+		request.setId(Long.toHexString(record.getTraceId()));
+
+		ExtendedRequestInformation info = new ExtendedRequestInformation();
+		request.setExtendedInformation(info);
+
+		info.setUri(record.getUri());
+		info.setParameters(RequestTailoringUtils.toParameters(record.getParameters(), null, RequestTailoringUtils.extractUriParams(record.getUri(), endpoint)));
+		info.setPort(port);
+		info.setHost(record.getHost());
+		info.setMethod(record.getMethod());
+
+		if (record.getResponseCode() != null) {
+			info.setResponseCode(record.getResponseCode());
+		}
+
+		return request;
+	}
+
+}
@@ -1,23 +1,14 @@
 package org.continuity.cobra.extractor;
 
-import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
-import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.continuity.api.entities.artifact.session.ExtendedRequestInformation;
 import org.continuity.api.entities.artifact.session.SessionRequest;
-import org.continuity.api.rest.RestApi;
 import org.continuity.cobra.entities.TraceRecord;
 import org.continuity.commons.idpa.RequestUriMapper;
-import org.continuity.commons.idpa.UrlPartParameterExtractor;
 import org.continuity.commons.openxtrace.OpenXtraceTracer;
 import org.continuity.idpa.AppId;
 import org.continuity.idpa.VersionOrTimestamp;
@@ -28,8 +19,6 @@ import org.slf4j.LoggerFactory;
 import org.spec.research.open.xtrace.api.core.Location;
 import org.spec.research.open.xtrace.api.core.callables.HTTPRequestProcessing;
 import org.spec.research.open.xtrace.dflt.impl.core.callables.HTTPRequestProcessingImpl;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
 import open.xtrace.OPENxtraceUtils;
@@ -94,28 +83,13 @@ public class RequestTailorer {
 	 * @return A list of {@link SessionRequest}s per tailored requests.
 	 */
 	public List<SessionRequest> tailorTraces(List<String> services, List<TraceRecord> traces) {
-		ResponseEntity<Application[]> response;
-		try {
-			response = restTemplate.getForEntity(
-					RestApi.Idpa.Application.GET.requestUrl(aid).withQuery("version", version.toString()).withQuery("services", services.stream().collect(Collectors.joining(","))).get(),
-					Application[].class);
-		} catch (HttpStatusCodeException e) {
-			LOGGER.error("Could not get application models!", e);
-			return Collections.emptyList();
-		}
-
-		LOGGER.info("{}@{}: Retrieved application models for services {}.", aid.getApplication(), version, services);
+		List<Application> applications = RequestTailoringUtils.getApplications(aid, version, services, restTemplate);
 
-		List<Application> applications = Arrays.asList(response.getBody());
-
-		if (applications.contains(null)) {
-			LOGGER.error("{}@{} Application models contained null, meaning that at least one application is missing!", aid.getApplication(), version);
+		if (applications == null) {
 			return Collections.emptyList();
 		}
 
-		// TODO: assuming the endpoints are HttpEndpoints.
-		List<String> hostNames = applications.stream().map(Application::getEndpoints).flatMap(List::stream).map(HttpEndpoint.class::cast).map(HttpEndpoint::getDomain).filter(Objects::nonNull)
-				.distinct().collect(Collectors.toList());
+		List<String> hostNames = RequestTailoringUtils.extractHostNames(applications);
 
 		LOGGER.info("{}@{} Extracted the following host names: {}", aid.getApplication(), version, hostNames);
 
@@ -151,7 +125,7 @@ public class RequestTailorer {
 	}
 
 	private RequestBundle labelRequestWithBusinessTransaction(RequestBundle bundle) {
-		bundle.setEndpoint(defaultEndpoint(OPENxtraceUtils.getBusinessTransaction(bundle.getCallable())));
+		bundle.setEndpoint(RequestTailoringUtils.defaultEndpoint(OPENxtraceUtils.getBusinessTransaction(bundle.getCallable()).orElse(null)));
 		return bundle;
 	}
 
@@ -211,7 +185,8 @@ public class RequestTailorer {
 		request.setExtendedInformation(info);
 
 		info.setUri(callable.getUri());
-		info.setParameters(toParameters(callable.getHTTPParameters(), callable.getRequestBody(), extractUriParams(callable.getUri(), endpoint)));
+		info.setParameters(RequestTailoringUtils.toParameters(callable.getHTTPParameters().orElse(null), callable.getRequestBody().orElse(null),
+				RequestTailoringUtils.extractUriParams(callable.getUri(), endpoint)));
 		info.setPort(callable.getContainingSubTrace().getLocation().getPort());
 		info.setHost(callable.getContainingSubTrace().getLocation().getHost());
 
@@ -224,97 +199,6 @@ public class RequestTailorer {
 		}
 	}
 
-	private String toParameters(Optional<Map<String, String[]>> httpParameters, Optional<String> body, Map<String, String[]> uriParams) {
-		Map<String, String[]> params = new HashMap<String, String[]>();
-
-		if (httpParameters.isPresent()) {
-			params = Optional.ofNullable(httpParameters.get()).map(HashMap<String, String[]>::new).orElse(new HashMap<>());
-		}
-
-		// TODO: This is a workaround because the session logs do not support parameters without
-		// values (e.g., host/login?logout) and WESSBAS fails if it is transformed to
-		// host/login?logout=
-		params = params.entrySet().stream().filter(e -> (e.getValue() != null) && (e.getValue().length > 0) && !"".equals(e.getValue()[0])).collect(Collectors.toMap(Entry::getKey, Entry::getValue));
-
-		params.putAll(uriParams);
-
-		if (body.isPresent() && !body.get().isEmpty()) {
-			params.put("BODY", new String[] { body.get() });
-		}
-
-		if (params.isEmpty()) {
-			return null;
-		} else {
-			return encodeQueryString(params);
-		}
-	}
-
-	/**
-	 * Extracts the parameters from the URI. E.g., if the URI pattern is
-	 * <code>/foo/{bar}/get/{id}</code> and the actual URI is <code>/foo/abc/get/42</code>, the
-	 * extracted parameters will be <code>URL_PART_bar=abc</code> and <code>URL_PARTid=42</code>.
-	 *
-	 * @param uri
-	 *            The URI to extract the parameters from.
-	 * @param urlPattern
-	 *            The abstract URI that specifies the pattern.
-	 * @return The extracted parameters in the form <code>[URL_PART_name -> value]</code>.
-	 */
-	private Map<String, String[]> extractUriParams(String uri, HttpEndpoint endpoint) {
-		if (uri == null) {
-			return Collections.emptyMap();
-		}
-
-		UrlPartParameterExtractor extractor = new UrlPartParameterExtractor(endpoint, uri);
-		Map<String, String[]> params = new HashMap<>();
-
-		while (extractor.hasNext()) {
-			String param = extractor.nextParameter();
-			String value = extractor.currentValue();
-
-			if (value == null) {
-				throw new IllegalArgumentException("Uri and pattern need to have the same length, bus was '" + uri + "' and '" + endpoint.getPath() + "'!");
-			}
-
-			params.put("URL_PART_" + param, new String[] { value });
-		}
-
-		return params;
-	}
-
-	/**
-	 * Encodes a map of parameters into a query string
-	 *
-	 * @param params
-	 * @return
-	 */
-	protected String encodeQueryString(Map<String, String[]> params) {
-		try {
-			if (params.isEmpty()) {
-				return null;
-			}
-			StringBuffer result = new StringBuffer();
-			for (String key : params.keySet()) {
-				String encodedKey = URLEncoder.encode(key, "UTF-8");
-				for (String value : params.get(key)) {
-					String encodedValue = "";
-					if (value != null) {
-						encodedValue = "=" + URLEncoder.encode(value, "UTF-8");
-					}
-
-					if (result.length() > 0) {
-						result.append("&");
-					}
-					result.append(encodedKey + encodedValue);
-
-				}
-			}
-			return result.toString();
-		} catch (UnsupportedEncodingException e) {
-			throw new RuntimeException(e);
-		}
-	}
-
 	private class MultiRequestMapper {
 
 		private final List<RequestUriMapper> mappers;
@@ -351,18 +235,6 @@ public class RequestTailorer {
 
 	}
 
-	private HttpEndpoint defaultEndpoint(Optional<String> bt) {
-		HttpEndpoint endpoint = new HttpEndpoint();
-
-		endpoint.setId(bt.orElse(""));
-		endpoint.setDomain("");
-		endpoint.setPort("80");
-		endpoint.setMethod("GET");
-		endpoint.setPath("/");
-
-		return endpoint;
-	}
-
 	private boolean areEqualOrNull(Object expected, Object tested) {
 		return (expected == null) || expected.equals(tested);
 	}
@@ -373,7 +245,7 @@ public class RequestTailorer {
 
 	private RequestBundle preBundle(HTTPRequestProcessingImpl callable, HttpEndpoint rootEndpoint) {
 		if (rootEndpoint == null) {
-			rootEndpoint = defaultEndpoint(OPENxtraceUtils.getBusinessTransaction(callable));
+			rootEndpoint = RequestTailoringUtils.defaultEndpoint(OPENxtraceUtils.getBusinessTransaction(callable).orElse(null));
 		}
 
 		return new RequestBundle(callable, rootEndpoint, true, false);
@@ -381,7 +253,7 @@ public class RequestTailorer {
 
 	private RequestBundle postBundle(HTTPRequestProcessingImpl callable, HttpEndpoint rootEndpoint) {
 		if (rootEndpoint == null) {
-			rootEndpoint = defaultEndpoint(OPENxtraceUtils.getBusinessTransaction(callable));
+			rootEndpoint = RequestTailoringUtils.defaultEndpoint(OPENxtraceUtils.getBusinessTransaction(callable).orElse(null));
 		}
 
 		return new RequestBundle(callable, rootEndpoint, false, true);
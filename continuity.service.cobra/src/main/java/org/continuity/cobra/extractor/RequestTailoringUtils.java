@@ -0,0 +1,205 @@
+package org.continuity.cobra.extractor;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.continuity.api.rest.RestApi;
+import org.continuity.commons.idpa.UrlPartParameterExtractor;
+import org.continuity.idpa.AppId;
+import org.continuity.idpa.VersionOrTimestamp;
+import org.continuity.idpa.application.Application;
+import org.continuity.idpa.application.HttpEndpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Utils shared by {@link RequestTailorer} and {@link RequestRecordTailorer}.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class RequestTailoringUtils {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(RequestTailoringUtils.class);
+
+	private RequestTailoringUtils() {
+	}
+
+	/**
+	 * Retrieves the application models of a list of services.
+	 *
+	 * @param aid
+	 *            The app-id (the service part will be ignored).
+	 * @param version
+	 *            The version of the services.
+	 * @param services
+	 *            The list of target services (will be appended to the app-id).
+	 * @param restTemplate
+	 *            {@link RestTemplate} to be used for retrieving the application models.
+	 * @return The application models or {@code null} if at least one could not be retrieved.
+	 */
+	public static List<Application> getApplications(AppId aid, VersionOrTimestamp version, List<String> services, RestTemplate restTemplate) {
+		ResponseEntity<Application[]> response;
+		try {
+			response = restTemplate.getForEntity(
+					RestApi.Idpa.Application.GET.requestUrl(aid).withQuery("version", version.toString()).withQuery("services", services.stream().collect(Collectors.joining(","))).get(),
+					Application[].class);
+		} catch (HttpStatusCodeException e) {
+			LOGGER.error("Could not get application models!", e);
+			return null;
+		}
+
+		LOGGER.info("{}@{}: Retrieved application models for services {}.", aid.getApplication(), version, services);
+
+		List<Application> applications = Arrays.asList(response.getBody());
+
+		if (applications.contains(null)) {
+			LOGGER.error("{}@{} Application models contained null, meaning that at least one application is missing!", aid.getApplication(), version);
+			return null;
+		}
+
+		return applications;
+	}
+
+	/**
+	 * Extracts the host names of all endpoints of the applications.
+	 *
+	 * @param applications
+	 *            The application models.
+	 * @return The distinct host names.
+	 */
+	public static List<String> extractHostNames(List<Application> applications) {
+		// TODO: assuming the endpoints are HttpEndpoints.
+		return applications.stream().map(Application::getEndpoints).flatMap(List::stream).map(HttpEndpoint.class::cast).map(HttpEndpoint::getDomain).filter(Objects::nonNull).distinct()
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Creates the default endpoint used if the requests are not mapped to an IDPA.
+	 *
+	 * @param bt
+	 *            The business transaction used as endpoint id. Can be {@code null}.
+	 * @return The endpoint.
+	 */
+	public static HttpEndpoint defaultEndpoint(String bt) {
+		HttpEndpoint endpoint = new HttpEndpoint();
+
+		endpoint.setId(bt == null ? "" : bt);
+		endpoint.setDomain("");
+		endpoint.setPort("80");
+		endpoint.setMethod("GET");
+		endpoint.setPath("/");
+
+		return endpoint;
+	}
+
+	/**
+	 * Formats the parameters of a request as query string.
+	 *
+	 * @param httpParameters
+	 *            The HTTP parameters. Can be {@code null}.
+	 * @param body
+	 *            The request body. Can be {@code null}.
+	 * @param uriParams
+	 *            The parameters extracted from the URI.
+	 * @return The query string or {@code null} if there are no parameters.
+	 */
+	public static String toParameters(Map<String, String[]> httpParameters, String body, Map<String, String[]> uriParams) {
+		Map<String, String[]> params = httpParameters == null ? new HashMap<>() : new HashMap<>(httpParameters);
+
+		// TODO: This is a workaround because the session logs do not support parameters without
+		// values (e.g., host/login?logout) and WESSBAS fails if it is transformed to
+		// host/login?logout=
+		params = params.entrySet().stream().filter(e -> (e.getValue() != null) && (e.getValue().length > 0) && !"".equals(e.getValue()[0])).collect(Collectors.toMap(Entry::getKey, Entry::getValue));
+
+		params.putAll(uriParams);
+
+		if ((body != null) && !body.isEmpty()) {
+			params.put("BODY", new String[] { body });
+		}
+
+		if (params.isEmpty()) {
+			return null;
+		} else {
+			return encodeQueryString(params);
+		}
+	}
+
+	/**
+	 * Extracts the parameters from the URI. E.g., if the URI pattern is
+	 * <code>/foo/{bar}/get/{id}</code> and the actual URI is <code>/foo/abc/get/42</code>, the
+	 * extracted parameters will be <code>URL_PART_bar=abc</code> and <code>URL_PARTid=42</code>.
+	 *
+	 * @param uri
+	 *            The URI to extract the parameters from.
+	 * @param urlPattern
+	 *            The abstract URI that specifies the pattern.
+	 * @return The extracted parameters in the form <code>[URL_PART_name -> value]</code>.
+	 */
+	public static Map<String, String[]> extractUriParams(String uri, HttpEndpoint endpoint) {
+		if (uri == null) {
+			return Collections.emptyMap();
+		}
+
+		UrlPartParameterExtractor extractor = new UrlPartParameterExtractor(endpoint, uri);
+		Map<String, String[]> params = new HashMap<>();
+
+		while (extractor.hasNext()) {
+			String param = extractor.nextParameter();
+			String value = extractor.currentValue();
+
+			if (value == null) {
+				throw new IllegalArgumentException("Uri and pattern need to have the same length, bus was '" + uri + "' and '" + endpoint.getPath() + "'!");
+			}
+
+			params.put("URL_PART_" + param, new String[] { value });
+		}
+
+		return params;
+	}
+
+	/**
+	 * Encodes a map of parameters into a query string
+	 *
+	 * @param params
+	 * @return
+	 */
+	public static String encodeQueryString(Map<String, String[]> params) {
+		try {
+			if (params.isEmpty()) {
+				return null;
+			}
+			StringBuffer result = new StringBuffer();
+			for (String key : params.keySet()) {
+				String encodedKey = URLEncoder.encode(key, "UTF-8");
+				for (String value : params.get(key)) {
+					String encodedValue = "";
+					if (value != null) {
+						encodedValue = "=" + URLEncoder.encode(value, "UTF-8");
+					}
+
+					if (result.length() > 0) {
+						result.append("&");
+					}
+					result.append(encodedKey + encodedValue);
+
+				}
+			}
+			return result.toString();
+		} catch (UnsupportedEncodingException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+}
@@ -0,0 +1,274 @@
+package org.continuity.cobra.forecast;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.continuity.api.entities.artifact.ForecastIntensityRecord;
+import org.continuity.api.entities.artifact.session.Session;
+import org.continuity.cobra.entities.ForecasticInput;
+import org.continuity.idpa.AppId;
+import org.continuity.lctl.WorkloadDescription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.FileSystemUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Caches forecasted intensities on the local disk. The forecasts are keyed by a hash of the
+ * canonical forecast input (app-id, tailoring, ranges, perspective, forecast options, and future
+ * context), the canonical LCtL description, and the latest intensity timestamp (watermark). Hence,
+ * a forecast is not reused as soon as new intensities are stored past the watermark. In addition,
+ * all forecasts of an app-id and tailoring are removed by {@link #invalidate(AppId, List)}, which
+ * should be called whenever the intensities or the context change.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class ForecastCache {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ForecastCache.class);
+
+	private static final String HASH_ALGORITHM = "SHA-256";
+
+	private static final String FILE_EXT = ".json";
+
+	private static final TypeReference<List<ForecastIntensityRecord>> RECORDS_TYPE = new TypeReference<List<ForecastIntensityRecord>>() {
+	};
+
+	private final Path root;
+
+	private final ObjectMapper mapper;
+
+	private final int maxSize;
+
+	private final ConcurrentMap<Path, AtomicLong> generations = new ConcurrentHashMap<>();
+
+	/**
+	 *
+	 * @param root
+	 *            The directory holding the cached forecasts.
+	 * @param mapper
+	 *            The mapper used for serialization. It will be copied and configured to produce a
+	 *            canonical representation.
+	 * @param maxSize
+	 *            The maximum number of cached forecasts per app-id and tailoring. The oldest ones
+	 *            are evicted first. A value of 0 or less disables the cache.
+	 */
+	public ForecastCache(Path root, ObjectMapper mapper, int maxSize) {
+		this.root = root;
+		this.mapper = mapper.copy().configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true).configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+		this.maxSize = maxSize;
+
+		if (maxSize > 0) {
+			LOGGER.info("Caching up to {} forecasts per app-id and tailoring in {}.", maxSize, root);
+		} else {
+			LOGGER.info("The forecast cache is disabled.");
+		}
+	}
+
+	/**
+	 * Creates the key of a forecast.
+	 *
+	 * @param input
+	 *            The forecast input.
+	 * @param description
+	 *            The LCtL description the input has been derived from.
+	 * @param watermark
+	 *            The timestamp of the latest stored intensity.
+	 * @return The key or {@code null} if the cache is disabled or the input cannot be serialized.
+	 */
+	public Key createKey(ForecasticInput input, WorkloadDescription description, long watermark) {
+		if ((maxSize <= 0) || (input == null) || (input.getAppId() == null)) {
+			return null;
+		}
+
+		Path directory = toDirectory(input.getAppId(), input.getTailoring());
+
+		ObjectNode node = mapper.createObjectNode();
+		node.put("watermark", watermark);
+		node.set("input", mapper.valueToTree(input));
+		node.set("description", mapper.valueToTree(description));
+
+		try {
+			return new Key(hash(mapper.writeValueAsString(node)), directory, getGeneration(directory).get());
+		} catch (JsonProcessingException | NoSuchAlgorithmException | IllegalArgumentException e) {
+			LOGGER.error("Could not create a forecast cache key!", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Gets a cached forecast.
+	 *
+	 * @param key
+	 *            The key. Can be {@code null}.
+	 * @return The cached forecast or an empty optional if there is none.
+	 */
+	public Optional<List<ForecastIntensityRecord>> get(Key key) {
+		if (key == null) {
+			return Optional.empty();
+		}
+
+		File file = key.toPath().toFile();
+
+		if (!file.exists()) {
+			return Optional.empty();
+		}
+
+		try {
+			return Optional.of(mapper.readValue(file, RECORDS_TYPE));
+		} catch (IOException e) {
+			LOGGER.warn("Could not read cached forecast {}. Ignoring it.", key, e);
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Stores a forecast. Forecasts whose key has been created before the last invalidation are
+	 * ignored.
+	 *
+	 * @param key
+	 *            The key. Can be {@code null}.
+	 * @param records
+	 *            The forecasted intensities.
+	 */
+	public void put(Key key, List<ForecastIntensityRecord> records) {
+		if ((key == null) || (records == null)) {
+			return;
+		}
+
+		synchronized (getGeneration(key.directory)) {
+			if (key.generation != getGeneration(key.directory).get()) {
+				LOGGER.info("Not caching forecast {}. The intensities have been updated in between.", key);
+				return;
+			}
+
+			try {
+				Files.createDirectories(key.directory);
+
+				Path tmp = Files.createTempFile(key.directory, key.hash, ".tmp");
+				mapper.writeValue(tmp.toFile(), records);
+				Files.move(tmp, key.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (IOException e) {
+				LOGGER.error("Could not cache forecast {}!", key, e);
+				return;
+			}
+
+			evict(key.directory);
+		}
+	}
+
+	/**
+	 * Removes all cached forecasts of an app-id and tailoring.
+	 *
+	 * @param aid
+	 *            The app-id.
+	 * @param tailoring
+	 *            The tailoring.
+	 */
+	public void invalidate(AppId aid, List<String> tailoring) {
+		if (maxSize <= 0) {
+			return;
+		}
+
+		Path directory = toDirectory(aid, tailoring);
+		AtomicLong generation = getGeneration(directory);
+
+		synchronized (generation) {
+			generation.incrementAndGet();
+
+			if (FileSystemUtils.deleteRecursively(directory.toFile())) {
+				LOGGER.info("Invalidated the cached forecasts of {} with tailoring {}.", aid.dropService(), directory.getFileName());
+			}
+		}
+	}
+
+	private void evict(Path directory) {
+		File[] files = directory.toFile().listFiles((dir, name) -> name.endsWith(FILE_EXT));
+
+		if ((files == null) || (files.length <= maxSize)) {
+			return;
+		}
+
+		List<File> sorted = new ArrayList<>(Arrays.asList(files));
+		sorted.sort(Comparator.comparingLong(File::lastModified));
+
+		for (File file : sorted.subList(0, files.length - maxSize)) {
+			if (!file.delete()) {
+				LOGGER.warn("Could not evict cached forecast {}.", file);
+			}
+		}
+	}
+
+	private AtomicLong getGeneration(Path directory) {
+		return generations.computeIfAbsent(directory, d -> new AtomicLong());
+	}
+
+	private Path toDirectory(AppId aid, List<String> tailoring) {
+		String tailoringString = Session.convertTailoringToString(tailoring == null ? null : new ArrayList<>(tailoring));
+		return root.resolve(aid.dropService().toString()).resolve(tailoringString);
+	}
+
+	private String hash(String content) throws NoSuchAlgorithmException {
+		byte[] digest = MessageDigest.getInstance(HASH_ALGORITHM).digest(content.getBytes(StandardCharsets.UTF_8));
+		StringBuilder builder = new StringBuilder();
+
+		for (byte b : digest) {
+			builder.append(String.format("%02x", b));
+		}
+
+		return builder.toString();
+	}
+
+	/**
+	 * Key of a cached forecast.
+	 *
+	 * @author Henning Schulz
+	 *
+	 */
+	public static class Key {
+
+		private final String hash;
+
+		private final Path directory;
+
+		private final long generation;
+
+		private Key(String hash, Path directory, long generation) {
+			this.hash = hash;
+			this.directory = directory;
+			this.generation = generation;
+		}
+
+		private Path toPath() {
+			return directory.resolve(hash + FILE_EXT);
+		}
+
+		@Override
+		public String toString() {
+			return hash.substring(0, 12);
+		}
+
+	}
+
+}
@@ -0,0 +1,369 @@
+package org.continuity.cobra.forecast;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.continuity.api.entities.artifact.ForecastIntensityRecord;
+import org.continuity.cobra.entities.ForecastTimerange;
+import org.continuity.cobra.entities.ForecasticInput;
+import org.continuity.cobra.entities.TimedContextRecord;
+import org.continuity.cobra.entities.TypeAndProperties;
+import org.continuity.lctl.timeseries.ContextRecord;
+import org.continuity.lctl.timeseries.IntensityRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-process alternative to the external Forecastic service. Takes the same
+ * {@link ForecasticInput} and produces the same {@link ForecastIntensityRecord}s, but the
+ * intensity history has to be passed explicitly. All groups are forecasted in parallel.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class ForecastEngine implements Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ForecastEngine.class);
+
+	public static final String SEASONAL_NAIVE = "seasonal-naive";
+
+	public static final String HOLT_WINTERS = "holt-winters";
+
+	public static final String LINEAR_REGRESSION = "linear-regression";
+
+	private static final long DAY = Duration.ofDays(1).toMillis();
+
+	private static final long WEEK = Duration.ofDays(7).toMillis();
+
+	private final Map<String, Forecaster> forecasters = new HashMap<>();
+
+	private final ExecutorService executor;
+
+	/**
+	 * Creates a new engine.
+	 *
+	 * @param numThreads
+	 *            The number of threads to be used for forecasting the groups. If 0 or less, the
+	 *            number of available processors is used.
+	 */
+	public ForecastEngine(int numThreads) {
+		forecasters.put(SEASONAL_NAIVE, new SeasonalNaiveForecaster());
+		forecasters.put(HOLT_WINTERS, new HoltWintersForecaster());
+		forecasters.put(LINEAR_REGRESSION, new LinearRegressionForecaster());
+
+		this.executor = Executors.newFixedThreadPool(numThreads > 0 ? numThreads : Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Checks whether an approach can be handled by this engine.
+	 *
+	 * @param approach
+	 *            The approach as specified in the order, e.g., {@value #HOLT_WINTERS}.
+	 * @return {@code true} if the approach is supported.
+	 */
+	public boolean supports(String approach) {
+		return (approach != null) && forecasters.containsKey(approach.toLowerCase(Locale.ENGLISH));
+	}
+
+	/**
+	 * Forecasts the intensities for the timestamps covered by the ranges of the input. Timestamps
+	 * up to the perspective are filled with the observed intensities; later ones are forecasted
+	 * based on the history.
+	 *
+	 * @param input
+	 *            The input as it would be sent to Forecastic.
+	 * @param history
+	 *            The past intensities to be used for training.
+	 * @return The forecasted intensities, aggregated as specified in the input.
+	 */
+	public List<ForecastIntensityRecord> forecast(ForecasticInput input, List<IntensityRecord> history) {
+		Forecaster forecaster = forecasters.get(input.getApproach().toLowerCase(Locale.ENGLISH));
+		long resolution = input.getResolution();
+
+		List<IntensityRecord> observed = history.stream().filter(r -> (r.getIntensity() != null) && !r.getIntensity().isEmpty())
+				.sorted(Comparator.comparingLong(IntensityRecord::getTimestamp)).collect(Collectors.toList());
+
+		if (observed.isEmpty()) {
+			LOGGER.error("{}: There are no intensities to forecast from!", input.getAppId());
+			return Collections.emptyList();
+		}
+
+		if ((input.getAdjustments() != null) && !input.getAdjustments().isEmpty()) {
+			LOGGER.warn("{}: Adjustments are not supported by the {} forecaster. Ignoring them.", input.getAppId(), input.getApproach());
+		}
+
+		long start = observed.get(0).getTimestamp();
+		long lastObserved = observed.get(observed.size() - 1).getTimestamp();
+		long perspective = input.getPerspective() == null ? lastObserved : Math.min(input.getPerspective(), lastObserved);
+		int n = toIndex(perspective, start, resolution) + 1;
+
+		Map<String, double[]> series = toSeries(observed, start, n, resolution, input.isForecastTotal());
+
+		long seasonLength = ((n * resolution) >= (2 * WEEK)) ? WEEK : DAY;
+		int season = (int) Math.max(1, seasonLength / resolution);
+
+		TreeSet<Long> timestamps = new TreeSet<>();
+
+		for (ForecastTimerange range : input.getRanges()) {
+			for (long t = range.getFrom(); t <= range.getTo(); t += resolution) {
+				timestamps.add(t);
+			}
+		}
+
+		int horizon = timestamps.isEmpty() ? 0 : Math.max(0, toIndex(timestamps.last(), start, resolution) - n + 1);
+
+		FeatureSchema schema = new FeatureSchema(input.getContextVariables(), observed, input.getContext());
+		Map<Long, ContextRecord> pastContext = observed.stream().filter(r -> r.getContext() != null)
+				.collect(Collectors.toMap(IntensityRecord::getTimestamp, IntensityRecord::getContext, (a, b) -> a));
+		Map<Long, TimedContextRecord> futureContext = Optional.ofNullable(input.getContext()).orElse(Collections.emptyList()).stream()
+				.collect(Collectors.toMap(TimedContextRecord::getTimestamp, c -> c, (a, b) -> a));
+
+		double[][] historyFeatures = schema.toFeatures(pastContext, start, n, resolution);
+		double[][] futureFeatures = schema.toFeatures(futureContext, start + (n * resolution), horizon, resolution);
+
+		Map<String, double[]> forecasts = forecastInParallel(forecaster, series, season, historyFeatures, futureFeatures);
+
+		List<ForecastIntensityRecord> records = new ArrayList<>(timestamps.size());
+
+		for (long timestamp : timestamps) {
+			Map<String, Double> content = new LinkedHashMap<>();
+			content.put(ForecastIntensityRecord.KEY_TIMESTAMP, (double) timestamp);
+
+			int index = toIndex(timestamp, start, resolution);
+
+			for (String group : series.keySet()) {
+				double value;
+
+				if (index < 0) {
+					value = 0;
+				} else if (index < n) {
+					value = series.get(group)[index];
+				} else {
+					value = forecasts.get(group)[index - n];
+				}
+
+				content.put(group, value);
+			}
+
+			records.add(new ForecastIntensityRecord(content));
+		}
+
+		return aggregate(records, input.getAggregation(), input);
+	}
+
+	private Map<String, double[]> toSeries(List<IntensityRecord> observed, long start, int n, long resolution, boolean total) {
+		Map<String, double[]> series = new TreeMap<>();
+
+		for (IntensityRecord record : observed) {
+			int index = toIndex(record.getTimestamp(), start, resolution);
+
+			if (index >= n) {
+				break;
+			}
+
+			for (Entry<String, Long> entry : record.getIntensity().entrySet()) {
+				String group = total ? ForecastIntensityRecord.KEY_TOTAL : entry.getKey();
+				series.computeIfAbsent(group, g -> new double[n])[index] += entry.getValue();
+			}
+		}
+
+		return series;
+	}
+
+	private Map<String, double[]> forecastInParallel(Forecaster forecaster, Map<String, double[]> series, int season, double[][] historyFeatures, double[][] futureFeatures) {
+		Map<String, Future<double[]>> futures = new LinkedHashMap<>();
+
+		for (Entry<String, double[]> entry : series.entrySet()) {
+			futures.put(entry.getKey(), executor.submit(() -> forecaster.forecast(entry.getValue(), season, historyFeatures, futureFeatures)));
+		}
+
+		Map<String, double[]> forecasts = new HashMap<>();
+
+		for (Entry<String, Future<double[]>> entry : futures.entrySet()) {
+			try {
+				forecasts.put(entry.getKey(), entry.getValue().get());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while forecasting group " + entry.getKey(), e);
+			} catch (ExecutionException e) {
+				throw new IllegalStateException("Could not forecast group " + entry.getKey(), e.getCause());
+			}
+		}
+
+		return forecasts;
+	}
+
+	private List<ForecastIntensityRecord> aggregate(List<ForecastIntensityRecord> records, TypeAndProperties aggregation, ForecasticInput input) {
+		if ((aggregation == null) || (aggregation.getType() == null) || records.isEmpty()) {
+			return records;
+		}
+
+		String type = aggregation.getType().toLowerCase(Locale.ENGLISH);
+		Map<String, Object> properties = aggregation.getProperties() == null ? Collections.emptyMap() : aggregation.getProperties();
+
+		Map<String, Double> content = new LinkedHashMap<>();
+		content.put(ForecastIntensityRecord.KEY_TIMESTAMP, (double) records.get(0).getTimestamp());
+
+		for (String group : records.get(0).getGroups()) {
+			double[] values = records.stream().mapToDouble(r -> r.getIntensity(group)).toArray();
+			double aggregated;
+
+			switch (type) {
+			case "percentile":
+				aggregated = percentile(values, toDouble(properties.get("p"), 95));
+				break;
+			case "mean":
+				aggregated = Arrays.stream(values).average().orElse(0);
+				break;
+			case "median":
+				aggregated = percentile(values, 50);
+				break;
+			case "max":
+				aggregated = Arrays.stream(values).max().orElse(0);
+				break;
+			case "min":
+				aggregated = Arrays.stream(values).min().orElse(0);
+				break;
+			default:
+				LOGGER.warn("{}: Unknown aggregation {}. Returning the time series as-is.", input.getAppId(), aggregation.getType());
+				return records;
+			}
+
+			content.put(group, aggregated);
+		}
+
+		return Collections.singletonList(new ForecastIntensityRecord(content));
+	}
+
+	private double percentile(double[] values, double p) {
+		double[] sorted = values.clone();
+		Arrays.sort(sorted);
+
+		int rank = (int) Math.ceil((p / 100) * sorted.length);
+		return sorted[Math.min(sorted.length - 1, Math.max(0, rank - 1))];
+	}
+
+	private double toDouble(Object value, double defaultValue) {
+		if (value instanceof Number) {
+			return ((Number) value).doubleValue();
+		} else if (value != null) {
+			return Double.parseDouble(value.toString());
+		} else {
+			return defaultValue;
+		}
+	}
+
+	private static int toIndex(long timestamp, long start, long resolution) {
+		return (int) Math.round((timestamp - start) / (double) resolution);
+	}
+
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Maps context records to feature vectors. Numeric variables are used as-is, boolean ones are
+	 * 1 if present, and string variables are one-hot encoded. Missing values are 0.
+	 */
+	private static class FeatureSchema {
+
+		private final Map<String, Integer> numeric = new HashMap<>();
+
+		private final Map<String, Integer> bool = new HashMap<>();
+
+		private final Map<String, Integer> string = new HashMap<>();
+
+		private int size = 0;
+
+		private FeatureSchema(Set<String> variables, List<IntensityRecord> history, List<TimedContextRecord> future) {
+			if ((variables == null) || variables.isEmpty()) {
+				return;
+			}
+
+			List<ContextRecord> contexts = new ArrayList<>();
+			history.stream().map(IntensityRecord::getContext).forEach(contexts::add);
+
+			if (future != null) {
+				contexts.addAll(future);
+			}
+
+			for (ContextRecord context : contexts) {
+				if (context == null) {
+					continue;
+				}
+
+				if (context.getNumeric() != null) {
+					context.getNumeric().keySet().stream().filter(variables::contains).forEach(v -> numeric.computeIfAbsent(v, x -> size++));
+				}
+
+				if (context.getBoolean() != null) {
+					context.getBoolean().stream().filter(variables::contains).forEach(v -> bool.computeIfAbsent(v, x -> size++));
+				}
+
+				if (context.getString() != null) {
+					context.getString().entrySet().stream().filter(e -> variables.contains(e.getKey())).forEach(e -> string.computeIfAbsent(e.getKey() + "=" + e.getValue(), x -> size++));
+				}
+			}
+		}
+
+		private double[][] toFeatures(Map<Long, ? extends ContextRecord> contexts, long start, int length, long resolution) {
+			double[][] features = new double[length][size];
+
+			if (size == 0) {
+				return features;
+			}
+
+			for (Entry<Long, ? extends ContextRecord> entry : contexts.entrySet()) {
+				int index = toIndex(entry.getKey(), start, resolution);
+
+				if ((index >= 0) && (index < length)) {
+					fill(features[index], entry.getValue());
+				}
+			}
+
+			return features;
+		}
+
+		private void fill(double[] features, ContextRecord context) {
+			if (context.getNumeric() != null) {
+				context.getNumeric().forEach((variable, value) -> {
+					Integer i = numeric.get(variable);
+
+					if ((i != null) && (value != null)) {
+						features[i] = value;
+					}
+				});
+			}
+
+			if (context.getBoolean() != null) {
+				context.getBoolean().stream().map(bool::get).filter(i -> i != null).forEach(i -> features[i] = 1);
+			}
+
+			if (context.getString() != null) {
+				context.getString().entrySet().stream().map(e -> string.get(e.getKey() + "=" + e.getValue())).filter(i -> i != null).forEach(i -> features[i] = 1);
+			}
+		}
+
+	}
+
+}
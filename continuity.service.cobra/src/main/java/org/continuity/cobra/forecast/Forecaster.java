@@ -0,0 +1,28 @@
+package org.continuity.cobra.forecast;
+
+/**
+ * Forecasts a single, equidistant time series.
+ *
+ * @author Henning Schulz
+ *
+ */
+public interface Forecaster {
+
+	/**
+	 * Forecasts the values following the history.
+	 *
+	 * @param history
+	 *            The past values. Consecutive values are one resolution step apart.
+	 * @param season
+	 *            The number of values forming one season, e.g., one day.
+	 * @param historyFeatures
+	 *            The context features of each past value ({@code historyFeatures[i]} belongs to
+	 *            {@code history[i]}). All feature vectors have the same length, which might be 0.
+	 * @param futureFeatures
+	 *            The context features of each value to be forecasted. The length defines the
+	 *            forecast horizon.
+	 * @return The forecasted values. Will have the same length as {@code futureFeatures}.
+	 */
+	double[] forecast(double[] history, int season, double[][] historyFeatures, double[][] futureFeatures);
+
+}
@@ -0,0 +1,110 @@
+package org.continuity.cobra.forecast;
+
+/**
+ * Additive Holt-Winters forecaster with a damped trend. The smoothing parameters are chosen from a
+ * fixed grid by minimizing the squared one-step-ahead error on the history. Requires at least two
+ * seasons of history and falls back to {@link SeasonalNaiveForecaster} otherwise.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class HoltWintersForecaster implements Forecaster {
+
+	private static final double[] ALPHAS = { 0.1, 0.3, 0.5, 0.7, 0.9 };
+
+	private static final double[] BETAS = { 0, 0.01, 0.1 };
+
+	private static final double[] GAMMAS = { 0.05, 0.1, 0.3, 0.5 };
+
+	private static final double DAMPING = 0.98;
+
+	private final Forecaster fallback = new SeasonalNaiveForecaster();
+
+	@Override
+	public double[] forecast(double[] history, int season, double[][] historyFeatures, double[][] futureFeatures) {
+		if (history.length < (2 * season)) {
+			return fallback.forecast(history, season, historyFeatures, futureFeatures);
+		}
+
+		double bestError = Double.POSITIVE_INFINITY;
+		State best = null;
+
+		for (double alpha : ALPHAS) {
+			for (double beta : BETAS) {
+				for (double gamma : GAMMAS) {
+					State state = fit(history, season, alpha, beta, gamma);
+
+					if (state.error < bestError) {
+						bestError = state.error;
+						best = state;
+					}
+				}
+			}
+		}
+
+		double[] forecast = new double[futureFeatures.length];
+		double dampedTrend = 0;
+		double damping = 1;
+
+		for (int h = 0; h < forecast.length; h++) {
+			damping *= DAMPING;
+			dampedTrend += damping * best.trend;
+
+			double value = best.level + dampedTrend + best.seasonals[(history.length + h) % season];
+			forecast[h] = Math.max(0, value);
+		}
+
+		return forecast;
+	}
+
+	private State fit(double[] history, int season, double alpha, double beta, double gamma) {
+		double firstMean = mean(history, 0, season);
+		double secondMean = mean(history, season, 2 * season);
+
+		State state = new State();
+		state.level = firstMean;
+		state.trend = (secondMean - firstMean) / season;
+		state.seasonals = new double[season];
+
+		for (int i = 0; i < season; i++) {
+			state.seasonals[i] = history[i] - firstMean;
+		}
+
+		for (int t = season; t < history.length; t++) {
+			int s = t % season;
+			double predicted = state.level + (DAMPING * state.trend) + state.seasonals[s];
+			double error = history[t] - predicted;
+			state.error += error * error;
+
+			double lastLevel = state.level;
+			state.level = (alpha * (history[t] - state.seasonals[s])) + ((1 - alpha) * (lastLevel + (DAMPING * state.trend)));
+			state.trend = (beta * (state.level - lastLevel)) + ((1 - beta) * DAMPING * state.trend);
+			state.seasonals[s] = (gamma * (history[t] - state.level)) + ((1 - gamma) * state.seasonals[s]);
+		}
+
+		return state;
+	}
+
+	private double mean(double[] values, int from, int to) {
+		double sum = 0;
+
+		for (int i = from; i < to; i++) {
+			sum += values[i];
+		}
+
+		return sum / (to - from);
+	}
+
+	private static class State {
+
+		private double level;
+
+		private double trend;
+
+		private double[] seasonals;
+
+		private double error;
+
+	}
+
+}
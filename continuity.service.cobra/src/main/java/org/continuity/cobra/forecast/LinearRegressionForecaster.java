@@ -0,0 +1,136 @@
+package org.continuity.cobra.forecast;
+
+/**
+ * Linear regression on the context variables, a linear trend, and Fourier terms of the season.
+ * The coefficients are estimated by (slightly regularized) least squares.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class LinearRegressionForecaster implements Forecaster {
+
+	private static final int NUM_HARMONICS = 3;
+
+	private static final double RIDGE = 1e-6;
+
+	@Override
+	public double[] forecast(double[] history, int season, double[][] historyFeatures, double[][] futureFeatures) {
+		int n = history.length;
+		double[] forecast = new double[futureFeatures.length];
+
+		if (n == 0) {
+			return forecast;
+		}
+
+		int numContext = historyFeatures.length > 0 ? historyFeatures[0].length : 0;
+		int numFeatures = 2 + (2 * NUM_HARMONICS) + numContext;
+
+		double[][] xtx = new double[numFeatures][numFeatures];
+		double[] xty = new double[numFeatures];
+		double[] row = new double[numFeatures];
+
+		for (int t = 0; t < n; t++) {
+			fillRow(row, t, n, season, historyFeatures[t]);
+
+			for (int i = 0; i < numFeatures; i++) {
+				xty[i] += row[i] * history[t];
+
+				for (int j = i; j < numFeatures; j++) {
+					xtx[i][j] += row[i] * row[j];
+				}
+			}
+		}
+
+		for (int i = 0; i < numFeatures; i++) {
+			xtx[i][i] += RIDGE * Math.max(1, xtx[i][i]);
+
+			for (int j = 0; j < i; j++) {
+				xtx[i][j] = xtx[j][i];
+			}
+		}
+
+		double[] coefficients = solve(xtx, xty);
+
+		for (int h = 0; h < forecast.length; h++) {
+			fillRow(row, n + h, n, season, futureFeatures[h]);
+
+			double value = 0;
+
+			for (int i = 0; i < numFeatures; i++) {
+				value += coefficients[i] * row[i];
+			}
+
+			forecast[h] = Math.max(0, value);
+		}
+
+		return forecast;
+	}
+
+	private void fillRow(double[] row, int t, int n, int season, double[] context) {
+		int i = 0;
+		row[i++] = 1;
+		row[i++] = t / (double) n;
+
+		for (int k = 1; k <= NUM_HARMONICS; k++) {
+			double angle = (2 * Math.PI * k * (t % season)) / season;
+			row[i++] = Math.sin(angle);
+			row[i++] = Math.cos(angle);
+		}
+
+		System.arraycopy(context, 0, row, i, context.length);
+	}
+
+	/**
+	 * Solves {@code a * x = b} by Gaussian elimination with partial pivoting. Modifies the
+	 * passed arrays.
+	 */
+	private double[] solve(double[][] a, double[] b) {
+		int n = b.length;
+
+		for (int col = 0; col < n; col++) {
+			int pivot = col;
+
+			for (int r = col + 1; r < n; r++) {
+				if (Math.abs(a[r][col]) > Math.abs(a[pivot][col])) {
+					pivot = r;
+				}
+			}
+
+			double[] tmpRow = a[col];
+			a[col] = a[pivot];
+			a[pivot] = tmpRow;
+
+			double tmp = b[col];
+			b[col] = b[pivot];
+			b[pivot] = tmp;
+
+			if (a[col][col] == 0) {
+				continue;
+			}
+
+			for (int r = col + 1; r < n; r++) {
+				double factor = a[r][col] / a[col][col];
+				b[r] -= factor * b[col];
+
+				for (int c = col; c < n; c++) {
+					a[r][c] -= factor * a[col][c];
+				}
+			}
+		}
+
+		double[] x = new double[n];
+
+		for (int r = n - 1; r >= 0; r--) {
+			double sum = b[r];
+
+			for (int c = r + 1; c < n; c++) {
+				sum -= a[r][c] * x[c];
+			}
+
+			x[r] = a[r][r] == 0 ? 0 : sum / a[r][r];
+		}
+
+		return x;
+	}
+
+}
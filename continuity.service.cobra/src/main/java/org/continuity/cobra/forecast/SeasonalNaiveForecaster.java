@@ -0,0 +1,32 @@
+package org.continuity.cobra.forecast;
+
+/**
+ * Repeats the last observed season. If the history is shorter than one season, the last value is
+ * repeated.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class SeasonalNaiveForecaster implements Forecaster {
+
+	@Override
+	public double[] forecast(double[] history, int season, double[][] historyFeatures, double[][] futureFeatures) {
+		double[] forecast = new double[futureFeatures.length];
+		int n = history.length;
+
+		if (n == 0) {
+			return forecast;
+		}
+
+		for (int h = 0; h < forecast.length; h++) {
+			if (n >= season) {
+				forecast[h] = history[(n - season) + (h % season)];
+			} else {
+				forecast[h] = history[n - 1];
+			}
+		}
+
+		return forecast;
+	}
+
+}
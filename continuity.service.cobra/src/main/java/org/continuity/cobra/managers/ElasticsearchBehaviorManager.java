@@ -28,8 +28,8 @@ public class ElasticsearchBehaviorManager extends ElasticsearchScrollingManager<
 
 	private final ObjectMapper mapper;
 
-	public ElasticsearchBehaviorManager(String host, ObjectMapper mapper, int bulkTimeoutSeconds) throws IOException {
-		super(host, "behavior", bulkTimeoutSeconds);
+	public ElasticsearchBehaviorManager(ElasticsearchClient elasticsearch, ObjectMapper mapper, int bulkTimeoutSeconds) throws IOException {
+		super(elasticsearch, "behavior", bulkTimeoutSeconds);
 
 		this.mapper = mapper;
 	}
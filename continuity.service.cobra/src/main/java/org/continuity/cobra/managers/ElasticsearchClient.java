@@ -0,0 +1,368 @@
+package org.continuity.cobra.managers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.entity.GzipDecompressingEntity;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.entity.NByteArrayEntity;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.support.WriteRequest.RefreshPolicy;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.client.HeapBufferedAsyncResponseConsumer;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.RestClient;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.ToXContent;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Client to Elasticsearch shared by all managers. It holds one connection pool and one set of IO
+ * threads. Responses are requested gzip-compressed and bulk request bodies are compressed, if
+ * enabled. The latency and the number of transferred bytes are recorded per operation and can be
+ * logged periodically.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class ElasticsearchClient implements Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ElasticsearchClient.class);
+
+	/**
+	 * Default buffer limit of the Elasticsearch client.
+	 */
+	public static final int DEFAULT_BUFFER_LIMIT = 100 * 1024 * 1024;
+
+	private static final String GZIP = "gzip";
+
+	private static final ContentType NDJSON = ContentType.create("application/x-ndjson");
+
+	private static final String ATTRIBUTE_START = ElasticsearchClient.class.getName() + ".start";
+
+	private final RestHighLevelClient client;
+
+	private final boolean compression;
+
+	private final ElasticsearchStatistics statistics = new ElasticsearchStatistics();
+
+	private final RequestOptions requestOptions;
+
+	private ScheduledExecutorService statisticsLogger;
+
+	/**
+	 *
+	 * @param host
+	 *            The host of Elasticsearch.
+	 * @param socketTimeoutSeconds
+	 *            The socket timeout, which is also the maximum duration of bulk requests.
+	 * @param maxConnections
+	 *            The maximum number of connections in total.
+	 * @param maxConnectionsPerRoute
+	 *            The maximum number of connections per Elasticsearch node.
+	 * @param ioThreads
+	 *            The number of IO threads. A value of 0 or less uses the number of available
+	 *            processors.
+	 * @param compression
+	 *            Whether to compress request and response bodies.
+	 */
+	public ElasticsearchClient(String host, int socketTimeoutSeconds, int maxConnections, int maxConnectionsPerRoute, int ioThreads, boolean compression) {
+		int numIoThreads = ioThreads > 0 ? ioThreads : Runtime.getRuntime().availableProcessors();
+
+		this.client = new RestHighLevelClient(RestClient.builder(new HttpHost(host, 9200, "http"), new HttpHost(host, 9300, "http"))
+				.setRequestConfigCallback(cb -> cb.setSocketTimeout(socketTimeoutSeconds * 1000)).setHttpClientConfigCallback(cb -> cb.setMaxConnTotal(maxConnections)
+						.setMaxConnPerRoute(maxConnectionsPerRoute).setDefaultIOReactorConfig(IOReactorConfig.custom().setIoThreadCount(numIoThreads).build()).addInterceptorLast(requestInterceptor())));
+		this.compression = compression;
+		this.requestOptions = createRequestOptions(DEFAULT_BUFFER_LIMIT);
+
+		LOGGER.info("Connecting to Elasticsearch at {} with up to {} connections ({} per node), {} IO threads, and compression {}.", host, maxConnections, maxConnectionsPerRoute, numIoThreads,
+				compression ? "enabled" : "disabled");
+	}
+
+	/**
+	 * Returns the underlying client. Requests should use {@link #getRequestOptions()} or
+	 * {@link #createRequestOptions(int)}.
+	 *
+	 * @return The high-level client.
+	 */
+	public RestHighLevelClient get() {
+		return client;
+	}
+
+	/**
+	 * Returns the default request options, which enable response compression and the collection of
+	 * statistics.
+	 *
+	 * @return The request options.
+	 */
+	public RequestOptions getRequestOptions() {
+		return requestOptions;
+	}
+
+	/**
+	 * Creates request options with a custom response buffer limit.
+	 *
+	 * @param bufferLimit
+	 *            The maximum size of (potentially compressed) responses in bytes.
+	 * @return The request options.
+	 */
+	public RequestOptions createRequestOptions(int bufferLimit) {
+		RequestOptions.Builder builder = RequestOptions.DEFAULT.toBuilder();
+		builder.setHttpAsyncResponseConsumerFactory(() -> new StatisticsResponseConsumer(bufferLimit));
+
+		if (compression) {
+			builder.addHeader(HttpHeaders.ACCEPT_ENCODING, GZIP);
+		}
+
+		return builder.build();
+	}
+
+	/**
+	 * Returns the latency and byte counters per operation.
+	 *
+	 * @return The statistics.
+	 */
+	public ElasticsearchStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * Periodically logs the statistics, so that they can be observed while the service is
+	 * running. Does nothing if the interval is 0 or less.
+	 *
+	 * @param intervalSeconds
+	 *            The logging interval in seconds.
+	 */
+	public synchronized void logStatisticsEvery(long intervalSeconds) {
+		if (statisticsLogger != null) {
+			statisticsLogger.shutdownNow();
+			statisticsLogger = null;
+		}
+
+		if (intervalSeconds <= 0) {
+			return;
+		}
+
+		statisticsLogger = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "elasticsearch-statistics");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		statisticsLogger.scheduleAtFixedRate(() -> LOGGER.info("Elasticsearch statistics: {}", statistics), intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Executes a bulk request. If compression is enabled, the request body is sent
+	 * gzip-compressed.
+	 *
+	 * @param bulk
+	 *            The bulk request.
+	 * @param options
+	 *            The request options.
+	 * @return The response.
+	 * @throws IOException
+	 *             If the request fails.
+	 */
+	public BulkResponse bulk(BulkRequest bulk, RequestOptions options) throws IOException {
+		if (!compression) {
+			return client.bulk(bulk, options);
+		}
+
+		byte[] body = toNdjson(bulk);
+		statistics.recordUncompressed("bulk", body.length);
+
+		Request request = new Request(HttpPost.METHOD_NAME, "/_bulk");
+
+		if ((bulk.getRefreshPolicy() != null) && (bulk.getRefreshPolicy() != RefreshPolicy.NONE)) {
+			request.addParameter("refresh", bulk.getRefreshPolicy().getValue());
+		}
+
+		if (bulk.timeout() != null) {
+			request.addParameter("timeout", bulk.timeout().getStringRep());
+		}
+
+		request.setEntity(new NByteArrayEntity(gzip(body), NDJSON));
+
+		RequestOptions.Builder builder = options.toBuilder();
+		builder.addHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+		request.setOptions(builder);
+
+		Response response = client.getLowLevelClient().performRequest(request);
+
+		try (XContentParser parser = XContentType.JSON.xContent().createParser(NamedXContentRegistry.EMPTY, DeprecationHandler.THROW_UNSUPPORTED_OPERATION,
+				response.getEntity().getContent())) {
+			return BulkResponse.fromXContent(parser);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		logStatisticsEvery(0);
+		LOGGER.info("Closing the Elasticsearch client. Statistics: {}", statistics);
+		client.close();
+	}
+
+	/**
+	 * Serializes a bulk request to the newline-delimited JSON expected by the {@code _bulk}
+	 * endpoint. Supports index, create, and update requests.
+	 *
+	 * @param bulk
+	 *            The bulk request.
+	 * @return The request body.
+	 * @throws IOException
+	 *             If the serialization fails.
+	 */
+	static byte[] toNdjson(BulkRequest bulk) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		for (DocWriteRequest<?> request : bulk.requests()) {
+			XContentBuilder metadata = XContentFactory.jsonBuilder().startObject().startObject(request.opType().getLowercase());
+			metadata.field("_index", request.index());
+
+			if (request.id() != null) {
+				metadata.field("_id", request.id());
+			}
+
+			if (request.routing() != null) {
+				metadata.field("routing", request.routing());
+			}
+
+			if ((request instanceof UpdateRequest) && (((UpdateRequest) request).retryOnConflict() > 0)) {
+				metadata.field("retry_on_conflict", ((UpdateRequest) request).retryOnConflict());
+			}
+
+			writeLine(BytesReference.bytes(metadata.endObject().endObject()), out);
+
+			if (request instanceof IndexRequest) {
+				IndexRequest index = (IndexRequest) request;
+				BytesReference source = index.getContentType() == XContentType.JSON ? index.source() : new BytesArray(XContentHelper.convertToJson(index.source(), false, false, index.getContentType()));
+				writeLine(source, out);
+			} else if (request instanceof UpdateRequest) {
+				writeLine(BytesReference.bytes(((UpdateRequest) request).toXContent(XContentFactory.jsonBuilder(), ToXContent.EMPTY_PARAMS)), out);
+			} else {
+				throw new IllegalArgumentException("Unsupported bulk request type " + request.getClass().getSimpleName() + "!");
+			}
+		}
+
+		return out.toByteArray();
+	}
+
+	private static void writeLine(BytesReference bytes, OutputStream out) throws IOException {
+		bytes.writeTo(out);
+		out.write('\n');
+	}
+
+	private static byte[] gzip(byte[] bytes) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(bytes);
+		}
+
+		return out.toByteArray();
+	}
+
+	/**
+	 * Derives the operation from the request path, e.g., {@code /my-index/_bulk -> bulk}.
+	 *
+	 * @param request
+	 *            The request.
+	 * @return The operation.
+	 */
+	static String toOperation(HttpRequest request) {
+		if (request == null) {
+			return "unknown";
+		}
+
+		String path = request.getRequestLine().getUri().split("\\?")[0];
+
+		if (path.startsWith("/_search/scroll")) {
+			return "scroll";
+		}
+
+		for (String segment : path.split("/")) {
+			if (segment.startsWith("_")) {
+				return segment.substring(1);
+			}
+		}
+
+		return "HEAD".equals(request.getRequestLine().getMethod()) ? "exists" : "index";
+	}
+
+	private HttpRequestInterceptor requestInterceptor() {
+		return (request, context) -> {
+			context.setAttribute(ATTRIBUTE_START, System.nanoTime());
+
+			if (request instanceof HttpEntityEnclosingRequest) {
+				HttpEntity entity = ((HttpEntityEnclosingRequest) request).getEntity();
+
+				if ((entity != null) && (entity.getContentLength() > 0)) {
+					statistics.recordRequest(toOperation(request), entity.getContentLength());
+				}
+			}
+		};
+	}
+
+	/**
+	 * Records the statistics of the response and decompresses its body, if required.
+	 */
+	private class StatisticsResponseConsumer extends HeapBufferedAsyncResponseConsumer {
+
+		private StatisticsResponseConsumer(int bufferLimit) {
+			super(bufferLimit);
+		}
+
+		@Override
+		protected HttpResponse buildResult(HttpContext context) throws Exception {
+			HttpResponse response = super.buildResult(context);
+			HttpEntity entity = response.getEntity();
+
+			Object start = context.getAttribute(ATTRIBUTE_START);
+			long latency = start instanceof Long ? System.nanoTime() - (Long) start : 0;
+			long bytesReceived = (entity == null) ? 0 : Math.max(0, entity.getContentLength());
+
+			statistics.recordResponse(toOperation(HttpCoreContext.adapt(context).getRequest()), latency, bytesReceived);
+
+			if ((entity != null) && (entity.getContentEncoding() != null) && GZIP.equalsIgnoreCase(entity.getContentEncoding().getValue())) {
+				response.setEntity(new GzipDecompressingEntity(entity));
+			}
+
+			return response;
+		}
+
+	}
+
+}
@@ -4,34 +4,55 @@ import java.io.IOException;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
+
+import org.apache.commons.lang3.tuple.Pair;
 
 import org.continuity.api.entities.artifact.session.Session;
+import org.continuity.cobra.entities.IntensityRollup;
+import org.continuity.cobra.entities.IntensityRollup.Aggregation;
+import org.continuity.cobra.entities.IntensityRollup.Level;
+import org.continuity.cobra.entities.Watermark;
+import org.continuity.cobra.entities.WatermarkCheck;
+import org.continuity.cobra.extractor.IntensityGapFiller;
+import org.continuity.cobra.extractor.IntensityRollupCalculator;
 import org.continuity.idpa.AppId;
 import org.continuity.lctl.WorkloadDescription;
 import org.continuity.lctl.timeseries.IntensityRecord;
 import org.continuity.lctl.utils.DateUtils;
 import org.elasticsearch.ElasticsearchStatusException;
 import org.elasticsearch.action.ActionListener;
-import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
-import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.index.reindex.BulkByScrollResponse;
+import org.elasticsearch.index.reindex.DeleteByQueryRequest;
 import org.elasticsearch.index.reindex.UpdateByQueryRequest;
 import org.elasticsearch.script.Script;
 import org.elasticsearch.script.ScriptType;
 import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.Aggregations;
+import org.elasticsearch.search.aggregations.bucket.filter.ParsedFilter;
 import org.elasticsearch.search.aggregations.metrics.ParsedMax;
 import org.elasticsearch.search.aggregations.metrics.ParsedMin;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
@@ -58,6 +79,14 @@ public class ElasticsearchIntensityManager extends ElasticsearchScrollingManager
 
 	private static final String REMOVE_CONTEXT_SCRIPT_ID = "remove-context";
 
+	private static final String PATH_INTENSITY = "intensity";
+
+	private static final String PATH_CONTEXT = "context";
+
+	private static final long REBUILD_CHUNK_BUCKETS = 7;
+
+	private static final String INDEX_PATTERN = "*.intensity";
+
 	private final ObjectMapper mapper;
 
 	private boolean updateScriptInitialized = false;
@@ -66,25 +95,104 @@ public class ElasticsearchIntensityManager extends ElasticsearchScrollingManager
 
 	private boolean removeContextScriptInitialized = false;
 
-	public ElasticsearchIntensityManager(String host, ObjectMapper mapper, int bulkTimeoutSeconds) throws IOException {
-		super(host, "intensity", bulkTimeoutSeconds);
+	private final List<BiConsumer<AppId, List<String>>> updateListeners = new CopyOnWriteArrayList<>();
+
+	private final Map<Level, ElasticsearchIntensityRollupManager> rollupManagers = new EnumMap<>(Level.class);
+
+	private final ConcurrentMap<String, Object> rollupLocks = new ConcurrentHashMap<>();
+
+	private final ExecutorService rollupRecalculation = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "intensity-rollup-recalculation");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Watermarks of all records, including the ones only holding context.
+	 */
+	private final WatermarkRegistry watermarks = new WatermarkRegistry();
+
+	/**
+	 * Watermarks of the records holding intensities.
+	 */
+	private final WatermarkRegistry intensityWatermarks = new WatermarkRegistry();
+
+	public ElasticsearchIntensityManager(ElasticsearchClient elasticsearch, ObjectMapper mapper, int bulkTimeoutSeconds) throws IOException {
+		super(elasticsearch, "intensity", bulkTimeoutSeconds);
 		this.mapper = mapper;
+
+		for (Level level : Level.values()) {
+			rollupManagers.put(level, new ElasticsearchIntensityRollupManager(elasticsearch, mapper, bulkTimeoutSeconds, level));
+		}
+
+		seedWatermarks();
+	}
+
+	private void seedWatermarks() {
+		try {
+			Map<String, Pair<Watermark, Watermark>> loaded = loadWatermarks(getIndices(INDEX_PATTERN));
+
+			watermarks.seed(loaded.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().getLeft())));
+			intensityWatermarks.seed(loaded.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().getRight())));
+
+			LOGGER.info("Seeded the intensity watermarks.");
+		} catch (IOException | ElasticsearchStatusException e) {
+			LOGGER.error("Could not seed the intensity watermarks! Will load them on demand.", e);
+		}
+	}
+
+	/**
+	 * Adds a listener that is notified whenever intensities or context of an app-id and tailoring
+	 * are changed via this manager. Filling empty intensity records does not count as a change.
+	 *
+	 * @param listener
+	 *            The listener accepting the app-id and the tailoring.
+	 */
+	public void addUpdateListener(BiConsumer<AppId, List<String>> listener) {
+		updateListeners.add(listener);
 	}
 
 	/**
 	 * Stores the passed intensity records for the given app-id, potentially overwriting old
-	 * versions of the records.
+	 * versions of the records. If the records hold intensities, the changes are added to the
+	 * rollups of all levels maintained for the resolution, without waiting for the records to
+	 * become searchable. Buckets whose maxima may have decreased are recalculated asynchronously.
 	 *
 	 * @param aid
 	 *            The app-id.
 	 * @param tailoring
 	 * @param records
 	 *            The intensity records to be stored.
+	 * @param resolution
+	 *            The resolution of the intensity records.
 	 * @throws IOException
+	 * @throws TimeoutException
 	 */
-	public void storeOrUpdateIntensities(AppId aid, List<String> tailoring, Collection<IntensityRecord> records) throws IOException {
+	public void storeOrUpdateIntensities(AppId aid, List<String> tailoring, Collection<IntensityRecord> records, Duration resolution) throws IOException, TimeoutException {
 		boolean containsContexts = records.stream().map(IntensityRecord::getContext).filter(c -> (c != null) && !c.isEmpty()).count() > 0;
+		boolean containsIntensities = records.stream().map(IntensityRecord::getIntensity).filter(i -> (i != null) && !i.isEmpty()).count() > 0;
+
+		if (containsIntensities && (coarsestMaintainedLevel(resolution) != null)) {
+			Set<Long> staleBuckets;
+
+			synchronized (getRollupLock(aid, tailoring)) {
+				Map<Long, Map<String, Long>> previous = readStoredIntensities(aid, tailoring, records);
+				storeRecords(aid, tailoring, records, containsContexts);
+				staleBuckets = addToRollups(aid, tailoring, records, previous, containsContexts, resolution);
+			}
+
+			if (!staleBuckets.isEmpty()) {
+				recalculateRollupsAsync(aid, tailoring, staleBuckets, resolution);
+			}
+		} else {
+			storeRecords(aid, tailoring, records, containsContexts);
+		}
+
+		extendWatermarks(aid, tailoring, records);
+		notifyUpdateListeners(aid, tailoring);
+	}
 
+	private void storeRecords(AppId aid, List<String> tailoring, Collection<IntensityRecord> records, boolean containsContexts) throws IOException {
 		if (containsContexts) {
 			try {
 				if (!updateScriptInitialized) {
@@ -99,69 +207,242 @@ public class ElasticsearchIntensityManager extends ElasticsearchScrollingManager
 		}
 	}
 
-	private Script createUpdateScript(IntensityRecord record) {
-		Map<String, Object> params = new HashMap<>();
+	/**
+	 * Reads the currently stored intensities of the passed records in real time, i.e., including
+	 * records that are not searchable, yet.
+	 */
+	private Map<Long, Map<String, Long>> readStoredIntensities(AppId aid, List<String> tailoring, Collection<IntensityRecord> records) throws IOException {
+		Set<String> ids = records.stream().map(this::getDocumentId).collect(Collectors.toSet());
+		Map<Long, Map<String, Long>> stored = new HashMap<>();
 
-		if ((record.getIntensity() != null) && !record.getIntensity().isEmpty()) {
-			params.put("intensity", record.getIntensity());
+		for (IntensityRecord record : getElementsById(aid, tailoring, ids, IntensityRecord.PATH_TIMESTAMP, PATH_INTENSITY).values()) {
+			if ((record.getIntensity() != null) && !record.getIntensity().isEmpty()) {
+				stored.put(record.getTimestamp(), record.getIntensity());
+			}
 		}
 
-		if (record.getContext() != null) {
-			if ((record.getContext().getNumeric() != null) && !record.getContext().getNumeric().isEmpty()) {
-				params.put("numeric", record.getContext().getNumeric());
+		return stored;
+	}
+
+	/**
+	 * Adds the changes of the intensities to the rollups of all levels maintained for the
+	 * resolution.
+	 *
+	 * @param replaced
+	 *            Whether the written intensities replace the stored ones ({@code true}) or are
+	 *            merged with them ({@code false}).
+	 * @return The start of all coarsest buckets whose maxima may have decreased.
+	 */
+	private Set<Long> addToRollups(AppId aid, List<String> tailoring, Collection<IntensityRecord> records, Map<Long, Map<String, Long>> previous, boolean replaced, Duration resolution)
+			throws IOException {
+		Map<Long, Map<String, Long>> current = new HashMap<>();
+
+		for (IntensityRecord record : records) {
+			if ((record.getIntensity() == null) || record.getIntensity().isEmpty()) {
+				continue;
 			}
 
-			if ((record.getContext().getString() != null) && !record.getContext().getString().isEmpty()) {
-				params.put("string", record.getContext().getString());
+			Map<String, Long> intensity = new HashMap<>();
+
+			if (!replaced) {
+				intensity.putAll(current.getOrDefault(record.getTimestamp(), previous.getOrDefault(record.getTimestamp(), Collections.emptyMap())));
 			}
 
-			if ((record.getContext().getBoolean() != null) && !record.getContext().getBoolean().isEmpty()) {
-				params.put("boolean", record.getContext().getBoolean());
+			intensity.putAll(record.getIntensity());
+			current.put(record.getTimestamp(), intensity);
+		}
+
+		Level coarsest = coarsestMaintainedLevel(resolution);
+		List<IntensityRecord> written = new ArrayList<>(current.size());
+		Set<Long> staleBuckets = new TreeSet<>();
+
+		for (Entry<Long, Map<String, Long>> entry : current.entrySet()) {
+			IntensityRecord record = new IntensityRecord(entry.getKey());
+			record.setIntensity(entry.getValue());
+			written.add(record);
+
+			if (hasDecreased(previous.getOrDefault(entry.getKey(), Collections.emptyMap()), entry.getValue())) {
+				staleBuckets.add(coarsest.floor(entry.getKey()));
 			}
 		}
 
-		return new Script(ScriptType.STORED, null, UPDATE_SCRIPT_ID, params);
+		for (ElasticsearchIntensityRollupManager manager : rollupManagers.values()) {
+			if (manager.getLevel().isMaintainedFor(resolution)) {
+				List<IntensityRollup> increments = new IntensityRollupCalculator(manager.getLevel(), resolution).calculateIncrements(written, previous);
+
+				if (!increments.isEmpty()) {
+					manager.addToRollups(aid, tailoring, increments);
+				}
+			}
+		}
+
+		LOGGER.info("Added {} intensity records of {} {} to the rollups.", written.size(), aid, tailoring);
+
+		return staleBuckets;
+	}
+
+	private boolean hasDecreased(Map<String, Long> before, Map<String, Long> after) {
+		for (Entry<String, Long> entry : before.entrySet()) {
+			Long value = after.get(entry.getKey());
+
+			if ((entry.getValue() != null) && ((value == null) || (value < entry.getValue()))) {
+				return true;
+			}
+		}
+
+		return false;
 	}
 
 	/**
-	 * Fills the intensities in the given time range. Will wait until the data can be queried.
+	 * Recalculates the rollups of the passed coarsest buckets from the stored intensities, because
+	 * their maxima cannot be updated incrementally.
+	 */
+	private void recalculateRollupsAsync(AppId aid, List<String> tailoring, Set<Long> buckets, Duration resolution) {
+		rollupRecalculation.execute(() -> {
+			try {
+				for (long bucket : buckets) {
+					updateRollups(aid, tailoring, bucket, bucket, resolution);
+				}
+			} catch (IOException | TimeoutException e) {
+				LOGGER.error("Could not recalculate the intensity rollups of {} {}!", aid, tailoring);
+				LOGGER.error("Exception:", e);
+			}
+		});
+	}
+
+	private Object getRollupLock(AppId aid, List<String> tailoring) {
+		return rollupLocks.computeIfAbsent(toIndex(aid, Session.convertTailoringToString(tailoring)), i -> new Object());
+	}
+
+	private void extendWatermarks(AppId aid, List<String> tailoring, Collection<IntensityRecord> records) {
+		String index = toIndex(aid, Session.convertTailoringToString(tailoring));
+		Watermark written = Watermark.EMPTY;
+		Watermark writtenIntensities = Watermark.EMPTY;
+
+		for (IntensityRecord record : records) {
+			Watermark single = new Watermark(record.getTimestamp(), record.getTimestamp());
+			written = written.union(single);
+
+			if ((record.getIntensity() != null) && !record.getIntensity().isEmpty()) {
+				writtenIntensities = writtenIntensities.union(single);
+			}
+		}
+
+		watermarks.extend(index, written);
+		intensityWatermarks.extend(index, writtenIntensities);
+	}
+
+	/**
+	 * Recalculates all rollups from the stored intensities, e.g., for intensities that have been
+	 * stored before the rollups were introduced.
 	 *
 	 * @param aid
 	 *            The app-id.
 	 * @param tailoring
-	 * @param from
-	 *            The lower bound of the time range.
-	 * @param to
-	 *            The upper bound of the time range.
 	 * @param resolution
-	 *            The step width between two intensity records.
-	 * @param timeZone
-	 *            The time zone of the dates.
+	 *            The resolution of the intensity records.
 	 * @throws IOException
+	 * @throws TimeoutException
 	 */
-	public void fillIntensities(AppId aid, List<String> tailoring, LocalDateTime from, LocalDateTime to, Duration resolution, ZoneId timeZone) throws IOException {
-		LocalDateTime latest = DateUtils.fromEpochMillis(getLatestDate(aid, tailoring).getTime(), timeZone);
+	public void rebuildRollups(AppId aid, List<String> tailoring, Duration resolution) throws IOException, TimeoutException {
+		Level coarsest = coarsestMaintainedLevel(resolution);
 
-		if (latest.isAfter(to)) {
-			LOGGER.info("All required intensity records are already present.");
+		if (coarsest == null) {
+			LOGGER.warn("No rollups are maintained for resolution {}.", resolution);
 			return;
 		}
 
-		if (latest.isAfter(from)) {
-			from = latest.plus(resolution);
+		long earliest = getEarliestDate(aid, tailoring).getTime();
+		long latest = getLatestIntensityDate(aid, tailoring).getTime();
+
+		if (earliest > latest) {
+			LOGGER.info("There are no intensities of {} {} to be rolled up.", aid, tailoring);
+			return;
 		}
 
-		long numIntensities = ((DateUtils.toEpochMillis(to, timeZone) - DateUtils.toEpochMillis(from, timeZone)) / resolution.toMillis()) + 1;
-		LOGGER.info("Inserting {} empty intensity records...", numIntensities);
+		LOGGER.info("Rebuilding the intensity rollups of {} {} between {} and {}...", aid, tailoring, formatOrNull(new Date(earliest)), formatOrNull(new Date(latest)));
+
+		long chunk = REBUILD_CHUNK_BUCKETS * coarsest.toMillis();
+
+		for (long from = coarsest.floor(earliest); from <= latest; from += chunk) {
+			updateRollups(aid, tailoring, from, Math.min(from + chunk - 1, latest), resolution);
+		}
+
+		LOGGER.info("Rebuilt the intensity rollups of {} {}.", aid, tailoring);
+	}
+
+	/**
+	 * Recalculates the rollups of all buckets overlapping with the passed time range. The index is
+	 * refreshed first, so that the intensities stored so far are taken into account.
+	 */
+	private void updateRollups(AppId aid, List<String> tailoring, long from, long to, Duration resolution) throws IOException, TimeoutException {
+		Level coarsest = coarsestMaintainedLevel(resolution);
+		long spanFrom = coarsest.floor(from);
+		long spanTo = (coarsest.floor(to) + coarsest.toMillis()) - 1;
+
+		synchronized (getRollupLock(aid, tailoring)) {
+			refreshIndex(aid, tailoring);
+
+			List<IntensityRecord> base = readStoredIntensitiesInRange(aid, tailoring, spanFrom, spanTo);
+
+			if (base == null) {
+				LOGGER.error("Could not read the intensities of {} {} for updating the rollups!", aid, tailoring);
+				return;
+			}
+
+			for (ElasticsearchIntensityRollupManager manager : rollupManagers.values()) {
+				if (manager.getLevel().isMaintainedFor(resolution)) {
+					List<IntensityRollup> rollups = new IntensityRollupCalculator(manager.getLevel(), resolution).calculate(base);
+
+					if (!rollups.isEmpty()) {
+						manager.storeRollups(aid, tailoring, rollups);
+					}
+				}
+			}
+		}
+
+		LOGGER.info("Updated the intensity rollups of {} {} between {} and {}.", aid, tailoring, formatOrNull(new Date(spanFrom)), formatOrNull(new Date(spanTo)));
+	}
+
+	private Level coarsestMaintainedLevel(Duration resolution) {
+		Level coarsest = null;
+
+		for (Level level : Level.values()) {
+			if (level.isMaintainedFor(resolution)) {
+				coarsest = level;
+			}
+		}
+
+		return coarsest;
+	}
+
+	private Script createUpdateScript(IntensityRecord record) {
+		Map<String, Object> params = new HashMap<>();
+
+		if ((record.getIntensity() != null) && !record.getIntensity().isEmpty()) {
+			params.put("intensity", record.getIntensity());
+		}
+
+		if (record.getContext() != null) {
+			if ((record.getContext().getNumeric() != null) && !record.getContext().getNumeric().isEmpty()) {
+				params.put("numeric", record.getContext().getNumeric());
+			}
+
+			if ((record.getContext().getString() != null) && !record.getContext().getString().isEmpty()) {
+				params.put("string", record.getContext().getString());
+			}
 
-		List<IntensityRecord> intensities = Stream.iterate(from, d -> d.plus(resolution)).limit(numIntensities).map(d -> DateUtils.toEpochMillis(d, timeZone)).map(IntensityRecord::new)
-				.collect(Collectors.toList());
+			if ((record.getContext().getBoolean() != null) && !record.getContext().getBoolean().isEmpty()) {
+				params.put("boolean", record.getContext().getBoolean());
+			}
+		}
 
-		storeElementsIfAbsent(aid, tailoring, intensities, true);
+		return new Script(ScriptType.STORED, null, UPDATE_SCRIPT_ID, params);
 	}
 
 	/**
-	 * Reads the intensities between two dates.
+	 * Reads the intensities between two dates. Buckets that are not stored are added as empty
+	 * records.
 	 *
 	 * @param aid
 	 *            The app-id.
@@ -170,18 +451,22 @@ public class ElasticsearchIntensityManager extends ElasticsearchScrollingManager
 	 *            The lower bound.
 	 * @param to
 	 *            The upper bound.
+	 * @param resolution
+	 *            The step width between two intensity records.
 	 * @param timeZone
 	 *            The time zone of the dates.
 	 * @return The found intensities.
 	 * @throws IOException
 	 * @throws TimeoutException
 	 */
-	public List<IntensityRecord> readIntensitiesInRange(AppId aid, List<String> tailoring, LocalDateTime from, LocalDateTime to, ZoneId timeZone) throws IOException, TimeoutException {
-		return readIntensitiesInRange(aid, tailoring, DateUtils.toEpochMillis(from, timeZone), DateUtils.toEpochMillis(to, timeZone));
+	public List<IntensityRecord> readIntensitiesInRange(AppId aid, List<String> tailoring, LocalDateTime from, LocalDateTime to, Duration resolution, ZoneId timeZone)
+			throws IOException, TimeoutException {
+		return readIntensitiesInRange(aid, tailoring, DateUtils.toEpochMillis(from, timeZone), DateUtils.toEpochMillis(to, timeZone), resolution);
 	}
 
 	/**
-	 * Reads the intensities between two dates.
+	 * Reads the intensities between two dates. Buckets that are not stored are added as empty
+	 * records.
 	 *
 	 * @param aid
 	 *            The app-id.
@@ -190,37 +475,141 @@ public class ElasticsearchIntensityManager extends ElasticsearchScrollingManager
 	 *            The lower bound as milliseconds.
 	 * @param to
 	 *            The upper bound as milliseconds.
+	 * @param resolution
+	 *            The step width between two intensity records.
 	 * @return The found intensities.
 	 * @throws IOException
 	 * @throws TimeoutException
 	 */
-	public List<IntensityRecord> readIntensitiesInRange(AppId aid, List<String> tailoring, long from, long to) throws IOException, TimeoutException {
+	public List<IntensityRecord> readIntensitiesInRange(AppId aid, List<String> tailoring, long from, long to, Duration resolution) throws IOException, TimeoutException {
+		List<IntensityRecord> stored = readStoredIntensitiesInRange(aid, tailoring, from, to);
+		IntensityGapFiller filler = createGapFiller(aid, tailoring, resolution);
+
+		if ((stored == null) || (filler == null)) {
+			return stored;
+		}
+
+		return filler.fill(stored, from, to);
+	}
+
+	private List<IntensityRecord> readStoredIntensitiesInRange(AppId aid, List<String> tailoring, long from, long to) throws IOException, TimeoutException {
 		QueryBuilder query = QueryBuilders.rangeQuery(IntensityRecord.PATH_TIMESTAMP).from(from, true).to(to, true);
 		FieldSortBuilder sort = new FieldSortBuilder("timestamp").order(SortOrder.ASC);
 		return readElements(aid, tailoring, query, sort, DEFAULT_SCROLL_SIZE, TOTAL_SIZE_ALL, String.format("between %s and %s", formatOrNull(new Date(from)), formatOrNull(new Date(to))));
 	}
 
+	private Set<Long> readStoredTimestamps(AppId aid, List<String> tailoring, QueryBuilder query, String message) throws IOException, TimeoutException {
+		List<IntensityRecord> records = readElements(aid, tailoring, query, null, DEFAULT_SCROLL_SIZE, TOTAL_SIZE_ALL, message, new String[] { IntensityRecord.PATH_TIMESTAMP }, null);
+		return records.stream().map(IntensityRecord::getTimestamp).collect(Collectors.toSet());
+	}
+
+	/**
+	 * Creates a gap filler using the earliest stored record as reference.
+	 *
+	 * @return The gap filler or {@code null} if there are no records.
+	 */
+	private IntensityGapFiller createGapFiller(AppId aid, List<String> tailoring, Duration resolution) throws IOException {
+		long earliest = getEarliestDate(aid, tailoring).getTime();
+		return earliest == Long.MAX_VALUE ? null : new IntensityGapFiller(resolution.toMillis(), earliest);
+	}
+
+	/**
+	 * Reads the intensities between two dates at a coarser resolution than the stored one. The
+	 * intensities are read from the coarsest rollups that can serve the requested resolution.
+	 * If there are none, the stored intensities are aggregated on the fly.
+	 *
+	 * @param aid
+	 *            The app-id.
+	 * @param tailoring
+	 * @param from
+	 *            The lower bound as milliseconds. Will be aligned to the requested resolution.
+	 * @param to
+	 *            The upper bound as milliseconds.
+	 * @param resolution
+	 *            The resolution of the stored intensity records.
+	 * @param requested
+	 *            The requested resolution. Needs to be a multiple of the stored resolution.
+	 * @param aggregation
+	 *            How the intensities are aggregated per group.
+	 * @return One intensity record per requested bucket holding intensities.
+	 * @throws IOException
+	 * @throws TimeoutException
+	 */
+	public List<IntensityRecord> readIntensitiesInRange(AppId aid, List<String> tailoring, long from, long to, Duration resolution, Duration requested, Aggregation aggregation)
+			throws IOException, TimeoutException {
+		if (requested.equals(resolution)) {
+			return readIntensitiesInRange(aid, tailoring, from, to, resolution);
+		}
+
+		IntensityRollupCalculator calculator = new IntensityRollupCalculator(requested, resolution);
+		long alignedFrom = Math.floorDiv(from, requested.toMillis()) * requested.toMillis();
+
+		Level level = Level.coarsestFor(resolution, requested);
+		List<IntensityRollup> rollups = null;
+
+		if ((level != null) && rollupManagers.get(level).exists(aid, tailoring)) {
+			LOGGER.info("Reading the intensities of {} {} at resolution {} from the {} rollups.", aid, tailoring, requested, level);
+
+			List<IntensityRollup> fine = rollupManagers.get(level).readRollupsInRange(aid, tailoring, alignedFrom, to);
+
+			if (fine != null) {
+				rollups = level.getDuration().equals(requested) ? fine : calculator.coarsen(fine);
+			}
+		}
+
+		if (rollups == null) {
+			LOGGER.info("Aggregating the intensities of {} {} to resolution {} on the fly.", aid, tailoring, requested);
+
+			List<IntensityRecord> base = readStoredIntensitiesInRange(aid, tailoring, alignedFrom, to);
+
+			if (base == null) {
+				return null;
+			}
+
+			rollups = calculator.calculate(base);
+		}
+
+		return rollups.stream().map(r -> r.toIntensityRecord(aggregation)).collect(Collectors.toList());
+	}
+
 	/**
-	 * Reads the intensities defined by a {@link WorkloadDescription}.
+	 * Reads the intensities defined by a {@link WorkloadDescription}. Buckets that are not stored
+	 * are added as empty records if the description applies to them.
 	 *
 	 * @param aid
 	 *            The app-id.
 	 * @param tailoring
 	 * @param workloadDescription
 	 *            The workload description.
+	 * @param resolution
+	 *            The step width between two intensity records.
 	 * @param timeZone
 	 *            The time zone of the dates.
 	 * @return The found intensities.
 	 * @throws IOException
 	 * @throws TimeoutException
 	 */
-	public List<IntensityRecord> readDescribedIntensities(AppId aid, List<String> tailoring, WorkloadDescription workloadDescription, ZoneId timeZone) throws IOException, TimeoutException {
+	public List<IntensityRecord> readDescribedIntensities(AppId aid, List<String> tailoring, WorkloadDescription workloadDescription, Duration resolution, ZoneId timeZone)
+			throws IOException, TimeoutException {
 		FieldSortBuilder sort = new FieldSortBuilder("timestamp").order(SortOrder.ASC);
-		return readElements(aid, tailoring, workloadDescription.toElasticQuery(timeZone), sort, DEFAULT_SCROLL_SIZE, TOTAL_SIZE_ALL, "for passed workload description");
+		List<IntensityRecord> matched = readElements(aid, tailoring, workloadDescription.toElasticQuery(timeZone), sort, DEFAULT_SCROLL_SIZE, TOTAL_SIZE_ALL, "for passed workload description");
+		IntensityGapFiller filler = createGapFiller(aid, tailoring, resolution);
+
+		if ((matched == null) || (filler == null)) {
+			return matched;
+		}
+
+		long from = DateUtils.toEpochMillis(workloadDescription.getMinDate(), timeZone);
+		long to = DateUtils.toEpochMillis(workloadDescription.getMaxDate(), timeZone);
+
+		Set<Long> stored = readStoredTimestamps(aid, tailoring, QueryBuilders.rangeQuery(IntensityRecord.PATH_TIMESTAMP).from(from, true).to(to, true), "for filling the passed workload description");
+
+		return filler.fill(matched, stored, from, to, t -> workloadDescription.appliesTo(new IntensityRecord(t), timeZone));
 	}
 
 	/**
 	 * Reads the intensities described by the postprocessing of a {@link WorkloadDescription}.
+	 * Buckets that are not stored are added as empty records.
 	 *
 	 * @param aid
 	 *            The app-id.
@@ -230,90 +619,211 @@ public class ElasticsearchIntensityManager extends ElasticsearchScrollingManager
 	 * @param applied
 	 *            The dates that are selected.
 	 * @param step
-	 *            The minimum duration between two records.
+	 *            The minimum duration between two records, i.e., the resolution.
 	 * @return The found intensities.
 	 * @throws IOException
 	 * @throws TimeoutException
 	 */
 	public List<IntensityRecord> readPostprocessing(AppId aid, List<String> tailoring, WorkloadDescription workloadDescription, List<LocalDateTime> applied, Duration step)
 			throws IOException, TimeoutException {
-		return readElements(aid, tailoring, workloadDescription.toPostprocessingElasticQuery(applied, step), "for postprocessing of passed workload description");
+		List<IntensityRecord> stored = readElements(aid, tailoring, workloadDescription.toPostprocessingElasticQuery(applied, step), "for postprocessing of passed workload description");
+		IntensityGapFiller filler = createGapFiller(aid, tailoring, step);
+
+		if ((stored == null) || (filler == null)) {
+			return stored;
+		}
+
+		Set<Long> timestamps = stored.stream().map(IntensityRecord::getTimestamp).collect(Collectors.toSet());
+		List<IntensityRecord> filled = new ArrayList<>(stored);
+
+		// the postprocessing query uses the system default time zone
+		for (Pair<LocalDateTime, LocalDateTime> range : workloadDescription.getPostprocessRanges(applied, step)) {
+			long exclusive = range.getLeft().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+			long inclusive = range.getRight().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+			List<IntensityRecord> missing = (exclusive < inclusive) ? filler.fill(Collections.emptyList(), timestamps, exclusive + 1, inclusive, t -> true)
+					: filler.fill(Collections.emptyList(), timestamps, inclusive, exclusive - 1, t -> true);
+
+			missing.stream().map(IntensityRecord::getTimestamp).forEach(timestamps::add);
+			filled.addAll(missing);
+		}
+
+		filled.sort(Comparator.comparingLong(IntensityRecord::getTimestamp));
+		return filled;
 	}
 
 	/**
-	 * Gets the earliest date occurring in the stored intensities.
+	 * Removes the empty intensity records, i.e., the ones holding neither intensities nor
+	 * context. Such records have been stored explicitly by former versions and are now
+	 * reconstructed when reading.
 	 *
 	 * @param aid
 	 *            The app-id.
 	 * @param tailoring
 	 *            The list of services to which the intensities belong. Use a singleton list with
 	 *            {@link AppId#SERVICE_ALL} to get untailored sessions.
-	 * @return The found date. In case no sessions could be found, 292278994-08-17 08:12:55 (max
-	 *         value of long) will be returned.
+	 * @return The number of removed records.
 	 * @throws IOException
 	 */
-	public Date getEarliestDate(AppId aid, List<String> tailoring) throws IOException {
+	public long removeEmptyRecords(AppId aid, List<String> tailoring) throws IOException {
 		String index = toIndex(aid, Session.convertTailoringToString(tailoring));
 
 		if (!indexExists(index)) {
-			return new Date(Long.MAX_VALUE);
+			LOGGER.warn("Cannot remove empty records from index {}. It does not exist!", index);
+			return 0;
 		}
 
-		SearchSourceBuilder source = new SearchSourceBuilder();
-		source.aggregation(AggregationBuilders.min("min_timestamp").field("timestamp").missing(Long.MAX_VALUE));
+		LOGGER.info("Removing empty records from index {}...", index);
 
-		SearchRequest search = new SearchRequest(index).source(source);
+		QueryBuilder query = QueryBuilders.boolQuery().mustNot(QueryBuilders.existsQuery(PATH_INTENSITY)).mustNot(QueryBuilders.existsQuery(PATH_CONTEXT));
+		DeleteByQueryRequest delete = new DeleteByQueryRequest(index).setQuery(query).setRefresh(true);
 
-		SearchResponse response;
-		try {
-			response = client.search(search, RequestOptions.DEFAULT);
-		} catch (ElasticsearchStatusException e) {
-			LOGGER.info("Could not get any elements from {} {}: {}", aid, index, e.getMessage());
-			return new Date(Long.MAX_VALUE);
+		BulkByScrollResponse response = client.deleteByQuery(delete, requestOptions);
+
+		LOGGER.info("The delete request to {} took {} and removed {} empty records.", index, response.getTook(), response.getDeleted());
+
+		if (response.getDeleted() > 0) {
+			watermarks.invalidate(index);
 		}
 
-		ParsedMin min = response.getAggregations().get("min_timestamp");
-		double millis = min.getValue();
+		return response.getDeleted();
+	}
 
-		return new Date(Math.round(millis));
+	/**
+	 * Gets the earliest date occurring in the stored intensities. The date is taken from the
+	 * watermarks tracked on write.
+	 *
+	 * @param aid
+	 *            The app-id.
+	 * @param tailoring
+	 *            The list of services to which the intensities belong. Use a singleton list with
+	 *            {@link AppId#SERVICE_ALL} to get untailored sessions.
+	 * @return The found date. In case no sessions could be found, 292278994-08-17 08:12:55 (max
+	 *         value of long) will be returned.
+	 * @throws IOException
+	 */
+	public Date getEarliestDate(AppId aid, List<String> tailoring) throws IOException {
+		Watermark watermark = getWatermark(watermarks, aid, tailoring);
+		return new Date(watermark.isEmpty() ? Long.MAX_VALUE : watermark.getEarliest());
 	}
 
 	/**
-	 * Gets the latest date occurring in the stored intensities.
+	 * Gets the latest date occurring in the stored intensities. The date is taken from the
+	 * watermarks tracked on write.
 	 *
 	 * @param aid
 	 *            The app-id.
 	 * @param tailoring
 	 *            The list of services to which the intensities belong. Use a singleton list with
 	 *            {@link AppId#SERVICE_ALL} to get untailored sessions.
-	 * @return The found date. In case no sessions could be found, 1970-01-01 01:00:00 will be
-	 *         returned.
+	 * @return The found date. In case no sessions could be found, 292278994-08-17 08:12:55 (max
+	 *         value of long) will be returned.
 	 * @throws IOException
 	 */
 	public Date getLatestDate(AppId aid, List<String> tailoring) throws IOException {
+		Watermark watermark = getWatermark(watermarks, aid, tailoring);
+		return new Date(watermark.isEmpty() ? Long.MAX_VALUE : watermark.getLatest());
+	}
+
+	/**
+	 * Gets the latest date of the stored intensities that actually hold intensity values, i.e.,
+	 * ignoring the records only holding context. The date is taken from the watermarks tracked on
+	 * write.
+	 *
+	 * @param aid
+	 *            The app-id.
+	 * @param tailoring
+	 *            The list of services to which the intensities belong. Use a singleton list with
+	 *            {@link AppId#SERVICE_ALL} to get untailored sessions.
+	 * @return The found date. In case no intensities could be found, 292278994-08-17 08:12:55
+	 *         (max value of long) will be returned.
+	 * @throws IOException
+	 */
+	public Date getLatestIntensityDate(AppId aid, List<String> tailoring) throws IOException {
+		Watermark watermark = getWatermark(intensityWatermarks, aid, tailoring);
+		return new Date(watermark.isEmpty() ? Long.MAX_VALUE : watermark.getLatest());
+	}
+
+	/**
+	 * Compares the tracked watermarks of the intensities with the ones calculated by
+	 * Elasticsearch and replaces them.
+	 *
+	 * @param aid
+	 *            The app-id.
+	 * @param tailoring
+	 *            The list of services to which the intensities belong.
+	 * @return The results of the comparison of the watermarks of all records and of the records
+	 *         holding intensities.
+	 * @throws IOException
+	 */
+	public List<WatermarkCheck> checkWatermarks(AppId aid, List<String> tailoring) throws IOException {
+		String index = toIndex(aid, Session.convertTailoringToString(tailoring));
+		Pair<Watermark, Watermark> loaded = loadWatermarks(index);
+
+		List<WatermarkCheck> checks = new ArrayList<>();
+		checks.add(watermarks.check(index, loaded.getLeft()));
+		checks.add(intensityWatermarks.check(index, loaded.getRight()));
+
+		for (WatermarkCheck check : checks) {
+			if (check.isConsistent()) {
+				LOGGER.info("The intensity watermark of {} is consistent: {}", index, check.getActual());
+			} else {
+				LOGGER.warn("The intensity watermark of {} was inconsistent and has been corrected: {}", index, check);
+			}
+		}
+
+		return checks;
+	}
+
+	private Watermark getWatermark(WatermarkRegistry registry, AppId aid, List<String> tailoring) throws IOException {
 		String index = toIndex(aid, Session.convertTailoringToString(tailoring));
+		boolean intensitiesOnly = registry == intensityWatermarks;
+
+		return registry.get(index, () -> intensitiesOnly ? loadWatermarks(index).getRight() : loadWatermarks(index).getLeft());
+	}
 
+	private Pair<Watermark, Watermark> loadWatermarks(String index) throws IOException {
 		if (!indexExists(index)) {
-			return new Date(Long.MAX_VALUE);
+			return Pair.of(Watermark.EMPTY, Watermark.EMPTY);
 		}
 
-		SearchSourceBuilder source = new SearchSourceBuilder();
-		source.aggregation(AggregationBuilders.max("max_timestamp").field("timestamp").missing(0));
+		return loadWatermarks(Collections.singletonList(index)).getOrDefault(index, Pair.of(Watermark.EMPTY, Watermark.EMPTY));
+	}
 
-		SearchRequest search = new SearchRequest(index).source(source);
+	/**
+	 * Calculates the watermarks of the passed indices with min and max aggregations.
+	 *
+	 * @return The watermarks of all records (left) and of the records holding intensities (right)
+	 *         per index.
+	 */
+	private Map<String, Pair<Watermark, Watermark>> loadWatermarks(List<String> indices) throws IOException {
+		SearchSourceBuilder source = new SearchSourceBuilder().size(0);
+		source.aggregation(AggregationBuilders.min("min_timestamp").field("timestamp"));
+		source.aggregation(AggregationBuilders.max("max_timestamp").field("timestamp"));
+		source.aggregation(AggregationBuilders.filter("with_intensity", QueryBuilders.existsQuery(PATH_INTENSITY))
+				.subAggregation(AggregationBuilders.min("min_timestamp").field("timestamp")).subAggregation(AggregationBuilders.max("max_timestamp").field("timestamp")));
 
-		SearchResponse response;
-		try {
-			response = client.search(search, RequestOptions.DEFAULT);
-		} catch (ElasticsearchStatusException e) {
-			LOGGER.info("Could not get any elements from {} {}: {}", aid, index, e.getMessage());
-			return new Date(Long.MAX_VALUE);
+		Map<String, Pair<Watermark, Watermark>> loaded = new HashMap<>();
+
+		for (Map.Entry<String, SearchResponse> entry : searchEach(indices, source, "for the intensity watermarks").entrySet()) {
+			Aggregations aggregations = entry.getValue().getAggregations();
+			ParsedFilter withIntensity = aggregations.get("with_intensity");
+
+			loaded.put(entry.getKey(), Pair.of(toWatermark(aggregations), toWatermark(withIntensity.getAggregations())));
 		}
 
-		ParsedMax max = response.getAggregations().get("max_timestamp");
-		double millis = max.getValue();
+		return loaded;
+	}
+
+	private Watermark toWatermark(Aggregations aggregations) {
+		ParsedMin min = aggregations.get("min_timestamp");
+		ParsedMax max = aggregations.get("max_timestamp");
 
-		return new Date(Math.round(millis));
+		if (Double.isFinite(min.getValue()) && Double.isFinite(max.getValue())) {
+			return new Watermark(Math.round(min.getValue()), Math.round(max.getValue()));
+		} else {
+			return Watermark.EMPTY;
+		}
 	}
 
 	/**
@@ -347,7 +857,7 @@ public class ElasticsearchIntensityManager extends ElasticsearchScrollingManager
 
 		LOGGER.info("Updating index {} from legacy...", index);
 
-		updateByQueryAsync(index, REMOVE_CONTEXT_SCRIPT_ID);
+		updateByQueryAsync(aid, tailoring, index, REMOVE_CONTEXT_SCRIPT_ID);
 	}
 
 	/**
@@ -378,19 +888,20 @@ public class ElasticsearchIntensityManager extends ElasticsearchScrollingManager
 
 		LOGGER.info("Removing context from index {}...", index);
 
-		updateByQueryAsync(index, REMOVE_CONTEXT_SCRIPT_ID);
+		updateByQueryAsync(aid, tailoring, index, REMOVE_CONTEXT_SCRIPT_ID);
 	}
 
-	private void updateByQueryAsync(String index, String scriptId) {
+	private void updateByQueryAsync(AppId aid, List<String> tailoring, String index, String scriptId) {
 		UpdateByQueryRequest update = new UpdateByQueryRequest(index);
 		update.setScript(new Script(ScriptType.STORED, null, scriptId, Collections.emptyMap()));
 		update.setTimeout(TimeValue.timeValueMinutes(5));
 
-		client.updateByQueryAsync(update, RequestOptions.DEFAULT, new ActionListener<BulkByScrollResponse>() {
+		client.updateByQueryAsync(update, requestOptions, new ActionListener<BulkByScrollResponse>() {
 
 			@Override
 			public void onResponse(BulkByScrollResponse response) {
 				LOGGER.info("The update by query request to {} took {} and updated {} documents.", index, response.getTook(), response.getUpdated());
+				notifyUpdateListeners(aid, tailoring);
 			}
 
 			@Override
@@ -400,6 +911,12 @@ public class ElasticsearchIntensityManager extends ElasticsearchScrollingManager
 		});
 	}
 
+	private void notifyUpdateListeners(AppId aid, List<String> tailoring) {
+		for (BiConsumer<AppId, List<String>> listener : updateListeners) {
+			listener.accept(aid, tailoring);
+		}
+	}
+
 	@Override
 	protected String toIndex(AppId aid, String tailoring) {
 		return new StringBuilder().append(aid.dropService()).append(".").append(tailoring).append(".intensity").toString();
@@ -0,0 +1,165 @@
+package org.continuity.cobra.managers;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import org.continuity.api.entities.artifact.session.Session;
+import org.continuity.cobra.entities.IntensityRollup;
+import org.continuity.cobra.entities.IntensityRollup.Level;
+import org.continuity.idpa.AppId;
+import org.continuity.lctl.timeseries.IntensityRecord;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.script.Script;
+import org.elasticsearch.script.ScriptType;
+import org.elasticsearch.search.sort.FieldSortBuilder;
+import org.elasticsearch.search.sort.SortOrder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Manages the {@link IntensityRollup}s of one {@link Level}. Is used by the
+ * {@link ElasticsearchIntensityManager}, which keeps the rollups in sync with the intensities.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class ElasticsearchIntensityRollupManager extends ElasticsearchScrollingManager<IntensityRollup> {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ElasticsearchIntensityRollupManager.class);
+
+	private static final String ADD_SCRIPT_ID = "add-intensity-rollup";
+
+	private final ObjectMapper mapper;
+
+	private final Level level;
+
+	private boolean addScriptInitialized = false;
+
+	public ElasticsearchIntensityRollupManager(ElasticsearchClient elasticsearch, ObjectMapper mapper, int bulkTimeoutSeconds, Level level) throws IOException {
+		super(elasticsearch, "intensity-rollup", bulkTimeoutSeconds);
+
+		this.mapper = mapper;
+		this.level = level;
+	}
+
+	public Level getLevel() {
+		return level;
+	}
+
+	/**
+	 * Checks whether there are rollups for the given app-id and tailoring.
+	 *
+	 * @param aid
+	 *            The app-id.
+	 * @param tailoring
+	 * @return {@code true} if the rollup index exists.
+	 * @throws IOException
+	 */
+	public boolean exists(AppId aid, List<String> tailoring) throws IOException {
+		return indexExists(toIndex(aid, Session.convertTailoringToString(tailoring)));
+	}
+
+	/**
+	 * Stores the passed rollups, overwriting old versions of the same buckets.
+	 *
+	 * @param aid
+	 *            The app-id.
+	 * @param tailoring
+	 * @param rollups
+	 *            The rollups to be stored.
+	 * @throws IOException
+	 */
+	public void storeRollups(AppId aid, List<String> tailoring, Collection<IntensityRollup> rollups) throws IOException {
+		storeElements(aid, tailoring, rollups, false);
+	}
+
+	/**
+	 * Adds the passed increments to the stored rollups of the same buckets, i.e., the sums and means
+	 * are added and the maxima are merged. Rollups that are not stored, yet, are created.
+	 *
+	 * @param aid
+	 *            The app-id.
+	 * @param tailoring
+	 * @param increments
+	 *            The increments, e.g., calculated by
+	 *            {@link org.continuity.cobra.extractor.IntensityRollupCalculator#calculateIncrements(Collection, java.util.Map)}.
+	 * @throws IOException
+	 */
+	public void addToRollups(AppId aid, List<String> tailoring, Collection<IntensityRollup> increments) throws IOException {
+		try {
+			if (!addScriptInitialized) {
+				addScriptInitialized = initUpdateScript(ADD_SCRIPT_ID);
+			}
+		} catch (Exception e) {
+			LOGGER.error("Could not initialize add script! Hoping it is already present...", e);
+		}
+
+		storeOrUpdateByScript(aid, tailoring, increments, this::createAddScript, true, false);
+	}
+
+	private Script createAddScript(IntensityRollup increment) {
+		Map<String, Object> params = new HashMap<>();
+		params.put("timestamp", increment.getTimestamp());
+		params.put("sum", increment.getSum());
+		params.put("max", increment.getMax());
+		params.put("mean", increment.getMean());
+
+		return new Script(ScriptType.STORED, null, ADD_SCRIPT_ID, params);
+	}
+
+	/**
+	 * Reads the rollups of the buckets starting between two dates.
+	 *
+	 * @param aid
+	 *            The app-id.
+	 * @param tailoring
+	 * @param from
+	 *            The lower bound as milliseconds.
+	 * @param to
+	 *            The upper bound as milliseconds.
+	 * @return The found rollups.
+	 * @throws IOException
+	 * @throws TimeoutException
+	 */
+	public List<IntensityRollup> readRollupsInRange(AppId aid, List<String> tailoring, long from, long to) throws IOException, TimeoutException {
+		QueryBuilder query = QueryBuilders.rangeQuery(IntensityRecord.PATH_TIMESTAMP).from(from, true).to(to, true);
+		FieldSortBuilder sort = new FieldSortBuilder("timestamp").order(SortOrder.ASC);
+		return readElements(aid, tailoring, query, sort, DEFAULT_SCROLL_SIZE, TOTAL_SIZE_ALL,
+				String.format("of level %s between %s and %s", level, formatOrNull(new Date(from)), formatOrNull(new Date(to))));
+	}
+
+	@Override
+	protected String toIndex(AppId aid, String tailoring) {
+		return new StringBuilder().append(aid.dropService()).append(".").append(tailoring).append(".intensity.").append(level.getSuffix()).toString();
+	}
+
+	@Override
+	protected String serialize(IntensityRollup rollup) throws JsonProcessingException {
+		return mapper.writeValueAsString(rollup);
+	}
+
+	@Override
+	protected String getDocumentId(IntensityRollup rollup) {
+		return Long.toString(rollup.getTimestamp());
+	}
+
+	@Override
+	protected IntensityRollup deserialize(String json) {
+		try {
+			return mapper.readValue(json, IntensityRollup.class);
+		} catch (IOException e) {
+			LOGGER.error("Could not read IntensityRollup from JSON string!", e);
+			return null;
+		}
+	}
+
+}
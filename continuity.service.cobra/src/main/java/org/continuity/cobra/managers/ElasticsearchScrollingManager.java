@@ -9,26 +9,32 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import org.apache.http.HttpHost;
 import org.continuity.api.entities.ApiFormats;
 import org.continuity.api.entities.artifact.session.Session;
 import org.continuity.idpa.AppId;
 import org.elasticsearch.ElasticsearchStatusException;
 import org.elasticsearch.action.admin.cluster.storedscripts.PutStoredScriptRequest;
+import org.elasticsearch.action.admin.indices.refresh.RefreshRequest;
 import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.get.MultiGetItemResponse;
+import org.elasticsearch.action.get.MultiGetRequest;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.search.ClearScrollRequest;
 import org.elasticsearch.action.search.ClearScrollResponse;
+import org.elasticsearch.action.search.MultiSearchRequest;
+import org.elasticsearch.action.search.MultiSearchResponse;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.search.SearchScrollRequest;
@@ -36,7 +42,6 @@ import org.elasticsearch.action.support.WriteRequest.RefreshPolicy;
 import org.elasticsearch.action.support.master.AcknowledgedResponse;
 import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.client.RequestOptions;
-import org.elasticsearch.client.RestClient;
 import org.elasticsearch.client.RestHighLevelClient;
 import org.elasticsearch.client.core.CountRequest;
 import org.elasticsearch.client.core.CountResponse;
@@ -44,6 +49,7 @@ import org.elasticsearch.client.indices.CreateIndexRequest;
 import org.elasticsearch.client.indices.CreateIndexResponse;
 import org.elasticsearch.client.indices.GetIndexRequest;
 import org.elasticsearch.client.indices.PutMappingRequest;
+import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.XContentBuilder;
@@ -54,6 +60,7 @@ import org.elasticsearch.script.Script;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHits;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
 import org.elasticsearch.search.sort.SortBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -73,21 +80,25 @@ public abstract class ElasticsearchScrollingManager<T> {
 
 	protected static final int TOTAL_SIZE_ALL = -1;
 
+	protected static final int MAX_MULTI_SEARCH_SIZE = 1000;
+
 	private static final Logger LOGGER = LoggerFactory.getLogger(ElasticsearchScrollingManager.class);
 
 	private static final long SCROLL_MINUTES = 5;
 
 	protected final RestHighLevelClient client;
 
+	protected final RequestOptions requestOptions;
+
+	private final ElasticsearchClient elasticsearch;
+
 	private final String mapping;
 
 	private final long bulkTimeoutSeconds;
 
-	private final RequestOptions requestOptions;
-
-	protected ElasticsearchScrollingManager(String host, String mappingName, int bulkTimeoutSeconds, RequestOptions requestOptions) throws IOException {
-		this.client = new RestHighLevelClient(
-				RestClient.builder(new HttpHost(host, 9200, "http"), new HttpHost(host, 9300, "http")).setRequestConfigCallback(cb -> cb.setSocketTimeout(bulkTimeoutSeconds * 1000)));
+	protected ElasticsearchScrollingManager(ElasticsearchClient elasticsearch, String mappingName, int bulkTimeoutSeconds, RequestOptions requestOptions) throws IOException {
+		this.elasticsearch = elasticsearch;
+		this.client = elasticsearch.get();
 
 		try (BufferedReader reader = new BufferedReader(new InputStreamReader(getClass().getResourceAsStream("/" + mappingName + "-mapping.json")))) {
 			this.mapping = reader.lines().collect(Collectors.joining(System.lineSeparator()));
@@ -97,12 +108,8 @@ public abstract class ElasticsearchScrollingManager<T> {
 		this.requestOptions = requestOptions;
 	}
 
-	protected ElasticsearchScrollingManager(String host, String mappingName, int bulkTimeoutSeconds) throws IOException {
-		this(host, mappingName, bulkTimeoutSeconds, RequestOptions.DEFAULT);
-	}
-
-	public void destroy() throws IOException {
-		client.close();
+	protected ElasticsearchScrollingManager(ElasticsearchClient elasticsearch, String mappingName, int bulkTimeoutSeconds) throws IOException {
+		this(elasticsearch, mappingName, bulkTimeoutSeconds, elasticsearch.getRequestOptions());
 	}
 
 	protected abstract String toIndex(AppId aid, String tailoring);
@@ -321,7 +328,7 @@ public abstract class ElasticsearchScrollingManager<T> {
 
 		request.timeout(TimeValue.timeValueSeconds(bulkTimeoutSeconds));
 
-		BulkResponse response = client.bulk(request, requestOptions);
+		BulkResponse response = elasticsearch.bulk(request, requestOptions);
 
 		LOGGER.info("The bulk request to {} took {} and resulted in status {}.", index, response.getTook(), response.status());
 
@@ -365,6 +372,53 @@ public abstract class ElasticsearchScrollingManager<T> {
 		storeElements(aid, tailoring, elements, false);
 	}
 
+	/**
+	 * Gets the elements with the passed document IDs in real time, i.e., including elements that
+	 * have not been refreshed, yet.
+	 *
+	 * @param aid
+	 * @param tailoring
+	 * @param ids
+	 *            The document IDs.
+	 * @param fields
+	 *            The object fields to include in the response.
+	 * @return The found elements per document ID. Missing elements are omitted.
+	 * @throws IOException
+	 */
+	protected Map<String, T> getElementsById(AppId aid, List<String> tailoring, Collection<String> ids, String... fields) throws IOException {
+		String index = toIndex(aid, Session.convertTailoringToString(tailoring));
+		Map<String, T> elements = new HashMap<>();
+
+		if (ids.isEmpty() || !indexExists(index)) {
+			return elements;
+		}
+
+		FetchSourceContext source = new FetchSourceContext(true, fields, Strings.EMPTY_ARRAY);
+		Iterator<String> idIterator = ids.iterator();
+
+		while (idIterator.hasNext()) {
+			MultiGetRequest request = new MultiGetRequest();
+
+			for (int i = 0; (i < MAX_BULK_SIZE) && idIterator.hasNext(); i++) {
+				request.add(new MultiGetRequest.Item(index, idIterator.next()).fetchSourceContext(source));
+			}
+
+			for (MultiGetItemResponse item : client.mget(request, requestOptions)) {
+				if (item.isFailed()) {
+					LOGGER.warn("Could not get element {} from {}: {}", item.getId(), index, item.getFailure().getMessage());
+				} else if (item.getResponse().isExists()) {
+					T element = deserialize(item.getResponse().getSourceAsString());
+
+					if (element != null) {
+						elements.put(item.getId(), element);
+					}
+				}
+			}
+		}
+
+		return elements;
+	}
+
 	/**
 	 * Reads the elements using the default tailoring (all).
 	 *
@@ -597,6 +651,128 @@ public abstract class ElasticsearchScrollingManager<T> {
 		return response.getCount();
 	}
 
+	/**
+	 * Counts the elements matching each of the passed queries using one multi-search request per
+	 * {@link #MAX_MULTI_SEARCH_SIZE} queries.
+	 *
+	 * @param aid
+	 * @param tailoring
+	 * @param queries
+	 *            The queries to be evaluated.
+	 * @param existence
+	 *            Whether only the existence of matching elements is of interest. In this case, the
+	 *            search stops at the first match per query and the returned counts are at most 1.
+	 * @param message
+	 * @return The counts in the order of the queries. Failed queries are counted as 0.
+	 * @throws IOException
+	 */
+	protected long[] countElements(AppId aid, List<String> tailoring, List<QueryBuilder> queries, boolean existence, String message) throws IOException {
+		String index = toIndex(aid, tailoring == null ? null : Session.convertTailoringToString(tailoring));
+		long[] counts = new long[queries.size()];
+
+		if (queries.isEmpty() || !indexExists(index)) {
+			return counts;
+		}
+
+		for (int start = 0; start < queries.size(); start += MAX_MULTI_SEARCH_SIZE) {
+			List<QueryBuilder> chunk = queries.subList(start, Math.min(start + MAX_MULTI_SEARCH_SIZE, queries.size()));
+			MultiSearchResponse response = client.msearch(createMultiCountRequest(index, chunk, existence), requestOptions);
+
+			LOGGER.info("The multi-search request with {} queries to {} {} took {}.", chunk.size(), index, message, response.getTook());
+
+			long[] chunkCounts = toCounts(response, index, message);
+			System.arraycopy(chunkCounts, 0, counts, start, chunkCounts.length);
+		}
+
+		return counts;
+	}
+
+	static MultiSearchRequest createMultiCountRequest(String index, List<QueryBuilder> queries, boolean existence) {
+		MultiSearchRequest multiSearch = new MultiSearchRequest();
+
+		for (QueryBuilder query : queries) {
+			SearchSourceBuilder source = new SearchSourceBuilder().query(query).size(0);
+
+			if (existence) {
+				source.terminateAfter(1);
+			} else {
+				source.trackTotalHits(true);
+			}
+
+			multiSearch.add(new SearchRequest(index).source(source));
+		}
+
+		return multiSearch;
+	}
+
+	static long[] toCounts(MultiSearchResponse response, String index, String message) {
+		MultiSearchResponse.Item[] items = response.getResponses();
+		long[] counts = new long[items.length];
+
+		for (int i = 0; i < items.length; i++) {
+			if (items[i].isFailure()) {
+				LOGGER.info("Could not find any elements in {} {} (query #{}): {}", index, message, i, items[i].getFailureMessage());
+			} else {
+				counts[i] = items[i].getResponse().getHits().getTotalHits().value;
+			}
+		}
+
+		return counts;
+	}
+
+	/**
+	 * Runs the same search against each of the passed indices using one multi-search request.
+	 *
+	 * @param indices
+	 *            The indices to be searched.
+	 * @param source
+	 *            The search to be run.
+	 * @param message
+	 * @return The responses per index. Failed searches are omitted.
+	 * @throws IOException
+	 */
+	protected Map<String, SearchResponse> searchEach(Collection<String> indices, SearchSourceBuilder source, String message) throws IOException {
+		Map<String, SearchResponse> responses = new HashMap<>();
+
+		if (indices.isEmpty()) {
+			return responses;
+		}
+
+		MultiSearchRequest multiSearch = new MultiSearchRequest();
+		indices.forEach(index -> multiSearch.add(new SearchRequest(index).source(source)));
+
+		MultiSearchResponse response = client.msearch(multiSearch, requestOptions);
+
+		LOGGER.info("The multi-search request {} to {} indices took {}.", message, indices.size(), response.getTook());
+
+		Iterator<String> indexIterator = indices.iterator();
+
+		for (MultiSearchResponse.Item item : response.getResponses()) {
+			String index = indexIterator.next();
+
+			if (item.isFailure()) {
+				LOGGER.warn("Could not search {} {}: {}", index, message, item.getFailureMessage());
+			} else {
+				responses.put(index, item.getResponse());
+			}
+		}
+
+		return responses;
+	}
+
+	/**
+	 * Gets the names of all indices matching a pattern.
+	 *
+	 * @param pattern
+	 *            The pattern, e.g., {@code *.sessions}.
+	 * @return The matching index names.
+	 * @throws IOException
+	 */
+	protected List<String> getIndices(String pattern) throws IOException {
+		GetIndexRequest request = new GetIndexRequest(pattern);
+		return Arrays.asList(client.indices().get(request, requestOptions).getIndices());
+	}
+
 	/**
 	 * Checks whether a certain index exists.
 	 *
@@ -610,6 +786,17 @@ public abstract class ElasticsearchScrollingManager<T> {
 		return client.indices().exists(request, requestOptions);
 	}
 
+	/**
+	 * Makes all stored elements searchable.
+	 *
+	 * @param aid
+	 * @param tailoring
+	 * @throws IOException
+	 */
+	protected void refreshIndex(AppId aid, List<String> tailoring) throws IOException {
+		client.indices().refresh(new RefreshRequest(toIndex(aid, Session.convertTailoringToString(tailoring))), requestOptions);
+	}
+
 	protected void initIndex(String index) throws IOException {
 		if (indexExists(index)) {
 			return;
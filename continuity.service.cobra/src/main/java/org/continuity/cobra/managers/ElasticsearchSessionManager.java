@@ -1,6 +1,7 @@
 package org.continuity.cobra.managers;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
@@ -9,16 +10,18 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
+import org.apache.commons.lang3.tuple.Pair;
 import org.continuity.api.entities.artifact.session.Session;
 import org.continuity.api.entities.artifact.session.SessionView;
+import org.continuity.cobra.entities.Watermark;
+import org.continuity.cobra.entities.WatermarkCheck;
 import org.continuity.idpa.AppId;
 import org.continuity.idpa.VersionOrTimestamp;
 import org.elasticsearch.ElasticsearchStatusException;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
-import org.elasticsearch.client.HttpAsyncResponseConsumerFactory;
-import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.IdsQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
@@ -48,27 +51,34 @@ public class ElasticsearchSessionManager extends ElasticsearchScrollingManager<S
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(ElasticsearchSessionManager.class);
 
-	private static final RequestOptions REQUEST_OPTIONS;
-
 	// sessions can be larger
 	private static final int SCROLL_SIZE = DEFAULT_SCROLL_SIZE / 4;
 
 	private static final String UPDATE_SCRIPT_ID = "update-session";
 
-	static {
-		RequestOptions.Builder builder = RequestOptions.DEFAULT.toBuilder();
-		builder.setHttpAsyncResponseConsumerFactory(new HttpAsyncResponseConsumerFactory.HeapBufferedResponseConsumerFactory(Integer.MAX_VALUE));
-		REQUEST_OPTIONS = builder.build();
-	}
+	private static final String INDEX_PATTERN = "*.sessions";
 
 	private final ObjectMapper mapper;
 
 	private boolean updateScriptInitialized = false;
 
-	public ElasticsearchSessionManager(String host, ObjectMapper mapper, int bulkTimeoutSeconds) throws IOException {
-		super(host, "session", bulkTimeoutSeconds, REQUEST_OPTIONS);
+	private final WatermarkRegistry watermarks = new WatermarkRegistry();
+
+	public ElasticsearchSessionManager(ElasticsearchClient elasticsearch, ObjectMapper mapper, int bulkTimeoutSeconds) throws IOException {
+		super(elasticsearch, "session", bulkTimeoutSeconds, elasticsearch.createRequestOptions(Integer.MAX_VALUE));
 
 		this.mapper = mapper;
+
+		seedWatermarks();
+	}
+
+	private void seedWatermarks() {
+		try {
+			watermarks.seed(loadWatermarks(getIndices(INDEX_PATTERN), null));
+			LOGGER.info("Seeded the session watermarks.");
+		} catch (IOException | ElasticsearchStatusException e) {
+			LOGGER.error("Could not seed the session watermarks! Will load them on demand.", e);
+		}
 	}
 
 	/**
@@ -89,6 +99,13 @@ public class ElasticsearchSessionManager extends ElasticsearchScrollingManager<S
 		}
 
 		storeOrUpdateByScript(aid, tailoring, sessions, this::createUpdateScript, true, waitFor);
+
+		long earliest = sessions.stream().mapToLong(Session::getStartMicros).min().orElse(Long.MAX_VALUE);
+		long latest = sessions.stream().mapToLong(Session::getEndMicros).max().orElse(Long.MIN_VALUE);
+
+		if (earliest <= latest) {
+			watermarks.extend(toIndex(aid, Session.convertTailoringToString(tailoring)), new Watermark(microsToMillis(earliest), microsToMillis(latest)));
+		}
 	}
 
 	private Script createUpdateScript(Session session) {
@@ -174,6 +191,34 @@ public class ElasticsearchSessionManager extends ElasticsearchScrollingManager<S
 		return countElements(aid, tailoring, query, String.format(" with version %s and time range %s - %s", version, formatOrNull(from), formatOrNull(to)));
 	}
 
+	/**
+	 * Checks whether there are sessions overlapping any of the given ranges. All ranges are
+	 * checked with one multi-search request.
+	 *
+	 * @param aid
+	 *            The app-id.
+	 * @param version
+	 *            The version or timestamp. Can be {@code null}. In this case, it will be ignored.
+	 * @param tailoring
+	 *            The list of services to which the sessions are tailored. Use a singleton list with
+	 *            {@link AppId#SERVICE_ALL} to get untailored sessions.
+	 * @param ranges
+	 *            The ranges as pairs of start and end date. An empty list is interpreted as the
+	 *            whole time.
+	 * @return {@code true} if there is at least one session.
+	 * @throws IOException
+	 */
+	public boolean existSessionsOverlapping(AppId aid, VersionOrTimestamp version, List<String> tailoring, List<Pair<Date, Date>> ranges) throws IOException {
+		if (ranges.isEmpty()) {
+			return countSessionsOverlapping(aid, version, tailoring, null, null) > 0;
+		}
+
+		List<QueryBuilder> queries = ranges.stream().map(r -> createRangeStartQuery(version, r.getLeft(), r.getRight())).collect(Collectors.toList());
+		long[] counts = countElements(aid, tailoring, queries, true, String.format("with version %s in %d time ranges", version, ranges.size()));
+
+		return Arrays.stream(counts).anyMatch(c -> c > 0);
+	}
+
 	/**
 	 * Counts all sessions starting within a given range, grouped by the behavior group.
 	 *
@@ -210,7 +255,7 @@ public class ElasticsearchSessionManager extends ElasticsearchScrollingManager<S
 
 		SearchResponse response;
 		try {
-			response = client.search(search, RequestOptions.DEFAULT);
+			response = client.search(search, requestOptions);
 		} catch (ElasticsearchStatusException e) {
 			LOGGER.info("Could not get any elements from {} {}: {}", aid, index, e.getMessage());
 			return Collections.emptyMap();
@@ -384,7 +429,8 @@ public class ElasticsearchSessionManager extends ElasticsearchScrollingManager<S
 	}
 
 	/**
-	 * Gets the latest date occurring in the stored sessions.
+	 * Gets the latest date occurring in the stored sessions. Without a version, the date is
+	 * taken from the watermarks tracked on write.
 	 *
 	 * @param aid
 	 *            The app-id.
@@ -398,38 +444,13 @@ public class ElasticsearchSessionManager extends ElasticsearchScrollingManager<S
 	 * @throws IOException
 	 */
 	public Date getLatestDate(AppId aid, VersionOrTimestamp version, List<String> tailoring) throws IOException {
-		String index = toIndex(aid, Session.convertTailoringToString(tailoring));
-
-		if (!indexExists(index)) {
-			return new Date(0);
-		}
-
-		SearchSourceBuilder source = new SearchSourceBuilder();
-
-		if (version != null) {
-			source.query(QueryBuilders.termQuery("version", Session.convertTailoringToString(tailoring)));
-		}
-
-		source.aggregation(AggregationBuilders.max("max_timestamp").field("end-micros").missing(0));
-
-		SearchRequest search = new SearchRequest(index).source(source);
-
-		SearchResponse response;
-		try {
-			response = client.search(search, RequestOptions.DEFAULT);
-		} catch (ElasticsearchStatusException e) {
-			LOGGER.info("Could not get any elements from {} {}: {}", aid, index, e.getMessage());
-			return new Date(0);
-		}
-
-		ParsedMax max = response.getAggregations().get("max_timestamp");
-		double micros = max.getValue();
-
-		return new Date(Math.round(micros / 1000));
+		Watermark watermark = getWatermark(aid, version, tailoring);
+		return watermark.isEmpty() ? new Date(0) : new Date(watermark.getLatest());
 	}
 
 	/**
-	 * Gets the earliest date occurring in the stored sessions.
+	 * Gets the earliest date occurring in the stored sessions. Without a version, the date is
+	 * taken from the watermarks tracked on write.
 	 *
 	 * @param aid
 	 *            The app-id.
@@ -443,34 +464,83 @@ public class ElasticsearchSessionManager extends ElasticsearchScrollingManager<S
 	 * @throws IOException
 	 */
 	public Date getEarliestDate(AppId aid, VersionOrTimestamp version, List<String> tailoring) throws IOException {
+		Watermark watermark = getWatermark(aid, version, tailoring);
+		return watermark.isEmpty() ? new Date(Long.MAX_VALUE) : new Date(watermark.getEarliest());
+	}
+
+	/**
+	 * Compares the tracked watermark of the sessions with the one calculated by Elasticsearch and
+	 * replaces it.
+	 *
+	 * @param aid
+	 *            The app-id.
+	 * @param tailoring
+	 *            The list of services to which the sessions are tailored.
+	 * @return The result of the comparison.
+	 * @throws IOException
+	 */
+	public WatermarkCheck checkWatermark(AppId aid, List<String> tailoring) throws IOException {
+		String index = toIndex(aid, Session.convertTailoringToString(tailoring));
+		WatermarkCheck check = watermarks.check(index, loadWatermark(index, null));
+
+		if (check.isConsistent()) {
+			LOGGER.info("The session watermark of {} is consistent: {}", index, check.getActual());
+		} else {
+			LOGGER.warn("The session watermark of {} was inconsistent and has been corrected: {}", index, check);
+		}
+
+		return check;
+	}
+
+	private Watermark getWatermark(AppId aid, VersionOrTimestamp version, List<String> tailoring) throws IOException {
 		String index = toIndex(aid, Session.convertTailoringToString(tailoring));
 
+		if (version == null) {
+			return watermarks.get(index, () -> loadWatermark(index, null));
+		} else {
+			return loadWatermark(index, QueryBuilders.termQuery("version", Session.convertTailoringToString(tailoring)));
+		}
+	}
+
+	private Watermark loadWatermark(String index, QueryBuilder query) throws IOException {
 		if (!indexExists(index)) {
-			return new Date(Long.MAX_VALUE);
+			return Watermark.EMPTY;
 		}
 
-		SearchSourceBuilder source = new SearchSourceBuilder();
+		return loadWatermarks(Collections.singletonList(index), query).getOrDefault(index, Watermark.EMPTY);
+	}
 
-		if (version != null) {
-			source.query(QueryBuilders.termQuery("version", Session.convertTailoringToString(tailoring)));
+	/**
+	 * Calculates the watermarks of the passed indices with min and max aggregations.
+	 */
+	private Map<String, Watermark> loadWatermarks(List<String> indices, QueryBuilder query) throws IOException {
+		SearchSourceBuilder source = new SearchSourceBuilder().size(0);
+
+		if (query != null) {
+			source.query(query);
 		}
 
-		source.aggregation(AggregationBuilders.min("min_timestamp").field("start-micros").missing(0));
+		source.aggregation(AggregationBuilders.min("min_timestamp").field("start-micros"));
+		source.aggregation(AggregationBuilders.max("max_timestamp").field("end-micros"));
 
-		SearchRequest search = new SearchRequest(index).source(source);
+		Map<String, Watermark> loaded = new HashMap<>();
 
-		SearchResponse response;
-		try {
-			response = client.search(search, RequestOptions.DEFAULT);
-		} catch (ElasticsearchStatusException e) {
-			LOGGER.info("Could not get any elements from {} {}: {}", aid, index, e.getMessage());
-			return new Date(Long.MAX_VALUE);
+		for (Map.Entry<String, SearchResponse> entry : searchEach(indices, source, "for the session watermarks").entrySet()) {
+			ParsedMin min = entry.getValue().getAggregations().get("min_timestamp");
+			ParsedMax max = entry.getValue().getAggregations().get("max_timestamp");
+
+			if (Double.isFinite(min.getValue()) && Double.isFinite(max.getValue())) {
+				loaded.put(entry.getKey(), new Watermark(Math.round(min.getValue() / 1000), Math.round(max.getValue() / 1000)));
+			} else {
+				loaded.put(entry.getKey(), Watermark.EMPTY);
+			}
 		}
 
-		ParsedMin min = response.getAggregations().get("min_timestamp");
-		double micros = min.getValue();
+		return loaded;
+	}
 
-		return new Date(Math.round(micros / 1000));
+	private long microsToMillis(long micros) {
+		return Math.round(micros / 1000D);
 	}
 
 	@Override
@@ -0,0 +1,148 @@
+package org.continuity.cobra.managers;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * Latency and byte counters of the requests to Elasticsearch, grouped by operation (e.g.,
+ * {@code bulk} or {@code search}).
+ *
+ * @author Henning Schulz
+ *
+ */
+public class ElasticsearchStatistics {
+
+	private final ConcurrentMap<String, OperationStatistics> operations = new ConcurrentHashMap<>();
+
+	/**
+	 * Records a finished request.
+	 *
+	 * @param operation
+	 *            The operation, e.g., {@code bulk}.
+	 * @param latencyNanos
+	 *            The time from sending the request until the response has been received.
+	 * @param bytesReceived
+	 *            The number of bytes of the (potentially compressed) response body.
+	 */
+	public void recordResponse(String operation, long latencyNanos, long bytesReceived) {
+		OperationStatistics stats = get(operation);
+		stats.count.increment();
+		stats.totalNanos.add(latencyNanos);
+		stats.maxNanos.accumulate(latencyNanos);
+		stats.bytesReceived.add(bytesReceived);
+	}
+
+	/**
+	 * Records a sent request body.
+	 *
+	 * @param operation
+	 *            The operation, e.g., {@code bulk}.
+	 * @param bytesSent
+	 *            The number of bytes of the (potentially compressed) request body.
+	 */
+	public void recordRequest(String operation, long bytesSent) {
+		get(operation).bytesSent.add(bytesSent);
+	}
+
+	/**
+	 * Records the size of an uncompressed request body that has been compressed before sending.
+	 *
+	 * @param operation
+	 *            The operation, e.g., {@code bulk}.
+	 * @param bytes
+	 *            The uncompressed number of bytes.
+	 */
+	public void recordUncompressed(String operation, long bytes) {
+		get(operation).uncompressedBytesSent.add(bytes);
+	}
+
+	/**
+	 * Gets the statistics of one operation.
+	 *
+	 * @param operation
+	 *            The operation, e.g., {@code bulk}.
+	 * @return The statistics. Will be created if not present.
+	 */
+	public OperationStatistics get(String operation) {
+		return operations.computeIfAbsent(operation, o -> new OperationStatistics());
+	}
+
+	/**
+	 * Returns the statistics of all operations.
+	 *
+	 * @return The statistics per operation, sorted by the operation names.
+	 */
+	public Map<String, OperationStatistics> getAll() {
+		return new TreeMap<>(operations);
+	}
+
+	@Override
+	public String toString() {
+		return getAll().toString();
+	}
+
+	@JsonPropertyOrder({ "count", "mean-latency-ms", "max-latency-ms", "bytes-sent", "uncompressed-bytes-sent", "bytes-received" })
+	public static class OperationStatistics {
+
+		private final LongAdder count = new LongAdder();
+
+		private final LongAdder totalNanos = new LongAdder();
+
+		private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+		private final LongAdder bytesSent = new LongAdder();
+
+		private final LongAdder uncompressedBytesSent = new LongAdder();
+
+		private final LongAdder bytesReceived = new LongAdder();
+
+		public long getCount() {
+			return count.sum();
+		}
+
+		@JsonProperty("mean-latency-ms")
+		public double getMeanLatencyMillis() {
+			long num = count.sum();
+			return num == 0 ? 0 : (totalNanos.sum() / (double) num) / TimeUnit.MILLISECONDS.toNanos(1);
+		}
+
+		@JsonProperty("max-latency-ms")
+		public double getMaxLatencyMillis() {
+			return maxNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+		}
+
+		@JsonProperty("bytes-sent")
+		public long getBytesSent() {
+			return bytesSent.sum();
+		}
+
+		/**
+		 * Returns the number of bytes that have been compressed before sending. Only covers the
+		 * compressed requests.
+		 */
+		@JsonProperty("uncompressed-bytes-sent")
+		public long getUncompressedBytesSent() {
+			return uncompressedBytesSent.sum();
+		}
+
+		@JsonProperty("bytes-received")
+		public long getBytesReceived() {
+			return bytesReceived.sum();
+		}
+
+		@Override
+		public String toString() {
+			return String.format("{count=%d, mean=%.1f ms, max=%.1f ms, sent=%d B, received=%d B}", getCount(), getMeanLatencyMillis(), getMaxLatencyMillis(), getBytesSent(), getBytesReceived());
+		}
+
+	}
+
+}
@@ -1,15 +1,16 @@
 package org.continuity.cobra.managers;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
+import org.apache.commons.lang3.tuple.Pair;
 import org.continuity.cobra.entities.TraceRecord;
 import org.continuity.idpa.AppId;
 import org.continuity.idpa.VersionOrTimestamp;
-import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
@@ -35,8 +36,8 @@ public class ElasticsearchTraceManager extends ElasticsearchScrollingManager<Tra
 
 	private final ObjectMapper mapper;
 
-	public ElasticsearchTraceManager(String host, ObjectMapper mapper, int bulkTimeoutSeconds) throws IOException {
-		super(host, "trace", bulkTimeoutSeconds);
+	public ElasticsearchTraceManager(ElasticsearchClient elasticsearch, ObjectMapper mapper, int bulkTimeoutSeconds) throws IOException {
+		super(elasticsearch, "trace", bulkTimeoutSeconds);
 		this.mapper = mapper;
 	}
 
@@ -133,6 +134,31 @@ public class ElasticsearchTraceManager extends ElasticsearchScrollingManager<Tra
 		return countElements(aid, query, String.format("with version %s, and time range %s - %s", version, formatOrNull(from), formatOrNull(to)));
 	}
 
+	/**
+	 * Counts all traces within the given ranges. All ranges are counted with one multi-search
+	 * request.
+	 *
+	 * @param aid
+	 *            The app-id.
+	 * @param version
+	 *            The version or timestamp. Can be {@code null}. In this case, it will be ignored.
+	 * @param ranges
+	 *            The ranges as pairs of start and end date. An empty list is interpreted as the
+	 *            whole time.
+	 * @return The sum of the numbers of traces in the ranges.
+	 * @throws IOException
+	 */
+	public long countTraces(AppId aid, VersionOrTimestamp version, List<Pair<Date, Date>> ranges) throws IOException {
+		if (ranges.isEmpty()) {
+			return countTraces(aid, version, null, null);
+		}
+
+		List<QueryBuilder> queries = ranges.stream().map(r -> createRangeQuery(version, r.getLeft(), r.getRight())).collect(Collectors.toList());
+		long[] counts = countElements(aid, null, queries, false, String.format("with version %s in %d time ranges", version, ranges.size()));
+
+		return Arrays.stream(counts).sum();
+	}
+
 	private QueryBuilder createRangeQuery(VersionOrTimestamp version, Date from, Date to) {
 		BoolQueryBuilder query = QueryBuilders.boolQuery();
 
@@ -206,7 +232,7 @@ public class ElasticsearchTraceManager extends ElasticsearchScrollingManager<Tra
 
 		DeleteByQueryRequest delete = new DeleteByQueryRequest(index).setQuery(createRangeQuery(null, null, before));
 
-		BulkByScrollResponse response = client.deleteByQuery(delete, RequestOptions.DEFAULT);
+		BulkByScrollResponse response = client.deleteByQuery(delete, requestOptions);
 
 		LOGGER.info("The delete request to {} took {} and resulted in status {}.", index, response.getTook(), response.getStatus());
 	}
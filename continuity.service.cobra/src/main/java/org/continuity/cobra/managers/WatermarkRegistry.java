@@ -0,0 +1,143 @@
+package org.continuity.cobra.managers;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.continuity.cobra.entities.Watermark;
+import org.continuity.cobra.entities.WatermarkCheck;
+
+/**
+ * Tracks the earliest and latest timestamps of the data stored per index, i.e., per app-id and
+ * tailoring. The watermarks are seeded from Elasticsearch once and extended on each write, so
+ * that the min and max aggregations are not required on every access. <br>
+ *
+ * An index that is not known after seeding is considered to be empty. If seeding failed, the
+ * watermark of an index is loaded from Elasticsearch on first access and merged with the writes
+ * that happened before.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class WatermarkRegistry {
+
+	private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+	private volatile boolean seeded = false;
+
+	/**
+	 * Seeds the registry with the watermarks calculated by Elasticsearch. Watermarks extended
+	 * before are merged.
+	 *
+	 * @param watermarks
+	 *            The watermarks per index. Needs to contain all indices holding data.
+	 */
+	public void seed(Map<String, Watermark> watermarks) {
+		watermarks.forEach((index, watermark) -> entries.merge(index, new Entry(watermark, true), Entry::merge));
+		entries.replaceAll((index, entry) -> new Entry(entry.watermark, true));
+		seeded = true;
+	}
+
+	public boolean isSeeded() {
+		return seeded;
+	}
+
+	/**
+	 * Gets the watermark of an index.
+	 *
+	 * @param index
+	 *            The index.
+	 * @param loader
+	 *            Loads the watermark from Elasticsearch if it is not known.
+	 * @return The watermark. Will be {@link Watermark#EMPTY} if there is no data.
+	 * @throws IOException
+	 *             If loading the watermark fails.
+	 */
+	public Watermark get(String index, Loader loader) throws IOException {
+		Entry entry = entries.get(index);
+
+		if ((entry != null) && entry.complete) {
+			return entry.watermark;
+		} else if ((entry == null) && seeded) {
+			return Watermark.EMPTY;
+		}
+
+		Watermark loaded = loader.load();
+		return entries.merge(index, new Entry(loaded, true), Entry::merge).watermark;
+	}
+
+	/**
+	 * Extends the watermark of an index by newly written data.
+	 *
+	 * @param index
+	 *            The index.
+	 * @param written
+	 *            The watermark of the written data.
+	 */
+	public void extend(String index, Watermark written) {
+		if (!written.isEmpty()) {
+			entries.compute(index, (i, entry) -> entry == null ? new Entry(written, seeded) : new Entry(entry.watermark.union(written), entry.complete));
+		}
+	}
+
+	/**
+	 * Invalidates the watermark of an index, e.g., because data has been deleted. The watermark
+	 * will be loaded from Elasticsearch on the next access.
+	 *
+	 * @param index
+	 *            The index.
+	 */
+	public void invalidate(String index) {
+		entries.put(index, new Entry(Watermark.EMPTY, false));
+	}
+
+	/**
+	 * Compares the watermark of an index with the one calculated by Elasticsearch and replaces it.
+	 *
+	 * @param index
+	 *            The index.
+	 * @param actual
+	 *            The watermark calculated by Elasticsearch.
+	 * @return The result of the comparison.
+	 */
+	public WatermarkCheck check(String index, Watermark actual) {
+		Entry previous = entries.put(index, new Entry(actual, true));
+		return new WatermarkCheck(index, ((previous == null) || !previous.complete) ? null : previous.watermark, actual);
+	}
+
+	/**
+	 * Loads a watermark from Elasticsearch.
+	 *
+	 * @author Henning Schulz
+	 *
+	 */
+	@FunctionalInterface
+	public static interface Loader {
+
+		Watermark load() throws IOException;
+
+	}
+
+	private static class Entry {
+
+		private final Watermark watermark;
+
+		/**
+		 * Whether the watermark covers all data of the index or only the data written since
+		 * startup.
+		 */
+		private final boolean complete;
+
+		private Entry(Watermark watermark, boolean complete) {
+			this.watermark = watermark;
+			this.complete = complete;
+		}
+
+		private Entry merge(Entry other) {
+			return new Entry(watermark.union(other.watermark), complete || other.complete);
+		}
+
+	}
+
+}
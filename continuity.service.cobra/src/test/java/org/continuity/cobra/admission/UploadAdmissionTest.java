@@ -0,0 +1,116 @@
+package org.continuity.cobra.admission;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.continuity.cobra.admission.UploadAdmission.Decision;
+import org.continuity.idpa.AppId;
+import org.junit.Before;
+import org.junit.Test;
+
+public class UploadAdmissionTest {
+
+	private static final AppId NOISY = AppId.fromString("noisy");
+
+	private static final AppId QUIET = AppId.fromString("quiet");
+
+	private AtomicLong now;
+
+	private AtomicInteger brokerDepth;
+
+	private AtomicInteger brokerCalls;
+
+	private UploadAdmission admission;
+
+	@Before
+	public void setup() {
+		now = new AtomicLong(0);
+		brokerDepth = new AtomicInteger(0);
+		brokerCalls = new AtomicInteger(0);
+
+		admission = new UploadAdmission(10, 4, 30000, () -> {
+			brokerCalls.incrementAndGet();
+			return brokerDepth.get();
+		}, now::get);
+	}
+
+	@Test
+	public void testNoisyAppIdCannotStarveOthers() {
+		int accepted = 0;
+
+		for (int i = 0; i < 100; i++) {
+			if (admission.admit(NOISY.withService("a")).isAdmitted()) {
+				admission.enqueued(NOISY.withService("a"));
+				accepted++;
+			}
+		}
+
+		assertThat(accepted).isEqualTo(4);
+		assertThat(admission.getQueued(NOISY)).isEqualTo(4);
+		assertThat(admission.admit(QUIET).isAdmitted()).isTrue();
+
+		Decision rejected = admission.admit(NOISY);
+		assertThat(rejected.isAdmitted()).isFalse();
+		assertThat(rejected.getRetryAfterSeconds()).isEqualTo(1);
+
+		admission.processed(NOISY, 1000);
+		assertThat(admission.admit(NOISY).isAdmitted()).isTrue();
+	}
+
+	@Test
+	public void testGlobalLimitAndRetryAfterFollowProcessingTime() {
+		for (int i = 0; i < 10; i++) {
+			AppId aid = AppId.fromString("app" + i);
+			assertThat(admission.admit(aid).isAdmitted()).isTrue();
+			admission.enqueued(aid);
+		}
+
+		for (int i = 0; i < 50; i++) {
+			admission.processed(null, 20000);
+			admission.enqueued(AppId.fromString("app" + (i % 10)));
+		}
+
+		Decision decision = admission.admit(QUIET);
+
+		assertThat(decision.isAdmitted()).isFalse();
+		assertThat(decision.getRetryAfterSeconds()).isBetween(19L, 20L);
+		assertThat(admission.getProcessingRate()).isCloseTo(0.05, within(0.001));
+	}
+
+	@Test
+	public void testBrokerIsOnlyAskedOncePerInterval() {
+		for (int i = 0; i < 1000; i++) {
+			admission.admit(QUIET);
+		}
+
+		assertThat(brokerCalls).hasValue(1);
+
+		brokerDepth.set(10);
+		now.set(29999);
+		assertThat(admission.admit(QUIET).isAdmitted()).isTrue();
+
+		now.set(30000);
+		assertThat(admission.admit(QUIET).isAdmitted()).isFalse();
+		assertThat(brokerCalls).hasValue(2);
+		assertThat(admission.getQueued()).isEqualTo(10);
+	}
+
+	@Test
+	public void testSyncCapsCountsPerAppId() {
+		assertThat(admission.admit(QUIET).isAdmitted()).isTrue();
+
+		for (int i = 0; i < 4; i++) {
+			admission.enqueued(NOISY);
+		}
+
+		assertThat(admission.admit(NOISY).isAdmitted()).isFalse();
+
+		now.set(60000);
+		assertThat(admission.admit(NOISY).isAdmitted()).isTrue();
+		assertThat(admission.getQueued(NOISY)).isEqualTo(0);
+	}
+
+}
@@ -0,0 +1,102 @@
+package org.continuity.cobra.amqp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.continuity.cobra.config.RabbitMqConfig;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.listener.AbstractMessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.ListenerContainerIdleEvent;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistrar;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.messaging.handler.annotation.support.DefaultMessageHandlerMethodFactory;
+import org.springframework.util.ReflectionUtils;
+
+public class TraceShardListenersTest {
+
+	private static final int NUM_SHARDS = 4;
+
+	private TraceShards shards;
+
+	private List<String> started;
+
+	private TraceShardListeners listeners;
+
+	private RabbitListenerEndpointRegistry registry;
+
+	@Before
+	public void setup() {
+		shards = new TraceShards(NUM_SHARDS);
+		started = new ArrayList<>();
+		listeners = new TraceShardListeners(shards, started::add);
+
+		registry = new RabbitListenerEndpointRegistry();
+		RabbitListenerEndpointRegistrar registrar = new RabbitListenerEndpointRegistrar();
+		registrar.setEndpointRegistry(registry);
+
+		DefaultMessageHandlerMethodFactory handlerMethodFactory = new DefaultMessageHandlerMethodFactory();
+		handlerMethodFactory.afterPropertiesSet();
+
+		Method method = ReflectionUtils.findMethod(TestHandler.class, "process", Message.class);
+		SimpleRabbitListenerContainerFactory idleEventFactory = createFactory();
+		idleEventFactory.setIdleEventInterval(1000L);
+
+		listeners.registerListeners(registrar, new TestHandler(), method, handlerMethodFactory, createFactory(), idleEventFactory);
+		registrar.afterPropertiesSet();
+	}
+
+	@Test
+	public void testOneListenerPerQueue() {
+		List<String> queueNames = new ArrayList<>(shards.getQueueNames());
+		queueNames.add(RabbitMqConfig.TASK_PROCESS_TRACES_QUEUE_NAME);
+
+		assertThat(registry.getListenerContainerIds()).containsExactlyInAnyOrderElementsOf(queueNames);
+
+		for (String queueName : queueNames) {
+			AbstractMessageListenerContainer container = (AbstractMessageListenerContainer) registry.getListenerContainer(queueName);
+			assertThat(container.getQueueNames()).containsExactly(queueName);
+		}
+	}
+
+	@Test
+	public void testShardListenersStartAfterOldQueueIsDrained() {
+		for (String queueName : shards.getQueueNames()) {
+			assertThat(registry.getListenerContainer(queueName).isAutoStartup()).as(queueName).isFalse();
+		}
+
+		assertThat(registry.getListenerContainer(RabbitMqConfig.TASK_PROCESS_TRACES_QUEUE_NAME).isAutoStartup()).isTrue();
+
+		listeners.onListenerIdle(new ListenerContainerIdleEvent(this, 1000, shards.queueNameOf(0), shards.queueNameOf(0)));
+		assertThat(listeners.areShardsStarted()).isFalse();
+		assertThat(started).isEmpty();
+
+		listeners.onListenerIdle(new ListenerContainerIdleEvent(this, 1000, RabbitMqConfig.TASK_PROCESS_TRACES_QUEUE_NAME, RabbitMqConfig.TASK_PROCESS_TRACES_QUEUE_NAME));
+		assertThat(listeners.areShardsStarted()).isTrue();
+		assertThat(started).containsExactlyElementsOf(shards.getQueueNames());
+
+		listeners.onListenerIdle(new ListenerContainerIdleEvent(this, 2000, RabbitMqConfig.TASK_PROCESS_TRACES_QUEUE_NAME, RabbitMqConfig.TASK_PROCESS_TRACES_QUEUE_NAME));
+		assertThat(started).hasSize(NUM_SHARDS);
+	}
+
+	private SimpleRabbitListenerContainerFactory createFactory() {
+		SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+		factory.setConnectionFactory(new CachingConnectionFactory("localhost"));
+		factory.setPrefetchCount(1);
+		return factory;
+	}
+
+	public static class TestHandler {
+
+		public void process(Message message) {
+		}
+
+	}
+
+}
@@ -0,0 +1,42 @@
+package org.continuity.cobra.amqp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.continuity.api.amqp.AmqpApi;
+import org.continuity.api.amqp.RoutingKeyFormatter.ShardAndAppIdAndVersion;
+import org.continuity.idpa.AppId;
+import org.continuity.idpa.VersionOrTimestamp;
+import org.junit.Test;
+
+public class TraceShardsTest {
+
+	private static final int NUM_SHARDS = 4;
+
+	@Test
+	public void testRoutingKeyRoundTrip() throws Exception {
+		TraceShards shards = new TraceShards(NUM_SHARDS);
+		ShardAndAppIdAndVersion formatter = AmqpApi.Cobra.TASK_PROCESS_TRACES.formatRoutingKey();
+
+		AppId aid = AppId.fromString("my.app");
+		VersionOrTimestamp version = VersionOrTimestamp.fromString("1.2.3");
+		int shard = shards.shardOf(aid.withService("frontend"));
+
+		String routingKey = formatter.of(shard, aid, version);
+		Pair<AppId, VersionOrTimestamp> parsed = formatter.from(routingKey);
+
+		assertThat(shard).isEqualTo(shards.shardOf(aid)).isBetween(0, NUM_SHARDS - 1);
+		assertThat(routingKey).startsWith(shard + ".");
+		assertThat(parsed.getLeft()).isEqualTo(aid);
+		assertThat(parsed.getRight()).isEqualTo(version);
+	}
+
+	@Test
+	public void testQueuesAreDistinctPerShard() {
+		TraceShards shards = new TraceShards(NUM_SHARDS);
+
+		assertThat(shards.getQueueNames()).hasSize(NUM_SHARDS).doesNotHaveDuplicates();
+		assertThat(shards.getQueueNames().get(2)).isEqualTo(shards.queueNameOf(2));
+	}
+
+}
@@ -0,0 +1,95 @@
+package org.continuity.cobra.converter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.continuity.cobra.entities.CsvRow;
+import org.junit.After;
+import org.junit.Test;
+
+public class CsvRowParserTest {
+
+	private static final String HEADER = "session-id,start,end,name,domain,port,path,method,encoding,protocol,parameters,headers\n";
+
+	private static final String MESSY_CSV = HEADER
+			+ "abc,2019-01-01T10-00-00-000Z,2019-01-01T10-00-00-250Z,getCart,carts,80,/carts/42,GET,,HTTP/1.1,x=1,\n"
+			+ "abc,2019-01-01T10-00-01-000Z,2019-01-01T10-00-01-100Z,login,frontend,80,/login,POST,,HTTP/1.1,\"user=a,b&pw=c\",\n"
+			+ "def,2019-01-01T10-00-02-000Z,2019-01-01T10-00-02-100Z,\"multi\nline\",frontend,80,/,GET,,HTTP/1.1,,\"Accept: */*\nHost: x\"\n"
+			+ "def,2019-01-01T10-00-03-000Z,2019-01-01T10-00-03-100Z,\"say \"\"hi\"\"\",frontend,80,/,GET,,HTTP/1.1,,\n"
+			+ "ghi,2019-01-01T10-00-04-000Z,2019-01-01T10-00-04-100Z,missing,frontend\n"
+			+ "\n"
+			+ "ghi,2019-01-01T10-00-05-000Z,2019-01-01T10-00-05-100Z,ab\"c,frontend,80,/a\"b,GET,utf-8,HTTP/1.1,,\r\n"
+			+ "jkl,2019-01-01T10-00-06-000Z,2019-01-01T10-00-06-100Z, \"padded, quoted\" ,frontend,80,/,GET,,HTTP/1.1,,\"\"\n"
+			+ "jkl,2019-01-01T10-00-07-000Z,2019-01-01T10-00-07-100Z,\"\"\"\n\"\"\",frontend,80,/,GET,,HTTP/1.1,,\n"
+			+ "mno,2019-01-01T10-00-08-000Z,2019-01-01T10-00-08-100Z,last,frontend,80,/,GET,,HTTP/1.1";
+
+	private CsvRowParser parser;
+
+	@After
+	public void close() {
+		if (parser != null) {
+			parser.close();
+		}
+	}
+
+	@Test
+	public void testMessyCsvIsParsedLikeBefore() {
+		List<CsvRow> expected = CsvRow.listFromString(MESSY_CSV);
+
+		assertThat(expected).hasSize(9);
+
+		for (int segmentSize = 1; segmentSize <= MESSY_CSV.length(); segmentSize += 7) {
+			parser = new CsvRowParser(3, segmentSize);
+			assertThat(parser.parse(MESSY_CSV)).as("segment size %d", segmentSize).isEqualTo(expected);
+			parser.close();
+		}
+	}
+
+	@Test
+	public void testSemicolonSeparatedCsv() {
+		String csv = MESSY_CSV.replace(',', ';');
+		List<CsvRow> expected = CsvRow.listFromString(csv);
+
+		parser = new CsvRowParser(2, 10);
+
+		assertThat(expected).isNotEmpty();
+		assertThat(parser.parse(csv)).isEqualTo(expected);
+		assertThat(expected.get(0).getName()).isEqualTo("getCart");
+	}
+
+	@Test
+	public void testChunksArePassedInOrder() {
+		StringBuilder csv = new StringBuilder(HEADER);
+
+		for (int i = 0; i < 1000; i++) {
+			csv.append("s").append(i).append(",2019-01-01T10-00-00-000Z,2019-01-01T10-00-00-250Z,e").append(i).append(",host,80,/,GET,,HTTP/1.1,,\n");
+		}
+
+		parser = new CsvRowParser(4, 1000);
+
+		List<List<CsvRow>> chunks = new ArrayList<>();
+		parser.parse(csv.toString(), chunks::add);
+
+		assertThat(chunks.size()).isGreaterThan(4);
+
+		List<CsvRow> rows = new ArrayList<>();
+		chunks.forEach(rows::addAll);
+
+		assertThat(rows).hasSize(1000);
+
+		for (int i = 0; i < 1000; i++) {
+			assertThat(rows.get(i).getSessionId()).isEqualTo("s" + i);
+		}
+	}
+
+	@Test
+	public void testEmptyInput() {
+		parser = new CsvRowParser(1, 10);
+
+		assertThat(parser.parse("")).isEmpty();
+		assertThat(parser.parse(HEADER)).isEmpty();
+	}
+
+}
@@ -0,0 +1,162 @@
+package org.continuity.cobra.extractor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.continuity.api.entities.artifact.ForecastIntensityRecord;
+import org.continuity.cobra.entities.ForecastTimerange;
+import org.continuity.cobra.entities.ForecasticInput;
+import org.continuity.cobra.forecast.ForecastEngine;
+import org.continuity.idpa.AppId;
+import org.continuity.lctl.ContextValue;
+import org.continuity.lctl.WorkloadDescription;
+import org.continuity.lctl.elements.timeframe.Condition;
+import org.continuity.lctl.elements.timeframe.ConditionalTimespec;
+import org.continuity.lctl.elements.timeframe.Timerange;
+import org.continuity.lctl.timeseries.ContextRecord;
+import org.continuity.lctl.timeseries.IntensityRecord;
+import org.continuity.lctl.utils.DateUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IntensityGapFillerTest {
+
+	private static final long RESOLUTION = Duration.ofHours(1).toMillis();
+
+	private static final long START = 1546300800000L + (3 * RESOLUTION); // 2019-01-01T03:00:00Z
+
+	private static final int NUM_OBSERVED = 21 * 24;
+
+	private static final int NUM_TOTAL = NUM_OBSERVED + (3 * 24);
+
+	private static final ZoneId TIME_ZONE = ZoneId.of("UTC");
+
+	/**
+	 * The records as stored formerly: one record per bucket.
+	 */
+	private List<IntensityRecord> dense;
+
+	/**
+	 * The records as stored now: only buckets with intensities or context.
+	 */
+	private List<IntensityRecord> sparse;
+
+	@Before
+	public void setup() {
+		dense = new ArrayList<>();
+
+		for (int t = 0; t < NUM_TOTAL; t++) {
+			IntensityRecord record = new IntensityRecord(timestamp(t));
+			int hour = t % 24;
+
+			// no sessions at night and on the weekly idle day
+			if ((t < NUM_OBSERVED) && (hour >= 6) && (hour < 22) && (((t / 24) % 7) != 5)) {
+				Map<String, Long> intensity = new HashMap<>();
+				intensity.put("a", 10 + (long) (20 * Math.sin((Math.PI * (hour - 6)) / 16)));
+				intensity.put("b", (t % 3 == 0) ? 0L : 5L);
+				record.setIntensity(intensity);
+			}
+
+			// a holiday every two weeks, known also in the future
+			if (((t / 24) % 14) == 2) {
+				ContextRecord context = new ContextRecord();
+				context.setBoolean(Collections.singleton("holiday"));
+				record.setContext(context);
+			}
+
+			dense.add(record);
+		}
+
+		sparse = dense.stream().filter(r -> (r.getIntensity() != null) || (r.getContext() != null)).collect(Collectors.toList());
+
+		assertThat(sparse.size()).isLessThan((2 * dense.size()) / 3);
+	}
+
+	@Test
+	public void testReconstructsDenseRecords() {
+		long from = timestamp(50);
+		long to = timestamp(NUM_TOTAL - 1);
+
+		List<IntensityRecord> filled = new IntensityGapFiller(RESOLUTION, START).fill(inRange(sparse, from, to), from, to);
+
+		assertSame(filled, inRange(dense, from, to));
+	}
+
+	@Test
+	public void testDoesNotFillBeforeEarliestRecord() {
+		long to = timestamp(10);
+
+		List<IntensityRecord> filled = new IntensityGapFiller(RESOLUTION, START).fill(inRange(sparse, 0, to), START - (5 * RESOLUTION), to);
+
+		assertSame(filled, inRange(dense, START, to));
+	}
+
+	@Test
+	public void testDescribedIntensities() {
+		WorkloadDescription description = new WorkloadDescription();
+		Timerange range = new Timerange().setFrom(DateUtils.fromEpochMillis(timestamp(7 * 24), TIME_ZONE)).setTo(DateUtils.fromEpochMillis(timestamp(NUM_TOTAL - 1), TIME_ZONE));
+		ConditionalTimespec noHoliday = new ConditionalTimespec(Collections.singletonMap("holiday", new Condition().setIs(new ContextValue(false))));
+		description.setTimeframe(Arrays.asList(range, noHoliday));
+
+		long from = DateUtils.toEpochMillis(description.getMinDate(), TIME_ZONE);
+		long to = DateUtils.toEpochMillis(description.getMaxDate(), TIME_ZONE);
+
+		// the stored records selected by the elasticsearch query
+		List<IntensityRecord> matched = sparse.stream().filter(r -> description.appliesTo(r, TIME_ZONE)).collect(Collectors.toList());
+		Set<Long> stored = inRange(sparse, from, to).stream().map(IntensityRecord::getTimestamp).collect(Collectors.toSet());
+
+		List<IntensityRecord> filled = new IntensityGapFiller(RESOLUTION, START).fill(matched, stored, from, to, t -> description.appliesTo(new IntensityRecord(t), TIME_ZONE));
+		List<IntensityRecord> expected = dense.stream().filter(r -> description.appliesTo(r, TIME_ZONE)).collect(Collectors.toList());
+
+		assertThat(expected).isNotEmpty();
+		assertSame(filled, expected);
+	}
+
+	@Test
+	public void testForecastsAreIdentical() {
+		long from = START;
+		long to = timestamp(NUM_TOTAL - 1);
+		List<IntensityRecord> filled = new IntensityGapFiller(RESOLUTION, START).fill(inRange(sparse, from, to), from, to);
+
+		try (ForecastEngine engine = new ForecastEngine(2)) {
+			for (String approach : Arrays.asList(ForecastEngine.SEASONAL_NAIVE, ForecastEngine.HOLT_WINTERS, ForecastEngine.LINEAR_REGRESSION)) {
+				List<ForecastIntensityRecord> before = engine.forecast(input(approach), dense);
+				List<ForecastIntensityRecord> after = engine.forecast(input(approach), filled);
+
+				assertThat(before).hasSize(3 * 24);
+				assertThat(after.stream().map(ForecastIntensityRecord::getContent).collect(Collectors.toList()))
+						.as(approach).isEqualTo(before.stream().map(ForecastIntensityRecord::getContent).collect(Collectors.toList()));
+			}
+		}
+	}
+
+	private ForecasticInput input(String approach) {
+		return new ForecasticInput().setAppId(AppId.fromString("test")).setApproach(approach).setResolution(RESOLUTION).setForecastTotal(false)
+				.setRanges(Collections.singletonList(new ForecastTimerange(timestamp(NUM_OBSERVED), timestamp(NUM_TOTAL - 1), null))).setContext(Collections.emptyList())
+				.setContextVariables(Collections.singleton("holiday"));
+	}
+
+	private long timestamp(int t) {
+		return START + (t * RESOLUTION);
+	}
+
+	private List<IntensityRecord> inRange(List<IntensityRecord> records, long from, long to) {
+		return records.stream().filter(r -> (r.getTimestamp() >= from) && (r.getTimestamp() <= to)).collect(Collectors.toList());
+	}
+
+	private void assertSame(List<IntensityRecord> actual, List<IntensityRecord> expected) {
+		assertThat(actual.stream().map(IntensityRecord::getTimestamp).collect(Collectors.toList())).isEqualTo(expected.stream().map(IntensityRecord::getTimestamp).collect(Collectors.toList()));
+		assertThat(actual.stream().map(IntensityRecord::getIntensity).collect(Collectors.toList())).isEqualTo(expected.stream().map(IntensityRecord::getIntensity).collect(Collectors.toList()));
+	}
+
+}
@@ -0,0 +1,208 @@
+package org.continuity.cobra.extractor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.continuity.cobra.entities.IntensityRollup;
+import org.continuity.cobra.entities.IntensityRollup.Aggregation;
+import org.continuity.cobra.entities.IntensityRollup.Level;
+import org.continuity.lctl.timeseries.IntensityRecord;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IntensityRollupCalculatorTest {
+
+	private static final Duration RESOLUTION = Duration.ofSeconds(30);
+
+	private static final long START = 1546300800000L; // 2019-01-01T00:00:00Z
+
+	private static final int NUM_RECORDS = 3 * 24 * 120;
+
+	private List<IntensityRecord> records;
+
+	@Before
+	public void setup() {
+		Random rand = new Random(42);
+		records = new ArrayList<>();
+
+		for (int i = 0; i < NUM_RECORDS; i++) {
+			IntensityRecord record = new IntensityRecord(START + (i * RESOLUTION.toMillis()));
+
+			// leave gaps (missing and empty records) that need to count as 0
+			if ((i % 7) == 3) {
+				continue;
+			} else if ((i % 11) != 5) {
+				Map<String, Long> intensity = new HashMap<>();
+				intensity.put("a", (long) rand.nextInt(100));
+
+				if ((i % 2) == 0) {
+					intensity.put("b", (long) rand.nextInt(10));
+				}
+
+				record.setIntensity(intensity);
+			}
+
+			records.add(record);
+		}
+	}
+
+	@Test
+	public void testLevelsAgainstRawData() {
+		for (Level level : Level.values()) {
+			List<IntensityRollup> rollups = new IntensityRollupCalculator(level, RESOLUTION).calculate(records);
+
+			long nonEmptyBuckets = records.stream().filter(r -> r.getIntensity() != null).mapToLong(r -> level.floor(r.getTimestamp())).distinct().count();
+			assertThat(rollups).hasSize((int) nonEmptyBuckets);
+
+			for (IntensityRollup rollup : rollups) {
+				assertMatchesRawData(rollup, level.getDuration());
+			}
+		}
+	}
+
+	@Test
+	public void testCoarsenEqualsDirectCalculation() {
+		Duration sixHours = Duration.ofHours(6);
+		IntensityRollupCalculator calculator = new IntensityRollupCalculator(sixHours, RESOLUTION);
+
+		List<IntensityRollup> hourly = new IntensityRollupCalculator(Level.HOUR, RESOLUTION).calculate(records);
+		List<IntensityRollup> coarsened = calculator.coarsen(hourly);
+		List<IntensityRollup> direct = calculator.calculate(records);
+
+		assertThat(coarsened).hasSameSizeAs(direct);
+
+		for (int i = 0; i < direct.size(); i++) {
+			assertThat(coarsened.get(i).getTimestamp()).isEqualTo(direct.get(i).getTimestamp());
+			assertThat(coarsened.get(i).getSum()).isEqualTo(direct.get(i).getSum());
+			assertThat(coarsened.get(i).getMax()).isEqualTo(direct.get(i).getMax());
+
+			for (String group : direct.get(i).getMean().keySet()) {
+				assertThat(coarsened.get(i).getMean().get(group)).isCloseTo(direct.get(i).getMean().get(group), within(1e-9));
+			}
+
+			assertMatchesRawData(direct.get(i), sixHours);
+		}
+	}
+
+	@Test
+	public void testIncrementsEqualRecalculation() {
+		Map<Long, Map<String, Long>> previous = new HashMap<>();
+		List<IntensityRecord> written = new ArrayList<>();
+		List<IntensityRecord> updated = new ArrayList<>();
+
+		for (int i = 0; i < records.size(); i++) {
+			IntensityRecord record = records.get(i);
+
+			if (record.getIntensity() != null) {
+				previous.put(record.getTimestamp(), record.getIntensity());
+			}
+
+			if ((i % 3) == 0) {
+				// rewrite with higher intensities and an additional group
+				Map<String, Long> intensity = new HashMap<>();
+				intensity.put("a", 100L + i);
+				intensity.put("c", 1L);
+
+				if ((record.getIntensity() != null) && record.getIntensity().containsKey("b")) {
+					intensity.put("b", record.getIntensity().get("b") + 1);
+				}
+
+				IntensityRecord rewritten = new IntensityRecord(record.getTimestamp());
+				rewritten.setIntensity(intensity);
+				written.add(rewritten);
+				updated.add(rewritten);
+			} else {
+				updated.add(record);
+			}
+		}
+
+		for (Level level : Level.values()) {
+			IntensityRollupCalculator calculator = new IntensityRollupCalculator(level, RESOLUTION);
+
+			Map<Long, IntensityRollup> rollups = new HashMap<>();
+			calculator.calculate(records).forEach(r -> rollups.put(r.getTimestamp(), r));
+
+			for (IntensityRollup increment : calculator.calculateIncrements(written, previous)) {
+				IntensityRollup rollup = rollups.computeIfAbsent(increment.getTimestamp(), IntensityRollup::new);
+				increment.getSum().forEach((group, sum) -> rollup.getSum().merge(group, sum, Double::sum));
+				increment.getMean().forEach((group, mean) -> rollup.getMean().merge(group, mean, Double::sum));
+				increment.getMax().forEach((group, max) -> rollup.getMax().merge(group, max, Math::max));
+			}
+
+			List<IntensityRollup> expected = calculator.calculate(updated);
+			assertThat(rollups).hasSameSizeAs(expected);
+
+			for (IntensityRollup direct : expected) {
+				IntensityRollup incremental = rollups.get(direct.getTimestamp());
+
+				assertThat(incremental.getSum()).isEqualTo(direct.getSum());
+				assertThat(incremental.getMax()).isEqualTo(direct.getMax());
+
+				for (String group : direct.getMean().keySet()) {
+					assertThat(incremental.getMean().get(group)).isCloseTo(direct.getMean().get(group), within(1e-9));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testToIntensityRecord() {
+		IntensityRollup rollup = new IntensityRollup(START);
+		rollup.getSum().put("a", 120.0);
+		rollup.getMax().put("a", 7.0);
+		rollup.getMean().put("a", 1.6);
+
+		assertThat(rollup.toIntensityRecord(Aggregation.SUM).getIntensity()).containsEntry("a", 120L);
+		assertThat(rollup.toIntensityRecord(Aggregation.MAX).getIntensity()).containsEntry("a", 7L);
+		assertThat(rollup.toIntensityRecord(Aggregation.MEAN).getIntensity()).containsEntry("a", 2L);
+		assertThat(rollup.toIntensityRecord(Aggregation.MEAN).getTimestamp()).isEqualTo(START);
+	}
+
+	@Test
+	public void testLevelSelection() {
+		assertThat(Level.MINUTE.isMaintainedFor(Duration.ofMinutes(1))).isFalse();
+		assertThat(Level.HOUR.isMaintainedFor(Duration.ofMinutes(1))).isTrue();
+		assertThat(Level.HOUR.isMaintainedFor(Duration.ofMinutes(7))).isFalse();
+
+		assertThat(Level.coarsestFor(Duration.ofMinutes(1), Duration.ofDays(7))).isEqualTo(Level.DAY);
+		assertThat(Level.coarsestFor(Duration.ofMinutes(1), Duration.ofHours(6))).isEqualTo(Level.HOUR);
+		assertThat(Level.coarsestFor(Duration.ofMinutes(1), Duration.ofMinutes(90))).isNull();
+		assertThat(Level.coarsestFor(Duration.ofSeconds(30), Duration.ofMinutes(5))).isEqualTo(Level.MINUTE);
+		assertThat(Level.coarsestFor(Duration.ofHours(1), Duration.ofHours(1))).isNull();
+
+		assertThatThrownBy(() -> new IntensityRollupCalculator(Level.MINUTE, Duration.ofMinutes(1))).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new IntensityRollupCalculator(Duration.ofMinutes(90), Duration.ofMinutes(7))).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private void assertMatchesRawData(IntensityRollup rollup, Duration bucket) {
+		long steps = bucket.toMillis() / RESOLUTION.toMillis();
+		Map<String, Double> sum = new HashMap<>();
+		Map<String, Double> max = new HashMap<>();
+
+		for (IntensityRecord record : records) {
+			if ((record.getTimestamp() >= rollup.getTimestamp()) && (record.getTimestamp() < (rollup.getTimestamp() + bucket.toMillis())) && (record.getIntensity() != null)) {
+				record.getIntensity().forEach((group, value) -> {
+					sum.merge(group, value.doubleValue(), Double::sum);
+					max.merge(group, value.doubleValue(), Math::max);
+				});
+			}
+		}
+
+		assertThat(rollup.getTimestamp() % bucket.toMillis()).isEqualTo(0);
+		assertThat(rollup.getSum()).isEqualTo(sum);
+		assertThat(rollup.getMax()).isEqualTo(max);
+
+		for (Map.Entry<String, Double> entry : sum.entrySet()) {
+			assertThat(rollup.getMean().get(entry.getKey())).isCloseTo(entry.getValue() / steps, within(1e-9));
+		}
+	}
+
+}
@@ -0,0 +1,143 @@
+package org.continuity.cobra.extractor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.text.ParseException;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.continuity.api.entities.ApiFormats;
+import org.continuity.api.entities.artifact.session.SessionRequest;
+import org.continuity.cobra.converter.CsvRowToOpenXtraceConverter;
+import org.continuity.cobra.converter.CsvRowToRequestRecordConverter;
+import org.continuity.cobra.entities.CsvRow;
+import org.continuity.cobra.entities.TraceRecord;
+import org.continuity.idpa.AppId;
+import org.continuity.idpa.VersionOrTimestamp;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RequestRecordBenchmarkTest {
+
+	private static final int NUM_ROWS = 100000;
+
+	private static final int NUM_SESSIONS = 1000;
+
+	private VersionOrTimestamp version;
+
+	private RequestTailorer traceTailorer;
+
+	private RequestRecordTailorer recordTailorer;
+
+	private List<CsvRow> rows;
+
+	@Before
+	public void setup() throws NumberFormatException, ParseException {
+		assumeTrue(Boolean.getBoolean("benchmark"));
+
+		AppId aid = AppId.fromString("test");
+		version = VersionOrTimestamp.fromString("v1");
+
+		traceTailorer = new RequestTailorer(aid, version, null);
+		recordTailorer = new RequestRecordTailorer(aid, version, null);
+
+		StringBuilder csv = new StringBuilder("session-id,start,end,name,domain,port,path,method,encoding,protocol,parameters,headers\n");
+		long start = 1546336800000L;
+
+		for (int i = 0; i < NUM_ROWS; i++) {
+			csv.append("session").append(i % NUM_SESSIONS).append(",").append(ApiFormats.DATE_FORMAT.format(new Date(start + (i * 10)))).append(",")
+					.append(ApiFormats.DATE_FORMAT.format(new Date(start + (i * 10) + 7))).append(",endpoint").append(i % 20).append(",localhost,8080,/path/").append(i % 20)
+					.append(",GET,,HTTP/1.1,id=").append(i).append(",\n");
+		}
+
+		rows = CsvRow.listFromString(csv.toString());
+	}
+
+	/**
+	 * Opt-in benchmark of the time and allocated memory. Run with {@code -Dbenchmark=true}.
+	 */
+	@Test
+	public void testDirectConversionIsEquivalentAndCheaper() {
+		// warm-up
+		viaTraces(rows.subList(0, 1000));
+		direct(rows.subList(0, 1000));
+
+		Measurement<List<SessionRequest>> viaTraces = measure(() -> viaTraces(rows));
+		Measurement<List<SessionRequest>> direct = measure(() -> direct(rows));
+
+		System.out.println(String.format("Converting %d CSV rows via OPEN.xtrace: %d ms, %d MB allocated; directly: %d ms, %d MB allocated.", NUM_ROWS, viaTraces.millis,
+				viaTraces.allocatedBytes / (1024 * 1024), direct.millis, direct.allocatedBytes / (1024 * 1024)));
+
+		assertThat(direct.result).hasSameSizeAs(viaTraces.result).hasSize(NUM_ROWS);
+
+		for (int i = 0; i < NUM_ROWS; i++) {
+			SessionRequest expected = viaTraces.result.get(i);
+			SessionRequest actual = direct.result.get(i);
+
+			assertThat(actual.getId()).isEqualTo(expected.getId());
+			assertThat(actual.getTraceId()).isEqualTo(expected.getTraceId());
+			assertThat(actual.getSessionId()).isEqualTo(expected.getSessionId());
+			assertThat(actual.getEndpoint()).isEqualTo(expected.getEndpoint());
+			assertThat(actual.getStartMicros()).isEqualTo(expected.getStartMicros());
+			assertThat(actual.getEndMicros()).isEqualTo(expected.getEndMicros());
+			assertThat(actual.getExtendedInformation().getUri()).isEqualTo(expected.getExtendedInformation().getUri());
+			assertThat(actual.getExtendedInformation().getParameters()).isEqualTo(expected.getExtendedInformation().getParameters());
+		}
+
+		if (direct.allocatedBytes >= 0) {
+			assertThat(direct.allocatedBytes).isLessThan(viaTraces.allocatedBytes);
+		}
+	}
+
+	private List<SessionRequest> viaTraces(List<CsvRow> rows) {
+		List<TraceRecord> traces = new CsvRowToOpenXtraceConverter(false).convert(rows).stream().map(t -> new TraceRecord(version, t)).collect(Collectors.toList());
+		return traceTailorer.tailorTracesWithoutMapping(traces);
+	}
+
+	private List<SessionRequest> direct(List<CsvRow> rows) {
+		return recordTailorer.tailorRecordsWithoutMapping(new CsvRowToRequestRecordConverter(false).convert(rows));
+	}
+
+	private <T> Measurement<T> measure(Supplier<T> task) {
+		long bytesBefore = allocatedBytes();
+		long start = System.nanoTime();
+
+		T result = task.get();
+
+		long millis = (System.nanoTime() - start) / 1000000;
+		long bytesAfter = allocatedBytes();
+
+		return new Measurement<>(result, millis, (bytesBefore < 0) || (bytesAfter < 0) ? -1 : bytesAfter - bytesBefore);
+	}
+
+	private long allocatedBytes() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		} else {
+			return -1;
+		}
+	}
+
+	private static class Measurement<T> {
+
+		private final T result;
+
+		private final long millis;
+
+		private final long allocatedBytes;
+
+		private Measurement(T result, long millis, long allocatedBytes) {
+			this.result = result;
+			this.millis = millis;
+			this.allocatedBytes = allocatedBytes;
+		}
+
+	}
+
+}
@@ -0,0 +1,159 @@
+package org.continuity.cobra.extractor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.text.ParseException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.continuity.api.entities.ApiFormats;
+import org.continuity.api.entities.artifact.session.SessionRequest;
+import org.continuity.cobra.converter.AccessLogsToRequestRecordConverter;
+import org.continuity.cobra.converter.CsvRowToOpenXtraceConverter;
+import org.continuity.cobra.converter.CsvRowToRequestRecordConverter;
+import org.continuity.cobra.converter.SessionLogsToRequestRecordConverter;
+import org.continuity.cobra.entities.CsvRow;
+import org.continuity.cobra.entities.RequestRecord;
+import org.continuity.cobra.entities.TraceRecord;
+import org.continuity.commons.accesslogs.AccessLogEntry;
+import org.continuity.idpa.AppId;
+import org.continuity.idpa.VersionOrTimestamp;
+import org.continuity.idpa.application.Application;
+import org.continuity.idpa.application.HttpEndpoint;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+public class RequestRecordTailorerTest {
+
+	private static final String CSV_HEADER = "session-id,start,end,name,domain,port,path,method,encoding,protocol,parameters,headers\n";
+
+	private static final String CSV = CSV_HEADER
+			+ "abc,2019-01-01T10-00-00-000Z,2019-01-01T10-00-00-250Z,getCart,carts,80,/carts/42,get,,HTTP/1.1,x=1,\n"
+			+ "abc,2019-01-01T10-00-01-000Z,2019-01-01T10-00-01-100Z,login,frontend,80,/login,POST,,HTTP/1.1,,\n";
+
+	private static final long START_MICROS = 1546336800000L * 1000;
+
+	private AppId aid;
+
+	private VersionOrTimestamp version;
+
+	private RequestRecordTailorer tailorer;
+
+	private RequestRecordTailorer tailorerWithPrePostProcessing;
+
+	@Before
+	public void setup() throws NumberFormatException, ParseException {
+		RestTemplate restTemplate = Mockito.mock(RestTemplate.class);
+		Mockito.when(restTemplate.getForEntity(Mockito.anyString(), Mockito.eq(Application[].class))).thenReturn(ResponseEntity.ok(new Application[] { cartsApplication() }));
+
+		aid = AppId.fromString("test");
+		version = VersionOrTimestamp.fromString("v1");
+
+		tailorer = new RequestRecordTailorer(aid, version, restTemplate, false);
+		tailorerWithPrePostProcessing = new RequestRecordTailorer(aid, version, restTemplate, true);
+	}
+
+	@Test
+	public void testCsvIsMappedToTailoredEndpoints() {
+		List<RequestRecord> records = new CsvRowToRequestRecordConverter(false).convert(CsvRow.listFromString(CSV));
+		List<SessionRequest> requests = tailorer.tailorRecords(Collections.singletonList("carts"), records);
+
+		assertThat(records).hasSize(2);
+		assertThat(requests).hasSize(1);
+
+		SessionRequest request = requests.get(0);
+
+		assertThat(request.getSessionId()).isEqualTo("abc");
+		assertThat(request.getEndpoint()).isEqualTo("getCart");
+		assertThat(request.getStartMicros()).isEqualTo(START_MICROS);
+		assertThat(request.getEndMicros()).isEqualTo(START_MICROS + 250000);
+		assertThat(request.getTraceId()).isEqualTo(records.get(0).getTraceId());
+		assertThat(request.getId()).isEqualTo(Long.toHexString(records.get(0).getTraceId()));
+		assertThat(request.getExtendedInformation().getHost()).isEqualTo("carts");
+		assertThat(request.getExtendedInformation().getPort()).isEqualTo(80);
+		assertThat(request.getExtendedInformation().getMethod()).isEqualTo("GET");
+		assertThat(request.getExtendedInformation().getParameters()).isEqualTo("x=1");
+	}
+
+	@Test
+	public void testSessionLogsWithoutMappingAndPrePostProcessing() {
+		String sessionLog = "abc;\"getCart\":1546336800000000000:1546336800250000000:/carts/42:80:carts:HTTP/1.1:GET:x=1:<no-encoding>";
+		List<RequestRecord> records = new SessionLogsToRequestRecordConverter().convert(Collections.singletonList(sessionLog));
+
+		List<SessionRequest> requests = tailorerWithPrePostProcessing.tailorRecordsWithoutMapping(records);
+
+		assertThat(requests).extracting(SessionRequest::getEndpoint).containsExactly(SessionRequest.PREFIX_PRE_PROCESSING + "getCart", "getCart",
+				SessionRequest.PREFIX_POST_PROCESSING + "getCart");
+		assertThat(requests).extracting(SessionRequest::getStartMicros).containsExactly(START_MICROS, START_MICROS, START_MICROS + 250000);
+		assertThat(requests).extracting(SessionRequest::getEndMicros).containsExactly(START_MICROS, START_MICROS + 250000, START_MICROS + 250000);
+		assertThat(requests.get(1).getExtendedInformation().getParameters()).isEqualTo("x=1");
+	}
+
+	@Test
+	public void testAccessLogs() {
+		String line = "10.0.0.1 - - [01/Jan/2019:10:00:00 +0000] \"GET /carts/42?x=1 HTTP/1.1\" 200 2326 \"-\" \"agent\" 1500";
+		List<RequestRecord> records = new AccessLogsToRequestRecordConverter(false).convert(Collections.singletonList(AccessLogEntry.fromLogLine(line)));
+
+		assertThat(records).hasSize(1);
+		assertThat(records.get(0).getSessionId()).isEqualTo("10.0.0.1");
+		assertThat(records.get(0).getResponseCode()).isEqualTo(200);
+		assertThat(records.get(0).getEndMillis() - records.get(0).getStartMillis()).isEqualTo(1);
+
+		List<SessionRequest> requests = tailorer.tailorRecordsWithoutMapping(records);
+
+		assertThat(requests).hasSize(1);
+		assertThat(requests.get(0).getExtendedInformation().getResponseCode()).isEqualTo(200);
+		assertThat(requests.get(0).getExtendedInformation().getParameters()).isEqualTo("x=1");
+	}
+
+	@Test
+	public void testSameRequestsAsViaOpenXtrace() {
+		StringBuilder csv = new StringBuilder(CSV_HEADER);
+		long start = 1546336800000L;
+
+		for (int i = 0; i < 60; i++) {
+			csv.append("session").append(i % 7).append(",").append(ApiFormats.DATE_FORMAT.format(new Date(start + (i * 10)))).append(",")
+					.append(ApiFormats.DATE_FORMAT.format(new Date(start + (i * 10) + 7))).append(",endpoint").append(i % 5).append(",localhost,8080,/path/").append(i % 5)
+					.append(i % 3 == 0 ? ",POST" : ",GET").append(",,HTTP/1.1,id=").append(i).append(",\n");
+		}
+
+		List<CsvRow> rows = CsvRow.listFromString(csv.toString());
+
+		List<TraceRecord> traces = new CsvRowToOpenXtraceConverter(false).convert(rows).stream().map(t -> new TraceRecord(version, t)).collect(Collectors.toList());
+		List<SessionRequest> expected = new RequestTailorer(aid, version, null).tailorTracesWithoutMapping(traces);
+		List<SessionRequest> actual = tailorer.tailorRecordsWithoutMapping(new CsvRowToRequestRecordConverter(false).convert(rows));
+
+		assertThat(actual).hasSameSizeAs(expected).hasSize(60);
+
+		for (int i = 0; i < expected.size(); i++) {
+			assertThat(actual.get(i).getId()).isEqualTo(expected.get(i).getId());
+			assertThat(actual.get(i).getTraceId()).isEqualTo(expected.get(i).getTraceId());
+			assertThat(actual.get(i).getSessionId()).isEqualTo(expected.get(i).getSessionId());
+			assertThat(actual.get(i).getEndpoint()).isEqualTo(expected.get(i).getEndpoint());
+			assertThat(actual.get(i).getStartMicros()).isEqualTo(expected.get(i).getStartMicros());
+			assertThat(actual.get(i).getEndMicros()).isEqualTo(expected.get(i).getEndMicros());
+			assertThat(actual.get(i).getExtendedInformation().getUri()).isEqualTo(expected.get(i).getExtendedInformation().getUri());
+			assertThat(actual.get(i).getExtendedInformation().getMethod()).isEqualTo(expected.get(i).getExtendedInformation().getMethod());
+			assertThat(actual.get(i).getExtendedInformation().getParameters()).isEqualTo(expected.get(i).getExtendedInformation().getParameters());
+		}
+	}
+
+	private Application cartsApplication() {
+		Application application = new Application();
+		HttpEndpoint endpoint = new HttpEndpoint();
+		endpoint.setId("getCart");
+		endpoint.setDomain("carts");
+		endpoint.setMethod("GET");
+		endpoint.setPath("/carts/{id}");
+		endpoint.setPort("80");
+		endpoint.setProtocol("HTTP");
+		application.addEndpoint(endpoint);
+		return application;
+	}
+
+}
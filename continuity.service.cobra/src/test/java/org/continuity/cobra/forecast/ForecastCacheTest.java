@@ -0,0 +1,122 @@
+package org.continuity.cobra.forecast;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.continuity.api.entities.artifact.ForecastIntensityRecord;
+import org.continuity.cobra.entities.ForecastTimerange;
+import org.continuity.cobra.entities.ForecasticInput;
+import org.continuity.idpa.AppId;
+import org.continuity.lctl.WorkloadDescription;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ForecastCacheTest {
+
+	private static final AppId AID = AppId.fromString("my-app");
+
+	private static final List<String> TAILORING = Arrays.asList("a", "b");
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private ForecastCache cache;
+
+	private WorkloadDescription description;
+
+	@Before
+	public void setup() throws IOException {
+		cache = new ForecastCache(folder.getRoot().toPath(), new ObjectMapper(), 2);
+		description = new WorkloadDescription();
+	}
+
+	@Test
+	public void testHitAndMiss() {
+		ForecastCache.Key key = cache.createKey(input("holt-winters", 0), description, 1000);
+		assertThat(cache.get(key)).isEmpty();
+
+		cache.put(key, records(42));
+
+		assertThat(cache.get(cache.createKey(input("holt-winters", 0), description, 1000))).hasValueSatisfying(r -> {
+			assertThat(r).hasSize(1);
+			assertThat(r.get(0).getIntensity("group")).isEqualTo(42);
+		});
+
+		assertThat(cache.get(cache.createKey(input("holt-winters", 0), description, 2000))).isEmpty();
+		assertThat(cache.get(cache.createKey(input("seasonal-naive", 0), description, 1000))).isEmpty();
+		assertThat(cache.get(cache.createKey(input("holt-winters", 1), description, 1000))).isEmpty();
+	}
+
+	@Test
+	public void testInvalidation() {
+		ForecastCache.Key key = cache.createKey(input("holt-winters", 0), description, 1000);
+		cache.put(key, records(42));
+
+		cache.invalidate(AID, Arrays.asList("b", "a"));
+
+		assertThat(cache.get(key)).isEmpty();
+
+		cache.put(key, records(42));
+		assertThat(cache.get(key)).as("Forecasts computed before the invalidation must not be cached").isEmpty();
+
+		ForecastCache.Key newKey = cache.createKey(input("holt-winters", 0), description, 1000);
+		cache.put(newKey, records(43));
+		assertThat(cache.get(newKey)).isPresent();
+
+		cache.invalidate(AID, Collections.singletonList(AppId.SERVICE_ALL));
+		assertThat(cache.get(newKey)).isPresent();
+	}
+
+	@Test
+	public void testEviction() throws InterruptedException {
+		ForecastCache.Key first = cache.createKey(input("holt-winters", 0), description, 1000);
+		cache.put(first, records(1));
+
+		Thread.sleep(1100);
+
+		ForecastCache.Key second = cache.createKey(input("holt-winters", 1), description, 1000);
+		cache.put(second, records(2));
+
+		Thread.sleep(1100);
+
+		ForecastCache.Key third = cache.createKey(input("holt-winters", 2), description, 1000);
+		cache.put(third, records(3));
+
+		assertThat(cache.get(first)).isEmpty();
+		assertThat(cache.get(second)).isPresent();
+		assertThat(cache.get(third)).isPresent();
+	}
+
+	@Test
+	public void testDisabled() {
+		ForecastCache disabled = new ForecastCache(folder.getRoot().toPath(), new ObjectMapper(), 0);
+		ForecastCache.Key key = disabled.createKey(input("holt-winters", 0), description, 1000);
+
+		assertThat(key).isNull();
+		disabled.put(key, records(1));
+		assertThat(disabled.get(key)).isEmpty();
+	}
+
+	private ForecasticInput input(String approach, long rangeStart) {
+		return new ForecasticInput().setAppId(AID).setTailoring(TAILORING).setApproach(approach).setResolution(60000)
+				.setRanges(Collections.singletonList(new ForecastTimerange(rangeStart, rangeStart + 3600000, null)));
+	}
+
+	private List<ForecastIntensityRecord> records(double value) {
+		Map<String, Double> content = new HashMap<>();
+		content.put(ForecastIntensityRecord.KEY_TIMESTAMP, 0.0);
+		content.put("group", value);
+		return Collections.singletonList(new ForecastIntensityRecord(content));
+	}
+
+}
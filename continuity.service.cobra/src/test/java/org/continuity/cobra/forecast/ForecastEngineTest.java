@@ -0,0 +1,149 @@
+package org.continuity.cobra.forecast;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.continuity.api.entities.artifact.ForecastIntensityRecord;
+import org.continuity.cobra.entities.ForecastTimerange;
+import org.continuity.cobra.entities.ForecasticInput;
+import org.continuity.cobra.entities.TypeAndProperties;
+import org.continuity.idpa.AppId;
+import org.continuity.lctl.timeseries.IntensityRecord;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ForecastEngineTest {
+
+	private static final long RESOLUTION = Duration.ofHours(1).toMillis();
+
+	private static final int HISTORY = 14 * 24;
+
+	private static final int NUM_GROUPS = 16;
+
+	private ForecastEngine engine;
+
+	@Before
+	public void setup() {
+		engine = new ForecastEngine(4);
+	}
+
+	@After
+	public void tearDown() {
+		engine.close();
+	}
+
+	@Test
+	public void testSupportedApproaches() {
+		assertThat(engine.supports("seasonal-naive")).isTrue();
+		assertThat(engine.supports("Holt-Winters")).isTrue();
+		assertThat(engine.supports("linear-regression")).isTrue();
+		assertThat(engine.supports("Telescope")).isFalse();
+		assertThat(engine.supports(null)).isFalse();
+	}
+
+	@Test
+	public void testAllGroupsAreForecasted() {
+		List<ForecastIntensityRecord> records = engine.forecast(input(ForecastEngine.HOLT_WINTERS, false), history());
+
+		assertThat(records).hasSize(3 * 24);
+		assertThat(records.get(0).getGroups()).hasSize(NUM_GROUPS);
+
+		for (int i = 0; i < records.size(); i++) {
+			ForecastIntensityRecord record = records.get(i);
+			int t = (HISTORY - 24) + i;
+
+			assertThat(record.getTimestamp()).isEqualTo(t * RESOLUTION);
+
+			for (int g = 0; g < NUM_GROUPS; g++) {
+				double expected = value(g, t);
+
+				if (t < HISTORY) {
+					assertThat(record.getIntensity(group(g))).isEqualTo(Math.round(expected));
+				} else {
+					assertThat(Math.abs(record.getIntensity(group(g)) - expected) / expected).isLessThan(0.05);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testTotal() {
+		List<ForecastIntensityRecord> records = engine.forecast(input(ForecastEngine.SEASONAL_NAIVE, true), history());
+
+		assertThat(records).hasSize(3 * 24);
+		assertThat(records).allMatch(r -> r.getGroups().equals(Collections.singleton(ForecastIntensityRecord.KEY_TOTAL)));
+
+		double total = 0;
+
+		for (int g = 0; g < NUM_GROUPS; g++) {
+			total += Math.round(value(g, HISTORY - 24));
+		}
+
+		assertThat(records.get(0).getIntensity(ForecastIntensityRecord.KEY_TOTAL)).isEqualTo(total);
+	}
+
+	@Test
+	public void testPercentileAggregation() {
+		ForecasticInput input = input(ForecastEngine.SEASONAL_NAIVE, false);
+		input.setAggregation(new TypeAndProperties("percentile", Collections.singletonMap("p", 100)));
+
+		List<ForecastIntensityRecord> records = engine.forecast(input, history());
+
+		assertThat(records).hasSize(1);
+		assertThat(records.get(0).getTimestamp()).isEqualTo((HISTORY - 24) * RESOLUTION);
+		assertThat(records.get(0).getIntensity(group(0))).isEqualTo(Math.round(value(0, 6)));
+	}
+
+	@Test
+	public void testPerspective() {
+		ForecasticInput input = input(ForecastEngine.SEASONAL_NAIVE, false);
+		input.setPerspective((HISTORY - 25) * RESOLUTION);
+
+		List<ForecastIntensityRecord> records = engine.forecast(input, history());
+
+		assertThat(records.get(0).getIntensity(group(0))).isEqualTo(Math.round(value(0, HISTORY - 48)));
+	}
+
+	private ForecasticInput input(String approach, boolean total) {
+		long from = (HISTORY - 24) * RESOLUTION;
+		long to = ((HISTORY + 48) - 1) * RESOLUTION;
+
+		return new ForecasticInput().setAppId(AppId.fromString("test")).setApproach(approach).setResolution(RESOLUTION).setForecastTotal(total)
+				.setRanges(Arrays.asList(new ForecastTimerange(from, to, null))).setContext(Collections.emptyList()).setContextVariables(Collections.emptySet());
+	}
+
+	private List<IntensityRecord> history() {
+		List<IntensityRecord> history = new ArrayList<>();
+
+		for (int t = 0; t < HISTORY; t++) {
+			IntensityRecord record = new IntensityRecord(t * RESOLUTION);
+			Map<String, Long> intensity = new HashMap<>();
+
+			for (int g = 0; g < NUM_GROUPS; g++) {
+				intensity.put(group(g), Math.round(value(g, t)));
+			}
+
+			record.setIntensity(intensity);
+			history.add(record);
+		}
+
+		return history;
+	}
+
+	private String group(int g) {
+		return "group-" + g;
+	}
+
+	private double value(int group, int t) {
+		return (100 * (group + 1)) + (50 * (group + 1) * Math.sin((2 * Math.PI * t) / 24));
+	}
+
+}
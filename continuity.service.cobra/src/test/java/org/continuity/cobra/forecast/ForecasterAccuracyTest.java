@@ -0,0 +1,98 @@
+package org.continuity.cobra.forecast;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ForecasterAccuracyTest {
+
+	private static final int SEASON = 24;
+
+	private static final int HISTORY = 21 * SEASON;
+
+	private static final int HORIZON = 2 * SEASON;
+
+	private double[] values;
+
+	private double[][] features;
+
+	@Before
+	public void setupSeasonalSeries() {
+		Random rand = new Random(42);
+
+		values = new double[HISTORY + HORIZON];
+		features = new double[HISTORY + HORIZON][0];
+
+		for (int t = 0; t < values.length; t++) {
+			values[t] = 100 + (50 * Math.sin((2 * Math.PI * t) / SEASON)) + (0.05 * t) + (3 * rand.nextGaussian());
+		}
+	}
+
+	@Test
+	public void testSeasonalNaive() {
+		assertThat(mape(new SeasonalNaiveForecaster())).isLessThan(0.05);
+	}
+
+	@Test
+	public void testHoltWinters() {
+		assertThat(mape(new HoltWintersForecaster())).isLessThan(0.05);
+	}
+
+	@Test
+	public void testLinearRegression() {
+		assertThat(mape(new LinearRegressionForecaster())).isLessThan(0.05);
+	}
+
+	@Test
+	public void testLinearRegressionUsesContext() {
+		Random rand = new Random(1337);
+		features = new double[values.length][1];
+
+		for (int t = 0; t < values.length; t++) {
+			features[t][0] = 20 * rand.nextDouble();
+			values[t] += 3 * features[t][0];
+		}
+
+		double regressionError = mape(new LinearRegressionForecaster());
+
+		assertThat(regressionError).isLessThan(0.05);
+		assertThat(regressionError).isLessThan(mape(new SeasonalNaiveForecaster()));
+	}
+
+	@Test
+	public void testShortHistory() {
+		double[] history = { 1, 2, 3 };
+		double[][] future = new double[5][0];
+
+		assertThat(new SeasonalNaiveForecaster().forecast(history, SEASON, new double[3][0], future)).containsExactly(3, 3, 3, 3, 3);
+		assertThat(new HoltWintersForecaster().forecast(history, SEASON, new double[3][0], future)).containsExactly(3, 3, 3, 3, 3);
+		assertThat(new LinearRegressionForecaster().forecast(new double[0], SEASON, new double[0][0], future)).containsExactly(0, 0, 0, 0, 0);
+	}
+
+	private double mape(Forecaster forecaster) {
+		double[] history = new double[HISTORY];
+		System.arraycopy(values, 0, history, 0, HISTORY);
+
+		double[][] historyFeatures = new double[HISTORY][];
+		double[][] futureFeatures = new double[HORIZON][];
+		System.arraycopy(features, 0, historyFeatures, 0, HISTORY);
+		System.arraycopy(features, HISTORY, futureFeatures, 0, HORIZON);
+
+		double[] forecast = forecaster.forecast(history, SEASON, historyFeatures, futureFeatures);
+
+		assertThat(forecast).hasSize(HORIZON);
+
+		double error = 0;
+
+		for (int h = 0; h < HORIZON; h++) {
+			double actual = values[HISTORY + h];
+			error += Math.abs(forecast[h] - actual) / actual;
+		}
+
+		return error / HORIZON;
+	}
+
+}
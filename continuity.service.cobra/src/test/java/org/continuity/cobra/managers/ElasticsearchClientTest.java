@@ -0,0 +1,79 @@
+package org.continuity.cobra.managers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+
+import org.apache.http.message.BasicHttpRequest;
+import org.elasticsearch.action.DocWriteRequest.OpType;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.script.Script;
+import org.elasticsearch.script.ScriptType;
+import org.junit.Test;
+
+public class ElasticsearchClientTest {
+
+	@Test
+	public void testNdjsonCanBeParsed() throws Exception {
+		BulkRequest bulk = new BulkRequest();
+		bulk.add(new IndexRequest("my-index").source("{\"foo\":\"bar\"}", XContentType.JSON).id("1"));
+		bulk.add(new IndexRequest("my-index").source("{\"foo\":\"baz\"}", XContentType.JSON).id("2").create(true));
+		bulk.add(new UpdateRequest("my-index", "3").doc("{\"foo\":42}", XContentType.JSON).docAsUpsert(true));
+		bulk.add(new UpdateRequest("my-index", "4").script(new Script(ScriptType.STORED, null, "update-session", Collections.singletonMap("x", 1))).upsert("{\"foo\":1}",
+				XContentType.JSON));
+
+		byte[] ndjson = ElasticsearchClient.toNdjson(bulk);
+
+		BulkRequest parsed = new BulkRequest();
+		parsed.add(ndjson, 0, ndjson.length, XContentType.JSON);
+
+		assertThat(parsed.requests()).hasSize(4);
+
+		IndexRequest first = (IndexRequest) parsed.requests().get(0);
+		assertThat(first.index()).isEqualTo("my-index");
+		assertThat(first.id()).isEqualTo("1");
+		assertThat(first.opType()).isEqualTo(OpType.INDEX);
+		assertThat(first.source().utf8ToString()).isEqualTo("{\"foo\":\"bar\"}");
+
+		assertThat(parsed.requests().get(1).opType()).isEqualTo(OpType.CREATE);
+
+		UpdateRequest third = (UpdateRequest) parsed.requests().get(2);
+		assertThat(third.id()).isEqualTo("3");
+		assertThat(third.docAsUpsert()).isTrue();
+		assertThat(third.doc().sourceAsMap()).containsEntry("foo", 42);
+
+		UpdateRequest fourth = (UpdateRequest) parsed.requests().get(3);
+		assertThat(fourth.script().getIdOrCode()).isEqualTo("update-session");
+		assertThat(fourth.upsertRequest().sourceAsMap()).containsEntry("foo", 1);
+	}
+
+	@Test
+	public void testOperationNames() {
+		assertThat(ElasticsearchClient.toOperation(new BasicHttpRequest("POST", "/_bulk?refresh=wait_for"))).isEqualTo("bulk");
+		assertThat(ElasticsearchClient.toOperation(new BasicHttpRequest("POST", "/my-index/_search?scroll=5m"))).isEqualTo("search");
+		assertThat(ElasticsearchClient.toOperation(new BasicHttpRequest("POST", "/_search/scroll"))).isEqualTo("scroll");
+		assertThat(ElasticsearchClient.toOperation(new BasicHttpRequest("POST", "/my-index/_count"))).isEqualTo("count");
+		assertThat(ElasticsearchClient.toOperation(new BasicHttpRequest("HEAD", "/my-index"))).isEqualTo("exists");
+		assertThat(ElasticsearchClient.toOperation(new BasicHttpRequest("PUT", "/my-index"))).isEqualTo("index");
+		assertThat(ElasticsearchClient.toOperation(null)).isEqualTo("unknown");
+	}
+
+	@Test
+	public void testStatistics() {
+		ElasticsearchStatistics statistics = new ElasticsearchStatistics();
+		statistics.recordRequest("bulk", 100);
+		statistics.recordResponse("bulk", 2_000_000, 50);
+		statistics.recordResponse("bulk", 4_000_000, 70);
+
+		assertThat(statistics.get("bulk").getCount()).isEqualTo(2);
+		assertThat(statistics.get("bulk").getMeanLatencyMillis()).isEqualTo(3.0);
+		assertThat(statistics.get("bulk").getMaxLatencyMillis()).isEqualTo(4.0);
+		assertThat(statistics.get("bulk").getBytesSent()).isEqualTo(100);
+		assertThat(statistics.get("bulk").getBytesReceived()).isEqualTo(120);
+		assertThat(statistics.getAll()).containsOnlyKeys("bulk");
+	}
+
+}
@@ -0,0 +1,130 @@
+package org.continuity.cobra.managers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.lucene.search.TotalHits;
+import org.continuity.idpa.AppId;
+import org.continuity.lctl.timeseries.IntensityRecord;
+import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
+import org.elasticsearch.action.search.MultiSearchRequest;
+import org.elasticsearch.action.search.MultiSearchResponse;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchResponse.Clusters;
+import org.elasticsearch.action.search.SearchResponseSections;
+import org.elasticsearch.action.search.ShardSearchFailure;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ElasticsearchMultiSearchTest {
+
+	private static final int NUM_RANGES = 500;
+
+	private static final long START = 1546300800000L; // 2019-01-01T00:00:00Z
+
+	private static final long RESOLUTION = 60000;
+
+	@Test
+	public void testRequestPerQuery() {
+		List<QueryBuilder> queries = createRangeQueries(NUM_RANGES);
+
+		MultiSearchRequest counts = ElasticsearchScrollingManager.createMultiCountRequest("my-index", queries, false);
+		MultiSearchRequest existence = ElasticsearchScrollingManager.createMultiCountRequest("my-index", queries, true);
+
+		assertThat(counts.requests()).hasSize(NUM_RANGES);
+		assertThat(existence.requests()).hasSize(NUM_RANGES);
+
+		for (int i = 0; i < NUM_RANGES; i++) {
+			assertThat(counts.requests().get(i).indices()).containsExactly("my-index");
+			assertThat(counts.requests().get(i).source().query()).isEqualTo(queries.get(i));
+			assertThat(counts.requests().get(i).source().size()).isEqualTo(0);
+			assertThat(counts.requests().get(i).source().trackTotalHitsUpTo()).isEqualTo(Integer.MAX_VALUE);
+
+			assertThat(existence.requests().get(i).source().query()).isEqualTo(queries.get(i));
+			assertThat(existence.requests().get(i).source().terminateAfter()).isEqualTo(1);
+		}
+	}
+
+	@Test
+	public void testFailedItemsCountAsZero() {
+		MultiSearchResponse.Item[] items = new MultiSearchResponse.Item[NUM_RANGES];
+
+		for (int i = 0; i < NUM_RANGES; i++) {
+			items[i] = (i % 10) == 3 ? new MultiSearchResponse.Item(null, new IllegalStateException("failed")) : new MultiSearchResponse.Item(createResponse(i), null);
+		}
+
+		long[] counts = ElasticsearchScrollingManager.toCounts(new MultiSearchResponse(items, 42), "my-index", "for testing");
+
+		assertThat(counts).hasSize(NUM_RANGES);
+
+		for (int i = 0; i < NUM_RANGES; i++) {
+			assertThat(counts[i]).isEqualTo((i % 10) == 3 ? 0 : i);
+		}
+	}
+
+	/**
+	 * Requires a running Elasticsearch node. Pass its host via {@code -Delasticsearch.host=...}.
+	 */
+	@Test
+	public void testBatchedCountsEqualSequentialCounts() throws Exception {
+		String host = System.getProperty("elasticsearch.host");
+		assumeTrue(host != null);
+
+		AppId aid = AppId.fromString("multi-search-test-" + System.currentTimeMillis());
+		List<String> tailoring = Collections.singletonList(AppId.SERVICE_ALL);
+
+		try (ElasticsearchClient elasticsearch = new ElasticsearchClient(host, 60, 10, 10, 1, false)) {
+			ElasticsearchIntensityManager manager = new ElasticsearchIntensityManager(elasticsearch, new ObjectMapper(), 60);
+
+			List<IntensityRecord> records = new ArrayList<>();
+
+			for (int i = 0; i < (NUM_RANGES * 3); i += 2) {
+				IntensityRecord record = new IntensityRecord(START + (i * RESOLUTION));
+				record.setIntensity(Collections.singletonMap("a", 1L));
+				records.add(record);
+			}
+
+			manager.storeElements(aid, tailoring, records, true);
+
+			List<QueryBuilder> queries = createRangeQueries(NUM_RANGES + ElasticsearchScrollingManager.MAX_MULTI_SEARCH_SIZE);
+			long[] batched = manager.countElements(aid, tailoring, queries, false, "for testing");
+			long[] exist = manager.countElements(aid, tailoring, queries, true, "for testing");
+
+			for (int i = 0; i < queries.size(); i++) {
+				long sequential = manager.countElements(aid, tailoring, queries.get(i), "for testing");
+
+				assertThat(batched[i]).as("query #%d", i).isEqualTo(sequential);
+				assertThat(exist[i]).as("query #%d", i).isEqualTo(Math.min(sequential, 1));
+			}
+
+			elasticsearch.get().indices().delete(new DeleteIndexRequest(manager.toIndex(aid, AppId.SERVICE_ALL)), RequestOptions.DEFAULT);
+		}
+	}
+
+	private List<QueryBuilder> createRangeQueries(int num) {
+		List<QueryBuilder> queries = new ArrayList<>();
+
+		for (int i = 0; i < num; i++) {
+			long from = START + (i * 3 * RESOLUTION);
+			queries.add(QueryBuilders.rangeQuery("timestamp").gte(from).lt(from + ((1 + (i % 4)) * RESOLUTION)));
+		}
+
+		return queries;
+	}
+
+	private SearchResponse createResponse(long totalHits) {
+		SearchHits hits = new SearchHits(new SearchHit[0], new TotalHits(totalHits, TotalHits.Relation.EQUAL_TO), 0);
+		return new SearchResponse(new SearchResponseSections(hits, null, null, false, null, null, 1), null, 1, 1, 0, 1, ShardSearchFailure.EMPTY_ARRAY, Clusters.EMPTY);
+	}
+
+}
@@ -0,0 +1,84 @@
+package org.continuity.cobra.managers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.continuity.cobra.entities.Watermark;
+import org.continuity.cobra.entities.WatermarkCheck;
+import org.junit.Before;
+import org.junit.Test;
+
+public class WatermarkRegistryTest {
+
+	private WatermarkRegistry registry;
+
+	private AtomicInteger loads;
+
+	@Before
+	public void setup() {
+		registry = new WatermarkRegistry();
+		loads = new AtomicInteger();
+	}
+
+	@Test
+	public void testSeededRegistryIsExtendedOnWrite() throws IOException {
+		Map<String, Watermark> seed = new HashMap<>();
+		seed.put("a", new Watermark(100, 200));
+		registry.seed(seed);
+
+		registry.extend("a", new Watermark(150, 300));
+		registry.extend("b", new Watermark(400, 500));
+
+		assertThat(registry.get("a", this::load)).isEqualTo(new Watermark(100, 300));
+		assertThat(registry.get("b", this::load)).isEqualTo(new Watermark(400, 500));
+		assertThat(registry.get("c", this::load)).isEqualTo(Watermark.EMPTY);
+		assertThat(loads).hasValue(0);
+	}
+
+	@Test
+	public void testUnseededRegistryLoadsOnce() throws IOException {
+		registry.extend("a", new Watermark(600, 700));
+
+		assertThat(registry.get("a", this::load)).isEqualTo(new Watermark(10, 700));
+		assertThat(registry.get("a", this::load)).isEqualTo(new Watermark(10, 700));
+		assertThat(loads).hasValue(1);
+	}
+
+	@Test
+	public void testInvalidatedWatermarkIsReloaded() throws IOException {
+		registry.seed(new HashMap<>());
+		registry.extend("a", new Watermark(1, 1000));
+
+		registry.invalidate("a");
+		registry.extend("a", new Watermark(800, 900));
+
+		assertThat(registry.get("a", this::load)).isEqualTo(new Watermark(10, 900));
+		assertThat(loads).hasValue(1);
+	}
+
+	@Test
+	public void testCheckReplacesWatermark() {
+		registry.seed(new HashMap<>());
+		registry.extend("a", new Watermark(100, 200));
+
+		WatermarkCheck consistent = registry.check("a", new Watermark(100, 200));
+		WatermarkCheck inconsistent = registry.check("a", new Watermark(100, 150));
+		WatermarkCheck unknown = registry.check("b", Watermark.EMPTY);
+
+		assertThat(consistent.isConsistent()).isTrue();
+		assertThat(inconsistent.isConsistent()).isFalse();
+		assertThat(inconsistent.getCached()).isEqualTo(new Watermark(100, 200));
+		assertThat(unknown.isConsistent()).isTrue();
+		assertThat(registry.check("a", new Watermark(100, 150)).isConsistent()).isTrue();
+	}
+
+	private Watermark load() {
+		loads.incrementAndGet();
+		return new Watermark(10, 500);
+	}
+
+}
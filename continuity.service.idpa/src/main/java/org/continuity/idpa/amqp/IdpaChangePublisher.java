@@ -0,0 +1,41 @@
+package org.continuity.idpa.amqp;
+
+import org.continuity.api.amqp.AmqpApi;
+import org.continuity.idpa.AppId;
+import org.continuity.idpa.VersionOrTimestamp;
+import org.continuity.idpa.storage.IdpaStorage;
+import org.continuity.idpa.storage.IdpaStorageListener;
+import org.springframework.amqp.core.AmqpTemplate;
+
+/**
+ * Publishes the {@link AmqpApi.Idpa#EVENT_CHANGED} event whenever an application model or
+ * annotation has been stored, so that other services can invalidate artifacts derived from the
+ * IDPA.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class IdpaChangePublisher implements IdpaStorageListener {
+
+	private final AmqpTemplate amqpTemplate;
+
+	public IdpaChangePublisher(IdpaStorage storage, AmqpTemplate amqpTemplate) {
+		this.amqpTemplate = amqpTemplate;
+		storage.registerListener(this);
+	}
+
+	@Override
+	public void onApplicationChanged(AppId aid, VersionOrTimestamp version) {
+		publish(aid);
+	}
+
+	@Override
+	public void onAnnotationChanged(AppId aid, VersionOrTimestamp version) {
+		publish(aid);
+	}
+
+	private void publish(AppId aid) {
+		amqpTemplate.convertAndSend(AmqpApi.Idpa.EVENT_CHANGED.name(), AmqpApi.Idpa.EVENT_CHANGED.formatRoutingKey().of(aid), System.currentTimeMillis());
+	}
+
+}
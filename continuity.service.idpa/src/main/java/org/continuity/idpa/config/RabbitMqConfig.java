@@ -1,7 +1,9 @@
 package org.continuity.idpa.config;
 
+import org.continuity.api.amqp.AmqpApi;
 import org.springframework.amqp.core.AmqpTemplate;
 import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.TopicExchange;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
@@ -28,6 +30,11 @@ public class RabbitMqConfig {
 		};
 	}
 
+	@Bean
+	TopicExchange eventChangedExchange() {
+		return AmqpApi.Idpa.EVENT_CHANGED.create();
+	}
+
 	@Bean
 	public MessageConverter jsonMessageConverter() {
 		return new Jackson2JsonMessageConverter();
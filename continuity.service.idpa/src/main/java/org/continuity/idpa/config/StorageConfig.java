@@ -1,8 +1,10 @@
 package org.continuity.idpa.config;
 
+import org.continuity.idpa.amqp.IdpaChangePublisher;
 import org.continuity.idpa.storage.AnnotationStorageManager;
 import org.continuity.idpa.storage.ApplicationStorageManager;
 import org.continuity.idpa.storage.IdpaStorage;
+import org.springframework.amqp.core.AmqpTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -15,8 +17,8 @@ import org.springframework.context.annotation.Configuration;
 public class StorageConfig {
 
 	@Bean
-	IdpaStorage idpaStorage(@Value("${storage.path:storage}") String storagePath) {
-		return new IdpaStorage(storagePath);
+	IdpaStorage idpaStorage(@Value("${storage.path:storage}") String storagePath, @Value("${storage.snapshots:true}") boolean useSnapshots) {
+		return new IdpaStorage(storagePath, useSnapshots);
 	}
 
 	@Bean
@@ -29,4 +31,9 @@ public class StorageConfig {
 		return new AnnotationStorageManager(storage);
 	}
 
+	@Bean
+	IdpaChangePublisher idpaChangePublisher(IdpaStorage storage, AmqpTemplate amqpTemplate) {
+		return new IdpaChangePublisher(storage, amqpTemplate);
+	}
+
 }
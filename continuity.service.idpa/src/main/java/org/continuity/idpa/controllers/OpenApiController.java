@@ -4,10 +4,11 @@ import static org.continuity.api.rest.RestApi.Idpa.OpenApi.ROOT;
 import static org.continuity.api.rest.RestApi.Idpa.OpenApi.Paths.UPDATE_FROM_JSON;
 import static org.continuity.api.rest.RestApi.Idpa.OpenApi.Paths.UPDATE_FROM_URL;
 
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 
-import org.continuity.commons.idpa.OpenApiToIdpaTransformer;
+import org.continuity.commons.idpa.StreamingOpenApiToIdpaTransformer;
 import org.continuity.idpa.AppId;
 import org.continuity.idpa.application.Application;
 import org.slf4j.Logger;
@@ -20,12 +21,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.fasterxml.jackson.databind.JsonNode;
-
 import io.swagger.annotations.ApiImplicitParam;
 import io.swagger.annotations.ApiImplicitParams;
-import io.swagger.models.Swagger;
-import io.swagger.parser.SwaggerParser;
 import springfox.documentation.annotations.ApiIgnore;
 
 /**
@@ -40,19 +37,16 @@ public class OpenApiController {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(OpenApiController.class);
 
-	private final OpenApiToIdpaTransformer transformer;
-
 	private final ApplicationController systemModelController;
 
 	@Autowired
 	public OpenApiController(ApplicationController systemModelController) {
-		this.transformer = new OpenApiToIdpaTransformer();
 		this.systemModelController = systemModelController;
 	}
 
 	/**
-	 * Parses the specified Open API JSON, transforms it to a {@link Application} and updates the
-	 * already stored application model.
+	 * Transforms the specified Open API JSON to a {@link Application} and updates the already
+	 * stored application model. The specification is read in a streaming fashion, path by path.
 	 *
 	 * @param aid
 	 *            App-id of the application model.
@@ -64,23 +58,28 @@ public class OpenApiController {
 	 */
 	@RequestMapping(path = UPDATE_FROM_JSON, method = RequestMethod.POST)
 	@ApiImplicitParams({ @ApiImplicitParam(name = "app-id", required = true, dataType = "string", paramType = "path") })
-	public ResponseEntity<String> updateFromJson(@ApiIgnore @PathVariable("app-id") AppId aid, @PathVariable String version, @RequestBody JsonNode json) {
-		Swagger swagger;
-
-		if ("2.0".equals(version)) {
-			swagger = new SwaggerParser().read(json);
-		} else {
+	public ResponseEntity<String> updateFromJson(@ApiIgnore @PathVariable("app-id") AppId aid, @PathVariable String version, @RequestBody byte[] json) {
+		if (!"2.0".equals(version)) {
 			return ResponseEntity.badRequest().body("Currently, only version 2.0 is supported!");
 		}
 
-		Application system = transformer.transform(swagger);
+		Application system;
+
+		try {
+			system = new StreamingOpenApiToIdpaTransformer(json).transform();
+		} catch (IOException e) {
+			LOGGER.error("Could not read the Open API specification!");
+			LOGGER.error("Exception:", e);
+			return ResponseEntity.badRequest().body("Could not read the Open API specification: " + e.getMessage());
+		}
 
 		return systemModelController.updateApplication(aid, system);
 	}
 
 	/**
 	 * Reads the Open API specification from the specified URL, transforms it to a
-	 * {@link Application} and updates the already stored application model.
+	 * {@link Application} and updates the already stored application model. The specification is
+	 * read in a streaming fashion, path by path.
 	 *
 	 * @param aid
 	 *            App-id of the application model.
@@ -93,23 +92,29 @@ public class OpenApiController {
 	@RequestMapping(path = UPDATE_FROM_URL, method = RequestMethod.POST)
 	@ApiImplicitParams({ @ApiImplicitParam(name = "app-id", required = true, dataType = "string", paramType = "path") })
 	public ResponseEntity<String> updateFromUrl(@ApiIgnore @PathVariable("app-id") AppId aid, @PathVariable String version, @RequestBody String url) {
+		URL specUrl;
+
 		try {
-			new URL(url);
+			specUrl = new URL(url);
 		} catch (MalformedURLException e) {
 			LOGGER.error("Received malformed URL: {}!", url);
 			LOGGER.error("Exception:", e);
 			return ResponseEntity.badRequest().body("Malformed URL: " + url);
 		}
 
-		Swagger swagger;
-
-		if ("2.0".equals(version)) {
-			swagger = new SwaggerParser().read(url);
-		} else {
+		if (!"2.0".equals(version)) {
 			return ResponseEntity.badRequest().body("Currently, only version 2.0 is supported!");
 		}
 
-		Application system = transformer.transform(swagger);
+		Application system;
+
+		try {
+			system = new StreamingOpenApiToIdpaTransformer(specUrl).transform();
+		} catch (IOException e) {
+			LOGGER.error("Could not read the Open API specification from {}!", url);
+			LOGGER.error("Exception:", e);
+			return ResponseEntity.badRequest().body("Could not read the Open API specification from " + url);
+		}
 
 		return systemModelController.updateApplication(aid, system);
 	}
@@ -7,6 +7,7 @@ import java.util.List;
 import java.util.function.BiConsumer;
 
 import org.continuity.api.entities.report.AnnotationValidityReport;
+import org.continuity.api.entities.report.ApplicationChangeReport;
 import org.continuity.commons.idpa.AnnotationValidityChecker;
 import org.continuity.idpa.AppId;
 import org.continuity.idpa.Idpa;
@@ -165,7 +166,18 @@ public class AnnotationStorageManager implements IdpaStorageListener {
 	 */
 	@Override
 	public void onApplicationChanged(AppId aid, VersionOrTimestamp version) {
-		applyForApplication(aid, version, this::adjustBrokenMark);
+		applyForApplication(aid, version, (a, idpa) -> adjustBrokenMark(a, idpa, null));
+	}
+
+	/**
+	 * {@inheritDoc} <br>
+	 *
+	 * Only rechecks the parts of the annotations that are affected by the changes. Annotations
+	 * that are already marked as broken are checked completely.
+	 */
+	@Override
+	public void onApplicationChanged(AppId aid, VersionOrTimestamp version, ApplicationChangeReport changeReport) {
+		applyForApplication(aid, version, (a, idpa) -> adjustBrokenMark(a, idpa, changeReport));
 	}
 
 	private void applyForApplication(AppId aid, VersionOrTimestamp version, BiConsumer<AppId, Idpa> consumer) {
@@ -187,20 +199,26 @@ public class AnnotationStorageManager implements IdpaStorageListener {
 		}
 	}
 
-	private boolean isBroken(Idpa idpa) {
+	private boolean isBroken(Idpa idpa, ApplicationChangeReport changeReport) {
 		if (idpa.getAnnotation() == null) {
 			return false;
 		}
 
 		AnnotationValidityChecker checker = new AnnotationValidityChecker(idpa.getApplication());
-		checker.checkAnnotation(idpa.getAnnotation());
+
+		if ((changeReport != null) && !idpa.checkAdditionalFlag(IdpaStorage.FLAG_BROKEN)) {
+			checker.checkAnnotation(idpa.getAnnotation(), changeReport);
+		} else {
+			checker.checkAnnotation(idpa.getAnnotation());
+		}
+
 		AnnotationValidityReport report = checker.getReport();
 
 		return report.isBreaking();
 	}
 
-	private void adjustBrokenMark(AppId aid, Idpa idpa) {
-		if (isBroken(idpa)) {
+	private void adjustBrokenMark(AppId aid, Idpa idpa, ApplicationChangeReport changeReport) {
+		if (isBroken(idpa, changeReport)) {
 			try {
 				storage.markAsBroken(aid, idpa.getVersionOrTimestamp());
 				LOGGER.warn("Annotation of app-id {} for version {} is now broken.", aid, idpa.getVersionOrTimestamp());
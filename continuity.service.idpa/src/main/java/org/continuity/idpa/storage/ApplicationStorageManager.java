@@ -96,7 +96,7 @@ public class ApplicationStorageManager {
 				}
 
 				try {
-					repository.save(aid, updatedApplication);
+					repository.save(aid, updatedApplication, report);
 					LOGGER.info("Stored a new application model with app-id {} and version {}.", aid, application.getVersionOrTimestamp());
 				} catch (IOException e) {
 					LOGGER.error("Could not save the application model with app-id {} and version {}!", aid, application.getVersionOrTimestamp());
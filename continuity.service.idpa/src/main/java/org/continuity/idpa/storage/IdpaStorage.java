@@ -19,6 +19,7 @@ import java.util.Objects;
 import java.util.stream.Collectors;
 
 import org.apache.commons.io.FileUtils;
+import org.continuity.api.entities.report.ApplicationChangeReport;
 import org.continuity.idpa.AppId;
 import org.continuity.idpa.Idpa;
 import org.continuity.idpa.VersionOrTimestamp;
@@ -30,7 +31,9 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Stores IDPAs in different versions in a folder structure. For versioning, the version or
- * timestamp when a model was created is used.
+ * timestamp when a model was created is used. <br>
+ * The models are stored as YAML files. Unless disabled, a binary snapshot is stored next to each
+ * YAML file, which is used for reading (see {@link SnapshottingIdpaSerializer}).
  *
  * @author Henning Schulz
  *
@@ -44,11 +47,14 @@ public class IdpaStorage {
 	private static final String APPLICATION_FILE_NAME = "application.yml";
 	private static final String ANNOTATION_FILE_NAME = "annotation.yml";
 
+	private static final String APPLICATION_SNAPSHOT_FILE_NAME = "application.smile";
+	private static final String ANNOTATION_SNAPSHOT_FILE_NAME = "annotation.smile";
+
 	private static final String BROKEN_FILE_NAME = "broken.txt";
 	private static final String BROKEN_CONTENT = "This annotation is broken";
 
-	private final IdpaYamlSerializer<Application> appSerializer;
-	private final IdpaYamlSerializer<ApplicationAnnotation> annSerializer;
+	private final SnapshottingIdpaSerializer<Application> appSerializer;
+	private final SnapshottingIdpaSerializer<ApplicationAnnotation> annSerializer;
 
 	private final Path storagePath;
 
@@ -59,15 +65,41 @@ public class IdpaStorage {
 	}
 
 	public IdpaStorage(Path storagePath) {
-		this(storagePath, new IdpaYamlSerializer<>(Application.class), new IdpaYamlSerializer<>(ApplicationAnnotation.class));
+		this(storagePath, true);
+	}
+
+	/**
+	 *
+	 * @param storagePath
+	 *            The root directory of the storage.
+	 * @param useSnapshots
+	 *            Whether binary snapshots of the YAML files should be used for reading.
+	 */
+	public IdpaStorage(String storagePath, boolean useSnapshots) {
+		this(Paths.get(storagePath), useSnapshots);
+	}
+
+	/**
+	 *
+	 * @param storagePath
+	 *            The root directory of the storage.
+	 * @param useSnapshots
+	 *            Whether binary snapshots of the YAML files should be used for reading.
+	 */
+	public IdpaStorage(Path storagePath, boolean useSnapshots) {
+		this(storagePath, new IdpaYamlSerializer<>(Application.class), new IdpaYamlSerializer<>(ApplicationAnnotation.class), useSnapshots);
 	}
 
 	public IdpaStorage(Path storagePath, IdpaYamlSerializer<Application> appSerializer, IdpaYamlSerializer<ApplicationAnnotation> annSerializer) {
+		this(storagePath, appSerializer, annSerializer, true);
+	}
+
+	public IdpaStorage(Path storagePath, IdpaYamlSerializer<Application> appSerializer, IdpaYamlSerializer<ApplicationAnnotation> annSerializer, boolean useSnapshots) {
 		this.storagePath = storagePath;
-		this.appSerializer = appSerializer;
-		this.annSerializer = annSerializer;
+		this.appSerializer = new SnapshottingIdpaSerializer<>(appSerializer, Application.class, APPLICATION_FILE_NAME, APPLICATION_SNAPSHOT_FILE_NAME, useSnapshots);
+		this.annSerializer = new SnapshottingIdpaSerializer<>(annSerializer, ApplicationAnnotation.class, ANNOTATION_FILE_NAME, ANNOTATION_SNAPSHOT_FILE_NAME, useSnapshots);
 
-		LOGGER.info("Using storage path {}.", storagePath.toAbsolutePath());
+		LOGGER.info("Using storage path {}{}.", storagePath.toAbsolutePath(), useSnapshots ? " with binary snapshots" : "");
 	}
 
 	/**
@@ -80,8 +112,12 @@ public class IdpaStorage {
 		this.listeners.add(listener);
 	}
 
-	private void onApplicationChanged(AppId aid, VersionOrTimestamp version) {
-		listeners.forEach(l -> l.onApplicationChanged(aid, version));
+	private void onApplicationChanged(AppId aid, VersionOrTimestamp version, ApplicationChangeReport changeReport) {
+		if (changeReport == null) {
+			listeners.forEach(l -> l.onApplicationChanged(aid, version));
+		} else {
+			listeners.forEach(l -> l.onApplicationChanged(aid, version, changeReport));
+		}
 	}
 
 	private void onAnnotationChanged(AppId aid, VersionOrTimestamp version) {
@@ -99,11 +135,28 @@ public class IdpaStorage {
 	 *             If errors during writing to files occur.
 	 */
 	public void save(AppId aid, Application application) throws IOException {
-		Path path = getDirPath(aid, application.getVersionOrTimestamp()).resolve(APPLICATION_FILE_NAME);
-		appSerializer.writeToYaml(application, path);
+		save(aid, application, null);
+	}
+
+	/**
+	 * Stores the specified application model with the specified app-id and passes the changes to
+	 * the listeners.
+	 *
+	 * @param aid
+	 *            The app-id of the application model.
+	 * @param application
+	 *            The application model.
+	 * @param changeReport
+	 *            The changes compared to the latest application model before. Can be {@code null}
+	 *            if unknown.
+	 * @throws IOException
+	 *             If errors during writing to files occur.
+	 */
+	public void save(AppId aid, Application application, ApplicationChangeReport changeReport) throws IOException {
+		Path path = appSerializer.write(application, getDirPath(aid, application.getVersionOrTimestamp()));
 
 		LOGGER.debug("Wrote application model to {}.", path);
-		onApplicationChanged(aid, application.getVersionOrTimestamp());
+		onApplicationChanged(aid, application.getVersionOrTimestamp(), changeReport);
 	}
 
 	/**
@@ -138,8 +191,7 @@ public class IdpaStorage {
 	 *             If errors during writing to files occur.
 	 */
 	private void save(AppId aid, VersionOrTimestamp version, ApplicationAnnotation annotation) throws IOException {
-		Path path = getDirPath(aid, version).resolve(ANNOTATION_FILE_NAME);
-		annSerializer.writeToYaml(annotation, path);
+		Path path = annSerializer.write(annotation, getDirPath(aid, version));
 
 		LOGGER.debug("Wrote annotation model to {}.", path);
 		onAnnotationChanged(aid, version);
@@ -432,9 +484,9 @@ public class IdpaStorage {
 	 */
 	public static class IdpaEntry extends Idpa {
 
-		private final IdpaYamlSerializer<Application> appSerializer;
+		private final SnapshottingIdpaSerializer<Application> appSerializer;
 
-		private final IdpaYamlSerializer<ApplicationAnnotation> annSerializer;
+		private final SnapshottingIdpaSerializer<ApplicationAnnotation> annSerializer;
 
 		private Path appPath;
 		private Path annPath;
@@ -460,7 +512,7 @@ public class IdpaStorage {
 			}
 
 			try {
-				return appSerializer.readFromYaml(appPath.resolve(APPLICATION_FILE_NAME));
+				return appSerializer.read(appPath);
 			} catch (IOException e) {
 				LOGGER.error("Could not read application model from {}! Returning null.", appPath);
 				e.printStackTrace();
@@ -475,7 +527,7 @@ public class IdpaStorage {
 			}
 
 			try {
-				return annSerializer.readFromYaml(annPath.resolve(ANNOTATION_FILE_NAME));
+				return annSerializer.read(annPath);
 			} catch (IOException e) {
 				LOGGER.error("Could not read annotation from {}! Returning null.", annPath);
 				e.printStackTrace();
@@ -1,5 +1,6 @@
 package org.continuity.idpa.storage;
 
+import org.continuity.api.entities.report.ApplicationChangeReport;
 import org.continuity.idpa.AppId;
 import org.continuity.idpa.VersionOrTimestamp;
 
@@ -21,6 +22,21 @@ public interface IdpaStorageListener {
 	 */
 	void onApplicationChanged(AppId aid, VersionOrTimestamp version);
 
+	/**
+	 * Will be called whenever an application has been changed and the changes are known. Defaults
+	 * to {@link #onApplicationChanged(AppId, VersionOrTimestamp)}.
+	 *
+	 * @param aid
+	 *            The app-id of the changed application.
+	 * @param version
+	 *            The version or timestamp of the changed application.
+	 * @param changeReport
+	 *            The changes compared to the latest application before.
+	 */
+	default void onApplicationChanged(AppId aid, VersionOrTimestamp version, ApplicationChangeReport changeReport) {
+		onApplicationChanged(aid, version);
+	}
+
 	/**
 	 * Will be called whenever an annotation has been changed.
 	 *
@@ -0,0 +1,229 @@
+package org.continuity.idpa.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import org.continuity.idpa.IdpaElement;
+import org.continuity.idpa.serialization.smile.IdpaSmileSerializer;
+import org.continuity.idpa.serialization.yaml.IdpaYamlSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stores IDPA elements as YAML files and keeps a binary snapshot (Smile) of each file next to it,
+ * which is used for reading. The YAML file remains the source of truth. Each snapshot starts with
+ * the size, the modification time, and the SHA-256 hash of the YAML file it has been created from,
+ * followed by the Smile content. If the size and modification time still match, the snapshot is
+ * used without reading the YAML file. Otherwise, the YAML file is hashed, and only if the hashes
+ * differ, e.g., because the YAML file has been edited manually, it is parsed and the snapshot is
+ * regenerated. The same happens if the snapshot is missing or cannot be read. Hence, an edit that
+ * keeps both the size and the modification time is not detected.
+ *
+ * @author Henning Schulz
+ *
+ */
+class SnapshottingIdpaSerializer<T extends IdpaElement> {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(SnapshottingIdpaSerializer.class);
+
+	private static final int HASH_LENGTH = 32;
+
+	/**
+	 * Size and modification time of the YAML file, followed by its hash.
+	 */
+	static final int HEADER_LENGTH = (2 * Long.BYTES) + HASH_LENGTH;
+
+	private final IdpaYamlSerializer<T> yamlSerializer;
+
+	private final IdpaSmileSerializer<T> smileSerializer;
+
+	private final String yamlFileName;
+
+	private final String snapshotFileName;
+
+	private final boolean useSnapshots;
+
+	/**
+	 *
+	 * @param yamlSerializer
+	 *            The serializer for the YAML files.
+	 * @param type
+	 *            The type of the stored elements.
+	 * @param yamlFileName
+	 *            The name of the YAML files.
+	 * @param snapshotFileName
+	 *            The name of the snapshot files.
+	 * @param useSnapshots
+	 *            Whether snapshots should be used. If {@code false}, only the YAML files are used.
+	 */
+	SnapshottingIdpaSerializer(IdpaYamlSerializer<T> yamlSerializer, Class<T> type, String yamlFileName, String snapshotFileName, boolean useSnapshots) {
+		this.yamlSerializer = yamlSerializer;
+		this.smileSerializer = new IdpaSmileSerializer<>(type);
+		this.yamlFileName = yamlFileName;
+		this.snapshotFileName = snapshotFileName;
+		this.useSnapshots = useSnapshots;
+	}
+
+	/**
+	 * Writes the model to the YAML file in the specified directory and updates the snapshot.
+	 *
+	 * @param model
+	 *            The model to be written.
+	 * @param dir
+	 *            The directory.
+	 * @return The path to the YAML file.
+	 * @throws IOException
+	 *             If the YAML file cannot be written.
+	 */
+	Path write(T model, Path dir) throws IOException {
+		Path yamlPath = dir.resolve(yamlFileName);
+		yamlSerializer.writeToYaml(model, yamlPath);
+
+		if (useSnapshots) {
+			BasicFileAttributes attributes = Files.readAttributes(yamlPath, BasicFileAttributes.class);
+			writeSnapshot(model, dir, createHeader(attributes, hash(Files.readAllBytes(yamlPath))));
+		}
+
+		return yamlPath;
+	}
+
+	/**
+	 * Reads the model from the specified directory. Uses the snapshot if it is up to date and
+	 * regenerates it otherwise.
+	 *
+	 * @param dir
+	 *            The directory.
+	 * @return The read model.
+	 * @throws IOException
+	 *             If the YAML file cannot be read.
+	 */
+	T read(Path dir) throws IOException {
+		Path yamlPath = dir.resolve(yamlFileName);
+
+		if (!useSnapshots) {
+			return yamlSerializer.readFromYaml(yamlPath);
+		}
+
+		BasicFileAttributes attributes = Files.readAttributes(yamlPath, BasicFileAttributes.class);
+		Path snapshotPath = dir.resolve(snapshotFileName);
+		byte[] snapshot = Files.exists(snapshotPath) ? Files.readAllBytes(snapshotPath) : null;
+		byte[] yaml = null;
+		byte[] header = null;
+
+		if ((snapshot != null) && (snapshot.length > HEADER_LENGTH)) {
+			ByteBuffer stored = ByteBuffer.wrap(snapshot, 0, HEADER_LENGTH);
+			boolean upToDate = (stored.getLong() == attributes.size()) && (stored.getLong() == attributes.lastModifiedTime().toMillis());
+
+			if (!upToDate) {
+				yaml = Files.readAllBytes(yamlPath);
+				header = createHeader(attributes, hash(yaml));
+				upToDate = MessageDigest.isEqual(Arrays.copyOfRange(header, 2 * Long.BYTES, HEADER_LENGTH), Arrays.copyOfRange(snapshot, 2 * Long.BYTES, HEADER_LENGTH));
+			}
+
+			if (upToDate) {
+				try {
+					T model = smileSerializer.readFromSmile(Arrays.copyOfRange(snapshot, HEADER_LENGTH, snapshot.length));
+
+					if (header != null) {
+						LOGGER.debug("The YAML file {} has been touched, but not changed. Updating the snapshot header.", yamlPath);
+						writeSnapshot(dir, header, snapshot, HEADER_LENGTH);
+					}
+
+					return model;
+				} catch (IOException e) {
+					LOGGER.warn("Could not read the snapshot {}! Regenerating it from the YAML file.", snapshotPath);
+					LOGGER.warn("Exception:", e);
+				}
+			} else {
+				LOGGER.debug("The snapshot {} is stale. Regenerating it from the YAML file.", snapshotPath);
+			}
+		} else {
+			LOGGER.debug("The snapshot {} is missing. Regenerating it from the YAML file.", snapshotPath);
+		}
+
+		if (yaml == null) {
+			yaml = Files.readAllBytes(yamlPath);
+			header = createHeader(attributes, hash(yaml));
+		}
+
+		T model = yamlSerializer.readFromYamlInputStream(new ByteArrayInputStream(yaml));
+		writeSnapshot(model, dir, header);
+		return model;
+	}
+
+	private void writeSnapshot(T model, Path dir, byte[] header) {
+		byte[] smile;
+
+		try {
+			smile = smileSerializer.writeToSmileBytes(model);
+		} catch (IOException e) {
+			LOGGER.warn("Could not serialize the snapshot {}! Will use the YAML file.", dir.resolve(snapshotFileName));
+			LOGGER.warn("Exception:", e);
+			return;
+		}
+
+		writeSnapshot(dir, header, smile, 0);
+	}
+
+	/**
+	 * Writes the snapshot to a temporary file first, which is then moved to the final location.
+	 * Hence, concurrent readers will never read an incomplete snapshot. Failures are only logged,
+	 * as the YAML file can always be used instead.
+	 */
+	private void writeSnapshot(Path dir, byte[] header, byte[] smile, int offset) {
+		Path snapshotPath = dir.resolve(snapshotFileName);
+		Path tmpPath = null;
+
+		try {
+			tmpPath = Files.createTempFile(dir, "." + snapshotFileName, ".tmp");
+
+			try (OutputStream out = Files.newOutputStream(tmpPath)) {
+				out.write(header);
+				out.write(smile, offset, smile.length - offset);
+			}
+
+			Files.move(tmpPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			LOGGER.warn("Could not write the snapshot {}! Will use the YAML file.", snapshotPath);
+			LOGGER.warn("Exception:", e);
+
+			deleteQuietly(tmpPath);
+		}
+	}
+
+	private byte[] createHeader(BasicFileAttributes yamlAttributes, byte[] yamlHash) {
+		return ByteBuffer.allocate(HEADER_LENGTH).putLong(yamlAttributes.size()).putLong(yamlAttributes.lastModifiedTime().toMillis()).put(yamlHash).array();
+	}
+
+	/**
+	 * Calculates the SHA-256 hash of the YAML content.
+	 */
+	private static byte[] hash(byte[] yaml) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(yaml);
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private void deleteQuietly(Path path) {
+		if (path != null) {
+			try {
+				Files.deleteIfExists(path);
+			} catch (IOException e) {
+				LOGGER.warn("Could not delete {}!", path);
+			}
+		}
+	}
+
+}
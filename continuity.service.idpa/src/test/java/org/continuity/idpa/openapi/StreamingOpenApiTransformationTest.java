@@ -0,0 +1,170 @@
+package org.continuity.idpa.openapi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.IOUtils;
+import org.continuity.commons.idpa.OpenApiToIdpaTransformer;
+import org.continuity.commons.idpa.StreamingOpenApiToIdpaTransformer;
+import org.continuity.idpa.application.Application;
+import org.continuity.idpa.application.HttpEndpoint;
+import org.continuity.idpa.serialization.yaml.ApplicationYamlStreamWriter;
+import org.continuity.idpa.serialization.yaml.IdpaYamlSerializer;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import io.swagger.models.Swagger;
+import io.swagger.parser.SwaggerParser;
+
+public class StreamingOpenApiTransformationTest {
+
+	private static final int NUM_PATHS = 1000;
+
+	private static final String YAML_SPEC = "swagger: '2.0'\n" //
+			+ "host: shop:8443\n" //
+			+ "schemes: [ https ]\n" //
+			+ "paths:\n" //
+			+ "  /carts/{id}:\n" //
+			+ "    parameters:\n" //
+			+ "    - { name: id, in: path, type: string }\n" //
+			+ "    - { $ref: '#/parameters/session' }\n" //
+			+ "    get:\n" //
+			+ "      operationId: getCart\n" //
+			+ "      parameters:\n" //
+			+ "      - { name: session, in: header, type: string }\n" //
+			+ "    delete:\n" //
+			+ "      consumes: [ application/json ]\n" //
+			+ "info:\n" //
+			+ "  title: Shop API\n" //
+			+ "  version: '1'\n" //
+			+ "basePath: /api\n" //
+			+ "parameters:\n" //
+			+ "  session: { name: session, in: header, type: string }\n";
+
+	private static final String EXTERNAL_REF_SPEC = "swagger: '2.0'\n" //
+			+ "info: { title: External API, version: '1' }\n" //
+			+ "host: localhost:8080\n" //
+			+ "basePath: /\n" //
+			+ "paths:\n" //
+			+ "  /items:\n" //
+			+ "    get:\n" //
+			+ "      operationId: getItems\n" //
+			+ "      parameters:\n" //
+			+ "      - { $ref: 'parameters.yml#/page' }\n" //
+			+ "      - { name: filter, in: query, type: string }\n";
+
+	private static Path tempDir;
+
+	private static Path largeSpec;
+
+	private final IdpaYamlSerializer<Application> serializer = new IdpaYamlSerializer<>(Application.class);
+
+	@BeforeClass
+	public static void createLargeSpec() throws IOException {
+		tempDir = Files.createTempDirectory("openapi");
+		largeSpec = tempDir.resolve("large-swagger.json");
+
+		try (BufferedWriter writer = Files.newBufferedWriter(largeSpec, StandardCharsets.UTF_8)) {
+			writer.write("{\"swagger\":\"2.0\",\"info\":{\"title\":\"Large API\",\"version\":\"1\"},\"host\":\"localhost:8080\",\"basePath\":\"/\",\"paths\":{");
+
+			for (int i = 0; i < NUM_PATHS; i++) {
+				if (i > 0) {
+					writer.write(",");
+				}
+
+				writer.write("\"/resources" + i + "/{id}\":{");
+				writer.write("\"parameters\":[{\"name\":\"id\",\"in\":\"path\",\"required\":true,\"type\":\"string\"}],");
+				writer.write("\"get\":{\"operationId\":\"getResource" + i + "\",\"produces\":[\"application/json\"],\"parameters\":[{\"$ref\":\"#/parameters/page\"},");
+				writer.write("{\"name\":\"filter\",\"in\":\"query\",\"type\":\"string\"}],\"responses\":{\"200\":{\"description\":\"OK\",\"schema\":{\"type\":\"string\"}}}},");
+				writer.write("\"post\":{\"consumes\":[\"application/json\"],\"parameters\":[{\"name\":\"body\",\"in\":\"body\",\"schema\":{\"type\":\"string\"}}],");
+				writer.write("\"responses\":{\"201\":{\"description\":\"Created\"}}}}");
+			}
+
+			writer.write("},\"parameters\":{\"page\":{\"name\":\"page\",\"in\":\"query\",\"type\":\"integer\"}}}");
+		}
+	}
+
+	@AfterClass
+	public static void deleteTempDir() throws IOException {
+		try (Stream<Path> files = Files.walk(tempDir)) {
+			files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+		}
+	}
+
+	@Test
+	public void testExampleSpecification() throws IOException {
+		byte[] spec;
+
+		try (InputStream inputStream = getClass().getResourceAsStream("/example-swagger.json")) {
+			spec = IOUtils.toByteArray(inputStream);
+		}
+
+		Swagger swagger = new SwaggerParser().parse(new String(spec, StandardCharsets.UTF_8));
+		Application expected = new OpenApiToIdpaTransformer().transform(swagger);
+
+		Application application = new StreamingOpenApiToIdpaTransformer(spec).transform();
+
+		assertThat(serializer.writeToYamlString(application)).isEqualTo(serializer.writeToYamlString(expected));
+	}
+
+	@Test
+	public void testYamlWithReferencesAndPathParameters() throws IOException {
+		Swagger swagger = new SwaggerParser().parse(YAML_SPEC);
+		Application expected = new OpenApiToIdpaTransformer().transform(swagger);
+
+		Application application = new StreamingOpenApiToIdpaTransformer(YAML_SPEC.getBytes(StandardCharsets.UTF_8)).transform();
+
+		assertThat(application.getId()).isEqualTo("Shop_API");
+		assertThat(application.getEndpoints()).hasSize(2);
+		assertThat(((HttpEndpoint) application.getEndpoints().get(0)).getParameters()).extracting(p -> p.getName() + ":" + p.getParameterType()).containsExactly("id:URL_PART",
+				"session:HEADER");
+		assertThat(serializer.writeToYamlString(application)).isEqualTo(serializer.writeToYamlString(expected));
+	}
+
+	@Test
+	public void testNonLocalReferencesUseSwaggerParser() throws IOException {
+		Path spec = tempDir.resolve("external-swagger.yml");
+		Files.write(spec, EXTERNAL_REF_SPEC.getBytes(StandardCharsets.UTF_8));
+		Files.write(tempDir.resolve("parameters.yml"), "page: { name: page, in: query, type: integer }\n".getBytes(StandardCharsets.UTF_8));
+
+		Swagger swagger = new SwaggerParser().read(spec.toString());
+		Application expected = new OpenApiToIdpaTransformer().transform(swagger);
+
+		StreamingOpenApiToIdpaTransformer transformer = new StreamingOpenApiToIdpaTransformer(spec);
+		Application application = transformer.transform();
+
+		assertThat(transformer.hasNonLocalReferences()).isTrue();
+		assertThat(((HttpEndpoint) application.getEndpoints().get(0)).getParameters()).extracting(p -> p.getName() + ":" + p.getParameterType()).containsExactly("page:REQ_PARAM",
+				"filter:REQ_PARAM");
+		assertThat(serializer.writeToYamlString(application)).isEqualTo(serializer.writeToYamlString(expected));
+	}
+
+	@Test
+	public void testLargeSpecification() throws IOException {
+		Path expectedYaml = tempDir.resolve("expected.yml");
+		Path streamedYaml = tempDir.resolve("streamed.yml");
+
+		Swagger swagger = new SwaggerParser().read(largeSpec.toString());
+		serializer.writeToYaml(new OpenApiToIdpaTransformer().transform(swagger), expectedYaml);
+
+		StreamingOpenApiToIdpaTransformer transformer = new StreamingOpenApiToIdpaTransformer(largeSpec);
+
+		try (ApplicationYamlStreamWriter writer = new ApplicationYamlStreamWriter(transformer.createApplication(), streamedYaml)) {
+			transformer.transformEndpoints(writer::write);
+		}
+
+		assertThat(transformer.hasNonLocalReferences()).isFalse();
+		assertThat(serializer.readFromYaml(streamedYaml).getEndpoints()).hasSize(2 * NUM_PATHS);
+		assertThat(Files.readAllBytes(streamedYaml)).isEqualTo(Files.readAllBytes(expectedYaml));
+	}
+
+}
@@ -0,0 +1,204 @@
+package org.continuity.idpa.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.continuity.idpa.AppId;
+import org.continuity.idpa.StaticIdpaTestInstance;
+import org.continuity.idpa.VersionOrTimestamp;
+import org.continuity.idpa.annotation.ApplicationAnnotation;
+import org.continuity.idpa.application.Application;
+import org.continuity.idpa.application.HttpEndpoint;
+import org.continuity.idpa.application.HttpParameter;
+import org.continuity.idpa.application.HttpParameterType;
+import org.continuity.idpa.serialization.yaml.IdpaYamlSerializer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IdpaStorageSnapshotTest {
+
+	private static final AppId AID = AppId.fromString("snapshot");
+
+	private static final int NUM_ENDPOINTS = 1000;
+
+	private final IdpaYamlSerializer<Application> appSerializer = new IdpaYamlSerializer<>(Application.class);
+
+	private final IdpaYamlSerializer<ApplicationAnnotation> annSerializer = new IdpaYamlSerializer<>(ApplicationAnnotation.class);
+
+	private Path storageDir;
+
+	private IdpaStorage storage;
+
+	@Before
+	public void setup() throws IOException {
+		storageDir = Files.createTempDirectory("IdpaStorageSnapshotTest");
+		storage = new IdpaStorage(storageDir);
+	}
+
+	@After
+	public void cleanup() throws IOException {
+		FileUtils.deleteDirectory(storageDir.toFile());
+	}
+
+	@Test
+	public void testSnapshotIsEquivalentToYaml() throws IOException {
+		for (StaticIdpaTestInstance instance : StaticIdpaTestInstance.values()) {
+			storage.save(AID, instance.getApplication());
+			storage.save(AID, instance.getAnnotation());
+
+			Path dir = versionDir(instance.getApplication().getVersionOrTimestamp());
+			assertThat(dir.resolve("application.smile")).exists();
+			assertThat(dir.resolve("annotation.smile")).exists();
+
+			Application application = storage.readLatestBefore(AID, instance.getApplication().getVersionOrTimestamp()).getApplication();
+			ApplicationAnnotation annotation = storage.readLatestBefore(AID, instance.getApplication().getVersionOrTimestamp()).getAnnotation();
+
+			assertThat(appSerializer.writeToYamlString(application)).isEqualTo(appSerializer.writeToYamlString(appSerializer.readFromYaml(dir.resolve("application.yml"))));
+			assertThat(annSerializer.writeToYamlString(annotation)).isEqualTo(annSerializer.writeToYamlString(annSerializer.readFromYaml(dir.resolve("annotation.yml"))));
+		}
+	}
+
+	@Test
+	public void testStaleSnapshotIsRegenerated() throws IOException {
+		Application application = StaticIdpaTestInstance.FIRST.getApplication();
+		storage.save(AID, application);
+
+		Path dir = versionDir(application.getVersionOrTimestamp());
+		FileTime yamlTime = Files.getLastModifiedTime(dir.resolve("application.yml"));
+		byte[] snapshot = Files.readAllBytes(dir.resolve("application.smile"));
+
+		// edit the YAML file manually, keeping its modification time
+		Application edited = appSerializer.readFromYaml(dir.resolve("application.yml"));
+		edited.getEndpoints().remove(0);
+		appSerializer.writeToYaml(edited, dir.resolve("application.yml"));
+		Files.setLastModifiedTime(dir.resolve("application.yml"), yamlTime);
+
+		assertThat(storage.readLatest(AID).getApplication().getEndpoints()).hasSize(application.getEndpoints().size() - 1);
+		assertThat(Files.readAllBytes(dir.resolve("application.smile"))).isNotEqualTo(snapshot);
+		assertThat(storage.readLatest(AID).getApplication().getEndpoints()).hasSize(application.getEndpoints().size() - 1);
+	}
+
+	@Test
+	public void testYamlIsNotReadIfSizeAndModificationTimeMatch() throws IOException {
+		Application application = StaticIdpaTestInstance.FIRST.getApplication();
+		storage.save(AID, application);
+
+		Path yamlPath = versionDir(application.getVersionOrTimestamp()).resolve("application.yml");
+		FileTime yamlTime = Files.getLastModifiedTime(yamlPath);
+
+		// unparseable content of the same size, keeping the modification time
+		byte[] garbage = new byte[(int) Files.size(yamlPath)];
+		Arrays.fill(garbage, (byte) '{');
+		Files.write(yamlPath, garbage);
+		Files.setLastModifiedTime(yamlPath, yamlTime);
+
+		assertThat(storage.readLatest(AID).getApplication().getEndpoints()).hasSameSizeAs(application.getEndpoints());
+	}
+
+	@Test
+	public void testTouchedYamlKeepsSnapshotContent() throws IOException {
+		Application application = StaticIdpaTestInstance.FIRST.getApplication();
+		storage.save(AID, application);
+
+		Path dir = versionDir(application.getVersionOrTimestamp());
+		byte[] snapshot = Files.readAllBytes(dir.resolve("application.smile"));
+
+		Files.setLastModifiedTime(dir.resolve("application.yml"), FileTime.fromMillis(Files.getLastModifiedTime(dir.resolve("application.yml")).toMillis() + 60000));
+
+		assertThat(storage.readLatest(AID).getApplication().getEndpoints()).hasSameSizeAs(application.getEndpoints());
+
+		byte[] updated = Files.readAllBytes(dir.resolve("application.smile"));
+		assertThat(updated).isNotEqualTo(snapshot);
+		assertThat(Arrays.copyOfRange(updated, SnapshottingIdpaSerializer.HEADER_LENGTH, updated.length))
+				.isEqualTo(Arrays.copyOfRange(snapshot, SnapshottingIdpaSerializer.HEADER_LENGTH, snapshot.length));
+		assertThat(dir.toFile().list()).containsExactlyInAnyOrder("application.yml", "application.smile");
+	}
+
+	@Test
+	public void testMissingAndBrokenSnapshots() throws IOException {
+		Application application = StaticIdpaTestInstance.FIRST.getApplication();
+		storage.save(AID, application);
+
+		Path dir = versionDir(application.getVersionOrTimestamp());
+		String expected = appSerializer.writeToYamlString(application);
+
+		Files.delete(dir.resolve("application.smile"));
+		assertThat(appSerializer.writeToYamlString(storage.readLatest(AID).getApplication())).isEqualTo(expected);
+		assertThat(dir.resolve("application.smile")).exists();
+
+		// up-to-date header, but broken content
+		byte[] header = Arrays.copyOf(Files.readAllBytes(dir.resolve("application.smile")), SnapshottingIdpaSerializer.HEADER_LENGTH);
+		Files.write(dir.resolve("application.smile"), header);
+		Files.write(dir.resolve("application.smile"), "broken".getBytes(), StandardOpenOption.APPEND);
+		assertThat(appSerializer.writeToYamlString(storage.readLatest(AID).getApplication())).isEqualTo(expected);
+
+		assertThat(dir.toFile().list()).containsExactlyInAnyOrder("application.yml", "application.smile");
+	}
+
+	@Test
+	public void testWithoutSnapshots() throws IOException {
+		storage = new IdpaStorage(storageDir, false);
+
+		Application application = StaticIdpaTestInstance.FIRST.getApplication();
+		storage.save(AID, application);
+
+		assertThat(storage.readLatest(AID).getApplication().getEndpoints()).hasSameSizeAs(application.getEndpoints());
+		assertThat(versionDir(application.getVersionOrTimestamp()).resolve("application.smile")).doesNotExist();
+	}
+
+	@Test
+	public void testLargeApplicationFromSnapshot() throws IOException {
+		Application application = createLargeApplication();
+		storage.save(AID, application);
+
+		Application fromYaml = new IdpaStorage(storageDir, false).readLatest(AID).getApplication();
+		Application fromSnapshot = storage.readLatest(AID).getApplication();
+
+		assertThat(appSerializer.writeToYamlString(fromSnapshot)).isEqualTo(appSerializer.writeToYamlString(fromYaml));
+		assertThat(versionDir(application.getVersionOrTimestamp()).resolve("application.smile")).exists();
+	}
+
+	private Path versionDir(VersionOrTimestamp version) {
+		return storageDir.resolve(AID.toString()).resolve(version.toNormalizedString());
+	}
+
+	private Application createLargeApplication() {
+		Application application = new Application();
+		application.setId("large");
+		application.setVersionOrTimestamp(StaticIdpaTestInstance.FIRST.getApplication().getVersionOrTimestamp());
+
+		for (int i = 0; i < NUM_ENDPOINTS; i++) {
+			HttpEndpoint endpoint = new HttpEndpoint();
+			endpoint.setId("endpoint" + i);
+			endpoint.setDomain("localhost");
+			endpoint.setPort("8080");
+			endpoint.setMethod("POST");
+			endpoint.setProtocol("http");
+			endpoint.setPath("/resources" + i + "/{id}");
+			endpoint.setHeaders(new ArrayList<>(Arrays.asList("Accept: application/json", "Content-Type: application/json")));
+			endpoint.setParameters(new ArrayList<>());
+
+			for (HttpParameterType type : Arrays.asList(HttpParameterType.URL_PART, HttpParameterType.REQ_PARAM, HttpParameterType.BODY)) {
+				HttpParameter param = new HttpParameter();
+				param.setId("endpoint" + i + "_" + type.name());
+				param.setName(type.name().toLowerCase());
+				param.setParameterType(type);
+				endpoint.addParameter(param);
+			}
+
+			application.addEndpoint(endpoint);
+		}
+
+		return application;
+	}
+
+}
@@ -18,6 +18,7 @@ import org.continuity.commons.storage.MixedStorage;
 import org.continuity.commons.utils.WebUtils;
 import org.continuity.idpa.AppId;
 import org.continuity.jmeter.config.RabbitMqConfig;
+import org.continuity.jmeter.transform.IdpaCache;
 import org.continuity.jmeter.transform.JMeterAnnotator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,6 +36,9 @@ public class TestPlanCreationAmqpHandler {
 	@Autowired
 	private RestTemplate restTemplate;
 
+	@Autowired
+	private IdpaCache idpaCache;
+
 	@Autowired
 	private AmqpTemplate amqpTemplate;
 
@@ -86,7 +90,7 @@ public class TestPlanCreationAmqpHandler {
 	 */
 	private JMeterTestPlanBundle createAndGetLoadTest(ArtifactExchangeModel workloadLinks, AppId aid, OrderOptions properties, List<ServiceSpecification> services) {
 		JMeterTestPlanBundle testPlanPack = restTemplate.getForObject(WebUtils.addProtocolIfMissing(workloadLinks.getWorkloadModelLinks().getJmeterLink()), JMeterTestPlanBundle.class);
-		JMeterAnnotator annotator = new JMeterAnnotator(testPlanPack.getTestPlan(), restTemplate);
+		JMeterAnnotator annotator = new JMeterAnnotator(testPlanPack.getTestPlan(), idpaCache);
 		ListedHashTree annotatedTestPlan = annotator.createAnnotatedTestPlan(aid, services);
 
 		if (properties == null) {
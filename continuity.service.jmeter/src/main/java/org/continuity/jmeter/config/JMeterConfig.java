@@ -1,8 +1,11 @@
 package org.continuity.jmeter.config;
 
 import org.continuity.commons.jmeter.TestPlanWriter;
+import org.continuity.jmeter.transform.IdpaCache;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
 
 /**
  * @author Henning Schulz
@@ -16,4 +19,10 @@ public class JMeterConfig {
 		return new TestPlanWriter("../");
 	}
 
+	@Bean(destroyMethod = "close")
+	public IdpaCache idpaCache(RestTemplate restTemplate, @Value("${idpa.cache.size:100}") int maxSize, @Value("${idpa.cache.expiry:3600}") long expirySeconds,
+			@Value("${idpa.fetch.threads:8}") int numThreads) {
+		return new IdpaCache(restTemplate, maxSize, expirySeconds, numThreads);
+	}
+
 }
@@ -15,6 +15,7 @@ import org.continuity.api.rest.RestApi;
 import org.continuity.commons.storage.MixedStorage;
 import org.continuity.idpa.AppId;
 import org.continuity.idpa.VersionOrTimestamp;
+import org.continuity.jmeter.transform.IdpaCache;
 import org.continuity.jmeter.transform.JMeterAnnotator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,7 +28,6 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.client.RestTemplate;
 
 import io.swagger.annotations.ApiImplicitParam;
 import io.swagger.annotations.ApiImplicitParams;
@@ -50,7 +50,7 @@ public class TestPlanController {
 	private MixedStorage<JMeterTestPlanBundle> storage;
 
 	@Autowired
-	private RestTemplate restTemplate;
+	private IdpaCache idpaCache;
 
 	/**
 	 * Returns the test plan that is stored with the specified ID.
@@ -95,7 +95,7 @@ public class TestPlanController {
 		if (annotate) {
 			LOGGER.info("Annotating test plan with app-id {}.", aid);
 
-			JMeterAnnotator annotator = new JMeterAnnotator(bundle.getTestPlan(), restTemplate);
+			JMeterAnnotator annotator = new JMeterAnnotator(bundle.getTestPlan(), idpaCache);
 			ListedHashTree annotatedTestPlan = annotator.createAnnotatedTestPlan(aid, Collections.singletonList(new ServiceSpecification(aid.getService(), version)));
 			bundle.setTestPlan(annotatedTestPlan);
 		}
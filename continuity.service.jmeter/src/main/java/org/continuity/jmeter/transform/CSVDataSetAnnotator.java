@@ -47,13 +47,17 @@ public class CSVDataSetAnnotator {
 		List<CsvInput> inputs = extractNormalizedCsvInputs();
 
 		for (ThreadGroup threadGroup : search.getSearchResults()) {
-			for (CsvInput input : inputs) {
-				addCsvDataSetConfigToThreadGroup(input, search.getSubTree(threadGroup).getTree(threadGroup));
-			}
+			addCsvDataSetConfigs(inputs, search.getSubTree(threadGroup).getTree(threadGroup));
+		}
+	}
+
+	void addCsvDataSetConfigs(List<CsvInput> inputs, HashTree threadGroupTree) {
+		for (CsvInput input : inputs) {
+			addCsvDataSetConfigToThreadGroup(input, threadGroupTree);
 		}
 	}
 
-	private List<CsvInput> extractNormalizedCsvInputs() {
+	List<CsvInput> extractNormalizedCsvInputs() {
 		List<CsvInput> inputs = new ArrayList<>();
 		new IdpaByClassSearcher<>(CsvInput.class, inputs::add).visit(annotation);
 
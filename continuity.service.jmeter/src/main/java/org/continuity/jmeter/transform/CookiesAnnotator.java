@@ -16,8 +16,12 @@ public class CookiesAnnotator {
 		testPlan.traverse(search);
 
 		for (CookieManager cookieManager : search.getSearchResults()) {
-			cookieManager.setClearEachIteration(true);
+			configureCookieManager(cookieManager);
 		}
 	}
 
+	void configureCookieManager(CookieManager cookieManager) {
+		cookieManager.setClearEachIteration(true);
+	}
+
 }
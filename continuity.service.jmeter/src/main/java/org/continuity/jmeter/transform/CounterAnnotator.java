@@ -1,6 +1,8 @@
 package org.continuity.jmeter.transform;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import org.apache.jmeter.modifiers.CounterConfig;
 import org.apache.jmeter.modifiers.gui.CounterConfigGui;
@@ -37,11 +39,23 @@ public class CounterAnnotator {
 		SearchByClass<MarkovController> search = new SearchByClass<>(MarkovController.class);
 		testPlan.traverse(search);
 
-
 		Collection<MarkovController> searchResult = search.getSearchResults();
+		List<CounterInput> inputs = extractCounterInputs();
 
 		for (MarkovController markovController : searchResult) {
-			new IdpaByClassSearcher<>(CounterInput.class, input -> addCounterToThreadGroup(input, search.getSubTree(markovController).getTree(markovController))).visit(systemAnnotation);
+			addCounters(inputs, search.getSubTree(markovController).getTree(markovController));
+		}
+	}
+
+	List<CounterInput> extractCounterInputs() {
+		List<CounterInput> inputs = new ArrayList<>();
+		new IdpaByClassSearcher<>(CounterInput.class, inputs::add).visit(systemAnnotation);
+		return inputs;
+	}
+
+	void addCounters(List<CounterInput> inputs, HashTree markovTree) {
+		for (CounterInput input : inputs) {
+			addCounterToThreadGroup(input, markovTree);
 		}
 	}
 
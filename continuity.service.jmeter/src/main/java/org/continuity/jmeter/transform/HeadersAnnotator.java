@@ -35,14 +35,19 @@ public class HeadersAnnotator extends AbstractSamplerAnnotator {
 
 	private final InputFormatter inputFormatter = new InputFormatter();
 
+	private HeaderManager headerManagerPrototype;
+
 	protected HeadersAnnotator(Application system, ApplicationAnnotation annotation) {
 		super(system, annotation);
 	}
 
+	protected HeadersAnnotator(Application system, ApplicationAnnotation annotation, SamplerEndpointIndex index) {
+		super(system, annotation, index);
+	}
+
 	@Override
 	protected void annotateHttpSampler(HTTPSamplerProxy sampler, HttpEndpoint endpoint, EndpointAnnotation annotation, HashTree samplerTree) {
-		HeaderPanel headerGui = new HeaderPanel();
-		HeaderManager headerManager = (HeaderManager) headerGui.createTestElement();
+		HeaderManager headerManager = createHeaderManager();
 		samplerTree.getTree(sampler).add(new ListedHashTree(headerManager));
 
 		addHeaders(headerManager, endpoint.getHeaders());
@@ -53,6 +58,18 @@ public class HeadersAnnotator extends AbstractSamplerAnnotator {
 		addHeaderParameters(headerManager, endpoint, annotation);
 	}
 
+	/**
+	 * Creates a new header manager. Creating the GUI is expensive, so it is done only once and the
+	 * created header manager is cloned.
+	 */
+	private HeaderManager createHeaderManager() {
+		if (headerManagerPrototype == null) {
+			headerManagerPrototype = (HeaderManager) new HeaderPanel().createTestElement();
+		}
+
+		return (HeaderManager) headerManagerPrototype.clone();
+	}
+
 	private void addHeaders(HeaderManager headerManager, Iterable<String> headers) {
 		for (String header : headers) {
 			addHeader(headerManager, header);
@@ -23,6 +23,10 @@ public class HttpSamplersAnnotator extends AbstractSamplerAnnotator {
 		super(system, annotation);
 	}
 
+	public HttpSamplersAnnotator(Application system, ApplicationAnnotation annotation, SamplerEndpointIndex index) {
+		super(system, annotation, index);
+	}
+
 	@Override
 	protected void annotateHttpSampler(HTTPSamplerProxy sampler, HttpEndpoint endpoint, EndpointAnnotation annotation, HashTree samplerTree) {
 		updateSamplerProperties(sampler, endpoint);
@@ -0,0 +1,297 @@
+package org.continuity.jmeter.transform;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.continuity.api.entities.order.ServiceSpecification;
+import org.continuity.api.rest.RestApi.Idpa;
+import org.continuity.idpa.AppId;
+import org.continuity.idpa.VersionOrTimestamp;
+import org.continuity.idpa.annotation.ApplicationAnnotation;
+import org.continuity.idpa.application.Application;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Fetches the annotations and applications of several services from the IDPA service. All
+ * requests are sent concurrently, so that fetching the IDPAs of several services takes about one
+ * round trip. The IDPAs are cached by app-id, service, and version. IDPAs requested without a
+ * version are always fetched, as the latest version might have changed.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class IdpaCache implements Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(IdpaCache.class);
+
+	private final RestTemplate restTemplate;
+
+	private final int maxSize;
+
+	private final long expiryMillis;
+
+	private final Map<String, CachedIdpa> entries;
+
+	private final ExecutorService executor;
+
+	/**
+	 *
+	 * @param restTemplate
+	 *            The rest template used for fetching the IDPAs.
+	 * @param maxSize
+	 *            The maximum number of cached IDPAs. The least recently used ones are evicted
+	 *            first. A value of 0 or less disables the cache.
+	 * @param expirySeconds
+	 *            The number of seconds after which a cached IDPA is fetched again. A value of 0
+	 *            or less means that cached IDPAs do not expire.
+	 * @param numThreads
+	 *            The maximum number of concurrent requests. If 0 or less, the number of available
+	 *            processors is used.
+	 */
+	public IdpaCache(RestTemplate restTemplate, int maxSize, long expirySeconds, int numThreads) {
+		this.restTemplate = restTemplate;
+		this.maxSize = maxSize;
+		this.expiryMillis = expirySeconds * 1000;
+		this.entries = new LinkedHashMap<String, CachedIdpa>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = -3166488104470786128L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedIdpa> eldest) {
+				return size() > IdpaCache.this.maxSize;
+			}
+
+		};
+		this.executor = Executors.newFixedThreadPool(numThreads > 0 ? numThreads : Runtime.getRuntime().availableProcessors());
+
+		if (maxSize > 0) {
+			LOGGER.info("Caching up to {} IDPAs.", maxSize);
+		} else {
+			LOGGER.info("The IDPA cache is disabled.");
+		}
+	}
+
+	/**
+	 * Gets the annotations and applications of the passed services. Cached IDPAs are reused; all
+	 * others are fetched concurrently.
+	 *
+	 * @param aid
+	 *            The app-id.
+	 * @param services
+	 *            The services, optionally with versions.
+	 * @return The IDPAs in the order of the services. Services whose annotation or application
+	 *         could not be fetched are omitted.
+	 */
+	public List<ServiceIdpa> getIdpas(AppId aid, List<ServiceSpecification> services) {
+		List<PendingIdpa> pending = new ArrayList<>(services.size());
+
+		for (ServiceSpecification service : services) {
+			AppId serviceAid = aid.withService(service.getService());
+			String version = service.getVersion() == null ? null : service.getVersion().toString();
+			String key = createKey(serviceAid, service.getVersion());
+			CachedIdpa cached = get(key);
+
+			if (cached != null) {
+				LOGGER.debug("Using cached IDPA of {} in version {}.", serviceAid, version);
+				pending.add(new PendingIdpa(key, cached.idpa));
+			} else {
+				Future<ApplicationAnnotation> annotation = executor.submit(
+						() -> restTemplate.getForObject(Idpa.Annotation.GET.requestUrl(serviceAid).withQueryIfNotEmpty("version", version).get(), ApplicationAnnotation.class));
+				Future<Application> application = executor
+						.submit(() -> restTemplate.getForObject(Idpa.Application.GET.requestUrl(serviceAid).withQueryIfNotEmpty("version", version).get(), Application.class));
+
+				pending.add(new PendingIdpa(key, serviceAid, annotation, application));
+			}
+		}
+
+		List<ServiceIdpa> idpas = new ArrayList<>(pending.size());
+
+		for (PendingIdpa p : pending) {
+			ServiceIdpa idpa = p.await();
+
+			if (idpa != null) {
+				if (p.isFetched()) {
+					put(p.key, idpa);
+				}
+
+				idpas.add(idpa);
+			}
+		}
+
+		return idpas;
+	}
+
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Creates the cache key. Returns {@code null} if the IDPA must not be cached, i.e., if there
+	 * is no version.
+	 */
+	private String createKey(AppId serviceAid, VersionOrTimestamp version) {
+		if ((maxSize <= 0) || (version == null) || version.isEmpty()) {
+			return null;
+		}
+
+		return serviceAid + "@" + version.toNormalizedString();
+	}
+
+	private synchronized CachedIdpa get(String key) {
+		if (key == null) {
+			return null;
+		}
+
+		CachedIdpa cached = entries.get(key);
+
+		if ((cached != null) && (expiryMillis > 0) && ((System.currentTimeMillis() - cached.timestamp) > expiryMillis)) {
+			entries.remove(key);
+			return null;
+		}
+
+		return cached;
+	}
+
+	private synchronized void put(String key, ServiceIdpa idpa) {
+		if (key != null) {
+			entries.put(key, new CachedIdpa(idpa, System.currentTimeMillis()));
+		}
+	}
+
+	/**
+	 * The annotation and application of a service.
+	 */
+	public static class ServiceIdpa {
+
+		private final Application application;
+
+		private final ApplicationAnnotation annotation;
+
+		private ServiceIdpa(Application application, ApplicationAnnotation annotation) {
+			this.application = application;
+			this.annotation = annotation;
+		}
+
+		public Application getApplication() {
+			return application;
+		}
+
+		public ApplicationAnnotation getAnnotation() {
+			return annotation;
+		}
+
+	}
+
+	private static class CachedIdpa {
+
+		private final ServiceIdpa idpa;
+
+		private final long timestamp;
+
+		private CachedIdpa(ServiceIdpa idpa, long timestamp) {
+			this.idpa = idpa;
+			this.timestamp = timestamp;
+		}
+
+	}
+
+	/**
+	 * An IDPA that is either cached or being fetched.
+	 */
+	private static class PendingIdpa {
+
+		private final String key;
+
+		private final ServiceIdpa cached;
+
+		private final AppId aid;
+
+		private final Future<ApplicationAnnotation> annotation;
+
+		private final Future<Application> application;
+
+		private PendingIdpa(String key, ServiceIdpa cached) {
+			this.key = key;
+			this.cached = cached;
+			this.aid = null;
+			this.annotation = null;
+			this.application = null;
+		}
+
+		private PendingIdpa(String key, AppId aid, Future<ApplicationAnnotation> annotation, Future<Application> application) {
+			this.key = key;
+			this.cached = null;
+			this.aid = aid;
+			this.annotation = annotation;
+			this.application = application;
+		}
+
+		private boolean isFetched() {
+			return cached == null;
+		}
+
+		/**
+		 * Waits for the fetched annotation and application. The application is only considered
+		 * if there is an annotation.
+		 *
+		 * @return The IDPA or {@code null} if the annotation or application is missing.
+		 */
+		private ServiceIdpa await() {
+			if (cached != null) {
+				return cached;
+			}
+
+			ApplicationAnnotation ann;
+			try {
+				ann = awaitFuture(annotation);
+			} catch (HttpStatusCodeException e) {
+				LOGGER.error("Received a non-200 response: {} ({}) - {}", e.getStatusCode(), e.getStatusCode().getReasonPhrase(), e.getResponseBodyAsString());
+				application.cancel(true);
+				return null;
+			}
+
+			if (ann == null) {
+				LOGGER.error("Annotation with app-id {} is null! Aborting.", aid);
+				application.cancel(true);
+				return null;
+			}
+
+			Application app = awaitFuture(application);
+
+			if (app == null) {
+				LOGGER.error("Application with app-id {} is null! Aborting.", aid);
+				return null;
+			}
+
+			return new ServiceIdpa(app, ann);
+		}
+
+		private <T> T awaitFuture(Future<T> future) {
+			try {
+				return future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while fetching the IDPA of " + aid, e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				} else {
+					throw new IllegalStateException("Could not fetch the IDPA of " + aid, e.getCause());
+				}
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,102 @@
+package org.continuity.jmeter.transform;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.continuity.idpa.WeakReference;
+import org.continuity.idpa.annotation.ApplicationAnnotation;
+import org.continuity.idpa.annotation.EndpointAnnotation;
+import org.continuity.idpa.application.Application;
+import org.continuity.idpa.application.Endpoint;
+import org.continuity.idpa.visitor.IdpaByClassSearcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Indexes the endpoint annotations of an annotation by the id of the annotated endpoint and
+ * caches the resolved endpoints. Used for finding the annotation and endpoint belonging to a
+ * JMeter sampler without searching the whole annotation and application per sampler.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class SamplerEndpointIndex {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(SamplerEndpointIndex.class);
+
+	private static final Pattern REQUEST_PATTERN = Pattern.compile("R\\d+\\s\\((.*)\\)");
+
+	private final Application system;
+
+	private final Map<String, EndpointAnnotation> annotationsByEndpoint = new HashMap<>();
+
+	private final Map<String, Optional<Endpoint<?>>> resolvedEndpoints = new HashMap<>();
+
+	public SamplerEndpointIndex(Application system, ApplicationAnnotation annotation) {
+		this.system = system;
+
+		// the first annotation of an endpoint wins, as with FindBy
+		new IdpaByClassSearcher<>(EndpointAnnotation.class, ann -> annotationsByEndpoint.putIfAbsent(ann.getAnnotatedEndpoint().getId(), ann)).visit(annotation);
+	}
+
+	/**
+	 * Extracts the endpoint id from the name of a sampler.
+	 *
+	 * @param samplerName
+	 *            The name of the sampler, e.g., {@code R42 (login)}.
+	 * @return The endpoint id, e.g., {@code login}.
+	 */
+	public String extractEndpointId(String samplerName) {
+		Matcher matcher = REQUEST_PATTERN.matcher(samplerName);
+
+		if (matcher.matches()) {
+			return matcher.group(1);
+		} else {
+			return samplerName;
+		}
+	}
+
+	/**
+	 * Gets the annotation of an endpoint. A prefix separated by {@code #} is ignored.
+	 *
+	 * @param endpointId
+	 *            The endpoint id as extracted from the sampler name.
+	 * @return The endpoint annotation. If there is none, an empty annotation is returned.
+	 */
+	public EndpointAnnotation getAnnotation(String endpointId) {
+		EndpointAnnotation ann;
+
+		// remove prefix
+		if (endpointId.contains("#")) {
+			ann = annotationsByEndpoint.get(endpointId.split("#")[1]);
+		} else {
+			ann = annotationsByEndpoint.get(endpointId);
+		}
+
+		if (ann == null) {
+			LOGGER.warn("No endpoint annotation found for endpoint {}!", endpointId);
+
+			// Using an empty annotation for convenience
+			ann = new EndpointAnnotation();
+			ann.setAnnotatedEndpoint(WeakReference.create(Endpoint.GENERIC_TYPE, endpointId));
+		}
+
+		return ann;
+	}
+
+	/**
+	 * Resolves the endpoint annotated by an endpoint annotation. Each endpoint is resolved only
+	 * once.
+	 *
+	 * @param ann
+	 *            The endpoint annotation.
+	 * @return The annotated endpoint or {@code null} if it does not exist.
+	 */
+	public Endpoint<?> resolveEndpoint(EndpointAnnotation ann) {
+		return resolvedEndpoints.computeIfAbsent(ann.getAnnotatedEndpoint().getId(), id -> Optional.ofNullable(ann.getAnnotatedEndpoint().resolve(system))).orElse(null);
+	}
+
+}
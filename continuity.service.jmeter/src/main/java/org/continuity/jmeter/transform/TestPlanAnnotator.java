@@ -0,0 +1,221 @@
+package org.continuity.jmeter.transform;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jmeter.config.Arguments;
+import org.apache.jmeter.protocol.http.control.CookieManager;
+import org.apache.jmeter.protocol.http.sampler.HTTPSamplerProxy;
+import org.apache.jmeter.threads.ThreadGroup;
+import org.apache.jorphan.collections.HashTree;
+import org.apache.jorphan.collections.HashTreeTraverser;
+import org.apache.jorphan.collections.ListedHashTree;
+import org.continuity.idpa.annotation.ApplicationAnnotation;
+import org.continuity.idpa.annotation.CounterInput;
+import org.continuity.idpa.annotation.CsvInput;
+import org.continuity.idpa.annotation.EndpointAnnotation;
+import org.continuity.idpa.application.Application;
+import org.continuity.idpa.application.Endpoint;
+import org.continuity.idpa.application.HttpEndpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.voorn.markov4jmeter.control.MarkovController;
+
+/**
+ * Annotates a JMeter test plan with the annotations of several services. Creates the same test
+ * plan as applying the {@link UserDefinedDefaultVariablesCleanerAnnotator},
+ * {@link UserDefinedVarsAnnotator}, {@link CSVDataSetAnnotator}, {@link HttpSamplersAnnotator},
+ * {@link ValueExtractorsAnnotator}, {@link CounterAnnotator}, {@link HeadersAnnotator}, and
+ * {@link CookiesAnnotator} one after another per service, but traverses the test plan only once.
+ * The annotations are indexed by endpoint once per service and applied sampler by sampler.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class TestPlanAnnotator {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(TestPlanAnnotator.class);
+
+	private final List<ServiceAnnotators> services = new ArrayList<>();
+
+	/**
+	 * Adds the annotation of a service. The services are annotated in the order they have been
+	 * added.
+	 *
+	 * @param application
+	 *            The application model of the service.
+	 * @param annotation
+	 *            The annotation of the service.
+	 * @return This annotator for chaining.
+	 */
+	public TestPlanAnnotator addService(Application application, ApplicationAnnotation annotation) {
+		services.add(new ServiceAnnotators(application, annotation));
+		return this;
+	}
+
+	/**
+	 * Annotates the test plan with all added services.
+	 *
+	 * @param testPlan
+	 *            The test plan to be annotated. Will be changed.
+	 */
+	public void annotate(ListedHashTree testPlan) {
+		TestPlanElements elements = new TestPlanElements();
+		testPlan.traverse(elements);
+
+		if (elements.arguments.size() != 1) {
+			throw new RuntimeException("Number of Arguments in test plan was " + elements.arguments.size() + "!");
+		}
+
+		Arguments args = elements.arguments.get(0);
+		new UserDefinedDefaultVariablesCleanerAnnotator().cleanVariables(args);
+
+		for (ServiceAnnotators service : services) {
+			service.varsAnnotator.annotateVariables(args);
+		}
+
+		for (HashTree threadGroupTree : elements.threadGroupTrees) {
+			for (ServiceAnnotators service : services) {
+				service.csvAnnotator.addCsvDataSetConfigs(service.csvInputs, threadGroupTree);
+				service.extractorsAnnotator.addExtractionsToThreadGroup(threadGroupTree);
+			}
+		}
+
+		for (int i = 0; i < elements.samplers.size(); i++) {
+			HTTPSamplerProxy sampler = elements.samplers.get(i);
+			HashTree samplerTree = elements.samplerTrees.get(i);
+
+			for (ServiceAnnotators service : services) {
+				service.annotateSampler(sampler, samplerTree);
+			}
+		}
+
+		for (HashTree markovTree : elements.markovTrees) {
+			for (ServiceAnnotators service : services) {
+				service.counterAnnotator.addCounters(service.counterInputs, markovTree);
+			}
+		}
+
+		if (!services.isEmpty()) {
+			CookiesAnnotator cookiesAnnotator = new CookiesAnnotator();
+			elements.cookieManagers.forEach(cookiesAnnotator::configureCookieManager);
+		}
+
+		LOGGER.info("Annotated {} samplers with the annotations of {} services.", elements.samplers.size(), services.size());
+	}
+
+	/**
+	 * The annotators and indexed annotation of a single service.
+	 */
+	private static class ServiceAnnotators {
+
+		private final SamplerEndpointIndex index;
+
+		private final UserDefinedVarsAnnotator varsAnnotator;
+
+		private final CSVDataSetAnnotator csvAnnotator;
+
+		private final List<CsvInput> csvInputs;
+
+		private final HttpSamplersAnnotator samplersAnnotator;
+
+		private final ValueExtractorsAnnotator extractorsAnnotator;
+
+		private final CounterAnnotator counterAnnotator;
+
+		private final List<CounterInput> counterInputs;
+
+		private final HeadersAnnotator headersAnnotator;
+
+		private ServiceAnnotators(Application application, ApplicationAnnotation annotation) {
+			this.index = new SamplerEndpointIndex(application, annotation);
+			this.varsAnnotator = new UserDefinedVarsAnnotator(annotation);
+			this.csvAnnotator = new CSVDataSetAnnotator(annotation);
+			this.csvInputs = csvAnnotator.extractNormalizedCsvInputs();
+			this.samplersAnnotator = new HttpSamplersAnnotator(application, annotation, index);
+			this.extractorsAnnotator = new ValueExtractorsAnnotator(application, annotation, index);
+			this.counterAnnotator = new CounterAnnotator(annotation);
+			this.counterInputs = counterAnnotator.extractCounterInputs();
+			this.headersAnnotator = new HeadersAnnotator(application, annotation, index);
+		}
+
+		/**
+		 * Looks up the endpoint of the sampler once and applies all sampler annotations. The
+		 * lookup is done by the current name, as a previous service might have renamed the
+		 * sampler.
+		 */
+		private void annotateSampler(HTTPSamplerProxy sampler, HashTree samplerTree) {
+			String endpointId = index.extractEndpointId(sampler.getName());
+			EndpointAnnotation ann = index.getAnnotation(endpointId);
+			Endpoint<?> endpoint = index.resolveEndpoint(ann);
+
+			if ((endpoint != null) && (endpoint instanceof HttpEndpoint)) {
+				samplersAnnotator.annotateHttpSampler(sampler, (HttpEndpoint) endpoint, ann, samplerTree);
+				extractorsAnnotator.annotateHttpSampler(sampler, (HttpEndpoint) endpoint, ann, samplerTree);
+				headersAnnotator.annotateHttpSampler(sampler, (HttpEndpoint) endpoint, ann, samplerTree);
+			} else {
+				LOGGER.warn("No HttpEndpoint found for ID {}. Leaving sampler {} as it is.", endpointId, sampler.getName());
+			}
+		}
+
+	}
+
+	/**
+	 * Collects all elements to be annotated in one traversal, in traversal order.
+	 */
+	private static class TestPlanElements implements HashTreeTraverser {
+
+		private final List<Arguments> arguments = new ArrayList<>();
+
+		private final List<HashTree> threadGroupTrees = new ArrayList<>();
+
+		private final List<HTTPSamplerProxy> samplers = new ArrayList<>();
+
+		private final List<HashTree> samplerTrees = new ArrayList<>();
+
+		private final List<HashTree> markovTrees = new ArrayList<>();
+
+		private final List<CookieManager> cookieManagers = new ArrayList<>();
+
+		@Override
+		public void addNode(Object node, HashTree subTree) {
+			if (node instanceof Arguments) {
+				arguments.add((Arguments) node);
+			}
+
+			if (node instanceof ThreadGroup) {
+				threadGroupTrees.add(subTree);
+			}
+
+			if (node instanceof HTTPSamplerProxy) {
+				// the sampler annotators expect a tree holding the sampler, as SearchByClass creates
+				ListedHashTree samplerTree = new ListedHashTree(node);
+				samplerTree.set(node, subTree);
+
+				samplers.add((HTTPSamplerProxy) node);
+				samplerTrees.add(samplerTree);
+			}
+
+			if (node instanceof MarkovController) {
+				markovTrees.add(subTree);
+			}
+
+			if (node instanceof CookieManager) {
+				cookieManagers.add((CookieManager) node);
+			}
+		}
+
+		@Override
+		public void subtractNode() {
+			// nothing to do
+		}
+
+		@Override
+		public void processPath() {
+			// nothing to do
+		}
+
+	}
+
+}
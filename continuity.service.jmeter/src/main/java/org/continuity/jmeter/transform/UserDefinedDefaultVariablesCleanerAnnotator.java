@@ -28,14 +28,18 @@ public class UserDefinedDefaultVariablesCleanerAnnotator {
 
 		// Only one iteration!
 		for (Arguments args : search.getSearchResults()) {
-			PropertyIterator it = args.getArguments().iterator();
+			cleanVariables(args);
+		}
+	}
+
+	void cleanVariables(Arguments args) {
+		PropertyIterator it = args.getArguments().iterator();
 
-			while (it.hasNext()) {
-				JMeterProperty prop = it.next();
+		while (it.hasNext()) {
+			JMeterProperty prop = it.next();
 
-				if (!prop.getName().startsWith("continuity")) {
-					it.remove();
-				}
+			if (!prop.getName().startsWith("continuity")) {
+				it.remove();
 			}
 		}
 	}
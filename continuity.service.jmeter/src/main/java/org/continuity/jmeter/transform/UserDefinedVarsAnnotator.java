@@ -33,11 +33,15 @@ public class UserDefinedVarsAnnotator {
 
 		// Only one iteration!
 		for (Arguments args : search.getSearchResults()) {
-			addDirectDataInputs(args);
-			addExtractedInputsInitialValues(args);
+			annotateVariables(args);
 		}
 	}
 
+	void annotateVariables(Arguments args) {
+		addDirectDataInputs(args);
+		addExtractedInputsInitialValues(args);
+	}
+
 	private void addDirectDataInputs(final Arguments args) {
 		systemAnnotation.getInputs().stream().filter(input -> input instanceof DirectListInput).map(input -> (DirectListInput) input).forEach(input -> {
 			if (input.getData().size() > 1) {
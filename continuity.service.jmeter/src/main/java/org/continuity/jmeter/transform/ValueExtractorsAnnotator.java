@@ -1,5 +1,9 @@
 package org.continuity.jmeter.transform;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.apache.jmeter.extractor.RegexExtractor;
@@ -11,7 +15,6 @@ import org.apache.jmeter.threads.ThreadGroup;
 import org.apache.jorphan.collections.HashTree;
 import org.apache.jorphan.collections.ListedHashTree;
 import org.apache.jorphan.collections.SearchByClass;
-import org.continuity.idpa.IdpaElement;
 import org.continuity.idpa.annotation.ApplicationAnnotation;
 import org.continuity.idpa.annotation.EndpointAnnotation;
 import org.continuity.idpa.annotation.extracted.ExtractedInput;
@@ -24,31 +27,45 @@ import org.continuity.idpa.visitor.IdpaByClassSearcher;
 
 public class ValueExtractorsAnnotator extends AbstractSamplerAnnotator {
 
+	private final Map<String, List<InputExtraction>> extractionsPerEndpoint = new HashMap<>();
+
+	private RegexExtractor regexExtractorPrototype;
+
+	private JSONPostProcessor jsonPostProcessorPrototype;
+
 	protected ValueExtractorsAnnotator(Application system, ApplicationAnnotation annotation) {
-		super(system, annotation);
+		this(system, annotation, new SamplerEndpointIndex(system, annotation));
 	}
 
-	@Override
-	protected void annotateHttpSampler(HTTPSamplerProxy sampler, HttpEndpoint endpoint, EndpointAnnotation annotation, HashTree samplerTree) {
-		IdpaByClassSearcher<ExtractedInput> searcher = new IdpaByClassSearcher<>(ExtractedInput.class, e -> onExtractionFound(annotation, samplerTree.getTree(sampler), e));
-		searcher.visit(getAnnotation());
-	}
+	protected ValueExtractorsAnnotator(Application system, ApplicationAnnotation annotation, SamplerEndpointIndex index) {
+		super(system, annotation, index);
 
-	private void onExtractionFound(EndpointAnnotation annotation, HashTree samplerTree, IdpaElement element) {
-		ExtractedInput input = (ExtractedInput) element;
+		new IdpaByClassSearcher<>(ExtractedInput.class, this::indexExtractions).visit(annotation);
+	}
 
+	private void indexExtractions(ExtractedInput input) {
 		for (ValueExtraction extraction : input.getExtractions()) {
-			if (extraction.getFrom().isEndpoint() && extraction.getFrom().getEndpoint().getId().equals(annotation.getAnnotatedEndpoint().getId())) {
-				String id = input.getId();
-
-				if (extraction instanceof RegExExtraction) {
-					samplerTree.add(new ListedHashTree(createRegexExtractor((RegExExtraction) extraction, id)));
-				} else if (extraction instanceof JsonPathExtraction) {
-					samplerTree.add(new ListedHashTree(createJsonPostProcessor((JsonPathExtraction) extraction, id)));
-				}
+			if (extraction.getFrom().isEndpoint()) {
+				extractionsPerEndpoint.computeIfAbsent(extraction.getFrom().getEndpoint().getId(), id -> new ArrayList<>()).add(new InputExtraction(input.getId(), extraction));
 			}
 		}
+	}
+
+	@Override
+	protected void annotateHttpSampler(HTTPSamplerProxy sampler, HttpEndpoint endpoint, EndpointAnnotation annotation, HashTree samplerTree) {
+		List<InputExtraction> extractions = extractionsPerEndpoint.get(annotation.getAnnotatedEndpoint().getId());
+
+		if (extractions == null) {
+			return;
+		}
 
+		for (InputExtraction extraction : extractions) {
+			if (extraction.extraction instanceof RegExExtraction) {
+				samplerTree.getTree(sampler).add(new ListedHashTree(createRegexExtractor((RegExExtraction) extraction.extraction, extraction.inputId)));
+			} else if (extraction.extraction instanceof JsonPathExtraction) {
+				samplerTree.getTree(sampler).add(new ListedHashTree(createJsonPostProcessor((JsonPathExtraction) extraction.extraction, extraction.inputId)));
+			}
+		}
 	}
 
 	public void annotateInputs(ListedHashTree testPlan) {
@@ -61,7 +78,7 @@ public class ValueExtractorsAnnotator extends AbstractSamplerAnnotator {
 		}
 	}
 
-	private void addExtractionsToThreadGroup(HashTree threadGroupTree) {
+	void addExtractionsToThreadGroup(HashTree threadGroupTree) {
 		for (ExtractedInput extractedInput : getAnnotation().getInputs().stream().filter(ExtractedInput.class::isInstance).map(ExtractedInput.class::cast).collect(Collectors.toList())) {
 			for (ValueExtraction extraction : extractedInput.getExtractions()) {
 				if (extraction.getFrom().isInput()) {
@@ -82,8 +99,12 @@ public class ValueExtractorsAnnotator extends AbstractSamplerAnnotator {
 	}
 
 	private RegexExtractor createRegexExtractor(RegExExtraction extraction, String id) {
-		RegexExtractorGui gui = new RegexExtractorGui();
-		RegexExtractor extractor = (RegexExtractor) gui.createTestElement();
+		// creating the GUI is expensive, so it is done only once
+		if (regexExtractorPrototype == null) {
+			regexExtractorPrototype = (RegexExtractor) new RegexExtractorGui().createTestElement();
+		}
+
+		RegexExtractor extractor = (RegexExtractor) regexExtractorPrototype.clone();
 
 		extractor.setRefName(id);
 		extractor.setRegex(extraction.getPattern());
@@ -102,8 +123,11 @@ public class ValueExtractorsAnnotator extends AbstractSamplerAnnotator {
 	}
 
 	private JSONPostProcessor createJsonPostProcessor(JsonPathExtraction extraction, String id) {
-		JSONPostProcessorGui gui = new JSONPostProcessorGui();
-		JSONPostProcessor processor = (JSONPostProcessor) gui.createTestElement();
+		if (jsonPostProcessorPrototype == null) {
+			jsonPostProcessorPrototype = (JSONPostProcessor) new JSONPostProcessorGui().createTestElement();
+		}
+
+		JSONPostProcessor processor = (JSONPostProcessor) jsonPostProcessorPrototype.clone();
 
 		processor.setRefNames(id);
 		processor.setJsonPathExpressions(extraction.getJsonPath());
@@ -120,4 +144,17 @@ public class ValueExtractorsAnnotator extends AbstractSamplerAnnotator {
 		return processor;
 	}
 
+	private static class InputExtraction {
+
+		private final String inputId;
+
+		private final ValueExtraction extraction;
+
+		private InputExtraction(String inputId, ValueExtraction extraction) {
+			this.inputId = inputId;
+			this.extraction = extraction;
+		}
+
+	}
+
 }
@@ -0,0 +1,174 @@
+package org.continuity.jmeter.transform;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.continuity.api.entities.order.ServiceSpecification;
+import org.continuity.idpa.AppId;
+import org.continuity.idpa.VersionOrTimestamp;
+import org.continuity.idpa.annotation.ApplicationAnnotation;
+import org.continuity.idpa.application.Application;
+import org.continuity.jmeter.transform.IdpaCache.ServiceIdpa;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+public class IdpaCacheTest {
+
+	private static final AppId AID = AppId.fromString("myapp");
+
+	private StubRestTemplate restTemplate;
+
+	private IdpaCache cache;
+
+	@Before
+	public void setup() {
+		restTemplate = new StubRestTemplate();
+	}
+
+	@After
+	public void close() {
+		cache.close();
+	}
+
+	@Test
+	public void testServicesAreFetchedConcurrently() throws NumberFormatException, ParseException {
+		cache = new IdpaCache(restTemplate, 10, 0, 8);
+		restTemplate.barrier = new CountDownLatch(8);
+
+		List<ServiceIdpa> idpas = cache.getIdpas(AID, services("v1", "carts", "orders", "catalog", "payment"));
+
+		assertThat(idpas).extracting(idpa -> idpa.getApplication().getId()).containsExactly("myapp.carts", "myapp.orders", "myapp.catalog", "myapp.payment");
+		assertThat(idpas).extracting(idpa -> idpa.getAnnotation().getId()).containsExactly("myapp.carts", "myapp.orders", "myapp.catalog", "myapp.payment");
+		assertThat(restTemplate.requests.get()).isEqualTo(8);
+		assertThat(restTemplate.maxInFlight.get()).isEqualTo(8);
+	}
+
+	@Test
+	public void testVersionedIdpasAreCached() throws NumberFormatException, ParseException {
+		cache = new IdpaCache(restTemplate, 10, 0, 8);
+
+		cache.getIdpas(AID, services("v1", "carts", "orders"));
+		List<ServiceIdpa> idpas = cache.getIdpas(AID, services("v1", "orders", "carts"));
+
+		assertThat(idpas).extracting(idpa -> idpa.getApplication().getId()).containsExactly("myapp.orders", "myapp.carts");
+		assertThat(restTemplate.requests.get()).isEqualTo(4);
+
+		cache.getIdpas(AID, services("v2", "carts"));
+		cache.getIdpas(AID, Collections.singletonList(new ServiceSpecification("carts", null)));
+
+		assertThat(restTemplate.requests.get()).isEqualTo(8);
+
+		cache.getIdpas(AID, Collections.singletonList(new ServiceSpecification("carts", null)));
+
+		assertThat(restTemplate.requests.get()).isEqualTo(10);
+	}
+
+	@Test
+	public void testLeastRecentlyUsedIsEvicted() throws NumberFormatException, ParseException {
+		cache = new IdpaCache(restTemplate, 2, 0, 8);
+
+		cache.getIdpas(AID, services("v1", "carts", "orders"));
+		cache.getIdpas(AID, services("v1", "carts"));
+		cache.getIdpas(AID, services("v1", "catalog"));
+
+		assertThat(restTemplate.requests.get()).isEqualTo(6);
+
+		cache.getIdpas(AID, services("v1", "carts", "catalog"));
+
+		assertThat(restTemplate.requests.get()).isEqualTo(6);
+
+		cache.getIdpas(AID, services("v1", "orders"));
+
+		assertThat(restTemplate.requests.get()).isEqualTo(8);
+	}
+
+	@Test
+	public void testMissingIdpasAreOmitted() throws NumberFormatException, ParseException {
+		cache = new IdpaCache(restTemplate, 10, 0, 8);
+
+		// all requests are sent before a missing annotation cancels the application request
+		restTemplate.barrier = new CountDownLatch(8);
+		List<ServiceIdpa> idpas = cache.getIdpas(AID, services("v1", "carts", "missing", "noapp", "orders"));
+
+		assertThat(idpas).extracting(idpa -> idpa.getApplication().getId()).containsExactly("myapp.carts", "myapp.orders");
+
+		restTemplate.barrier = new CountDownLatch(4);
+		cache.getIdpas(AID, services("v1", "missing", "noapp"));
+
+		assertThat(restTemplate.requests.get()).isEqualTo(12);
+	}
+
+	private List<ServiceSpecification> services(String version, String... services) throws NumberFormatException, ParseException {
+		VersionOrTimestamp vot = VersionOrTimestamp.fromString(version);
+		return Arrays.stream(services).map(service -> new ServiceSpecification(service, vot)).collect(Collectors.toList());
+	}
+
+	private static class StubRestTemplate extends RestTemplate {
+
+		private final AtomicInteger requests = new AtomicInteger();
+
+		private final AtomicInteger inFlight = new AtomicInteger();
+
+		private final AtomicInteger maxInFlight = new AtomicInteger();
+
+		/**
+		 * If set, each request waits until as many requests as the count are in flight.
+		 */
+		private volatile CountDownLatch barrier;
+
+		@Override
+		public <T> T getForObject(String url, Class<T> responseType, Object... urlVariables) {
+			requests.incrementAndGet();
+			maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+
+			try {
+				if (barrier != null) {
+					barrier.countDown();
+					barrier.await(10, TimeUnit.SECONDS);
+				}
+
+				return respond(url, responseType);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			} finally {
+				inFlight.decrementAndGet();
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private <T> T respond(String url, Class<T> responseType) {
+			String aid = url.replaceAll(".*/(myapp\\.[a-z]+).*", "$1");
+
+			if (aid.endsWith("missing")) {
+				throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+			} else if (responseType == Application.class) {
+				if (aid.endsWith("noapp")) {
+					return null;
+				}
+
+				Application application = new Application();
+				application.setId(aid);
+				return (T) application;
+			} else {
+				ApplicationAnnotation annotation = new ApplicationAnnotation();
+				annotation.setId(aid);
+				return (T) annotation;
+			}
+		}
+
+	}
+
+}
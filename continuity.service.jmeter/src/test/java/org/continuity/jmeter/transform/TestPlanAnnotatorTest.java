@@ -0,0 +1,231 @@
+package org.continuity.jmeter.transform;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.jmeter.config.Arguments;
+import org.apache.jmeter.control.LoopController;
+import org.apache.jmeter.protocol.http.control.CookieManager;
+import org.apache.jmeter.protocol.http.sampler.HTTPSamplerProxy;
+import org.apache.jmeter.save.SaveService;
+import org.apache.jmeter.testelement.TestPlan;
+import org.apache.jmeter.threads.ThreadGroup;
+import org.apache.jmeter.util.JMeterUtils;
+import org.apache.jorphan.collections.HashTree;
+import org.apache.jorphan.collections.ListedHashTree;
+import org.continuity.idpa.WeakReference;
+import org.continuity.idpa.annotation.ApplicationAnnotation;
+import org.continuity.idpa.annotation.CounterInput;
+import org.continuity.idpa.annotation.CsvColumnInput;
+import org.continuity.idpa.annotation.CsvInput;
+import org.continuity.idpa.annotation.DirectListInput;
+import org.continuity.idpa.annotation.EndpointAnnotation;
+import org.continuity.idpa.annotation.ParameterAnnotation;
+import org.continuity.idpa.annotation.extracted.EndpointOrInput;
+import org.continuity.idpa.annotation.extracted.ExtractedInput;
+import org.continuity.idpa.annotation.extracted.RegExExtraction;
+import org.continuity.idpa.application.Application;
+import org.continuity.idpa.application.HttpEndpoint;
+import org.continuity.idpa.application.HttpParameter;
+import org.continuity.idpa.application.HttpParameterType;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import net.voorn.markov4jmeter.control.ApplicationState;
+import net.voorn.markov4jmeter.control.MarkovController;
+
+public class TestPlanAnnotatorTest {
+
+	private static final int NUM_ENDPOINTS = 20;
+
+	private static final int NUM_SAMPLERS = 90;
+
+	@BeforeClass
+	public static void initJMeter() {
+		JMeterUtils.setJMeterHome("..");
+		JMeterUtils.loadJMeterProperties("../bin/jmeter.properties");
+		JMeterUtils.initLocale();
+	}
+
+	@Test
+	public void testSinglePassCreatesSameTestPlan() throws IOException {
+		Application cartsApp = createApplication("carts");
+		ApplicationAnnotation cartsAnn = createAnnotation(cartsApp, "carts");
+		Application ordersApp = createApplication("orders");
+		ApplicationAnnotation ordersAnn = createAnnotation(ordersApp, "orders");
+
+		ListedHashTree expected = createTestPlan();
+		ListedHashTree actual = createTestPlan();
+
+		new UserDefinedDefaultVariablesCleanerAnnotator().cleanVariables(expected);
+		annotateOneByOne(expected, cartsApp, cartsAnn);
+		annotateOneByOne(expected, ordersApp, ordersAnn);
+
+		new TestPlanAnnotator().addService(cartsApp, cartsAnn).addService(ordersApp, ordersAnn).annotate(actual);
+
+		assertThat(toJmx(actual)).isEqualTo(toJmx(expected));
+	}
+
+	private void annotateOneByOne(ListedHashTree testPlan, Application application, ApplicationAnnotation annotation) {
+		new UserDefinedVarsAnnotator(annotation).annotateVariables(testPlan);
+		new CSVDataSetAnnotator(annotation).addCsvDataSetConfigs(testPlan);
+		new HttpSamplersAnnotator(application, annotation).annotateSamplers(testPlan);
+		ValueExtractorsAnnotator vxa = new ValueExtractorsAnnotator(application, annotation);
+		vxa.annotateSamplers(testPlan);
+		vxa.annotateInputs(testPlan);
+		new CounterAnnotator(annotation).addCounters(testPlan);
+		new HeadersAnnotator(application, annotation).annotateSamplers(testPlan);
+		new CookiesAnnotator().configureCookieManagement(testPlan);
+	}
+
+	private String toJmx(HashTree testPlan) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		SaveService.saveTree(testPlan, out);
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private ListedHashTree createTestPlan() {
+		ListedHashTree testPlan = new ListedHashTree();
+
+		TestPlan plan = new TestPlan("test");
+		HashTree planTree = testPlan.add(plan);
+
+		Arguments args = new Arguments();
+		args.setName("User Defined Variables");
+		args.addArgument("foo", "bar");
+		args.addArgument("continuity.keep", "42");
+		planTree.add(args);
+
+		ThreadGroup threadGroup = new ThreadGroup();
+		threadGroup.setName("Thread Group");
+		threadGroup.setSamplerController(new LoopController());
+		HashTree threadGroupTree = planTree.add(threadGroup);
+
+		threadGroupTree.add(new CookieManager());
+
+		MarkovController markovController = new MarkovController();
+		markovController.setName("Markov Session Controller");
+		HashTree markovTree = threadGroupTree.add(markovController);
+
+		for (int i = 0; i < NUM_SAMPLERS; i++) {
+			ApplicationState state = new ApplicationState();
+			state.setName("State " + i);
+			HashTree stateTree = markovTree.add(state);
+
+			HTTPSamplerProxy sampler = new HTTPSamplerProxy();
+			String service = (i % 2) == 0 ? "carts" : "orders";
+			String prefix = (i % 3) == 0 ? service + "#" : "";
+
+			// some samplers do not belong to any endpoint
+			sampler.setName("R" + i + " (" + prefix + service + "_endpoint" + (i % (NUM_ENDPOINTS + 10)) + ")");
+			stateTree.add(sampler);
+		}
+
+		return testPlan;
+	}
+
+	private Application createApplication(String service) {
+		Application application = new Application();
+		application.setId(service);
+
+		for (int i = 0; i < NUM_ENDPOINTS; i++) {
+			HttpEndpoint endpoint = new HttpEndpoint();
+			endpoint.setId(service + "_endpoint" + i);
+			endpoint.setDomain(service);
+			endpoint.setPort("8080");
+			endpoint.setProtocol("http");
+			endpoint.setMethod((i % 2) == 0 ? "GET" : "POST");
+			endpoint.setPath("/" + service + "/{id}/item" + i);
+			endpoint.setHeaders(Arrays.asList("Accept: application/json", "X-Service: " + service));
+
+			endpoint.setParameters(new ArrayList<>(Arrays.asList(parameter(endpoint.getId() + "_id", "id", HttpParameterType.URL_PART),
+					parameter(endpoint.getId() + "_query", "query", (i % 2) == 0 ? HttpParameterType.REQ_PARAM : HttpParameterType.FORM),
+					parameter(endpoint.getId() + "_token", "token", HttpParameterType.HEADER))));
+
+			application.addEndpoint(endpoint);
+		}
+
+		return application;
+	}
+
+	private HttpParameter parameter(String id, String name, HttpParameterType type) {
+		HttpParameter param = new HttpParameter();
+		param.setId(id);
+		param.setName(name);
+		param.setParameterType(type);
+		return param;
+	}
+
+	private ApplicationAnnotation createAnnotation(Application application, String service) {
+		ApplicationAnnotation annotation = new ApplicationAnnotation();
+
+		DirectListInput ids = new DirectListInput();
+		ids.setId(service + "_ids");
+		ids.setData(Arrays.asList("1", "2", "3"));
+		annotation.addInput(ids);
+
+		CsvInput csv = new CsvInput();
+		csv.setId(service + "_csv");
+		csv.setFilename(service + ".csv");
+		csv.setSeparator(";");
+		csv.setColumn(-1);
+		CsvColumnInput column = new CsvColumnInput();
+		column.setId(service + "_column");
+		csv.setColumns(Collections.singletonList(column));
+		annotation.addInput(csv);
+
+		CounterInput counter = new CounterInput();
+		counter.setId(service + "_counter");
+		counter.setStart(1);
+		counter.setIncrement(1);
+		counter.setMaximum(1000);
+		counter.setScope(CounterInput.Scope.USER);
+		annotation.addInput(counter);
+
+		ExtractedInput token = new ExtractedInput();
+		token.setId(service + "_token");
+		token.setInitialValue("none");
+
+		for (int i = 0; i < NUM_ENDPOINTS; i += 5) {
+			RegExExtraction extraction = new RegExExtraction();
+			extraction.setFrom(EndpointOrInput.endpoint(WeakReference.create(application.getEndpoints().get(i))));
+			extraction.setPattern("token=(.*)");
+			extraction.setTemplate("(1)");
+			extraction.setMatchNumber(1);
+			token.getExtractions().add(extraction);
+		}
+
+		RegExExtraction fromInput = new RegExExtraction();
+		fromInput.setFrom(EndpointOrInput.input(ids));
+		fromInput.setPattern("(\\d)");
+		fromInput.setTemplate("(1)");
+		fromInput.setMatchNumber(1);
+		token.getExtractions().add(fromInput);
+
+		annotation.addInput(token);
+
+		// every tenth endpoint is not annotated
+		application.getEndpoints().stream().filter(endpoint -> !endpoint.getId().endsWith("0")).map(HttpEndpoint.class::cast).forEach(endpoint -> {
+			EndpointAnnotation endpointAnn = new EndpointAnnotation();
+			endpointAnn.setAnnotatedEndpoint(WeakReference.create(endpoint));
+
+			endpoint.getParameters().forEach(param -> {
+				ParameterAnnotation paramAnn = new ParameterAnnotation();
+				paramAnn.setAnnotatedParameter(WeakReference.create(param));
+				paramAnn.setInput(param.getParameterType() == HttpParameterType.HEADER ? token : ids);
+				endpointAnn.addParameterAnnotation(paramAnn);
+			});
+
+			annotation.getEndpointAnnotations().add(endpointAnn);
+		});
+
+		return annotation;
+	}
+
+}
@@ -1,6 +1,7 @@
 package org.continuity.orchestrator.amqp;
 
 import java.io.IOException;
+import java.util.List;
 
 import org.continuity.api.amqp.AmqpApi;
 import org.continuity.api.entities.config.TaskDescription;
@@ -10,6 +11,9 @@ import org.continuity.commons.storage.MemoryStorage;
 import org.continuity.idpa.AppId;
 import org.continuity.orchestrator.config.RabbitMqConfig;
 import org.continuity.orchestrator.entities.Recipe;
+import org.continuity.orchestrator.entities.RecipeStep;
+import org.continuity.orchestrator.storage.ArtifactCache;
+import org.continuity.orchestrator.storage.OrderCompletionRegistry;
 import org.continuity.orchestrator.storage.TestingContextStorage;
 import org.continuity.orchestrator.util.LoggingUtils;
 import org.slf4j.Logger;
@@ -34,6 +38,12 @@ public class OrchestrationAmqpHandler {
 	@Qualifier("testingContextStorage")
 	private TestingContextStorage testingContextStorage;
 
+	@Autowired
+	private ArtifactCache artifactCache;
+
+	@Autowired
+	private OrderCompletionRegistry completionRegistry;
+
 	@Autowired
 	private AmqpTemplate amqpTemplate;
 
@@ -55,12 +65,36 @@ public class OrchestrationAmqpHandler {
 			return;
 		}
 
-		recipe.updateFromReport(report);
+		if (!recipe.updateFromReport(report)) {
+			LOGGER.warn("{} Ignoring report of unknown or already finished task {}.", LoggingUtils.formatPrefix(recipe.getOrderId(), recipeId), report.getTaskId());
+			return;
+		}
+
+		completionRegistry.publishProgress(recipe.getOrderId(), "Task " + report.getTaskId() + " finished.");
 
 		if (recipe.hasNext()) {
-			recipe.next().execute();
+			List<RecipeStep> readySteps = recipe.nextReadySteps();
+
+			if (readySteps.isEmpty() && !recipe.hasRunningSteps()) {
+				LOGGER.error("{} Cannot execute the remaining steps {}! Their inputs have not been created.", LoggingUtils.formatPrefix(recipe.getOrderId(), recipeId),
+						recipe.getPendingStepNames());
+				finishRecipe(OrderReport.asError(recipe.getOrderId(), recipe.getSource(), "Cannot execute the steps " + recipe.getPendingStepNames() + "! Their inputs are missing."),
+						recipeId);
+				return;
+			}
+
+			readySteps.forEach(RecipeStep::execute);
 		} else {
 			OrderReport orderReport = OrderReport.asSuccessful(recipe.getOrderId(), recipe.getTestingContext(), recipe.getSource());
+			orderReport.setCachedArtifacts(recipe.getCachedArtifacts());
+			orderReport.setStepDurations(recipe.getStepDurations());
+
+			if (!recipe.getCachedArtifacts().isEmpty()) {
+				LOGGER.info("{} Served {} from the cache.", LoggingUtils.formatPrefix(recipe.getOrderId(), recipeId), recipe.getCachedArtifacts());
+			}
+
+			LOGGER.info("{} Step durations in ms: {}", LoggingUtils.formatPrefix(recipe.getOrderId(), recipeId), recipe.getStepDurations());
+
 			storeToTestingContext(orderReport, recipeId, recipe.getAppId());
 			finishRecipe(orderReport, recipeId);
 		}
@@ -93,12 +127,24 @@ public class OrchestrationAmqpHandler {
 		finishRecipe(OrderReport.asError(recipe.getOrderId(), recipe.getSource(), error), recipeId);
 	}
 
+	@RabbitListener(queues = RabbitMqConfig.EVENT_DATA_UPDATED_QUEUE_NAME)
+	public void onDataUpdated(Long watermark, @Header(AmqpHeaders.RECEIVED_ROUTING_KEY) String routingKey) {
+		artifactCache.updateWatermark(AppId.fromString(routingKey), watermark);
+	}
+
+	@RabbitListener(queues = RabbitMqConfig.EVENT_IDPA_CHANGED_QUEUE_NAME)
+	public void onIdpaChanged(Long timestamp, @Header(AmqpHeaders.RECEIVED_ROUTING_KEY) String routingKey) {
+		artifactCache.updateWatermark(AppId.fromString(routingKey), timestamp);
+	}
+
 	private void finishRecipe(OrderReport report, String recipeId) {
+		storage.remove(recipeId);
+
 		amqpTemplate.convertAndSend(AmqpApi.Orchestrator.EVENT_FINISHED.name(), AmqpApi.Orchestrator.EVENT_FINISHED.formatRoutingKey().of(report.getOrderId()), report);
 
-		storage.remove(report.getOrderId());
+		completionRegistry.complete(report);
 
-		LOGGER.info("{} Sent recipe to finished queue.", LoggingUtils.formatPrefix(report.getOrderId(), recipeId));
+		LOGGER.info("{} Recipe finished.", LoggingUtils.formatPrefix(report.getOrderId(), recipeId));
 	}
 
 	private void storeToTestingContext(OrderReport report, String recipeId, AppId aid) {
@@ -32,6 +32,10 @@ public class RabbitMqConfig {
 
 	public static final String EVENT_FAILED_QUEUE_NAME = "continuity.orchestrator.event.global.failed";
 
+	public static final String EVENT_DATA_UPDATED_QUEUE_NAME = "continuity.orchestrator.event.cobra.dataupdated";
+
+	public static final String EVENT_IDPA_CHANGED_QUEUE_NAME = "continuity.orchestrator.event.idpa.changed";
+
 	public static final String DEAD_LETTER_QUEUE_NAME = AmqpApi.DEAD_LETTER_EXCHANGE.deriveQueueName(SERVICE_NAME);
 
 	@Bean
@@ -98,6 +102,38 @@ public class RabbitMqConfig {
 		return BindingBuilder.bind(eventFailedQueue()).to(eventFailedExchange()).with("#");
 	}
 
+	@Bean
+	Queue eventDataUpdatedQueue() {
+		return QueueBuilder.nonDurable(EVENT_DATA_UPDATED_QUEUE_NAME).withArgument(AmqpApi.DEAD_LETTER_EXCHANGE_KEY, AmqpApi.DEAD_LETTER_EXCHANGE.name())
+				.withArgument(AmqpApi.DEAD_LETTER_ROUTING_KEY_KEY, SERVICE_NAME).build();
+	}
+
+	@Bean
+	TopicExchange eventDataUpdatedExchange() {
+		return AmqpApi.Cobra.EVENT_DATA_UPDATED.create();
+	}
+
+	@Bean
+	Binding eventDataUpdatedBinding() {
+		return BindingBuilder.bind(eventDataUpdatedQueue()).to(eventDataUpdatedExchange()).with("#");
+	}
+
+	@Bean
+	Queue eventIdpaChangedQueue() {
+		return QueueBuilder.nonDurable(EVENT_IDPA_CHANGED_QUEUE_NAME).withArgument(AmqpApi.DEAD_LETTER_EXCHANGE_KEY, AmqpApi.DEAD_LETTER_EXCHANGE.name())
+				.withArgument(AmqpApi.DEAD_LETTER_ROUTING_KEY_KEY, SERVICE_NAME).build();
+	}
+
+	@Bean
+	TopicExchange eventIdpaChangedExchange() {
+		return AmqpApi.Idpa.EVENT_CHANGED.create();
+	}
+
+	@Bean
+	Binding eventIdpaChangedBinding() {
+		return BindingBuilder.bind(eventIdpaChangedQueue()).to(eventIdpaChangedExchange()).with("#");
+	}
+
 	// Dead letter exchange and queue
 
 	@Bean
@@ -5,13 +5,18 @@ import java.nio.file.Paths;
 import org.continuity.api.entities.deserialization.YamlJackson2HttpMessageConverter;
 import org.continuity.commons.storage.MemoryStorage;
 import org.continuity.orchestrator.entities.Recipe;
+import org.continuity.orchestrator.storage.ArtifactCache;
+import org.continuity.orchestrator.storage.ArtifactLinkValidator;
 import org.continuity.orchestrator.storage.ConfigurationStorage;
+import org.continuity.orchestrator.storage.OrderCompletionRegistry;
 import org.continuity.orchestrator.storage.TestingContextStorage;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.web.client.RestTemplate;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 
 @Configuration
@@ -23,6 +28,16 @@ public class StorageConfig {
 		return new MemoryStorage<>(Recipe.class);
 	}
 
+	@Bean
+	public ArtifactCache artifactCache(ObjectMapper mapper, RestTemplate restTemplate, @Value("${cache.artifacts.size:1000}") int maxSize) {
+		return new ArtifactCache(mapper, maxSize, new ArtifactLinkValidator(restTemplate));
+	}
+
+	@Bean
+	public OrderCompletionRegistry orderCompletionRegistry(@Value("${orders.retention-millis:86400000}") long retentionMillis) {
+		return new OrderCompletionRegistry(retentionMillis);
+	}
+
 	@Bean
 	public TestingContextStorage testingContextStorage(@Value("${storage.path:storage}") String storagePath) {
 		return new TestingContextStorage(Paths.get(storagePath));
@@ -1,6 +1,7 @@
 package org.continuity.orchestrator.controllers;
 
 import static org.continuity.api.rest.RestApi.Orchestrator.Orchestration.ROOT;
+import static org.continuity.api.rest.RestApi.Orchestrator.Orchestration.Paths.EVENTS;
 import static org.continuity.api.rest.RestApi.Orchestrator.Orchestration.Paths.RESULT;
 import static org.continuity.api.rest.RestApi.Orchestrator.Orchestration.Paths.SUBMIT;
 import static org.continuity.api.rest.RestApi.Orchestrator.Orchestration.Paths.WAIT;
@@ -9,17 +10,15 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
-import javax.annotation.PostConstruct;
 import javax.jms.IllegalStateException;
 import javax.servlet.http.HttpServletRequest;
 
@@ -32,25 +31,19 @@ import org.continuity.api.entities.report.OrderReport;
 import org.continuity.api.entities.report.OrderResponse;
 import org.continuity.api.rest.RestApi;
 import org.continuity.commons.storage.MemoryStorage;
-import org.continuity.commons.utils.WebUtils;
 import org.continuity.orchestrator.entities.CreationStep;
-import org.continuity.orchestrator.entities.OrderReportCounter;
 import org.continuity.orchestrator.entities.Recipe;
 import org.continuity.orchestrator.entities.RecipeStep;
+import org.continuity.orchestrator.storage.ArtifactCache;
+import org.continuity.orchestrator.storage.OrderCompletionRegistry;
 import org.continuity.orchestrator.storage.TestingContextStorage;
 import org.continuity.orchestrator.util.LoggingUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.AmqpIOException;
 import org.springframework.amqp.core.AmqpTemplate;
-import org.springframework.amqp.core.Queue;
-import org.springframework.amqp.rabbit.connection.Connection;
-import org.springframework.amqp.rabbit.connection.ConnectionFactory;
-import org.springframework.amqp.rabbit.core.RabbitManagementTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -58,11 +51,12 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.netflix.appinfo.InstanceInfo;
 import com.netflix.discovery.EurekaClient;
 import com.netflix.discovery.shared.Application;
-import com.rabbitmq.client.Channel;
 
 @RestController
 @RequestMapping(ROOT)
@@ -70,7 +64,7 @@ public class OrchestrationController {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(OrchestrationController.class);
 
-	private final MemoryStorage<OrderReportCounter> orderCounterStorage = new MemoryStorage<>(OrderReportCounter.class);
+	private final AtomicLong orderCounter = new AtomicLong(0);
 
 	@Autowired
 	private MemoryStorage<Recipe> recipeStorage;
@@ -83,26 +77,17 @@ public class OrchestrationController {
 	private AmqpTemplate amqpTemplate;
 
 	@Autowired
-	private ConnectionFactory connectionFactory;
+	private ArtifactCache artifactCache;
 
 	@Autowired
-	private EurekaClient eurekaClient;
-
-	@Value("${spring.rabbitmq.host}")
-	private String rabbitHost;
-
-	@Value("${rabbitmq.management.port:15672}")
-	private String rabbitPort;
+	private OrderCompletionRegistry completionRegistry;
 
-	@Value("${rabbitmq.management.user:guest}")
-	private String rabbitUser;
-
-	@Value("${rabbitmq.management.password:guest}")
-	private String rabbitPassword;
+	@Autowired
+	private EurekaClient eurekaClient;
 
 	@RequestMapping(path = SUBMIT, method = RequestMethod.POST)
 	public ResponseEntity<Object> submitOrder(@RequestBody Order order, HttpServletRequest servletRequest) throws IOException {
-		String orderId = orderCounterStorage.reserve(order.getAppId());
+		String orderId = order.getAppId() + "-" + orderCounter.getAndIncrement();
 
 		LOGGER.info("{} Received new order with goal {} and ID {}.", LoggingUtils.formatPrefix(orderId), order.getTarget().toPrettyString(), orderId);
 
@@ -122,8 +107,7 @@ public class OrchestrationController {
 				return ResponseEntity.badRequest().body(Collections.singletonMap("error", "No sources found for testing-context " + order.getTestingContext()));
 			}
 
-			declareResponseQueue(orderId);
-			orderCounterStorage.putToReserved(orderId, new OrderReportCounter(orderId, numRecipes));
+			completionRegistry.register(orderId, numRecipes);
 
 			for (Map.Entry<Set<String>, Set<ArtifactExchangeModel>> entry : sources.entrySet()) {
 				for (ArtifactExchangeModel source : entry.getValue()) {
@@ -131,18 +115,19 @@ public class OrchestrationController {
 						createAndSubmitRecipe(orderId, order, entry.getKey(), source);
 					} catch (IllegalStateException e) {
 						LOGGER.error("{} Cannot submit order: {}", LoggingUtils.formatPrefix(orderId), e.getMessage());
+						completionRegistry.unregister(orderId);
 						return ResponseEntity.badRequest().body(e.getMessage());
 					}
 				}
 			}
 		} else {
-			declareResponseQueue(orderId);
-			orderCounterStorage.putToReserved(orderId, new OrderReportCounter(orderId, 1));
+			completionRegistry.register(orderId, 1);
 
 			try {
 				createAndSubmitRecipe(orderId, order, order.getTestingContext(), order.getSource());
 			} catch (IllegalStateException e) {
 				LOGGER.error("{} Cannot submit order: {}", LoggingUtils.formatPrefix(orderId), e.getMessage());
+				completionRegistry.unregister(orderId);
 				return ResponseEntity.badRequest().body(e.getMessage());
 			}
 		}
@@ -151,6 +136,7 @@ public class OrchestrationController {
 		String host = servletRequest.getServerName() + ":" + servletRequest.getServerPort();
 		response.setResultLink(RestApi.Orchestrator.Orchestration.RESULT.requestUrl(orderId).withHost(host).get());
 		response.setWaitLink(RestApi.Orchestrator.Orchestration.WAIT.requestUrl(orderId).withHost(host).get());
+		response.setEventsLink(RestApi.Orchestrator.Orchestration.EVENTS.requestUrl(orderId).withHost(host).get());
 		response.setNumReports(numRecipes);
 
 		return ResponseEntity.accepted().body(response);
@@ -167,141 +153,106 @@ public class OrchestrationController {
 			source = new ArtifactExchangeModel();
 		}
 
-		Map<ArtifactType, Map<String, ArtifactType>> producerMap = createProducerMap();
+		Map<ArtifactType, Map<String, Set<ArtifactType>>> producerMap = createProducerMap();
 		OrderOptions options = order.getOptions() == null ? new OrderOptions() : order.getOptions();
 		Map<ArtifactType, String> producers = options.getProducersOrDefault();
 
 		String recipeId = recipeStorage.reserve(order.getAppId());
-		List<RecipeStep> steps = new LinkedList<>();
-		ArtifactType target = order.getTarget();
+		Map<ArtifactType, RecipeStep> steps = new LinkedHashMap<>();
 
-		while (target != null) {
-			String service = producers.get(target);
+		planSteps(order.getTarget(), source, producerMap, producers, orderId, recipeId, steps);
 
-			if ((producerMap.get(target) == null) || !producerMap.get(target).containsKey(service)) {
-				throw new IllegalStateException("There is no " + service + " service available to produce a " + target.toPrettyString() + "!");
-			}
-
-			RecipeStep step = new CreationStep(target, orderId, recipeId, amqpTemplate, service, this::isServiceAvailable);
-			steps.add(0, step);
-
-			target = producerMap.get(target).get(service);
-		}
-
-		LOGGER.info("{} Processing new recipe with target {}...", LoggingUtils.formatPrefix(orderId, recipeId), order.getTarget());
+		LOGGER.info("{} Processing new recipe with target {} and steps {}...", LoggingUtils.formatPrefix(orderId, recipeId), order.getTarget(),
+				steps.values().stream().map(RecipeStep::getName).collect(Collectors.toList()));
 
-		Recipe recipe = new Recipe(orderId, recipeId, order.getAppId(), order.getServices(), order.getVersion(), order.getPerspective(), steps, source, useTestingContext,
+		Recipe recipe = new Recipe(orderId, recipeId, order.getAppId(), order.getServices(), order.getVersion(), order.getPerspective(), steps.values(), source, useTestingContext,
 				testingContext, options, order.getWorkload());
 
 		if (recipe.hasNext()) {
+			List<RecipeStep> readySteps = recipe.nextReadySteps();
+
+			if (readySteps.isEmpty()) {
+				throw new IllegalStateException("Cannot execute any of the steps " + recipe.getPendingStepNames() + ", since their inputs cannot be created!");
+			}
+
 			recipeStorage.putToReserved(recipeId, recipe);
 
-			recipe.next().execute();
+			readySteps.forEach(RecipeStep::execute);
 		} else {
 			LOGGER.info("{} No tasks required.", LoggingUtils.formatPrefix(orderId, recipeId));
 
-			amqpTemplate.convertAndSend(AmqpApi.Orchestrator.EVENT_FINISHED.name(), AmqpApi.Orchestrator.EVENT_FINISHED.formatRoutingKey().of(orderId),
-					OrderReport.asSuccessful(orderId, testingContext, recipe.getSource()));
+			OrderReport report = OrderReport.asSuccessful(orderId, testingContext, recipe.getSource());
+			amqpTemplate.convertAndSend(AmqpApi.Orchestrator.EVENT_FINISHED.name(), AmqpApi.Orchestrator.EVENT_FINISHED.formatRoutingKey().of(orderId), report);
+			completionRegistry.complete(report);
 		}
 	}
 
-	@RequestMapping(path = WAIT, method = RequestMethod.GET)
-	public ResponseEntity<OrderReport> waitUntilFinished(@PathVariable("id") String orderId, @RequestParam long timeout, HttpServletRequest servletRequest) {
-		LOGGER.info("{} Waiting {} ms for the result to be created", LoggingUtils.formatPrefix(orderId), timeout);
+	/**
+	 * Adds the step creating the target and, recursively, the steps creating its inputs. Artifacts
+	 * that are already present are skipped and each artifact is created at most once, even if it
+	 * is required by several steps.
+	 */
+	private void planSteps(ArtifactType target, ArtifactExchangeModel source, Map<ArtifactType, Map<String, Set<ArtifactType>>> producerMap, Map<ArtifactType, String> producers,
+			String orderId, String recipeId, Map<ArtifactType, RecipeStep> steps) throws IllegalStateException {
+		if (steps.containsKey(target)) {
+			return;
+		}
 
-		OrderReport report;
-		try {
-			report = amqpTemplate.receiveAndConvert(getResponseQueueName(orderId), timeout, ParameterizedTypeReference.forType(OrderReport.class));
-		} catch (AmqpIOException e) {
-			LOGGER.error("{} Cannot wait for not existing response queue of recipe {}", LoggingUtils.formatPrefix(orderId));
-			LOGGER.error("Exception:", e);
+		String service = producers.get(target);
 
-			return ResponseEntity.badRequest().body(OrderReport.asError(orderId, null, "There is no such order!"));
+		if ((producerMap.get(target) == null) || !producerMap.get(target).containsKey(service)) {
+			throw new IllegalStateException("There is no " + service + " service available to produce a " + target.toPrettyString() + "!");
 		}
 
-		if (report != null) {
-			OrderReportCounter reportCounter = orderCounterStorage.get(orderId);
-			int reportNumber = reportCounter.nextReportNumber();
-
-			if (reportNumber == reportCounter.getNumReports()) {
-				deleteResponseQueue(orderId);
-				LOGGER.info("{} Returning report number {}/{}. Therefore, deleting the response queue.", LoggingUtils.formatPrefix(orderId), reportNumber, reportCounter.getNumReports());
-			}
+		Set<ArtifactType> inputs = producerMap.get(target).get(service);
+		RecipeStep step = new CreationStep(target, inputs, orderId, recipeId, amqpTemplate, service, this::isServiceAvailable, artifactCache);
 
-			report.setNumber(reportNumber);
-			report.setMax(reportCounter.getNumReports());
+		if (step.checkData(source)) {
+			return;
+		}
 
-			LOGGER.info("{} Report is ready.", LoggingUtils.formatPrefix(orderId));
-			return ResponseEntity.ok(report);
-		} else {
-			LOGGER.info("{} Report is not ready yet.", LoggingUtils.formatPrefix(orderId));
+		steps.put(target, step);
 
-			return ResponseEntity.noContent().build();
+		for (ArtifactType input : inputs) {
+			planSteps(input, source, producerMap, producers, orderId, recipeId, steps);
 		}
 	}
 
-	@RequestMapping(path = RESULT, method = RequestMethod.GET)
-	public ResponseEntity<OrderReport> getResultWithoutWaiting(@PathVariable("id") String orderId, HttpServletRequest servletRequest) {
-		LOGGER.info("{} Trying to get result without waiting...", LoggingUtils.formatPrefix(orderId));
-		return waitUntilFinished(orderId, 0, servletRequest);
-	}
+	@RequestMapping(path = WAIT, method = RequestMethod.GET)
+	public DeferredResult<ResponseEntity<OrderReport>> waitUntilFinished(@PathVariable("id") String orderId, @RequestParam long timeout, HttpServletRequest servletRequest) {
+		LOGGER.info("{} Waiting {} ms for the result to be created", LoggingUtils.formatPrefix(orderId), timeout);
 
-	private boolean isServiceAvailable(String service) {
-		return eurekaClient.getApplications().getRegisteredApplications().stream().map(Application::getInstances).flatMap(List::stream).map(InstanceInfo::getAppName).map(String::toLowerCase)
-				.collect(Collectors.toSet()).contains(service);
+		return completionRegistry.await(orderId, timeout);
 	}
 
-	@PostConstruct
-	private void clearResponseQueues() {
-		RabbitManagementTemplate template = new RabbitManagementTemplate(WebUtils.buildUrl(rabbitHost, rabbitPort, "/api/"), rabbitUser, rabbitPassword);
-		String regex = AmqpApi.Orchestrator.EVENT_FINISHED.deriveQueueName("(.+)");
-
-		for (Queue queue : template.getQueues()) {
-			Matcher matcher = Pattern.compile(regex).matcher(queue.getName());
-
-			if (matcher.matches()) {
-				LOGGER.info("Deleting finished queue for old order {}.", matcher.group(1));
-
-				template.deleteQueue(queue);
-			}
-		}
+	@RequestMapping(path = RESULT, method = RequestMethod.GET)
+	public DeferredResult<ResponseEntity<OrderReport>> getResultWithoutWaiting(@PathVariable("id") String orderId, HttpServletRequest servletRequest) {
+		LOGGER.info("{} Trying to get result without waiting...", LoggingUtils.formatPrefix(orderId));
+		return waitUntilFinished(orderId, 0, servletRequest);
 	}
 
-	private void declareResponseQueue(String orderId) {
-		try {
-			Connection connection = connectionFactory.createConnection();
-			Channel channel = connection.createChannel(false);
-
-			String queueName = getResponseQueueName(orderId);
-			channel.queueDeclare(queueName, false, false, false, Collections.emptyMap());
-			channel.queueBind(queueName, AmqpApi.Orchestrator.EVENT_FINISHED.name(), AmqpApi.Orchestrator.EVENT_FINISHED.formatRoutingKey().of(orderId));
+	@RequestMapping(path = EVENTS, method = RequestMethod.GET, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public ResponseEntity<SseEmitter> streamEvents(@PathVariable("id") String orderId, @RequestParam(defaultValue = "3600000") long timeout) {
+		SseEmitter emitter = completionRegistry.subscribe(orderId, timeout);
 
-			LOGGER.info("{} Declared a response queue.", LoggingUtils.formatPrefix(orderId));
-		} catch (IOException e) {
-			LOGGER.error("Could not create a response queue!", e);
+		if (emitter == null) {
+			LOGGER.error("{} Cannot stream the events of a not existing order.", LoggingUtils.formatPrefix(orderId));
+			return ResponseEntity.notFound().build();
 		}
-	}
 
-	private void deleteResponseQueue(String orderId) {
-		try {
-			Connection connection = connectionFactory.createConnection();
-			Channel channel = connection.createChannel(false);
-
-			String queueName = getResponseQueueName(orderId);
-			channel.queueDelete(queueName);
-
-			LOGGER.info("{} Deleted the response queue.", LoggingUtils.formatPrefix(orderId));
-		} catch (IOException e) {
-			LOGGER.error("Could not create a response queue!", e);
-		}
+		LOGGER.info("{} Streaming the events for {} ms.", LoggingUtils.formatPrefix(orderId), timeout);
+		return ResponseEntity.ok(emitter);
 	}
 
-	private String getResponseQueueName(String orderId) {
-		return AmqpApi.Orchestrator.EVENT_FINISHED.deriveQueueName(orderId);
+	private boolean isServiceAvailable(String service) {
+		return eurekaClient.getApplications().getRegisteredApplications().stream().map(Application::getInstances).flatMap(List::stream).map(InstanceInfo::getAppName).map(String::toLowerCase)
+				.collect(Collectors.toSet()).contains(service);
 	}
 
 	/**
-	 * Creates a map {@code target -> producing-service -> required}, e.g., <br>
+	 * Creates a map {@code target -> producing-service -> required}. A service can require several
+	 * artifacts for one target by listing them comma-separated, e.g.,
+	 * {@code requires-for-workload-model: behavior-model, traces}. <br>
 	 * <br>
 	 *
 	 * <code>
@@ -324,12 +275,12 @@ public class OrchestrationController {
 	 *
 	 * @return
 	 */
-	private Map<ArtifactType, Map<String, ArtifactType>> createProducerMap() {
+	private Map<ArtifactType, Map<String, Set<ArtifactType>>> createProducerMap() {
 		return eurekaClient.getApplications().getRegisteredApplications().stream().map(Application::getInstancesAsIsFromEureka).flatMap(List::stream).map(this::createSingleProducerMap)
 				.reduce(this::mergeProducerMaps).orElse(Collections.emptyMap());
 	}
 
-	private Map<ArtifactType, Map<String, ArtifactType>> createSingleProducerMap(InstanceInfo info) {
+	private Map<ArtifactType, Map<String, Set<ArtifactType>>> createSingleProducerMap(InstanceInfo info) {
 		Map<String, String> metadata = info.getMetadata();
 
 		String produced = metadata.get("produces");
@@ -338,28 +289,31 @@ public class OrchestrationController {
 			return Collections.emptyMap();
 		}
 
-		Map<ArtifactType, Map<String, ArtifactType>> producers = new HashMap<>();
+		Map<ArtifactType, Map<String, Set<ArtifactType>>> producers = new HashMap<>();
 
 		Arrays.stream(produced.split("\\,")).map(String::trim).filter(s -> !s.isEmpty()).forEach(type -> {
 			ArtifactType keyType = ArtifactType.fromPrettyString(type);
-			ArtifactType valueType = Optional.ofNullable(metadata.get("requires-for-" + type)).map(ArtifactType::fromPrettyString).orElse(null);
+			Set<ArtifactType> valueTypes = Optional.ofNullable(metadata.get("requires-for-" + type))
+					.map(required -> Arrays.stream(required.split("\\,")).map(String::trim).filter(s -> !s.isEmpty()).map(ArtifactType::fromPrettyString).collect(Collectors.toSet()))
+					.orElse(Collections.emptySet());
 
-			Map<String, ArtifactType> inner = new HashMap<>();
-			inner.put(info.getAppName().toLowerCase(), valueType);
+			Map<String, Set<ArtifactType>> inner = new HashMap<>();
+			inner.put(info.getAppName().toLowerCase(), valueTypes);
 			producers.put(keyType, inner);
 		});
 
 		return producers;
 	}
 
-	private Map<ArtifactType, Map<String, ArtifactType>> mergeProducerMaps(Map<ArtifactType, Map<String, ArtifactType>> first, Map<ArtifactType, Map<String, ArtifactType>> second) {
+	private Map<ArtifactType, Map<String, Set<ArtifactType>>> mergeProducerMaps(Map<ArtifactType, Map<String, Set<ArtifactType>>> first,
+			Map<ArtifactType, Map<String, Set<ArtifactType>>> second) {
 		if (first.isEmpty()) {
 			return second;
 		} else if (second.isEmpty()) {
 			return first;
 		}
 
-		for (Entry<ArtifactType, Map<String, ArtifactType>> entry : second.entrySet()) {
+		for (Entry<ArtifactType, Map<String, Set<ArtifactType>>> entry : second.entrySet()) {
 			if (first.containsKey(entry.getKey())) {
 				first.get(entry.getKey()).putAll(entry.getValue());
 			} else {
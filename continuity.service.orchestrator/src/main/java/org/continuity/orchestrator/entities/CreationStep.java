@@ -1,12 +1,18 @@
 package org.continuity.orchestrator.entities;
 
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Set;
 import java.util.function.Predicate;
 
 import org.continuity.api.amqp.AmqpApi;
 import org.continuity.api.entities.config.TaskDescription;
 import org.continuity.api.entities.exchange.ArtifactExchangeModel;
 import org.continuity.api.entities.exchange.ArtifactType;
-import org.continuity.api.entities.report.OrderReport;
+import org.continuity.api.entities.report.TaskError;
+import org.continuity.api.entities.report.TaskReport;
+import org.continuity.orchestrator.config.RabbitMqConfig;
+import org.continuity.orchestrator.storage.ArtifactCache;
 import org.continuity.orchestrator.util.LoggingUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,19 +30,29 @@ public class CreationStep implements RecipeStep {
 
 	private final ArtifactType target;
 
+	private final Set<ArtifactType> inputs;
+
 	private final String service;
 
 	private final Predicate<String> isServiceAvailable;
 
+	private final ArtifactCache cache;
+
 	private TaskDescription task;
 
-	public CreationStep(ArtifactType target, String orderId, String recipeId, AmqpTemplate amqpTemplate, String service, Predicate<String> isServiceAvailable) {
+	private ArtifactCache.Key cacheKey;
+
+	private boolean servedFromCache = false;
+
+	public CreationStep(ArtifactType target, Set<ArtifactType> inputs, String orderId, String recipeId, AmqpTemplate amqpTemplate, String service, Predicate<String> isServiceAvailable, ArtifactCache cache) {
 		this.orderId = orderId;
 		this.recipeId = recipeId;
 		this.target = target;
+		this.inputs = inputs == null ? Collections.emptySet() : inputs;
 		this.amqpTemplate = amqpTemplate;
 		this.service = service;
 		this.isServiceAvailable = isServiceAvailable;
+		this.cache = cache;
 	}
 
 	@Override
@@ -54,19 +70,31 @@ public class CreationStep implements RecipeStep {
 
 	@Override
 	public void execute() {
-		if (isServiceAvailable.test(service)) {
+		if (task != null) {
+			task.setTarget(target);
+		}
+
+		cacheKey = cache.createKey(task, target, service);
+		Optional<ArtifactExchangeModel> cached = cache.get(cacheKey);
+
+		if (cached.isPresent()) {
+			LOGGER.info("{} Serving target {} from the cache (key {}).", LoggingUtils.formatPrefix(orderId, recipeId, task.getTaskId()), target, cacheKey);
+
+			servedFromCache = true;
+
+			amqpTemplate.convertAndSend(AmqpApi.Global.EVENT_FINISHED.name(), AmqpApi.Global.EVENT_FINISHED.formatRoutingKey().of(RabbitMqConfig.SERVICE_NAME),
+					TaskReport.successful(task.getTaskId(), cached.get()));
+		} else if (isServiceAvailable.test(service)) {
 			LOGGER.info("{} Sending creation task for target {} to {}", LoggingUtils.formatPrefix(orderId, recipeId, task.getTaskId()), target, service);
 
-			if (task != null) {
-				task.setTarget(target);
-			}
+			servedFromCache = false;
 
 			amqpTemplate.convertAndSend(AmqpApi.Global.TASK_CREATE.name(), AmqpApi.Global.TASK_CREATE.formatRoutingKey().of(service, target), task);
 		} else {
 			LOGGER.error("{} Cannot send creation task for target {}! Service {} is not available.", LoggingUtils.formatPrefix(orderId, recipeId, task.getTaskId()), target, service);
 
-			amqpTemplate.convertAndSend(AmqpApi.Orchestrator.EVENT_FINISHED.name(), AmqpApi.Orchestrator.EVENT_FINISHED.formatRoutingKey().of(orderId),
-					OrderReport.asError(orderId, new ArtifactExchangeModel(), String.format("Service %s is not available!", service)));
+			amqpTemplate.convertAndSend(AmqpApi.Global.EVENT_FINISHED.name(), AmqpApi.Global.EVENT_FINISHED.formatRoutingKey().of(RabbitMqConfig.SERVICE_NAME),
+					TaskReport.error(task.getTaskId(), TaskError.SERVICE_UNAVAILABLE));
 		}
 	}
 
@@ -80,4 +108,19 @@ public class CreationStep implements RecipeStep {
 		return target.toPrettyString();
 	}
 
+	@Override
+	public Set<ArtifactType> getInputs() {
+		return inputs;
+	}
+
+	@Override
+	public boolean isServedFromCache() {
+		return servedFromCache;
+	}
+
+	@Override
+	public void cacheResult(ArtifactExchangeModel result) {
+		cache.put(cacheKey, result);
+	}
+
 }
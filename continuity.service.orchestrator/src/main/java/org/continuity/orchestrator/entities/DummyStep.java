@@ -1,8 +1,12 @@
 package org.continuity.orchestrator.entities;
 
+import java.util.Collections;
+import java.util.Set;
+
 import org.continuity.api.amqp.AmqpApi;
 import org.continuity.api.entities.config.TaskDescription;
 import org.continuity.api.entities.exchange.ArtifactExchangeModel;
+import org.continuity.api.entities.exchange.ArtifactType;
 import org.continuity.api.entities.report.TaskReport;
 import org.continuity.orchestrator.config.RabbitMqConfig;
 import org.slf4j.Logger;
@@ -39,9 +43,24 @@ public class DummyStep implements RecipeStep {
 		return "dummy";
 	}
 
+	@Override
+	public Set<ArtifactType> getInputs() {
+		return Collections.emptySet();
+	}
+
 	@Override
 	public boolean checkData(ArtifactExchangeModel source) {
 		return false;
 	}
 
+	@Override
+	public boolean isServedFromCache() {
+		return false;
+	}
+
+	@Override
+	public void cacheResult(ArtifactExchangeModel result) {
+		// nothing to cache
+	}
+
 }
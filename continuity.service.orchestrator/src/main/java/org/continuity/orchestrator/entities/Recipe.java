@@ -1,12 +1,22 @@
 package org.continuity.orchestrator.entities;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.ListIterator;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.continuity.api.entities.config.TaskDescription;
+import org.continuity.api.entities.exchange.AbstractLinks;
 import org.continuity.api.entities.exchange.ArtifactExchangeModel;
+import org.continuity.api.entities.exchange.ArtifactType;
 import org.continuity.api.entities.order.OrderOptions;
 import org.continuity.api.entities.order.ServiceSpecification;
 import org.continuity.api.entities.report.TaskReport;
@@ -14,16 +24,37 @@ import org.continuity.idpa.AppId;
 import org.continuity.idpa.VersionOrTimestamp;
 import org.continuity.lctl.WorkloadDescription;
 
+/**
+ * A set of {@link RecipeStep}s that create the target of an order. The steps form a directed
+ * acyclic graph defined by the artifacts they require and create. A step becomes ready as soon as
+ * all of its inputs are present, so that independent steps can be executed concurrently. Note that
+ * steps only become independent if a service requires several artifacts for its target, e.g.,
+ * {@code requires-for-workload-model: behavior-model, traces}. With a single input per target,
+ * the steps form a chain and are executed one after another.
+ *
+ * @author Henning Schulz
+ *
+ */
 public class Recipe {
 
 	private final String orderId;
 
 	private final String recipeId;
 
-	private final ListIterator<RecipeStep> iterator;
+	private final List<RecipeStep> pendingSteps;
+
+	private final Map<String, RecipeStep> runningSteps = new HashMap<>();
+
+	private final Map<String, Long> startTimes = new HashMap<>();
+
+	private final Map<String, Long> stepDurations = new LinkedHashMap<>();
 
 	private int stepCounter = 1;
 
+	private final List<String> cachedArtifacts = new ArrayList<>();
+
+	private final Map<ArtifactType, Set<ArtifactType>> companions = new HashMap<>();
+
 	private final AppId appId;
 
 	private final List<ServiceSpecification> services;
@@ -34,6 +65,8 @@ public class Recipe {
 
 	private ArtifactExchangeModel source;
 
+	private final ArtifactExchangeModel orderSource;
+
 	private final OrderOptions options;
 
 	private WorkloadDescription workloadDescription;
@@ -43,20 +76,21 @@ public class Recipe {
 	private final Set<String> testingContext;
 
 	public Recipe(String orderId, String recipeId, AppId aid, List<ServiceSpecification> services, VersionOrTimestamp version, LocalDateTime perspective,
-			List<RecipeStep> steps, ArtifactExchangeModel source, boolean longTermUse, Set<String> testingContext, OrderOptions options, WorkloadDescription workloadDescription) {
+			Collection<RecipeStep> steps, ArtifactExchangeModel source, boolean longTermUse, Set<String> testingContext, OrderOptions options, WorkloadDescription workloadDescription) {
 		this.orderId = orderId;
 		this.recipeId = recipeId;
-		this.iterator = steps.listIterator(steps.size());
 		this.appId = aid;
 		this.services = services;
 		this.version = version;
 		this.perspective = perspective;
 		this.source = source == null ? new ArtifactExchangeModel() : source;
+		this.orderSource = new ArtifactExchangeModel().setVersion(this.source.getVersion());
+		this.orderSource.merge(this.source);
 		this.longTermUse = longTermUse;
 		this.testingContext = testingContext;
 		this.workloadDescription = workloadDescription;
 		this.options = options;
-		initIterator(source);
+		this.pendingSteps = new ArrayList<>(steps);
 	}
 
 	public String getOrderId() {
@@ -75,50 +109,197 @@ public class Recipe {
 		return appId;
 	}
 
-	public boolean hasNext() {
-		return iterator.hasNext();
-	}
-
 	public Set<String> getTestingContext() {
 		return testingContext;
 	}
 
-	public RecipeStep next() {
-		RecipeStep nextStep = iterator.next();
+	/**
+	 * Returns whether there are steps that have not been executed or are still running.
+	 *
+	 * @return {@code true} if the recipe is not finished, yet.
+	 */
+	public synchronized boolean hasNext() {
+		return !pendingSteps.isEmpty() || !runningSteps.isEmpty();
+	}
+
+	/**
+	 * Returns whether there are steps that have been started but not finished, yet.
+	 *
+	 * @return {@code true} if at least one step is running.
+	 */
+	public synchronized boolean hasRunningSteps() {
+		return !runningSteps.isEmpty();
+	}
+
+	/**
+	 * Returns the names of the steps that have not been started, yet.
+	 *
+	 * @return The step names.
+	 */
+	public synchronized List<String> getPendingStepNames() {
+		return pendingSteps.stream().map(RecipeStep::getName).collect(Collectors.toList());
+	}
+
+	/**
+	 * Determines all steps whose inputs are present and marks them as running. The returned steps
+	 * are independent of each other and can be executed concurrently.
+	 *
+	 * @return The steps to be executed next. Is empty if no step is ready.
+	 */
+	public synchronized List<RecipeStep> nextReadySteps() {
+		List<RecipeStep> readySteps = new ArrayList<>();
+		Iterator<RecipeStep> iterator = pendingSteps.iterator();
 
-		String taskId = recipeId + "." + stepCounter++ + "-" + nextStep.getName();
+		while (iterator.hasNext()) {
+			RecipeStep step = iterator.next();
+
+			if (step.getInputs().stream().allMatch(source::isPresent)) {
+				iterator.remove();
+
+				String taskId = recipeId + "." + stepCounter++ + "-" + step.getName();
+				step.setTask(createTask(taskId, step.getInputs()));
+
+				runningSteps.put(taskId, step);
+				startTimes.put(taskId, System.currentTimeMillis());
+				readySteps.add(step);
+			}
+		}
+
+		return readySteps;
+	}
+
+	/**
+	 * Marks the step that has been executed by the reported task as finished and merges the created
+	 * artifacts into the source.
+	 *
+	 * @param report
+	 *            The report of the finished task.
+	 * @return {@code false} if the task does not belong to a running step of this recipe, e.g.,
+	 *         because the report has been received twice.
+	 */
+	public synchronized boolean updateFromReport(TaskReport report) {
+		RecipeStep step = runningSteps.remove(report.getTaskId());
+
+		if (step == null) {
+			return false;
+		}
+
+		stepDurations.put(step.getName(), System.currentTimeMillis() - startTimes.remove(report.getTaskId()));
+
+		if (step.isServedFromCache()) {
+			cachedArtifacts.add(step.getName());
+		} else {
+			step.cacheResult(report.getResult());
+		}
+
+		registerCompanions(report.getResult());
+		source.merge(report.getResult());
+		return true;
+	}
+
+	/**
+	 * Returns the names of the steps whose artifacts have been served from the cache.
+	 *
+	 * @return The step names in the order of completion.
+	 */
+	public synchronized List<String> getCachedArtifacts() {
+		return new ArrayList<>(cachedArtifacts);
+	}
+
+	/**
+	 * Returns the durations of the finished steps.
+	 *
+	 * @return The durations in milliseconds per step name in the order of completion.
+	 */
+	public synchronized Map<String, Long> getStepDurations() {
+		return new LinkedHashMap<>(stepDurations);
+	}
+
+	/**
+	 * Remembers which artifacts have been created together. For instance, Cobra returns the
+	 * intensity along with the behavior model. Such artifacts are passed on together.
+	 */
+	private void registerCompanions(ArtifactExchangeModel result) {
+		if (result == null) {
+			return;
+		}
+
+		Set<ArtifactType> created = EnumSet.noneOf(ArtifactType.class);
+
+		for (ArtifactType type : ArtifactType.values()) {
+			if (type.isPresentInModel(result)) {
+				created.add(type);
+			}
+		}
+
+		for (ArtifactType type : created) {
+			Set<ArtifactType> others = companions.computeIfAbsent(type, t -> EnumSet.noneOf(ArtifactType.class));
+			others.addAll(created);
+			others.remove(type);
+		}
+	}
+
+	private TaskDescription createTask(String taskId, Set<ArtifactType> inputs) {
 		TaskDescription task = new TaskDescription();
 		task.setTaskId(taskId);
 		task.setAppId(appId);
 		task.setServices(services);
 		task.setVersion(version);
 		task.setPerspective(perspective);
-		task.setSource(source);
+		task.setSource(snapshotSource(inputs));
 		task.setOptions(options);
 		task.setWorkloadDescription(workloadDescription);
 		task.setLongTermUse(longTermUse);
 
-		nextStep.setTask(task);
-
-		return nextStep;
+		return task;
 	}
 
-	public void updateFromReport(TaskReport report) {
-		source.merge(report.getResult());
-	}
-
-	private void initIterator(ArtifactExchangeModel source) {
-		while (iterator.hasPrevious()) {
-			boolean stop = iterator.previous().checkData(source);
+	/**
+	 * Copies the links of the specified inputs from the source. The task must not hold the source
+	 * itself, since it is changed by concurrently running steps, which would also change the task
+	 * and, hence, the key the created artifact is cached with. The artifacts passed with the order
+	 * and the ones created together with an input, e.g., the intensity forecasted along with the
+	 * behavior model, are copied as well, as they are optional inputs of some services.
+	 *
+	 * @param inputs
+	 *            The declared inputs of the step.
+	 * @return A new model holding only the links of the inputs, their companions, and the order.
+	 */
+	private ArtifactExchangeModel snapshotSource(Set<ArtifactType> inputs) {
+		ArtifactExchangeModel snapshot = new ArtifactExchangeModel().setVersion(orderSource.getVersion());
+		snapshot.merge(orderSource);
+
+		Set<ArtifactType> copied = EnumSet.noneOf(ArtifactType.class);
+
+		for (ArtifactType input : inputs) {
+			copied.add(input);
+			copied.addAll(companions.getOrDefault(input, Collections.emptySet()));
+		}
 
-			if (stop) {
-				if (iterator.hasNext()) {
-					iterator.next();
+		for (ArtifactType type : copied) {
+			if (type == ArtifactType.INTENSITY) {
+				if (snapshot.getIntensity() == null) {
+					snapshot.setIntensity(source.getIntensity());
+				}
+			} else {
+				try {
+					copyLinks(type, snapshot);
+				} catch (IllegalArgumentException | IllegalAccessException e) {
+					throw new IllegalStateException("Cannot copy the " + type.toPrettyString() + " links!", e);
 				}
-
-				return;
 			}
 		}
+
+		if (snapshot.getAppId() == null) {
+			snapshot.setAppId(source.getAppId());
+		}
+
+		return snapshot;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T extends AbstractLinks<T>> void copyLinks(ArtifactType type, ArtifactExchangeModel snapshot) throws IllegalArgumentException, IllegalAccessException {
+		((T) type.getFromModel(snapshot)).merge((T) type.getFromModel(source));
 	}
 
 	public WorkloadDescription getWorkloadDescription() {
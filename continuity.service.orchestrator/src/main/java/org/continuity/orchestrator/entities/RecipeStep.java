@@ -1,7 +1,10 @@
 package org.continuity.orchestrator.entities;
 
+import java.util.Set;
+
 import org.continuity.api.entities.config.TaskDescription;
 import org.continuity.api.entities.exchange.ArtifactExchangeModel;
+import org.continuity.api.entities.exchange.ArtifactType;
 
 public interface RecipeStep {
 
@@ -9,6 +12,13 @@ public interface RecipeStep {
 
 	String getName();
 
+	/**
+	 * Returns the artifacts that need to be present before the step can be executed.
+	 *
+	 * @return The required artifacts. Is empty if the step does not require any artifact.
+	 */
+	Set<ArtifactType> getInputs();
+
 	/**
 	 * Determines whether the required data is already available.
 	 *
@@ -21,4 +31,20 @@ public interface RecipeStep {
 
 	void execute();
 
+	/**
+	 * Returns whether the result of the last execution has been served from the cache instead of
+	 * being created by a service.
+	 *
+	 * @return {@code true} if the result has been served from the cache.
+	 */
+	boolean isServedFromCache();
+
+	/**
+	 * Stores the result of the last execution for later reuse.
+	 *
+	 * @param result
+	 *            The created artifacts.
+	 */
+	void cacheResult(ArtifactExchangeModel result);
+
 }
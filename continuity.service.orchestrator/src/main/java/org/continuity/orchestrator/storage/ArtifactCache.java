@@ -0,0 +1,356 @@
+package org.continuity.orchestrator.storage;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import org.continuity.api.entities.config.TaskDescription;
+import org.continuity.api.entities.exchange.ArtifactExchangeModel;
+import org.continuity.api.entities.exchange.ArtifactType;
+import org.continuity.idpa.AppId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Caches the artifacts created by the recipe steps across orders. Only artifacts that are purely
+ * derived from their inputs are cached (see {@link #CACHEABLE_TARGETS}). In particular, load test
+ * results are never cached, as a repeated order is meant to execute the load test again. <br>
+ * The artifacts are keyed by a hash of the canonical task description (without the task ID), the
+ * target, the producing service, and the watermark of the app-id. The watermark is updated
+ * whenever Cobra reports new data or the IDPA service reports a changed application model or
+ * annotation, which also invalidates all cached artifacts of the app-id. Before a cached artifact
+ * is served, all of its links are checked, as the artifact or an accompanying one, e.g., the
+ * intensity of a behavior model, might have been deleted or lost due to a restart of the service
+ * holding it.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class ArtifactCache {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactCache.class);
+
+	private static final String HASH_ALGORITHM = "SHA-256";
+
+	/**
+	 * The artifact types that are cached.
+	 */
+	public static final Set<ArtifactType> CACHEABLE_TARGETS = Collections
+			.unmodifiableSet(EnumSet.of(ArtifactType.SESSIONS, ArtifactType.BEHAVIOR_MODEL, ArtifactType.WORKLOAD_MODEL, ArtifactType.LOAD_TEST));
+
+	private final ObjectMapper mapper;
+
+	private final int maxSize;
+
+	private final Predicate<String> linkValidator;
+
+	private final Map<String, CachedArtifact> entries;
+
+	private final Map<String, Long> watermarks = new ConcurrentHashMap<>();
+
+	/**
+	 *
+	 * @param mapper
+	 *            The mapper used for serializing the task descriptions. It will be copied and
+	 *            configured to produce a canonical representation.
+	 * @param maxSize
+	 *            The maximum number of cached artifacts. The least recently used ones are evicted
+	 *            first. A value of 0 or less disables the cache.
+	 * @param linkValidator
+	 *            Checks whether a link of a cached artifact can still be resolved. Artifacts with
+	 *            an unresolvable link are removed instead of being served.
+	 */
+	public ArtifactCache(ObjectMapper mapper, int maxSize, Predicate<String> linkValidator) {
+		this.linkValidator = linkValidator;
+		this.mapper = mapper.copy().configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true).configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+		this.maxSize = maxSize;
+		this.entries = new LinkedHashMap<String, CachedArtifact>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 8516297316356213440L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedArtifact> eldest) {
+				return size() > ArtifactCache.this.maxSize;
+			}
+
+		};
+
+		if (maxSize > 0) {
+			LOGGER.info("Caching up to {} artifacts.", maxSize);
+		} else {
+			LOGGER.info("The artifact cache is disabled.");
+		}
+	}
+
+	/**
+	 * Creates a cache that does not check the links of the cached artifacts.
+	 *
+	 * @param mapper
+	 *            The mapper used for serializing the task descriptions.
+	 * @param maxSize
+	 *            The maximum number of cached artifacts.
+	 * @see #ArtifactCache(ObjectMapper, int, Predicate)
+	 */
+	public ArtifactCache(ObjectMapper mapper, int maxSize) {
+		this(mapper, maxSize, link -> true);
+	}
+
+	/**
+	 * Creates the key of a task.
+	 *
+	 * @param task
+	 *            The task to be executed. The task ID is ignored.
+	 * @param target
+	 *            The artifact to be created.
+	 * @param service
+	 *            The service creating the artifact.
+	 * @return The key or {@code null} if the cache is disabled, the target is not cacheable, or
+	 *         the task cannot be serialized.
+	 */
+	public Key createKey(TaskDescription task, ArtifactType target, String service) {
+		if ((maxSize <= 0) || (task == null) || (task.getAppId() == null) || !CACHEABLE_TARGETS.contains(target)) {
+			return null;
+		}
+
+		String application = task.getAppId().getApplication();
+		long watermark = getWatermark(task.getAppId());
+
+		ObjectNode node = mapper.createObjectNode();
+		node.put("target", target.toPrettyString());
+		node.put("service", service);
+		node.put("watermark", watermark);
+
+		ObjectNode taskNode = mapper.valueToTree(task);
+		taskNode.remove("taskId");
+		node.set("task", taskNode);
+
+		try {
+			return new Key(hash(mapper.writeValueAsString(node)), target, application, watermark);
+		} catch (JsonProcessingException | NoSuchAlgorithmException e) {
+			LOGGER.error("Could not create a cache key!", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Gets the cached artifact for a key. If any link of the cached artifact cannot be resolved any
+	 * more, the artifact is removed.
+	 *
+	 * @param key
+	 *            The key. Can be {@code null}.
+	 * @return The cached artifact or an empty optional if there is none.
+	 */
+	public Optional<ArtifactExchangeModel> get(Key key) {
+		if (key == null) {
+			return Optional.empty();
+		}
+
+		CachedArtifact cached;
+
+		synchronized (this) {
+			cached = entries.get(key.getHash());
+		}
+
+		if (cached == null) {
+			return Optional.empty();
+		}
+
+		// checked outside of the lock, as it requires remote calls
+		if (!collectLinks(key.getTarget(), cached.getArtifact()).stream().allMatch(linkValidator)) {
+			LOGGER.info("Removing cached artifact {} of {}, as one of its links cannot be resolved any more.", key, key.getApplication());
+
+			synchronized (this) {
+				entries.remove(key.getHash(), cached);
+			}
+
+			return Optional.empty();
+		}
+
+		return Optional.of(cached.getArtifact());
+	}
+
+	/**
+	 * Stores an artifact. Artifacts whose key is based on an outdated watermark are ignored.
+	 *
+	 * @param key
+	 *            The key. Can be {@code null}.
+	 * @param artifact
+	 *            The artifact.
+	 */
+	public synchronized void put(Key key, ArtifactExchangeModel artifact) {
+		if ((key == null) || (artifact == null)) {
+			return;
+		}
+
+		if (key.getWatermark() < watermarks.getOrDefault(key.getApplication(), 0L)) {
+			LOGGER.info("Not caching artifact {} of {}. The data have been updated in between.", key, key.getApplication());
+			return;
+		}
+
+		entries.put(key.getHash(), new CachedArtifact(key.getApplication(), artifact));
+	}
+
+	/**
+	 * Gets the current data watermark of an app-id.
+	 *
+	 * @param aid
+	 *            The app-id. Only the application is considered.
+	 * @return The watermark or 0 if no data update has been reported, yet.
+	 */
+	public long getWatermark(AppId aid) {
+		return watermarks.getOrDefault(aid.getApplication(), 0L);
+	}
+
+	/**
+	 * Updates the watermark of an app-id and removes all cached artifacts of it.
+	 *
+	 * @param aid
+	 *            The app-id. Only the application is considered.
+	 * @param watermark
+	 *            The new watermark. Watermarks older than the current one are ignored.
+	 */
+	public synchronized void updateWatermark(AppId aid, long watermark) {
+		String application = aid.getApplication();
+		long newWatermark = watermarks.merge(application, watermark, Math::max);
+
+		int numRemoved = 0;
+		Iterator<CachedArtifact> iterator = entries.values().iterator();
+
+		while (iterator.hasNext()) {
+			if (application.equals(iterator.next().getApplication())) {
+				iterator.remove();
+				numRemoved++;
+			}
+		}
+
+		LOGGER.info("Data of {} have been updated. New watermark is {}. Invalidated {} cached artifacts.", application, newWatermark, numRemoved);
+	}
+
+	/**
+	 * Removes all cached artifacts.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Returns the number of currently cached artifacts.
+	 *
+	 * @return The number of artifacts.
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Collects the default link of the target, which is {@code null} if missing, and all other links
+	 * that are set.
+	 */
+	private Set<String> collectLinks(ArtifactType target, ArtifactExchangeModel artifact) {
+		Set<String> links = new LinkedHashSet<>();
+		links.add(target.getFromModel(artifact).getDefaultLink());
+
+		for (ArtifactType type : ArtifactType.values()) {
+			if (type.isPresentInModel(artifact)) {
+				links.addAll(type.getFromModel(artifact).getAllLinks());
+			}
+		}
+
+		return links;
+	}
+
+	private String hash(String content) throws NoSuchAlgorithmException {
+		byte[] digest = MessageDigest.getInstance(HASH_ALGORITHM).digest(content.getBytes(StandardCharsets.UTF_8));
+		StringBuilder builder = new StringBuilder();
+
+		for (byte b : digest) {
+			builder.append(String.format("%02x", b));
+		}
+
+		return builder.toString();
+	}
+
+	/**
+	 * Key of a cached artifact.
+	 *
+	 * @author Henning Schulz
+	 *
+	 */
+	public static class Key {
+
+		private final String hash;
+
+		private final ArtifactType target;
+
+		private final String application;
+
+		private final long watermark;
+
+		private Key(String hash, ArtifactType target, String application, long watermark) {
+			this.hash = hash;
+			this.target = target;
+			this.application = application;
+			this.watermark = watermark;
+		}
+
+		public String getHash() {
+			return hash;
+		}
+
+		public ArtifactType getTarget() {
+			return target;
+		}
+
+		public String getApplication() {
+			return application;
+		}
+
+		public long getWatermark() {
+			return watermark;
+		}
+
+		@Override
+		public String toString() {
+			return hash.substring(0, 12);
+		}
+
+	}
+
+	private static class CachedArtifact {
+
+		private final String application;
+
+		private final ArtifactExchangeModel artifact;
+
+		private CachedArtifact(String application, ArtifactExchangeModel artifact) {
+			this.application = application;
+			this.artifact = artifact;
+		}
+
+		public String getApplication() {
+			return application;
+		}
+
+		public ArtifactExchangeModel getArtifact() {
+			return artifact;
+		}
+
+	}
+
+}
@@ -0,0 +1,55 @@
+package org.continuity.orchestrator.storage;
+
+import java.util.function.Predicate;
+
+import org.continuity.commons.utils.WebUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Checks whether the link of a cached artifact can still be resolved, i.e., whether the artifact
+ * has neither been deleted nor been lost due to a restart of the service holding it.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class ArtifactLinkValidator implements Predicate<String> {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactLinkValidator.class);
+
+	private final RestTemplate restTemplate;
+
+	public ArtifactLinkValidator(RestTemplate restTemplate) {
+		this.restTemplate = restTemplate;
+	}
+
+	/**
+	 * Sends a HEAD request to the link.
+	 *
+	 * @param link
+	 *            The link of the artifact.
+	 * @return {@code true} if the request succeeded or {@code false} if it failed or the link is
+	 *         {@code null}.
+	 */
+	@Override
+	public boolean test(String link) {
+		if (link == null) {
+			return false;
+		}
+
+		try {
+			restTemplate.headForHeaders(WebUtils.addProtocolIfMissing(link));
+			return true;
+		} catch (HttpStatusCodeException e) {
+			LOGGER.info("The cached link {} cannot be resolved any more. Response: {} - {}.", link, e.getRawStatusCode(), e.getStatusCode().getReasonPhrase());
+			return false;
+		} catch (RestClientException e) {
+			LOGGER.warn("Could not check the cached link {}: {}", link, e.getMessage());
+			return false;
+		}
+	}
+
+}
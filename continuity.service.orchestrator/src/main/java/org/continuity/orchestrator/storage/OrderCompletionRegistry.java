@@ -0,0 +1,374 @@
+package org.continuity.orchestrator.storage;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+import org.continuity.api.entities.report.OrderReport;
+import org.continuity.orchestrator.util.LoggingUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Hands the reports of finished orders over to waiting clients without blocking a thread per
+ * client. Waiting clients are represented by {@link DeferredResult}s that are completed as soon as
+ * a report is available, and progress is published to {@link SseEmitter}s. Each report is
+ * returned to exactly one waiting client. An order is removed as soon as all of its reports have
+ * been returned or, if some reports are never requested, once the retention time has passed since
+ * its last report. <br>
+ * <br>
+ * The orders are only held in memory. Hence, they are lost when the orchestrator is restarted:
+ * clients waiting for such an order get {@code 400 Bad Request} and need to submit the order again,
+ * and the reports of recipes that were still running are discarded.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class OrderCompletionRegistry {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(OrderCompletionRegistry.class);
+
+	public static final String EVENT_PROGRESS = "progress";
+
+	public static final String EVENT_REPORT = "report";
+
+	private final ConcurrentMap<String, PendingOrder> orders = new ConcurrentHashMap<>();
+
+	private final long retentionMillis;
+
+	private final LongSupplier clock;
+
+	/**
+	 * Creates a registry that keeps unrequested reports for one day.
+	 */
+	public OrderCompletionRegistry() {
+		this(86400000);
+	}
+
+	/**
+	 * Creates a registry.
+	 *
+	 * @param retentionMillis
+	 *            The time in milliseconds an order is kept after its last report has been created,
+	 *            even if not all reports have been requested.
+	 */
+	public OrderCompletionRegistry(long retentionMillis) {
+		this(retentionMillis, System::currentTimeMillis);
+	}
+
+	OrderCompletionRegistry(long retentionMillis, LongSupplier clock) {
+		this.retentionMillis = retentionMillis;
+		this.clock = clock;
+	}
+
+	/**
+	 * Registers a new order.
+	 *
+	 * @param orderId
+	 *            The ID of the order.
+	 * @param numReports
+	 *            The number of reports that will be created for the order.
+	 */
+	public void register(String orderId, int numReports) {
+		removeExpired();
+		orders.put(orderId, new PendingOrder(orderId, numReports));
+	}
+
+	/**
+	 * Removes an order, e.g., because it could not be submitted. Waiting clients get
+	 * {@code 400 Bad Request}.
+	 *
+	 * @param orderId
+	 *            The ID of the order.
+	 */
+	public void unregister(String orderId) {
+		PendingOrder order = orders.remove(orderId);
+
+		if (order != null) {
+			order.cancel();
+		}
+	}
+
+	/**
+	 * Returns whether an order is registered and has reports that have not been returned, yet.
+	 *
+	 * @param orderId
+	 *            The ID of the order.
+	 * @return {@code true} if the order is registered.
+	 */
+	public boolean isRegistered(String orderId) {
+		return orders.containsKey(orderId);
+	}
+
+	/**
+	 * Adds a report of a finished recipe. The report is directly passed to the longest waiting
+	 * client, if any, or kept until a client asks for it.
+	 *
+	 * @param report
+	 *            The report.
+	 */
+	public void complete(OrderReport report) {
+		PendingOrder order = orders.get(report.getOrderId());
+
+		if (order == null) {
+			LOGGER.error("{} Cannot complete the order. There is no such order!", LoggingUtils.formatPrefix(report.getOrderId()));
+			return;
+		}
+
+		if (order.complete(report, clock.getAsLong())) {
+			orders.remove(report.getOrderId(), order);
+		}
+	}
+
+	/**
+	 * Removes the orders whose last report has been created longer than the retention time ago,
+	 * but has not been requested, yet.
+	 */
+	public void removeExpired() {
+		long expiredBefore = clock.getAsLong() - retentionMillis;
+
+		orders.entrySet().removeIf(entry -> {
+			if (entry.getValue().isCompletedBefore(expiredBefore)) {
+				LOGGER.info("{} Removing the order, as its reports have not been requested within {} ms.", LoggingUtils.formatPrefix(entry.getKey()), retentionMillis);
+				return true;
+			} else {
+				return false;
+			}
+		});
+	}
+
+	/**
+	 * Publishes progress information to the event streams of an order.
+	 *
+	 * @param orderId
+	 *            The ID of the order.
+	 * @param message
+	 *            The progress information.
+	 */
+	public void publishProgress(String orderId, String message) {
+		PendingOrder order = orders.get(orderId);
+
+		if (order != null) {
+			order.publish(EVENT_PROGRESS, message);
+		}
+	}
+
+	/**
+	 * Waits asynchronously for the next report of an order. The calling thread is not blocked.
+	 *
+	 * @param orderId
+	 *            The ID of the order.
+	 * @param timeout
+	 *            The maximum time to wait in milliseconds. If 0 or less, the result is directly
+	 *            completed.
+	 * @return A deferred result that will hold the report, {@code 204 No Content} if there is no
+	 *         report after the timeout, or {@code 400 Bad Request} if there is no such order.
+	 */
+	public DeferredResult<ResponseEntity<OrderReport>> await(String orderId, long timeout) {
+		ResponseEntity<OrderReport> noContent = ResponseEntity.noContent().build();
+		DeferredResult<ResponseEntity<OrderReport>> result = new DeferredResult<>(timeout > 0 ? timeout : null, noContent);
+		PendingOrder order = orders.get(orderId);
+
+		if (order == null) {
+			LOGGER.error("{} Cannot wait for a not existing order.", LoggingUtils.formatPrefix(orderId));
+			result.setResult(ResponseEntity.badRequest().body(OrderReport.asError(orderId, null, "There is no such order!")));
+			return result;
+		}
+
+		result.onTimeout(() -> order.removeWaiter(result));
+		result.onCompletion(() -> order.removeWaiter(result));
+
+		if (order.await(result, timeout > 0)) {
+			orders.remove(orderId, order);
+		} else if (!result.isSetOrExpired()) {
+			LOGGER.info("{} Report is not ready yet.", LoggingUtils.formatPrefix(orderId));
+		}
+
+		if ((timeout <= 0) && !result.isSetOrExpired()) {
+			result.setResult(noContent);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Subscribes to the events of an order. There are {@value #EVENT_PROGRESS} events whenever a
+	 * step has finished and {@value #EVENT_REPORT} events holding the reports. The stream is
+	 * completed after the last report. Subscribing does not consume the reports.
+	 *
+	 * @param orderId
+	 *            The ID of the order.
+	 * @param timeout
+	 *            The timeout of the stream in milliseconds.
+	 * @return The emitter or {@code null} if there is no such order.
+	 */
+	public SseEmitter subscribe(String orderId, long timeout) {
+		PendingOrder order = orders.get(orderId);
+
+		if (order == null) {
+			return null;
+		}
+
+		SseEmitter emitter = new SseEmitter(timeout);
+		emitter.onCompletion(() -> order.removeEmitter(emitter));
+		emitter.onTimeout(() -> order.removeEmitter(emitter));
+
+		order.subscribe(emitter);
+
+		return emitter;
+	}
+
+	/**
+	 * Returns the number of clients that are currently waiting.
+	 *
+	 * @return The number of waiting clients.
+	 */
+	public int getNumWaiting() {
+		return orders.values().stream().mapToInt(PendingOrder::getNumWaiting).sum();
+	}
+
+	private static class PendingOrder {
+
+		private final String orderId;
+
+		private final int numReports;
+
+		private final List<OrderReport> completedReports = new ArrayList<>();
+
+		private final Deque<OrderReport> undeliveredReports = new ArrayDeque<>();
+
+		private final Deque<DeferredResult<ResponseEntity<OrderReport>>> waiters = new ArrayDeque<>();
+
+		private final List<SseEmitter> emitters = new ArrayList<>();
+
+		private int numDelivered = 0;
+
+		private long completionTime = -1;
+
+		private PendingOrder(String orderId, int numReports) {
+			this.orderId = orderId;
+			this.numReports = numReports;
+		}
+
+		/**
+		 * @return {@code true} if all reports have been delivered.
+		 */
+		private synchronized boolean complete(OrderReport report, long now) {
+			completedReports.add(report);
+			publish(EVENT_REPORT, report);
+
+			if (completedReports.size() >= numReports) {
+				completionTime = now;
+				emitters.forEach(SseEmitter::complete);
+				emitters.clear();
+			}
+
+			undeliveredReports.add(report);
+
+			while (!waiters.isEmpty() && !undeliveredReports.isEmpty()) {
+				deliver(waiters.poll());
+			}
+
+			return isFullyDelivered();
+		}
+
+		/**
+		 * @return {@code true} if all reports have been delivered.
+		 */
+		private synchronized boolean await(DeferredResult<ResponseEntity<OrderReport>> result, boolean wait) {
+			if (isFullyDelivered()) {
+				result.setResult(ResponseEntity.badRequest().body(OrderReport.asError(orderId, null, "There is no such order!")));
+			} else if (!undeliveredReports.isEmpty()) {
+				deliver(result);
+			} else if (wait) {
+				waiters.add(result);
+			}
+
+			return isFullyDelivered();
+		}
+
+		private void deliver(DeferredResult<ResponseEntity<OrderReport>> result) {
+			OrderReport report = undeliveredReports.peek();
+			int reportNumber = numDelivered + 1;
+
+			report.setNumber(reportNumber);
+			report.setMax(numReports);
+
+			if (result.setResult(ResponseEntity.ok(report))) {
+				undeliveredReports.poll();
+				numDelivered++;
+
+				if (numDelivered == numReports) {
+					LOGGER.info("{} Returning report number {}/{}. Therefore, removing the order.", LoggingUtils.formatPrefix(orderId), reportNumber, numReports);
+				} else {
+					LOGGER.info("{} Report is ready.", LoggingUtils.formatPrefix(orderId));
+				}
+			}
+		}
+
+		private synchronized void cancel() {
+			while (!waiters.isEmpty()) {
+				waiters.poll().setResult(ResponseEntity.badRequest().body(OrderReport.asError(orderId, null, "There is no such order!")));
+			}
+
+			emitters.forEach(SseEmitter::complete);
+			emitters.clear();
+		}
+
+		private synchronized boolean isCompletedBefore(long time) {
+			return (completionTime >= 0) && (completionTime < time);
+		}
+
+		private boolean isFullyDelivered() {
+			return numDelivered >= numReports;
+		}
+
+		private synchronized void removeWaiter(DeferredResult<ResponseEntity<OrderReport>> result) {
+			waiters.remove(result);
+		}
+
+		private synchronized int getNumWaiting() {
+			return waiters.size();
+		}
+
+		private synchronized void subscribe(SseEmitter emitter) {
+			for (OrderReport report : completedReports) {
+				send(emitter, EVENT_REPORT, report);
+			}
+
+			if (completedReports.size() >= numReports) {
+				emitter.complete();
+			} else {
+				emitters.add(emitter);
+			}
+		}
+
+		private synchronized void removeEmitter(SseEmitter emitter) {
+			emitters.remove(emitter);
+		}
+
+		private synchronized void publish(String name, Object data) {
+			emitters.removeIf(emitter -> !send(emitter, name, data));
+		}
+
+		private boolean send(SseEmitter emitter, String name, Object data) {
+			try {
+				emitter.send(SseEmitter.event().name(name).data(data));
+				return true;
+			} catch (IOException | IllegalStateException e) {
+				LOGGER.warn("{} Could not send {} event. Removing the event stream.", LoggingUtils.formatPrefix(orderId), name);
+				return false;
+			}
+		}
+
+	}
+
+}
@@ -11,6 +11,10 @@ public class QueueDeclarationTest {
 	public void test() {
 		assertThat(RabbitMqConfig.EVENT_FINISHED_QUEUE_NAME).as("The defined queue name should be equal to the derived one.")
 				.isEqualTo(AmqpApi.Global.EVENT_FINISHED.deriveQueueName(RabbitMqConfig.SERVICE_NAME));
+		assertThat(RabbitMqConfig.EVENT_DATA_UPDATED_QUEUE_NAME).as("The defined queue name should be equal to the derived one.")
+				.isEqualTo(AmqpApi.Cobra.EVENT_DATA_UPDATED.deriveQueueName(RabbitMqConfig.SERVICE_NAME));
+		assertThat(RabbitMqConfig.EVENT_IDPA_CHANGED_QUEUE_NAME).as("The defined queue name should be equal to the derived one.")
+				.isEqualTo(AmqpApi.Idpa.EVENT_CHANGED.deriveQueueName(RabbitMqConfig.SERVICE_NAME));
 	}
 
 }
@@ -0,0 +1,264 @@
+package org.continuity.orchestrator.entities;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.continuity.api.entities.config.TaskDescription;
+import org.continuity.api.entities.exchange.ArtifactExchangeModel;
+import org.continuity.api.entities.exchange.ArtifactType;
+import org.continuity.api.entities.order.OrderOptions;
+import org.continuity.api.entities.report.TaskReport;
+import org.continuity.idpa.AppId;
+import org.junit.Test;
+
+public class RecipeTest {
+
+	@Test
+	public void testIndependentStepsAreReadyTogether() {
+		TestStep sessions = new TestStep(ArtifactType.SESSIONS);
+		TestStep intensity = new TestStep(ArtifactType.INTENSITY);
+		TestStep behavior = new TestStep(ArtifactType.BEHAVIOR_MODEL, ArtifactType.SESSIONS);
+		TestStep workload = new TestStep(ArtifactType.WORKLOAD_MODEL, ArtifactType.BEHAVIOR_MODEL, ArtifactType.INTENSITY);
+
+		Recipe recipe = createRecipe(workload, behavior, sessions, intensity);
+
+		assertThat(names(recipe.nextReadySteps())).containsExactlyInAnyOrder("sessions", "intensity");
+		assertThat(recipe.nextReadySteps()).isEmpty();
+
+		assertThat(recipe.updateFromReport(sessions.report())).isTrue();
+		assertThat(names(recipe.nextReadySteps())).containsExactly("behavior-model");
+
+		assertThat(recipe.updateFromReport(intensity.report())).isTrue();
+		assertThat(recipe.nextReadySteps()).isEmpty();
+		assertThat(recipe.hasRunningSteps()).isTrue();
+
+		assertThat(recipe.updateFromReport(behavior.report())).isTrue();
+		assertThat(names(recipe.nextReadySteps())).containsExactly("workload-model");
+
+		assertThat(recipe.updateFromReport(workload.report())).isTrue();
+		assertThat(recipe.hasNext()).isFalse();
+		assertThat(recipe.getStepDurations()).containsOnlyKeys("sessions", "intensity", "behavior-model", "workload-model");
+	}
+
+	@Test
+	public void testTwoIndependentInputsAreCreatedConcurrently() {
+		// as declared by requires-for-workload-model: behavior-model, traces
+		TestStep traces = new TestStep(ArtifactType.TRACES);
+		TestStep sessions = new TestStep(ArtifactType.SESSIONS);
+		TestStep behavior = new TestStep(ArtifactType.BEHAVIOR_MODEL, ArtifactType.SESSIONS);
+		TestStep workload = new TestStep(ArtifactType.WORKLOAD_MODEL, ArtifactType.BEHAVIOR_MODEL, ArtifactType.TRACES);
+
+		Recipe recipe = createRecipe(workload, behavior, sessions, traces);
+
+		recipe.nextReadySteps().forEach(RecipeStep::execute);
+
+		// both inputs are being created before any of them has been reported
+		assertThat(traces.executions).isEqualTo(1);
+		assertThat(sessions.executions).isEqualTo(1);
+		assertThat(behavior.executions).isZero();
+
+		assertThat(recipe.updateFromReport(sessions.report())).isTrue();
+		recipe.nextReadySteps().forEach(RecipeStep::execute);
+
+		// the behavior model is created while the traces are still pending
+		assertThat(behavior.executions).isEqualTo(1);
+		assertThat(recipe.getPendingStepNames()).containsExactly("workload-model");
+
+		assertThat(recipe.updateFromReport(behavior.report())).isTrue();
+		assertThat(recipe.nextReadySteps()).isEmpty();
+
+		assertThat(recipe.updateFromReport(traces.report())).isTrue();
+		assertThat(names(recipe.nextReadySteps())).containsExactly("workload-model");
+		assertThat(workload.task.getSource().getTraceLinks().getLink()).isEqualTo("traces");
+		assertThat(workload.task.getSource().getBehaviorModelLinks().getLink()).isEqualTo("behavior-model");
+	}
+
+	@Test
+	public void testTaskIdsAreUnique() {
+		TestStep sessions = new TestStep(ArtifactType.SESSIONS);
+		TestStep intensity = new TestStep(ArtifactType.INTENSITY);
+
+		Recipe recipe = createRecipe(sessions, intensity);
+		recipe.nextReadySteps();
+
+		assertThat(sessions.task.getTaskId()).startsWith("my-app-1.");
+		assertThat(intensity.task.getTaskId()).startsWith("my-app-1.");
+		assertThat(sessions.task.getTaskId()).isNotEqualTo(intensity.task.getTaskId());
+	}
+
+	@Test
+	public void testDuplicateReportIsIgnored() {
+		TestStep sessions = new TestStep(ArtifactType.SESSIONS);
+		TestStep behavior = new TestStep(ArtifactType.BEHAVIOR_MODEL, ArtifactType.SESSIONS);
+
+		Recipe recipe = createRecipe(behavior, sessions);
+		recipe.nextReadySteps();
+
+		assertThat(recipe.updateFromReport(sessions.report())).isTrue();
+		assertThat(recipe.updateFromReport(sessions.report())).isFalse();
+	}
+
+	@Test
+	public void testMissingInputsAreDetected() {
+		TestStep behavior = new TestStep(ArtifactType.BEHAVIOR_MODEL, ArtifactType.SESSIONS);
+
+		Recipe recipe = createRecipe(behavior);
+
+		assertThat(recipe.hasNext()).isTrue();
+		assertThat(recipe.nextReadySteps()).isEmpty();
+		assertThat(recipe.hasRunningSteps()).isFalse();
+		assertThat(recipe.getPendingStepNames()).containsExactly("behavior-model");
+	}
+
+	@Test
+	public void testTaskSourceIsRestrictedToInputs() {
+		TestStep sessions = new TestStep(ArtifactType.SESSIONS);
+		TestStep intensity = new TestStep(ArtifactType.INTENSITY);
+		TestStep behavior = new TestStep(ArtifactType.BEHAVIOR_MODEL, ArtifactType.SESSIONS);
+
+		Recipe recipe = createRecipe(behavior, sessions, intensity);
+		recipe.nextReadySteps();
+
+		ArtifactExchangeModel sessionsSource = sessions.task.getSource();
+
+		assertThat(recipe.updateFromReport(sessions.report())).isTrue();
+		assertThat(names(recipe.nextReadySteps())).containsExactly("behavior-model");
+		assertThat(recipe.updateFromReport(intensity.report())).isTrue();
+
+		assertThat(sessionsSource.isPresent(ArtifactType.SESSIONS)).isFalse();
+		assertThat(sessionsSource.isPresent(ArtifactType.INTENSITY)).isFalse();
+
+		ArtifactExchangeModel behaviorSource = behavior.task.getSource();
+
+		assertThat(behaviorSource).isNotSameAs(recipe.getSource());
+		assertThat(behaviorSource.getSessionLinks().getSimpleLink()).isEqualTo("sessions");
+		assertThat(behaviorSource.isPresent(ArtifactType.INTENSITY)).isFalse();
+		assertThat(recipe.getSource().isPresent(ArtifactType.INTENSITY)).isTrue();
+	}
+
+	@Test
+	public void testTaskSourceContainsOrderSource() {
+		TestStep sessions = new TestStep(ArtifactType.SESSIONS);
+		TestStep behavior = new TestStep(ArtifactType.BEHAVIOR_MODEL, ArtifactType.SESSIONS);
+
+		ArtifactExchangeModel orderSource = new ArtifactExchangeModel().setIntensity("order-intensity");
+		Recipe recipe = createRecipe(orderSource, behavior, sessions);
+		recipe.nextReadySteps();
+		recipe.updateFromReport(sessions.report());
+		recipe.nextReadySteps();
+
+		assertThat(sessions.task.getSource().getIntensity()).isEqualTo("order-intensity");
+		assertThat(behavior.task.getSource().getIntensity()).isEqualTo("order-intensity");
+		assertThat(behavior.task.getSource().getSessionLinks().getSimpleLink()).isEqualTo("sessions");
+	}
+
+	@Test
+	public void testIntensityOfBehaviorModelReachesWorkloadModel() {
+		TestStep sessions = new TestStep(ArtifactType.SESSIONS);
+		TestStep behavior = new TestStep(ArtifactType.BEHAVIOR_MODEL, ArtifactType.SESSIONS);
+		TestStep workload = new TestStep(ArtifactType.WORKLOAD_MODEL, ArtifactType.BEHAVIOR_MODEL);
+
+		Recipe recipe = createRecipe(workload, behavior, sessions);
+		recipe.nextReadySteps();
+		recipe.updateFromReport(sessions.report());
+		recipe.nextReadySteps();
+
+		assertThat(behavior.task.getSource().isPresent(ArtifactType.INTENSITY)).isFalse();
+
+		// like Cobra, which forecasts the intensity along with the behavior model
+		TaskReport behaviorReport = behavior.report();
+		behaviorReport.getResult().setIntensity("forecast-intensity");
+
+		assertThat(recipe.updateFromReport(behaviorReport)).isTrue();
+		assertThat(names(recipe.nextReadySteps())).containsExactly("workload-model");
+
+		assertThat(workload.task.getSource().getBehaviorModelLinks().getLink()).isEqualTo("behavior-model");
+		assertThat(workload.task.getSource().getIntensity()).isEqualTo("forecast-intensity");
+		assertThat(workload.task.getSource().isPresent(ArtifactType.SESSIONS)).isFalse();
+	}
+
+	private Recipe createRecipe(RecipeStep... steps) {
+		return createRecipe(null, steps);
+	}
+
+	private Recipe createRecipe(ArtifactExchangeModel source, RecipeStep... steps) {
+		return new Recipe("my-app-1", "my-app-1", AppId.fromString("my-app"), null, null, null, Arrays.asList(steps), source, false, null, new OrderOptions(), null);
+	}
+
+	private List<String> names(List<RecipeStep> steps) {
+		return steps.stream().map(RecipeStep::getName).collect(Collectors.toList());
+	}
+
+	private static class TestStep implements RecipeStep {
+
+		private final ArtifactType target;
+
+		private final Set<ArtifactType> inputs;
+
+		private TaskDescription task;
+
+		private int executions = 0;
+
+		private TestStep(ArtifactType target, ArtifactType... inputs) {
+			this.target = target;
+			this.inputs = new HashSet<>(Arrays.asList(inputs));
+		}
+
+		private TaskReport report() {
+			ArtifactExchangeModel result = new ArtifactExchangeModel();
+
+			if (target == ArtifactType.INTENSITY) {
+				result.setIntensity("intensity");
+			} else if (target == ArtifactType.SESSIONS) {
+				result.getSessionLinks().setSimpleLink("sessions");
+			} else if (target == ArtifactType.BEHAVIOR_MODEL) {
+				result.getBehaviorModelLinks().setLink("behavior-model");
+			} else if (target == ArtifactType.TRACES) {
+				result.getTraceLinks().setLink("traces");
+			}
+
+			return TaskReport.successful(task.getTaskId(), result);
+		}
+
+		@Override
+		public void setTask(TaskDescription task) {
+			this.task = task;
+		}
+
+		@Override
+		public String getName() {
+			return target.toPrettyString();
+		}
+
+		@Override
+		public Set<ArtifactType> getInputs() {
+			return inputs;
+		}
+
+		@Override
+		public boolean checkData(ArtifactExchangeModel source) {
+			return source.isPresent(target);
+		}
+
+		@Override
+		public void execute() {
+			executions++;
+		}
+
+		@Override
+		public boolean isServedFromCache() {
+			return false;
+		}
+
+		@Override
+		public void cacheResult(ArtifactExchangeModel result) {
+		}
+
+	}
+
+}
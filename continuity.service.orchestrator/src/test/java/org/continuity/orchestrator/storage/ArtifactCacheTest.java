@@ -0,0 +1,159 @@
+package org.continuity.orchestrator.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.continuity.api.entities.config.TaskDescription;
+import org.continuity.api.entities.exchange.ArtifactExchangeModel;
+import org.continuity.api.entities.exchange.ArtifactType;
+import org.continuity.api.entities.order.OrderOptions;
+import org.continuity.idpa.AppId;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+public class ArtifactCacheTest {
+
+	private static final AppId AID = AppId.fromString("my-app");
+
+	private static final String SERVICE = "cobra";
+
+	private ArtifactCache cache;
+
+	@Before
+	public void setup() {
+		cache = new ArtifactCache(new ObjectMapper().registerModule(new Jdk8Module()).registerModule(new JavaTimeModule()), 2);
+	}
+
+	@Test
+	public void testKeyIgnoresTaskId() {
+		ArtifactCache.Key first = cache.createKey(createTask("1.1-sessions"), ArtifactType.SESSIONS, SERVICE);
+		ArtifactCache.Key second = cache.createKey(createTask("42.1-sessions"), ArtifactType.SESSIONS, SERVICE);
+
+		assertThat(first.getHash()).isEqualTo(second.getHash());
+
+		ArtifactCache.Key otherTarget = cache.createKey(createTask("1.1-sessions"), ArtifactType.BEHAVIOR_MODEL, SERVICE);
+		assertThat(otherTarget.getHash()).isNotEqualTo(first.getHash());
+
+		TaskDescription otherOptions = createTask("1.1-sessions");
+		otherOptions.getOptions().setNumUsers(42);
+		assertThat(cache.createKey(otherOptions, ArtifactType.SESSIONS, SERVICE).getHash()).isNotEqualTo(first.getHash());
+	}
+
+	@Test
+	public void testServedAcrossOrders() {
+		ArtifactCache.Key key = cache.createKey(createTask("1.1-sessions"), ArtifactType.SESSIONS, SERVICE);
+		cache.put(key, new ArtifactExchangeModel().setIntensity("foo"));
+
+		ArtifactCache.Key otherOrderKey = cache.createKey(createTask("2.1-sessions"), ArtifactType.SESSIONS, SERVICE);
+
+		assertThat(cache.get(otherOrderKey)).isPresent();
+		assertThat(cache.get(otherOrderKey).get().getIntensity()).isEqualTo("foo");
+	}
+
+	@Test
+	public void testInvalidationByWatermark() {
+		ArtifactCache.Key key = cache.createKey(createTask("1.1-sessions"), ArtifactType.SESSIONS, SERVICE);
+		cache.put(key, new ArtifactExchangeModel());
+
+		cache.updateWatermark(AID, 1000);
+
+		assertThat(cache.size()).isZero();
+		assertThat(cache.get(key)).isNotPresent();
+
+		ArtifactCache.Key newKey = cache.createKey(createTask("2.1-sessions"), ArtifactType.SESSIONS, SERVICE);
+		assertThat(newKey.getHash()).isNotEqualTo(key.getHash());
+
+		// results of tasks started before the update must not be cached
+		cache.put(key, new ArtifactExchangeModel());
+		assertThat(cache.size()).isZero();
+
+		cache.put(newKey, new ArtifactExchangeModel());
+		assertThat(cache.get(newKey)).isPresent();
+
+		cache.updateWatermark(AppId.fromString("other-app"), 2000);
+		assertThat(cache.get(newKey)).isPresent();
+	}
+
+	@Test
+	public void testEviction() {
+		ArtifactCache.Key sessions = cache.createKey(createTask("1.1-sessions"), ArtifactType.SESSIONS, SERVICE);
+		ArtifactCache.Key behavior = cache.createKey(createTask("1.2-behavior-model"), ArtifactType.BEHAVIOR_MODEL, SERVICE);
+		ArtifactCache.Key workloadModel = cache.createKey(createTask("1.3-workload-model"), ArtifactType.WORKLOAD_MODEL, SERVICE);
+
+		cache.put(sessions, new ArtifactExchangeModel());
+		cache.put(behavior, new ArtifactExchangeModel());
+		cache.get(sessions);
+		cache.put(workloadModel, new ArtifactExchangeModel());
+
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.get(sessions)).isPresent();
+		assertThat(cache.get(behavior)).isNotPresent();
+		assertThat(cache.get(workloadModel)).isPresent();
+	}
+
+	@Test
+	public void testExecutionStepsAreNotCached() {
+		assertThat(cache.createKey(createTask("1.1-test-result"), ArtifactType.TEST_RESULT, "jmeter")).isNull();
+		assertThat(cache.createKey(createTask("1.1-traces"), ArtifactType.TRACES, SERVICE)).isNull();
+		assertThat(cache.createKey(createTask("1.1-load-test"), ArtifactType.LOAD_TEST, "jmeter")).isNotNull();
+	}
+
+	@Test
+	public void testUnresolvableLinksAreDropped() {
+		Set<String> deletedLinks = new HashSet<>();
+		cache = new ArtifactCache(new ObjectMapper().registerModule(new Jdk8Module()).registerModule(new JavaTimeModule()), 2, link -> (link != null) && !deletedLinks.contains(link));
+
+		ArtifactCache.Key key = cache.createKey(createTask("1.1-workload-model"), ArtifactType.WORKLOAD_MODEL, "wessbas");
+		ArtifactExchangeModel artifact = new ArtifactExchangeModel();
+		artifact.getWorkloadModelLinks().setLink("wessbas/model/1");
+		cache.put(key, artifact);
+
+		assertThat(cache.get(key)).isPresent();
+
+		deletedLinks.add("wessbas/model/1");
+
+		assertThat(cache.get(key)).isNotPresent();
+		assertThat(cache.size()).isZero();
+	}
+
+	@Test
+	public void testUnresolvableIntensityIsDropped() {
+		Set<String> deletedLinks = new HashSet<>();
+		cache = new ArtifactCache(new ObjectMapper().registerModule(new Jdk8Module()).registerModule(new JavaTimeModule()), 2, link -> (link != null) && !deletedLinks.contains(link));
+
+		ArtifactCache.Key key = cache.createKey(createTask("1.1-behavior-model"), ArtifactType.BEHAVIOR_MODEL, "cobra");
+		ArtifactExchangeModel artifact = new ArtifactExchangeModel();
+		artifact.getBehaviorModelLinks().setLink("cobra/behavior/1");
+		artifact.setIntensity("cobra/intensity/1");
+		cache.put(key, artifact);
+
+		assertThat(cache.get(key)).isPresent();
+
+		deletedLinks.add("cobra/intensity/1");
+
+		assertThat(cache.get(key)).isNotPresent();
+		assertThat(cache.size()).isZero();
+	}
+
+	@Test
+	public void testDisabled() {
+		ArtifactCache disabled = new ArtifactCache(new ObjectMapper(), 0);
+		assertThat(disabled.createKey(createTask("1.1-sessions"), ArtifactType.SESSIONS, SERVICE)).isNull();
+	}
+
+	private TaskDescription createTask(String taskId) {
+		TaskDescription task = new TaskDescription();
+		task.setTaskId(taskId);
+		task.setAppId(AID);
+		task.setSource(new ArtifactExchangeModel());
+		task.setOptions(new OrderOptions());
+		return task;
+	}
+
+}
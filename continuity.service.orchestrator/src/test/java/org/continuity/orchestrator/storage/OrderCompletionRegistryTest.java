@@ -0,0 +1,178 @@
+package org.continuity.orchestrator.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.continuity.api.entities.exchange.ArtifactExchangeModel;
+import org.continuity.api.entities.report.OrderReport;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+public class OrderCompletionRegistryTest {
+
+	private static final int NUM_CLIENTS = 500;
+
+	private static final int NUM_THREADS = 8;
+
+	private OrderCompletionRegistry registry;
+
+	@Before
+	public void setup() {
+		registry = new OrderCompletionRegistry();
+	}
+
+	@Test
+	public void testManyWaitingClientsOnBoundedPool() throws Exception {
+		for (int i = 0; i < NUM_CLIENTS; i++) {
+			registry.register(orderId(i), 1);
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+		List<Future<DeferredResult<ResponseEntity<OrderReport>>>> futures = new ArrayList<>();
+
+		for (int i = 0; i < NUM_CLIENTS; i++) {
+			String orderId = orderId(i);
+			futures.add(executor.submit(() -> registry.await(orderId, 60000)));
+		}
+
+		List<DeferredResult<ResponseEntity<OrderReport>>> results = new ArrayList<>();
+
+		for (Future<DeferredResult<ResponseEntity<OrderReport>>> future : futures) {
+			results.add(future.get(5, TimeUnit.SECONDS));
+		}
+
+		assertThat(registry.getNumWaiting()).isEqualTo(NUM_CLIENTS);
+		assertThat(results).noneMatch(DeferredResult::hasResult);
+
+		List<Future<?>> completions = new ArrayList<>();
+
+		for (int i = 0; i < NUM_CLIENTS; i++) {
+			String orderId = orderId(i);
+			completions.add(executor.submit(() -> registry.complete(OrderReport.asSuccessful(orderId, null, new ArtifactExchangeModel()))));
+		}
+
+		for (Future<?> future : completions) {
+			future.get(5, TimeUnit.SECONDS);
+		}
+
+		executor.shutdown();
+
+		assertThat(registry.getNumWaiting()).isEqualTo(0);
+
+		for (int i = 0; i < NUM_CLIENTS; i++) {
+			ResponseEntity<?> response = (ResponseEntity<?>) results.get(i).getResult();
+			assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+			OrderReport report = (OrderReport) response.getBody();
+			assertThat(report.getOrderId()).isEqualTo(orderId(i));
+			assertThat(report.getNumber()).isEqualTo(1);
+			assertThat(report.getMax()).isEqualTo(1);
+
+			assertThat(registry.isRegistered(orderId(i))).isFalse();
+		}
+	}
+
+	@Test
+	public void testReportsAreKeptUntilRequested() {
+		registry.register("order-1", 2);
+
+		registry.complete(OrderReport.asSuccessful("order-1", null, new ArtifactExchangeModel()));
+		registry.complete(OrderReport.asError("order-1", null, "failed"));
+
+		OrderReport first = getReport(registry.await("order-1", 0));
+		assertThat(first.getNumber()).isEqualTo(1);
+		assertThat(first.isSuccessful()).isTrue();
+		assertThat(registry.isRegistered("order-1")).isTrue();
+
+		OrderReport second = getReport(registry.await("order-1", 1000));
+		assertThat(second.getNumber()).isEqualTo(2);
+		assertThat(second.getMax()).isEqualTo(2);
+		assertThat(second.isSuccessful()).isFalse();
+		assertThat(registry.isRegistered("order-1")).isFalse();
+
+		assertThat(getStatus(registry.await("order-1", 0))).isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	@Test
+	public void testEachReportIsReturnedOnce() {
+		registry.register("order-1", 2);
+
+		DeferredResult<ResponseEntity<OrderReport>> first = registry.await("order-1", 1000);
+		DeferredResult<ResponseEntity<OrderReport>> second = registry.await("order-1", 1000);
+
+		registry.complete(OrderReport.asSuccessful("order-1", null, new ArtifactExchangeModel()));
+
+		assertThat(first.hasResult()).isTrue();
+		assertThat(second.hasResult()).isFalse();
+		assertThat(registry.getNumWaiting()).isEqualTo(1);
+	}
+
+	@Test
+	public void testNoWaiting() {
+		registry.register("order-1", 1);
+
+		assertThat(getStatus(registry.await("order-1", 0))).isEqualTo(HttpStatus.NO_CONTENT);
+		assertThat(registry.getNumWaiting()).isEqualTo(0);
+		assertThat(getStatus(registry.await("unknown", 1000))).isEqualTo(HttpStatus.BAD_REQUEST);
+		assertThat(registry.subscribe("unknown", 1000)).isNull();
+	}
+
+	@Test
+	public void testUnrequestedReportsExpire() {
+		AtomicLong time = new AtomicLong(0);
+		registry = new OrderCompletionRegistry(1000, time::get);
+
+		registry.register("order-1", 2);
+		registry.register("order-2", 2);
+		registry.complete(OrderReport.asSuccessful("order-1", null, new ArtifactExchangeModel()));
+		registry.complete(OrderReport.asSuccessful("order-1", null, new ArtifactExchangeModel()));
+		registry.complete(OrderReport.asSuccessful("order-2", null, new ArtifactExchangeModel()));
+
+		time.set(1000);
+		registry.removeExpired();
+		assertThat(registry.isRegistered("order-1")).isTrue();
+
+		time.set(1001);
+		registry.register("order-3", 1);
+		assertThat(registry.isRegistered("order-1")).isFalse();
+		assertThat(registry.isRegistered("order-2")).isTrue();
+		assertThat(registry.isRegistered("order-3")).isTrue();
+	}
+
+	@Test
+	public void testUnregisteredOrderIsRemoved() {
+		registry.register("order-1", 1);
+		DeferredResult<ResponseEntity<OrderReport>> result = registry.await("order-1", 1000);
+
+		registry.unregister("order-1");
+
+		assertThat(getStatus(result)).isEqualTo(HttpStatus.BAD_REQUEST);
+		assertThat(registry.isRegistered("order-1")).isFalse();
+		assertThat(registry.getNumWaiting()).isEqualTo(0);
+	}
+
+	private String orderId(int i) {
+		return "my-app-" + i;
+	}
+
+	private OrderReport getReport(DeferredResult<ResponseEntity<OrderReport>> result) {
+		assertThat(getStatus(result)).isEqualTo(HttpStatus.OK);
+		return (OrderReport) ((ResponseEntity<?>) result.getResult()).getBody();
+	}
+
+	private HttpStatus getStatus(DeferredResult<ResponseEntity<OrderReport>> result) {
+		assertThat(result.hasResult()).isTrue();
+		return ((ResponseEntity<?>) result.getResult()).getStatusCode();
+	}
+
+}
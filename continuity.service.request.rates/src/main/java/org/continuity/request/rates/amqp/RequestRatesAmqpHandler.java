@@ -3,8 +3,8 @@ package org.continuity.request.rates.amqp;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 import org.continuity.api.amqp.AmqpApi;
 import org.continuity.api.entities.config.TaskDescription;
@@ -21,12 +21,9 @@ import org.continuity.request.rates.config.RabbitMqConfig;
 import org.continuity.request.rates.entities.RequestRecord;
 import org.continuity.request.rates.entities.WorkloadModelPack;
 import org.continuity.request.rates.model.RequestRatesModel;
-import org.continuity.request.rates.transform.ModularizingRequestRatesCalculator;
-import org.continuity.request.rates.transform.RequestRatesCalculator;
-import org.continuity.request.rates.transform.SimpleRequestRatesCalculator;
+import org.continuity.request.rates.transform.StreamingRequestRatesCalculator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.spec.research.open.xtrace.api.core.SubTrace;
 import org.spec.research.open.xtrace.api.core.Trace;
 import org.spec.research.open.xtrace.dflt.impl.core.callables.HTTPRequestProcessingImpl;
 import org.springframework.amqp.core.AmqpTemplate;
@@ -67,58 +64,56 @@ public class RequestRatesAmqpHandler {
 	public void onMonitoringDataAvailable(TaskDescription task) {
 		LOGGER.info("Task {}: Received new task to be processed for app-id '{}'", task.getTaskId(), task.getAppId());
 
-		TaskReport report;
 		TraceLinks link = task.getSource().getTraceLinks();
 
-		LOGGER.info("Task {}: Processing OPEN.xtrace data...", task.getTaskId());
-
-		Iterable<Trace> traces = OPENxtraceUtils
-				.getOPENxtraces(WebUtils.addProtocolIfMissing(link.getLink()), restTemplate);
-		LOGGER.info("Task {}: Retrieved OPEN.xtrace data.", task.getTaskId());
-
 		List<ServiceSpecification> services = task.getEffectiveServices();
 		boolean applyModularization = TailoringUtils.doTailoring(services);
 
-		List<HTTPRequestProcessingImpl> requestsOfInterest;
+		StreamingRequestRatesCalculator calculator;
+		Function<Trace, List<HTTPRequestProcessingImpl>> requestsOfInterest;
 
 		if (applyModularization) {
 			Collection<String> targetHostNames = TailoringUtils.getTargetHostNames(task.getAppId(), services, restTemplate);
 
-			requestsOfInterest = StreamSupport.stream(traces.spliterator(), false).map(Trace::getRoot).map(SubTrace::getRoot).map(root -> OpenXtraceTracer.forRootAndHosts(root, targetHostNames))
-					.map(OpenXtraceTracer::extractSubtraces).flatMap(List::stream).collect(Collectors.toList());
+			calculator = new StreamingRequestRatesCalculator(TailoringUtils.getServiceApplicationModels(task.getAppId(), services, restTemplate));
+			requestsOfInterest = trace -> OpenXtraceTracer.forRootAndHosts(trace.getRoot().getRoot(), targetHostNames).extractSubtraces();
 		} else {
-			requestsOfInterest = StreamSupport.stream(traces.spliterator(), false).map(Trace::getRoot).map(SubTrace::getRoot).map(OpenXtraceTracer::forRoot).map(OpenXtraceTracer::extractSubtraces)
-					.flatMap(List::stream).collect(Collectors.toList());
+			calculator = new StreamingRequestRatesCalculator(getApplication(task));
+			requestsOfInterest = trace -> OpenXtraceTracer.forRoot(trace.getRoot().getRoot()).extractSubtraces();
 		}
 
-		List<RequestRecord> records = requestsOfInterest.stream().map(this::traceToRequestRecord).collect(Collectors.toList());
-		report = processRequests(records, task, applyModularization, services);
+		LOGGER.info("Task {}: Processing OPEN.xtrace data...", task.getTaskId());
+
+		long numTraces = OPENxtraceUtils.forEachOPENxtrace(WebUtils.addProtocolIfMissing(link.getLink()), restTemplate,
+				trace -> requestsOfInterest.apply(trace).stream().map(this::traceToRequestRecord).forEach(calculator::add));
+
+		LOGGER.info("Task {}: Processed {} traces. Overall requests: {}. Ignored requests of unknown endpoints: {}.", task.getTaskId(), numTraces, calculator.getOverallStatistics(),
+				calculator.getNumberOfUnmappedRequests());
+
+		TaskReport report = processRequests(calculator, task);
 
 		amqpTemplate.convertAndSend(AmqpApi.Global.EVENT_FINISHED.name(), AmqpApi.Global.EVENT_FINISHED.formatRoutingKey().of(RabbitMqConfig.SERVICE_NAME), report);
 	}
 
-	private TaskReport processRequests(List<RequestRecord> records, TaskDescription task, boolean modularize, List<ServiceSpecification> services) {
-		RequestRatesCalculator calculator;
-
-		if (modularize) {
-			calculator = new ModularizingRequestRatesCalculator(TailoringUtils.getServiceApplicationModels(task.getAppId(), services, restTemplate));
-		} else {
-			Application application;
-			try {
-				application = restTemplate.getForObject(RestApi.Idpa.Application.GET.requestUrl(task.getAppId()).get(), Application.class);
-			} catch (HttpStatusCodeException e) {
-				LOGGER.info("Could not get application model for app-id {}. Response: {} - {}.", task.getAppId(), e.getRawStatusCode(), e.getStatusCode().getReasonPhrase());
-				application = null;
-			}
-
-			calculator = new SimpleRequestRatesCalculator(application);
+	private Application getApplication(TaskDescription task) {
+		try {
+			return restTemplate.getForObject(RestApi.Idpa.Application.GET.requestUrl(task.getAppId()).get(), Application.class);
+		} catch (HttpStatusCodeException e) {
+			LOGGER.info("Could not get application model for app-id {}. Response: {} - {}.", task.getAppId(), e.getRawStatusCode(), e.getStatusCode().getReasonPhrase());
+			return null;
 		}
+	}
 
-		RequestRatesModel model = calculator.calculate(records);
+	private TaskReport processRequests(StreamingRequestRatesCalculator calculator, TaskDescription task) {
+		RequestRatesModel model = calculator.calculate();
 		String storageId = storage.put(model, task.getAppId(), task.isLongTermUse());
 
 		LOGGER.info("Task {}: Created a new request rates model with id '{}'.", task.getTaskId(), storageId);
 
+		if (LOGGER.isDebugEnabled()) {
+			calculator.getStatistics().forEach((id, statistics) -> LOGGER.debug("Task {}: Endpoint {}: {}.", task.getTaskId(), id, statistics));
+		}
+
 		WorkloadModelPack responsePack = new WorkloadModelPack(applicationName, storageId, task.getAppId());
 		TaskReport report = TaskReport.successful(task.getTaskId(), responsePack);
 
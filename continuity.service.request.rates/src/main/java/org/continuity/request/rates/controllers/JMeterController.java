@@ -10,6 +10,7 @@ import org.continuity.request.rates.transform.RequestRatesToJMeterConverter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
@@ -28,6 +29,13 @@ public class JMeterController {
 	@Autowired
 	private MixedStorage<RequestRatesModel> storage;
 
+	/**
+	 * A non-positive value disables the AliasMethodController, e.g., if the test plans are to be
+	 * executed by stock JMeter.
+	 */
+	@Value("${jmeter.alias-method-threshold:" + RequestRatesToJMeterConverter.DEFAULT_ALIAS_METHOD_THRESHOLD + "}")
+	private int aliasMethodThreshold;
+
 	@RequestMapping(value = CREATE, method = RequestMethod.GET)
 	public JMeterTestPlanBundle createTestPlan(@PathVariable("id") String workloadModelId) {
 		if (workloadModelId == null) {
@@ -40,7 +48,7 @@ public class JMeterController {
 			throw new IllegalArgumentException("There is no request rates model with id " + workloadModelId + "!");
 		}
 
-		RequestRatesToJMeterConverter jmeterConverter = new RequestRatesToJMeterConverter();
+		RequestRatesToJMeterConverter jmeterConverter = new RequestRatesToJMeterConverter(aliasMethodThreshold);
 		JMeterTestPlanBundle testPlanPack = jmeterConverter.convertToLoadTest(model);
 
 		LOGGER.info("Created JMeter test plan with id {}.", workloadModelId);
@@ -0,0 +1,132 @@
+package org.continuity.request.rates.transform;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.continuity.commons.idpa.RequestUriMapper;
+import org.continuity.idpa.application.Application;
+import org.continuity.idpa.application.HttpEndpoint;
+import org.continuity.idpa.visitor.FindBy;
+import org.continuity.idpa.visitor.IdpaByClassSearcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Index of the {@link HttpEndpoint}s of an {@link Application}, which is built once and can then be
+ * used for mapping many requests. Finds the same endpoints as
+ * {@link FindBy#findById(String, Class)} and {@link RequestUriMapper#map(String, String)}, but
+ * neither visits the whole application nor compiles the path patterns per request.
+ *
+ * @author Henning Schulz
+ *
+ */
+class EndpointIndex {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(EndpointIndex.class);
+
+	private final Map<String, HttpEndpoint> endpointsById = new HashMap<>();
+
+	private final Map<List<String>, HttpEndpoint> endpointsByMethodAndPath = new HashMap<>();
+
+	private final Map<String, List<PathPattern>> patternsByMethod = new HashMap<>();
+
+	EndpointIndex(Application application) {
+		IdpaByClassSearcher<HttpEndpoint> searcher = new IdpaByClassSearcher<>(HttpEndpoint.class, this::add);
+		searcher.visit(application);
+	}
+
+	private void add(HttpEndpoint endpoint) {
+		// The first endpoint in the order of visiting wins, as with FindBy and RequestUriMapper
+		endpointsById.putIfAbsent(endpoint.getId(), endpoint);
+
+		if (endpoint.getPath() == null) {
+			return;
+		}
+
+		endpointsByMethodAndPath.putIfAbsent(Arrays.asList(endpoint.getMethod(), normalizeUri(endpoint.getPath())), endpoint);
+
+		if (endpoint.getMethod() != null) {
+			try {
+				Pattern pattern = Pattern.compile(endpoint.getPathAsRegex());
+				patternsByMethod.computeIfAbsent(endpoint.getMethod(), m -> new ArrayList<>()).add(new PathPattern(pattern, endpoint));
+			} catch (PatternSyntaxException e) {
+				LOGGER.warn("Cannot use the path {} of endpoint {} for mapping requests!", endpoint.getPath(), endpoint.getId());
+				LOGGER.warn("Exception:", e);
+			}
+		}
+	}
+
+	/**
+	 * Gets the endpoint with the specified id.
+	 *
+	 * @param id
+	 *            The id.
+	 * @return The endpoint or {@code null} if there is no such endpoint.
+	 */
+	HttpEndpoint getById(String id) {
+		return endpointsById.get(id);
+	}
+
+	/**
+	 * Maps the specified URI to an endpoint. First, the URI is tested for exact similarity. If there
+	 * is no exact match, wildcards are respected.
+	 *
+	 * @param uri
+	 *            The URI to be mapped.
+	 * @param method
+	 *            The request method.
+	 * @return The endpoint or {@code null} if there is no such endpoint.
+	 * @see RequestUriMapper#map(String, String)
+	 */
+	HttpEndpoint map(String uri, String method) {
+		String normalizedUri = normalizeUri(uri);
+		HttpEndpoint exactlyMapped = endpointsByMethodAndPath.get(Arrays.asList(method, normalizedUri));
+
+		if (exactlyMapped != null) {
+			return exactlyMapped;
+		}
+
+		List<PathPattern> patterns = method == null ? null : patternsByMethod.get(method);
+
+		if (patterns != null) {
+			for (PathPattern pattern : patterns) {
+				if (pattern.pattern.matcher(normalizedUri).matches()) {
+					return pattern.endpoint;
+				}
+			}
+		}
+
+		return null;
+	}
+
+	private String normalizeUri(String uri) {
+		if (!uri.startsWith("/")) {
+			uri = "/" + uri;
+		}
+
+		if (!uri.endsWith("/")) {
+			uri = uri + "/";
+		}
+
+		return uri;
+	}
+
+	private static class PathPattern {
+
+		private final Pattern pattern;
+
+		private final HttpEndpoint endpoint;
+
+		private PathPattern(Pattern pattern, HttpEndpoint endpoint) {
+			this.pattern = pattern;
+			this.endpoint = endpoint;
+		}
+
+	}
+
+}
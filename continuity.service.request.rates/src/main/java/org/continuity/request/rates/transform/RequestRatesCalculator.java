@@ -25,7 +25,7 @@ public abstract class RequestRatesCalculator {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(RequestRatesCalculator.class);
 
-	private static final String UNKNOWN_ENDPOINT = "UNKNOWN";
+	static final String UNKNOWN_ENDPOINT = "UNKNOWN";
 
 	protected abstract HttpEndpoint mapToEndpoint(RequestRecord record);
 
@@ -55,15 +55,15 @@ public abstract class RequestRatesCalculator {
 		return model;
 	}
 
-	private double getOverallNumberOfRequests(List<RequestFrequency> absoluteMix) {
+	static double getOverallNumberOfRequests(List<RequestFrequency> absoluteMix) {
 		return absoluteMix.stream().map(RequestFrequency::getFreq).reduce(Double::sum).get();
 	}
 
-	private void relativizeMix(List<RequestFrequency> absoluteMix, double overallNumRequests) {
+	static void relativizeMix(List<RequestFrequency> absoluteMix, double overallNumRequests) {
 		absoluteMix.forEach(freq -> freq.setFreq(freq.getFreq() / overallNumRequests));
 	}
 
-	private void checkMix(List<RequestFrequency> mix) {
+	static void checkMix(List<RequestFrequency> mix) {
 		double sum = mix.stream().map(RequestFrequency::getFreq).reduce(Double::sum).get();
 
 		if (Math.abs(sum - 1.0) > 0.0001) {
@@ -87,7 +87,14 @@ public abstract class RequestRatesCalculator {
 		Date startDate = records.get(0).getStartDate();
 		Date endDate = records.get(records.size() - 1).getStartDate();
 
-		return TimeUnit.MINUTES.convert(endDate.getTime() - startDate.getTime(), TimeUnit.MILLISECONDS);
+		return calculateDuration(startDate.getTime(), endDate.getTime());
+	}
+
+	/**
+	 * Calculates the duration in minutes between the start times of the first and the last request.
+	 */
+	static long calculateDuration(long firstStartTime, long lastStartTime) {
+		return TimeUnit.MINUTES.convert(lastStartTime - firstStartTime, TimeUnit.MILLISECONDS);
 	}
 
 	private List<RequestFrequency> calculateAbsoluteMixUsingApplication(List<RequestRecord> records) {
@@ -143,7 +150,14 @@ public abstract class RequestRatesCalculator {
 	}
 
 	private List<HttpParameter> extractHttpParameters(List<RequestRecord> records) {
-		return records.stream().map(RequestRecord::getHeaders).filter(Objects::nonNull).flatMap(List::stream).distinct().map(name -> {
+		return createHttpParameters(extractHeaders(records));
+	}
+
+	/**
+	 * Creates the parameters of an aggregated endpoint from the distinct headers of its requests.
+	 */
+	static List<HttpParameter> createHttpParameters(List<String> headers) {
+		return headers.stream().map(name -> {
 			HttpParameter param = new HttpParameter();
 
 			if (name.startsWith("BODY")) {
@@ -160,7 +174,7 @@ public abstract class RequestRatesCalculator {
 		}).collect(Collectors.toList());
 	}
 
-	private void setParameterIds(HttpEndpoint interf) {
+	static void setParameterIds(HttpEndpoint interf) {
 		final Set<String> ids = new HashSet<>();
 
 		for (HttpParameter param : interf.getParameters()) {
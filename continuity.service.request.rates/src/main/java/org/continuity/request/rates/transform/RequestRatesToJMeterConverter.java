@@ -1,14 +1,18 @@
 package org.continuity.request.rates.transform;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 import java.util.function.Consumer;
 
 import org.apache.jmeter.config.Arguments;
 import org.apache.jmeter.config.gui.ArgumentsPanel;
 import org.apache.jmeter.control.Controller;
+import org.apache.jmeter.control.InterleaveControl;
 import org.apache.jmeter.control.LoopController;
 import org.apache.jmeter.control.ThroughputController;
+import org.apache.jmeter.control.gui.RandomControlGui;
 import org.apache.jmeter.control.gui.TestPlanGui;
 import org.apache.jmeter.control.gui.ThroughputControllerGui;
 import org.apache.jmeter.protocol.http.control.CookieManager;
@@ -28,16 +32,56 @@ import org.apache.jmeter.timers.ConstantThroughputTimer;
 import org.apache.jmeter.visualizers.ViewResultsFullVisualizer;
 import org.apache.jorphan.collections.ListedHashTree;
 import org.continuity.api.entities.artifact.JMeterTestPlanBundle;
+import org.continuity.commons.jmeter.AliasMethodController;
 import org.continuity.idpa.application.HttpEndpoint;
 import org.continuity.request.rates.model.RequestFrequency;
 import org.continuity.request.rates.model.RequestRatesModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Converts {@link RequestRatesModel}s into JMeter test plans. Small request mixes are modeled as a
+ * chain of throughput controllers. For large mixes, an {@link AliasMethodController} is used, which
+ * selects the next request in constant time. As it is not part of JMeter, such test plans can only
+ * be executed if the ContinuITy commons library is on the classpath, as in the JMeter service.
+ *
+ * @author Henning Schulz
+ *
+ */
 public class RequestRatesToJMeterConverter {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(RequestRatesToJMeterConverter.class);
 
+	/**
+	 * The default minimum number of endpoints in the mix for using an
+	 * {@link AliasMethodController}. Each iteration through a chain of throughput controllers
+	 * evaluates half of the controllers on average, each updating counters shared by all threads,
+	 * so the selection cost grows linearly with the mix size.
+	 */
+	public static final int DEFAULT_ALIAS_METHOD_THRESHOLD = 50;
+
+	private final int aliasMethodThreshold;
+
+	/**
+	 * Creates a converter using an {@link AliasMethodController} for mixes of at least
+	 * {@link #DEFAULT_ALIAS_METHOD_THRESHOLD} endpoints.
+	 */
+	public RequestRatesToJMeterConverter() {
+		this(DEFAULT_ALIAS_METHOD_THRESHOLD);
+	}
+
+	/**
+	 * Creates a converter.
+	 *
+	 * @param aliasMethodThreshold
+	 *            The minimum number of endpoints in the mix for using an
+	 *            {@link AliasMethodController}. A non-positive number means the
+	 *            {@link AliasMethodController} is never used.
+	 */
+	public RequestRatesToJMeterConverter(int aliasMethodThreshold) {
+		this.aliasMethodThreshold = aliasMethodThreshold;
+	}
+
 	public JMeterTestPlanBundle convertToLoadTest(RequestRatesModel model) {
 		ListedHashTree testPlanTree = new ListedHashTree(createTestPlan());
 		ListedHashTree threadGroupTree = (ListedHashTree) testPlanTree.add(createThreadGroup(model.getRequestsPerMinute()));
@@ -46,7 +90,21 @@ public class RequestRatesToJMeterConverter {
 		threadGroupTree.add(createCookieManager());
 		threadGroupTree.add(createUserDefinedVariables());
 
-		for (RequestFrequency frequency : model.getMix()) {
+		if ((aliasMethodThreshold > 0) && (model.getMix().size() >= aliasMethodThreshold)) {
+			addAliasMethodController(threadGroupTree, model.getMix());
+		} else {
+			addThroughputControllers(threadGroupTree, model.getMix());
+		}
+
+		threadGroupTree.add(createTimer(model.getRequestsPerMinute()));
+
+		threadGroupTree.add(createViewResultsTree());
+
+		return new JMeterTestPlanBundle(testPlanTree, Collections.emptyMap());
+	}
+
+	private void addThroughputControllers(ListedHashTree threadGroupTree, List<RequestFrequency> mix) {
+		for (RequestFrequency frequency : mix) {
 			ListedHashTree throughputControllerTree = (ListedHashTree) threadGroupTree.add(createThroughputController(frequency));
 
 			if (frequency.getEndpoint() instanceof HttpEndpoint) {
@@ -55,12 +113,23 @@ public class RequestRatesToJMeterConverter {
 				LOGGER.error("Endpoint type {} of endpoint {} is not supported!", frequency.getEndpoint().getClass(), frequency.getEndpoint().getId());
 			}
 		}
+	}
 
-		threadGroupTree.add(createTimer(model.getRequestsPerMinute()));
+	private void addAliasMethodController(ListedHashTree threadGroupTree, List<RequestFrequency> mix) {
+		AliasMethodController controller = createAliasMethodController();
+		ListedHashTree controllerTree = (ListedHashTree) threadGroupTree.add(controller);
+		List<Double> weights = new ArrayList<>();
 
-		threadGroupTree.add(createViewResultsTree());
+		for (RequestFrequency frequency : mix) {
+			if (frequency.getEndpoint() instanceof HttpEndpoint) {
+				controllerTree.add(createHttpSampler((HttpEndpoint) frequency.getEndpoint()));
+				weights.add(frequency.getFreq());
+			} else {
+				LOGGER.error("Endpoint type {} of endpoint {} is not supported!", frequency.getEndpoint().getClass(), frequency.getEndpoint().getId());
+			}
+		}
 
-		return new JMeterTestPlanBundle(testPlanTree, Collections.emptyMap());
+		controller.setWeights(weights);
 	}
 
 	private TestPlan createTestPlan() {
@@ -130,6 +199,19 @@ public class RequestRatesToJMeterConverter {
 		return controller;
 	}
 
+	private AliasMethodController createAliasMethodController() {
+		AliasMethodController controller = new AliasMethodController();
+
+		controller.setName("Request Mix");
+		controller.setStyle(InterleaveControl.IGNORE_SUB_CONTROLLERS);
+		controller.setEnabled(true);
+
+		controller.setProperty(TestElement.TEST_CLASS, AliasMethodController.class.getName());
+		controller.setProperty(TestElement.GUI_CLASS, RandomControlGui.class.getName());
+
+		return controller;
+	}
+
 	private HTTPSamplerProxy createHttpSampler(HttpEndpoint endpoint) {
 		HTTPSamplerProxy sampler = new HTTPSamplerProxy();
 
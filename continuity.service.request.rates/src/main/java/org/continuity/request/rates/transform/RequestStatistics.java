@@ -0,0 +1,113 @@
+package org.continuity.request.rates.transform;
+
+/**
+ * Statistics of a series of requests, e.g., of all requests to one endpoint. Only holds primitive
+ * counters, i.e., the memory consumption does not depend on the number of requests. The requests
+ * can be added in any order.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class RequestStatistics {
+
+	private long count = 0;
+
+	private long firstStartTime = Long.MAX_VALUE;
+
+	private long lastStartTime = Long.MIN_VALUE;
+
+	private long lastEndTime = Long.MIN_VALUE;
+
+	private long sumOfResponseTimes = 0;
+
+	/**
+	 * Adds a request.
+	 *
+	 * @param startTime
+	 *            The start time of the request in milliseconds.
+	 * @param endTime
+	 *            The end time of the request in milliseconds.
+	 */
+	public void add(long startTime, long endTime) {
+		count++;
+		sumOfResponseTimes += endTime - startTime;
+
+		firstStartTime = Math.min(firstStartTime, startTime);
+
+		if ((startTime > lastStartTime) || ((startTime == lastStartTime) && (endTime > lastEndTime))) {
+			lastStartTime = startTime;
+			lastEndTime = endTime;
+		}
+	}
+
+	/**
+	 * Gets the number of requests.
+	 *
+	 * @return The number of requests.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Gets the start time of the first request.
+	 *
+	 * @return The start time in milliseconds or {@link Long#MAX_VALUE} if there are no requests.
+	 */
+	public long getFirstStartTime() {
+		return firstStartTime;
+	}
+
+	/**
+	 * Gets the start time of the last request.
+	 *
+	 * @return The start time in milliseconds or {@link Long#MIN_VALUE} if there are no requests.
+	 */
+	public long getLastStartTime() {
+		return lastStartTime;
+	}
+
+	/**
+	 * Gets the mean response time.
+	 *
+	 * @return The mean response time in milliseconds or {@link Double#NaN} if there are no
+	 *         requests.
+	 */
+	public double getMeanResponseTime() {
+		return count == 0 ? Double.NaN : (double) sumOfResponseTimes / count;
+	}
+
+	/**
+	 * Gets the mean time between the starts of two subsequent requests.
+	 *
+	 * @return The mean inter-arrival time in milliseconds or {@link Double#NaN} if there are less
+	 *         than two requests.
+	 */
+	public double getMeanInterArrivalTime() {
+		return count < 2 ? Double.NaN : (double) (lastStartTime - firstStartTime) / (count - 1);
+	}
+
+	/**
+	 * Gets the mean time between the end of a request and the start of the subsequent one. That
+	 * is, the mean inter-arrival time minus the mean response time of all requests but the last
+	 * one. Can be negative if the requests overlap.
+	 *
+	 * @return The mean think time in milliseconds or {@link Double#NaN} if there are less than two
+	 *         requests.
+	 */
+	public double getMeanThinkTime() {
+		if (count < 2) {
+			return Double.NaN;
+		}
+
+		long responseTimesBeforeLast = sumOfResponseTimes - (lastEndTime - lastStartTime);
+		return (double) ((lastStartTime - firstStartTime) - responseTimesBeforeLast) / (count - 1);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d requests, mean inter-arrival time %.2f ms, mean think time %.2f ms, mean response time %.2f ms", count, getMeanInterArrivalTime(), getMeanThinkTime(),
+				getMeanResponseTime());
+	}
+
+}
@@ -0,0 +1,330 @@
+package org.continuity.request.rates.transform;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.continuity.idpa.application.Application;
+import org.continuity.idpa.application.HttpEndpoint;
+import org.continuity.request.rates.entities.RequestRecord;
+import org.continuity.request.rates.model.RequestFrequency;
+import org.continuity.request.rates.model.RequestRatesModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Calculates a {@link RequestRatesModel} from requests that are passed chunk by chunk, e.g., while
+ * the traces are still being retrieved. In contrast to the {@link RequestRatesCalculator}s, the
+ * requests are not collected. Instead, each request is mapped to an endpoint using an
+ * {@link EndpointIndex}, which is built once, and is only counted per endpoint. Hence, the memory
+ * consumption depends on the number of distinct endpoints, but not on the number of requests. <br>
+ * The calculated model is the same as the one of the {@link SimpleRequestRatesCalculator} or the
+ * {@link ModularizingRequestRatesCalculator}, respectively. In addition, {@link RequestStatistics}
+ * are provided per endpoint.
+ *
+ * @author Henning Schulz
+ *
+ */
+public class StreamingRequestRatesCalculator {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(StreamingRequestRatesCalculator.class);
+
+	private static final List<Function<RequestRecord, String>> AGGREGATED_FIELDS = Arrays.asList(RequestRecord::getDomain, RequestRecord::getPort, RequestRecord::getPath,
+			RequestRecord::getMethod, RequestRecord::getProtocol, RequestRecord::getEncoding);
+
+	private final List<EndpointIndex> indices;
+
+	private final boolean checkHost;
+
+	private final Map<String, EndpointAggregate> aggregates = new HashMap<>();
+
+	private final RequestStatistics overallStatistics = new RequestStatistics();
+
+	private long numUnmappedRequests = 0;
+
+	/**
+	 * Creates a calculator that groups the requests by their names, as there is no application
+	 * model.
+	 */
+	public StreamingRequestRatesCalculator() {
+		this((Application) null);
+	}
+
+	/**
+	 * Creates a calculator that labels the requests according to the application model. Behaves
+	 * like the {@link SimpleRequestRatesCalculator}.
+	 *
+	 * @param application
+	 *            The application model. If {@code null}, the requests are grouped by their names.
+	 */
+	public StreamingRequestRatesCalculator(Application application) {
+		this.indices = application == null ? Collections.emptyList() : Collections.singletonList(new EndpointIndex(application));
+		this.checkHost = false;
+	}
+
+	/**
+	 * Creates a calculator that labels the requests according to the service application models.
+	 * Behaves like the {@link ModularizingRequestRatesCalculator}.
+	 *
+	 * @param applications
+	 *            The service application models. If {@code null} or empty, the requests are
+	 *            grouped by their names.
+	 */
+	public StreamingRequestRatesCalculator(Collection<Application> applications) {
+		this.indices = applications == null ? Collections.emptyList() : applications.stream().map(EndpointIndex::new).collect(Collectors.toList());
+		this.checkHost = true;
+	}
+
+	/**
+	 * Adds a request.
+	 *
+	 * @param record
+	 *            The request.
+	 */
+	public void add(RequestRecord record) {
+		RecordPosition position = new RecordPosition(record.getStartDate().getTime(), record.getEndDate().getTime(), overallStatistics.getCount(), 0);
+		overallStatistics.add(position.startTime, position.endTime);
+
+		if (useNames()) {
+			String name = record.getName() == null ? RequestRatesCalculator.UNKNOWN_ENDPOINT : record.getName();
+			aggregates.computeIfAbsent(name, EndpointAggregate::new).addNamed(record, position);
+		} else {
+			HttpEndpoint endpoint = mapToEndpoint(record);
+
+			if (endpoint == null) {
+				numUnmappedRequests++;
+			} else {
+				aggregates.computeIfAbsent(endpoint.getId(), EndpointAggregate::new).addMapped(endpoint, position);
+			}
+		}
+	}
+
+	/**
+	 * Adds a chunk of requests.
+	 *
+	 * @param records
+	 *            The requests.
+	 */
+	public void addAll(Iterable<RequestRecord> records) {
+		for (RequestRecord record : records) {
+			add(record);
+		}
+	}
+
+	/**
+	 * Calculates the request rates model from the requests added so far.
+	 *
+	 * @return The request rates model. The mix is empty if no request could be mapped to an
+	 *         endpoint.
+	 */
+	public RequestRatesModel calculate() {
+		RequestRatesModel model = new RequestRatesModel();
+		List<RequestFrequency> mix = aggregates.values().stream().map(EndpointAggregate::toRequestFrequency).collect(Collectors.toList());
+
+		if (mix.isEmpty()) {
+			LOGGER.warn("Cannot calculate the request rates, as there are no requests of known endpoints! There have been {} requests in total.", overallStatistics.getCount());
+			model.setMix(mix);
+			return model;
+		}
+
+		double overallNumRequests = RequestRatesCalculator.getOverallNumberOfRequests(mix);
+		RequestRatesCalculator.relativizeMix(mix, overallNumRequests);
+
+		model.setRequestsPerMinute(overallNumRequests / RequestRatesCalculator.calculateDuration(overallStatistics.getFirstStartTime(), overallStatistics.getLastStartTime()));
+		model.setMix(mix);
+
+		RequestRatesCalculator.checkMix(mix);
+
+		return model;
+	}
+
+	/**
+	 * Gets the statistics of the requests per endpoint.
+	 *
+	 * @return The statistics per endpoint id.
+	 */
+	public Map<String, RequestStatistics> getStatistics() {
+		return aggregates.entrySet().stream().collect(Collectors.toMap(Entry::getKey, e -> e.getValue().statistics));
+	}
+
+	/**
+	 * Gets the statistics of all added requests, including the ones that could not be mapped to an
+	 * endpoint.
+	 *
+	 * @return The overall statistics.
+	 */
+	public RequestStatistics getOverallStatistics() {
+		return overallStatistics;
+	}
+
+	/**
+	 * Gets the number of requests that could not be mapped to an endpoint and have been ignored.
+	 *
+	 * @return The number of unmapped requests.
+	 */
+	public long getNumberOfUnmappedRequests() {
+		return numUnmappedRequests;
+	}
+
+	public boolean useNames() {
+		return indices.isEmpty();
+	}
+
+	private HttpEndpoint mapToEndpoint(RequestRecord record) {
+		HttpEndpoint endpoint = null;
+
+		if (record.getName() != null) {
+			for (EndpointIndex index : indices) {
+				endpoint = index.getById(record.getName());
+			}
+		}
+
+		if ((endpoint == null) && (record.getPath() != null)) {
+			for (EndpointIndex index : indices) {
+				HttpEndpoint found = index.map(record.getPath(), record.getMethod());
+
+				if ((found != null) && (!checkHost || (found.getDomain().equals(record.getDomain()) && found.getPort().equals(record.getPort())))) {
+					endpoint = found;
+				}
+			}
+		}
+
+		return endpoint;
+	}
+
+	/**
+	 * The position of a request (or one of its headers) if all requests were sorted by start and
+	 * end time, as done by the {@link RequestRatesCalculator}. Requests with equal times are
+	 * ordered by their arrival.
+	 */
+	private static class RecordPosition implements Comparable<RecordPosition> {
+
+		private final long startTime;
+
+		private final long endTime;
+
+		private final long sequenceNumber;
+
+		private final int index;
+
+		private RecordPosition(long startTime, long endTime, long sequenceNumber, int index) {
+			this.startTime = startTime;
+			this.endTime = endTime;
+			this.sequenceNumber = sequenceNumber;
+			this.index = index;
+		}
+
+		private RecordPosition withIndex(int index) {
+			return new RecordPosition(startTime, endTime, sequenceNumber, index);
+		}
+
+		@Override
+		public int compareTo(RecordPosition other) {
+			int comparison = Long.compare(startTime, other.startTime);
+
+			if (comparison == 0) {
+				comparison = Long.compare(endTime, other.endTime);
+			}
+
+			if (comparison == 0) {
+				comparison = Long.compare(sequenceNumber, other.sequenceNumber);
+			}
+
+			if (comparison == 0) {
+				comparison = Integer.compare(index, other.index);
+			}
+
+			return comparison;
+		}
+
+	}
+
+	/**
+	 * Aggregates the requests of one endpoint. Only the information of the earliest requests is
+	 * kept, which the {@link RequestRatesCalculator} would use after sorting.
+	 */
+	private static class EndpointAggregate {
+
+		private final String id;
+
+		private final RequestStatistics statistics = new RequestStatistics();
+
+		private HttpEndpoint endpoint;
+
+		private RecordPosition endpointPosition;
+
+		private final String[] fieldValues = new String[AGGREGATED_FIELDS.size()];
+
+		private final RecordPosition[] fieldPositions = new RecordPosition[AGGREGATED_FIELDS.size()];
+
+		private final Map<String, RecordPosition> headerPositions = new HashMap<>();
+
+		private EndpointAggregate(String id) {
+			this.id = id;
+		}
+
+		private void addMapped(HttpEndpoint endpoint, RecordPosition position) {
+			statistics.add(position.startTime, position.endTime);
+
+			if ((endpointPosition == null) || (position.compareTo(endpointPosition) < 0)) {
+				this.endpoint = endpoint;
+				this.endpointPosition = position;
+			}
+		}
+
+		private void addNamed(RequestRecord record, RecordPosition position) {
+			statistics.add(position.startTime, position.endTime);
+
+			for (int i = 0; i < fieldValues.length; i++) {
+				String value = AGGREGATED_FIELDS.get(i).apply(record);
+
+				if ((value != null) && ((fieldPositions[i] == null) || (position.compareTo(fieldPositions[i]) < 0))) {
+					fieldValues[i] = value;
+					fieldPositions[i] = position;
+				}
+			}
+
+			if (record.getHeaders() != null) {
+				int i = 0;
+
+				for (String header : record.getHeaders()) {
+					RecordPosition headerPosition = position.withIndex(i++);
+					headerPositions.merge(header, headerPosition, (a, b) -> a.compareTo(b) <= 0 ? a : b);
+				}
+			}
+		}
+
+		private RequestFrequency toRequestFrequency() {
+			return new RequestFrequency(statistics.getCount(), endpoint != null ? endpoint : aggregateRequests());
+		}
+
+		private HttpEndpoint aggregateRequests() {
+			HttpEndpoint endpoint = new HttpEndpoint();
+
+			endpoint.setId(id);
+			endpoint.setDomain(fieldValues[0]);
+			endpoint.setPort(fieldValues[1]);
+			endpoint.setPath(fieldValues[2]);
+			endpoint.setMethod(fieldValues[3]);
+			endpoint.setProtocol(fieldValues[4]);
+			endpoint.setEncoding(fieldValues[5]);
+
+			List<String> headers = headerPositions.entrySet().stream().sorted(Entry.comparingByValue()).map(Entry::getKey).collect(Collectors.toList());
+			endpoint.setHeaders(headers);
+
+			endpoint.setParameters(RequestRatesCalculator.createHttpParameters(headers));
+			RequestRatesCalculator.setParameterIds(endpoint);
+
+			return endpoint;
+		}
+
+	}
+
+}
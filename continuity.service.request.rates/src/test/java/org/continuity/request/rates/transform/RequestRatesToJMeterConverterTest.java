@@ -0,0 +1,87 @@
+package org.continuity.request.rates.transform;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jmeter.control.ThroughputController;
+import org.apache.jmeter.protocol.http.sampler.HTTPSamplerProxy;
+import org.apache.jmeter.util.JMeterUtils;
+import org.apache.jorphan.collections.ListedHashTree;
+import org.apache.jorphan.collections.SearchByClass;
+import org.continuity.commons.jmeter.AliasMethodController;
+import org.continuity.idpa.application.HttpEndpoint;
+import org.continuity.request.rates.model.RequestFrequency;
+import org.continuity.request.rates.model.RequestRatesModel;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class RequestRatesToJMeterConverterTest {
+
+	@BeforeClass
+	public static void initJMeter() {
+		JMeterUtils.setJMeterHome("..");
+		JMeterUtils.loadJMeterProperties("../bin/jmeter.properties");
+		JMeterUtils.initLocale();
+	}
+
+	@Test
+	public void testLargeMixUsesAliasMethodController() {
+		int size = RequestRatesToJMeterConverter.DEFAULT_ALIAS_METHOD_THRESHOLD;
+		ListedHashTree testPlan = new RequestRatesToJMeterConverter().convertToLoadTest(createModel(size)).getTestPlan();
+
+		List<AliasMethodController> controllers = search(testPlan, AliasMethodController.class);
+
+		assertThat(controllers).hasSize(1);
+		assertThat(controllers.get(0).getWeights()).hasSize(size);
+		assertThat(search(testPlan, ThroughputController.class)).isEmpty();
+		assertThat(search(testPlan, HTTPSamplerProxy.class)).hasSize(size);
+	}
+
+	@Test
+	public void testSmallMixUsesThroughputControllers() {
+		int size = RequestRatesToJMeterConverter.DEFAULT_ALIAS_METHOD_THRESHOLD - 1;
+		ListedHashTree testPlan = new RequestRatesToJMeterConverter().convertToLoadTest(createModel(size)).getTestPlan();
+
+		assertThat(search(testPlan, AliasMethodController.class)).isEmpty();
+		assertThat(search(testPlan, ThroughputController.class)).hasSize(size);
+		assertThat(search(testPlan, HTTPSamplerProxy.class)).hasSize(size);
+	}
+
+	@Test
+	public void testNonPositiveThresholdDisablesAliasMethodController() {
+		int size = RequestRatesToJMeterConverter.DEFAULT_ALIAS_METHOD_THRESHOLD * 2;
+		ListedHashTree testPlan = new RequestRatesToJMeterConverter(0).convertToLoadTest(createModel(size)).getTestPlan();
+
+		assertThat(search(testPlan, AliasMethodController.class)).isEmpty();
+		assertThat(search(testPlan, ThroughputController.class)).hasSize(size);
+	}
+
+	private <T> List<T> search(ListedHashTree testPlan, Class<T> type) {
+		SearchByClass<T> search = new SearchByClass<>(type);
+		testPlan.traverse(search);
+		return new ArrayList<>(search.getSearchResults());
+	}
+
+	private RequestRatesModel createModel(int size) {
+		List<RequestFrequency> mix = new ArrayList<>();
+
+		for (int i = 0; i < size; i++) {
+			HttpEndpoint endpoint = new HttpEndpoint();
+			endpoint.setId("endpoint" + i);
+			endpoint.setDomain("localhost");
+			endpoint.setPort("8080");
+			endpoint.setMethod("GET");
+			endpoint.setPath("/path/" + i);
+
+			mix.add(new RequestFrequency(1.0 / size, endpoint));
+		}
+
+		RequestRatesModel model = new RequestRatesModel();
+		model.setRequestsPerMinute(600);
+		model.setMix(mix);
+		return model;
+	}
+
+}
@@ -0,0 +1,214 @@
+package org.continuity.request.rates.transform;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.continuity.idpa.application.Application;
+import org.continuity.idpa.application.HttpEndpoint;
+import org.continuity.request.rates.entities.RequestRecord;
+import org.continuity.request.rates.model.RequestFrequency;
+import org.continuity.request.rates.model.RequestRatesModel;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+
+public class StreamingRequestRatesCalculatorTest {
+
+	private static final int NUM_RECORDS = 20000;
+
+	private static final List<String> HEADERS = Arrays.asList("Accept: application/json", "Content-Type: application/json", "URL_PARTid", "URL_PARTuser", "user", "user", "page");
+
+	private final ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
+
+	@Test
+	public void testSameModelAsSimpleCalculator() throws JsonProcessingException {
+		Application application = createApplication();
+
+		StreamingRequestRatesCalculator streaming = new StreamingRequestRatesCalculator(application);
+		addInChunks(streaming, createRecords(42, true));
+		RequestRatesModel expected = new SimpleRequestRatesCalculator(application).calculate(createRecords(42, true));
+
+		assertSameModel(streaming.calculate(), expected);
+		assertThat(streaming.getNumberOfUnmappedRequests()).isPositive();
+	}
+
+	@Test
+	public void testSameModelAsModularizingCalculator() throws JsonProcessingException {
+		List<Application> applications = Arrays.asList(createApplication(), createServiceApplication());
+
+		StreamingRequestRatesCalculator streaming = new StreamingRequestRatesCalculator(applications);
+		addInChunks(streaming, createRecords(43, false));
+		RequestRatesModel expected = new ModularizingRequestRatesCalculator(applications).calculate(createRecords(43, false));
+
+		assertSameModel(streaming.calculate(), expected);
+		assertThat(streaming.getNumberOfUnmappedRequests()).isPositive();
+	}
+
+	@Test
+	public void testSameModelWithoutApplication() throws JsonProcessingException {
+		StreamingRequestRatesCalculator streaming = new StreamingRequestRatesCalculator();
+		addInChunks(streaming, createRecords(44, true));
+		RequestRatesModel expected = new SimpleRequestRatesCalculator().calculate(createRecords(44, true));
+
+		assertThat(streaming.useNames()).isTrue();
+		assertSameModel(streaming.calculate(), expected);
+		assertThat(streaming.getNumberOfUnmappedRequests()).isZero();
+	}
+
+	@Test
+	public void testStatistics() {
+		StreamingRequestRatesCalculator calculator = new StreamingRequestRatesCalculator();
+
+		// added out of order
+		calculator.add(createRecord("a", 3000, 3050));
+		calculator.add(createRecord("a", 0, 100));
+		calculator.add(createRecord("b", 500, 600));
+		calculator.add(createRecord("a", 1000, 1200));
+
+		RequestStatistics statistics = calculator.getStatistics().get("a");
+		assertThat(statistics.getCount()).isEqualTo(3);
+		assertThat(statistics.getMeanInterArrivalTime()).isCloseTo(1500, within(0.0001));
+		assertThat(statistics.getMeanThinkTime()).isCloseTo(1350, within(0.0001));
+		assertThat(statistics.getMeanResponseTime()).isCloseTo(350.0 / 3, within(0.0001));
+
+		assertThat(calculator.getStatistics().get("b").getCount()).isEqualTo(1);
+		assertThat(calculator.getStatistics().get("b").getMeanInterArrivalTime()).isNaN();
+
+		assertThat(calculator.getOverallStatistics().getCount()).isEqualTo(4);
+		assertThat(calculator.getOverallStatistics().getMeanInterArrivalTime()).isCloseTo(1000, within(0.0001));
+	}
+
+	@Test
+	public void testEmpty() {
+		StreamingRequestRatesCalculator calculator = new StreamingRequestRatesCalculator(createApplication());
+		calculator.add(createRecord(null, 0, 100));
+
+		assertThat(calculator.calculate().getMix()).isEmpty();
+	}
+
+	private void assertSameModel(RequestRatesModel actual, RequestRatesModel expected) throws JsonProcessingException {
+		assertThat(actual.getRequestsPerMinute()).isEqualTo(expected.getRequestsPerMinute());
+		assertThat(actual.getMix()).hasSameSizeAs(expected.getMix());
+
+		Map<String, RequestFrequency> actualMix = actual.getMix().stream().collect(Collectors.toMap(f -> f.getEndpoint().getId(), Function.identity()));
+
+		for (RequestFrequency expectedFrequency : expected.getMix()) {
+			RequestFrequency actualFrequency = actualMix.get(expectedFrequency.getEndpoint().getId());
+
+			assertThat(actualFrequency).as(expectedFrequency.getEndpoint().getId()).isNotNull();
+			assertThat(mapper.writeValueAsString(actualFrequency)).isEqualTo(mapper.writeValueAsString(expectedFrequency));
+		}
+	}
+
+	private void addInChunks(StreamingRequestRatesCalculator calculator, List<RequestRecord> records) {
+		for (int i = 0; i < records.size(); i += 1000) {
+			calculator.addAll(records.subList(i, Math.min(i + 1000, records.size())));
+		}
+	}
+
+	private List<RequestRecord> createRecords(long seed, boolean allowNullMethod) {
+		Random random = new Random(seed);
+		List<RequestRecord> records = new ArrayList<>();
+
+		List<String> names = Arrays.asList("login", "order", "dup", "nonexistent");
+		List<String> paths = Arrays.asList("/items/123", "items/5/", "/items", "/items/special", "/files/a/b/c", "/orders", "/login", "/unknown", "/dup/b");
+		List<String> domains = Arrays.asList("shop", "shop", "orders");
+		List<String> ports = Arrays.asList("8080", "8080", "9090");
+
+		for (int i = 0; i < NUM_RECORDS; i++) {
+			RequestRecord record = new RequestRecord();
+
+			if (random.nextInt(5) == 0) {
+				record.setName(names.get(random.nextInt(names.size())));
+			}
+
+			if (allowNullMethod && (random.nextInt(20) == 0)) {
+				record.setPath("/health");
+			} else {
+				record.setPath(paths.get(random.nextInt(paths.size())));
+				record.setMethod(random.nextInt(4) == 0 ? "POST" : "GET");
+			}
+
+			int host = random.nextInt(domains.size());
+			record.setDomain(domains.get(host));
+			record.setPort(random.nextInt(10) == 0 ? null : ports.get(host));
+
+			if (random.nextBoolean()) {
+				record.setProtocol("HTTP");
+			}
+
+			if (random.nextInt(3) > 0) {
+				List<String> headers = new ArrayList<>(HEADERS);
+				Collections.shuffle(headers, random);
+				record.setHeaders(headers.subList(0, random.nextInt(headers.size())));
+			}
+
+			// seconds to get many requests with equal start times
+			long start = random.nextInt(7200) * 1000L;
+			record.setStartDate(new Date(start));
+			record.setEndDate(new Date(start + (random.nextInt(3) * 100)));
+
+			records.add(record);
+		}
+
+		return records;
+	}
+
+	private RequestRecord createRecord(String name, long start, long end) {
+		RequestRecord record = new RequestRecord();
+		record.setName(name);
+		record.setStartDate(new Date(start));
+		record.setEndDate(new Date(end));
+		return record;
+	}
+
+	private Application createApplication() {
+		Application application = new Application();
+		application.setId("shop");
+
+		application.addEndpoint(createEndpoint("login", "shop", "8080", "POST", "/login"));
+		application.addEndpoint(createEndpoint("getItem", "shop", "8080", "GET", "/items/{id}"));
+		application.addEndpoint(createEndpoint("listItems", "shop", "8080", "GET", "/items"));
+		application.addEndpoint(createEndpoint("specialItem", "shop", "8080", "GET", "/items/special"));
+		application.addEndpoint(createEndpoint("dup", "shop", "8080", "GET", "/dup/a"));
+		application.addEndpoint(createEndpoint("dup", "shop", "8080", "GET", "/dup/b"));
+		application.addEndpoint(createEndpoint("getFile", "shop", "8080", "GET", "/files/{path:*}"));
+		application.addEndpoint(createEndpoint("health", "shop", "8080", null, "/health"));
+
+		return application;
+	}
+
+	private Application createServiceApplication() {
+		Application application = new Application();
+		application.setId("orders");
+
+		application.addEndpoint(createEndpoint("order", "orders", "9090", "POST", "/orders"));
+		application.addEndpoint(createEndpoint("getOrders", "orders", "9090", "GET", "/orders"));
+		application.addEndpoint(createEndpoint("getOrderItem", "orders", "9090", "GET", "/items/{id}"));
+
+		return application;
+	}
+
+	private HttpEndpoint createEndpoint(String id, String domain, String port, String method, String path) {
+		HttpEndpoint endpoint = new HttpEndpoint();
+		endpoint.setId(id);
+		endpoint.setDomain(domain);
+		endpoint.setPort(port);
+		endpoint.setMethod(method);
+		endpoint.setPath(path);
+		return endpoint;
+	}
+
+}